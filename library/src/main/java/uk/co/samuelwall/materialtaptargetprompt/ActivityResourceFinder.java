@@ -38,6 +38,7 @@ import android.view.ViewGroup;
 public class ActivityResourceFinder implements ResourceFinder
 {
     @NonNull private final Activity mActivity;
+    @NonNull private final ViewIdResolver mViewIdResolver = new ViewIdResolver();
 
     public ActivityResourceFinder(@NonNull final Activity activity)
     {
@@ -48,7 +49,31 @@ public class ActivityResourceFinder implements ResourceFinder
     @Override
     public View findViewById(@IdRes int resId)
     {
-        return mActivity.findViewById(resId);
+        return mViewIdResolver.findViewById(getRootView(), resId);
+    }
+
+    @Override
+    public void findViewsById(@NonNull @IdRes int[] resIds, @NonNull View[] outViews)
+    {
+        mViewIdResolver.findViewsById(getRootView(), resIds, outViews);
+    }
+
+    @NonNull
+    @Override
+    public View getSearchRootView()
+    {
+        return getRootView();
+    }
+
+    /**
+     * Get the view that {@link #findViewById(int)} searches in.
+     *
+     * @return The activity window decor view.
+     */
+    @NonNull
+    protected View getRootView()
+    {
+        return mActivity.getWindow().getDecorView();
     }
 
     @NonNull
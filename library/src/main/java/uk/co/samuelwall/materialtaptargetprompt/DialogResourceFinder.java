@@ -18,9 +18,7 @@ package uk.co.samuelwall.materialtaptargetprompt;
 
 import android.app.Dialog;
 import android.content.Context;
-import androidx.annotation.IdRes;
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -37,11 +35,12 @@ public class DialogResourceFinder extends ActivityResourceFinder
         mDialog = dialog;
     }
 
-    @Nullable
+    @NonNull
     @Override
-    public View findViewById(@IdRes int resId)
+    protected View getRootView()
     {
-        return mDialog.findViewById(resId);
+        //noinspection ConstantConditions
+        return mDialog.getWindow().getDecorView();
     }
 
     @NonNull
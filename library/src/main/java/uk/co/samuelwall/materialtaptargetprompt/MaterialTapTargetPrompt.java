@@ -22,19 +22,25 @@ import android.app.Activity;
 import android.app.Dialog;
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.graphics.Path;
+import android.graphics.PixelFormat;
 import android.graphics.Point;
-import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Region;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
 import android.view.ViewTreeObserver;
 import android.view.accessibility.AccessibilityEvent;
 import android.view.accessibility.AccessibilityManager;
@@ -45,7 +51,17 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.fragment.app.DialogFragment;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptHost;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptText;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptTextBlock;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptUtils;
 
 /**
  * A Material Design tap target onboarding implementation.
@@ -75,6 +91,11 @@ public class MaterialTapTargetPrompt
 
     /**
      * The prompt target has been pressed in the focal area.
+     * When the touch is captured this is emitted once the touch is released, a touch that
+     * moves further than the touch slop is a drag and isn't a press. A touch that isn't captured
+     * is passed on to the views under the prompt, so this is emitted when the touch starts.
+     *
+     * @see PromptOptions#setCaptureTouchEventOnFocal(boolean)
      */
     public static final int STATE_FOCAL_PRESSED = 3;
 
@@ -101,6 +122,8 @@ public class MaterialTapTargetPrompt
 
     /**
      * The prompt has been pressed outside the focal area.
+     * Like {@link #STATE_FOCAL_PRESSED} a captured touch is only a press once it is released
+     * without being dragged.
      */
     public static final int STATE_NON_FOCAL_PRESSED = 8;
 
@@ -114,11 +137,26 @@ public class MaterialTapTargetPrompt
      */
     public static final int STATE_BACK_BUTTON_PRESSED = 10;
 
+    /**
+     * The key used by {@link #saveState(Bundle)} to save whether the prompt is showing.
+     */
+    static final String STATE_KEY_SHOWING = "uk.co.samuelwall.materialtaptargetprompt.showing";
+
     /**
      * The view that renders the prompt.
      */
     PromptView mView;
 
+    /**
+     * The options used to create the prompt.
+     */
+    @NonNull final PromptOptions mPromptOptions;
+
+    /**
+     * Listener for the prompt view being touched.
+     */
+    @NonNull final PromptView.PromptTouchedListener mPromptTouchedListener;
+
     /**
      * Used to calculate the animation progress for the reveal and dismiss animations.
      */
@@ -141,6 +179,12 @@ public class MaterialTapTargetPrompt
      */
     float mFocalRippleProgress;
 
+    /**
+     * The index of the focal that was last pressed, copied from the view so that it can still be
+     * read once the view has been passed on to another prompt.
+     */
+    int mPressedFocalIndex = -1;
+
     /**
      * The prompt's current state.
      */
@@ -160,11 +204,108 @@ public class MaterialTapTargetPrompt
         dismiss();
     };
 
+    /**
+     * The delay between idle animations in milliseconds with the low end rendering profile.
+     */
+    static final long LOW_END_IDLE_ANIMATION_DELAY = 2000;
+
+    /**
+     * Task used for restarting the idle animation with the low end rendering profile.
+     */
+    final Runnable mIdleAnimationRunnable = () -> {
+        if (mAnimationFocalBreathing != null)
+        {
+            mAnimationFocalBreathing.start();
+        }
+    };
+
+    /**
+     * Reused for the area invalidated by the idle animation with the low end rendering profile.
+     */
+    final Rect mIdleInvalidateBounds = new Rect();
+
+    /**
+     * The view state snapshot that the prompt elements were last prepared from.
+     */
+    @Nullable PromptGeometry.Input mGeometryInput;
+
+    /**
+     * Reused for the prompt view window position so that a layout pass does not allocate.
+     */
+    final int[] mViewPosition = new int[2];
+
+    /**
+     * Reused for the target view window position so that a layout pass does not allocate.
+     */
+    final int[] mTargetPosition = new int[2];
+
+    /**
+     * Reused for the clip view global offset so that a layout pass does not allocate.
+     */
+    final Point mClipOffset = new Point();
+
     /**
      * Listener for the view layout changing.
      */
     @Nullable final ViewTreeObserver.OnGlobalLayoutListener mGlobalLayoutListener;
 
+    /**
+     * Listener waiting for the target to be laid out before showing the prompt, null when
+     * {@link #showWhenReady(long)} is not waiting.
+     */
+    @Nullable ViewTreeObserver.OnGlobalLayoutListener mShowWhenReadyListener;
+
+    /**
+     * Listener that stops waiting for the target layout when the parent view is detached from
+     * its window, null when {@link #showWhenReady(long)} is not waiting.
+     */
+    @Nullable View.OnAttachStateChangeListener mShowWhenReadyAttachListener;
+
+    /**
+     * Task used for showing the prompt when the target has not been laid out in time.
+     */
+    final Runnable mShowWhenReadyTimeoutRunnable = () -> {
+        cancelShowWhenReady();
+        // Don't show the prompt in a parent that isn't in a window, it could have been destroyed
+        if (isAttachedToWindow(mPromptOptions.getResourceFinder().getPromptParentView()))
+        {
+            showReady();
+        }
+    };
+
+    /**
+     * Should the prompt waited for by {@link #showWhenReady(long)} or
+     * {@link #showRevealedWhenReady(long)} be shown without the reveal animation.
+     */
+    boolean mShowWhenReadyRevealed;
+
+    /**
+     * Handler used for the show when ready timeout, the parent view run queue isn't used as it
+     * is not run until the parent is attached.
+     */
+    final Handler mShowWhenReadyHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * The life-cycle that the prompt is bound to, null when not bound.
+     */
+    @Nullable Lifecycle mLifecycle;
+
+    /**
+     * Pauses the prompt animations when the life-cycle owner is stopped and releases the prompt
+     * when it is destroyed.
+     */
+    final LifecycleEventObserver mLifecycleObserver = (source, event) -> onLifecycleEvent(event);
+
+    /**
+     * Were the idle animations running when the animations were paused.
+     */
+    boolean mIdleAnimationsPaused;
+
+    /**
+     * The coordinator that showed the prompt, null if not shown by a coordinator.
+     */
+    @Nullable PromptCoordinator mCoordinator;
+
     /**
      * Default constructor.
      *
@@ -173,19 +314,17 @@ public class MaterialTapTargetPrompt
     MaterialTapTargetPrompt(final PromptOptions promptOptions)
     {
         final ResourceFinder resourceFinder = promptOptions.getResourceFinder();
-        mView = new PromptView(resourceFinder.getContext());
-        mView.mPrompt = this;
-        mView.mPromptOptions = promptOptions;
-        mView.setContentDescription(promptOptions.getContentDescription());
-        mView.mPromptTouchedListener = new PromptView.PromptTouchedListener()
+        mPromptOptions = promptOptions;
+        mPromptTouchedListener = new PromptView.PromptTouchedListener()
         {
             @Override
             public void onFocalPressed()
             {
+                mPressedFocalIndex = mView.mPressedFocalIndex;
                 if (!isDismissing())
                 {
                     onPromptStateChanged(STATE_FOCAL_PRESSED);
-                    if (mView.mPromptOptions.getAutoFinish())
+                    if (mPromptOptions.getAutoFinish())
                     {
                         finish();
                     }
@@ -195,10 +334,11 @@ public class MaterialTapTargetPrompt
             @Override
             public void onNonFocalPressed()
             {
+                mPressedFocalIndex = -1;
                 if (!isDismissing())
                 {
                     onPromptStateChanged(STATE_NON_FOCAL_PRESSED);
-                    if (mView.mPromptOptions.getAutoDismiss())
+                    if (mPromptOptions.getAutoDismiss())
                     {
                         dismiss();
                     }
@@ -212,36 +352,30 @@ public class MaterialTapTargetPrompt
                 {
                     onPromptStateChanged(STATE_BACK_BUTTON_PRESSED);
                     onPromptStateChanged(STATE_NON_FOCAL_PRESSED);
-                    if (mView.mPromptOptions.getAutoDismiss())
+                    if (mPromptOptions.getAutoDismiss())
                     {
                         dismiss();
                     }
                 }
             }
         };
+        mView = PromptViewPool.obtain(resourceFinder);
+        bindView();
 
         Rect rect = new Rect();
         resourceFinder.getPromptParentView().getWindowVisibleDisplayFrame(rect);
-        mStatusBarHeight = mView.mPromptOptions.getIgnoreStatusBar() ? 0 : rect.top;
+        mStatusBarHeight = mPromptOptions.getIgnoreStatusBar() ? 0 : rect.top;
 
         mGlobalLayoutListener = () -> {
-            final View targetView = mView.mPromptOptions.getTargetView();
-            if (targetView != null)
+            if (mView.getParent() != null)
             {
-                final boolean isTargetAttachedToWindow;
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT)
-                {
-                    isTargetAttachedToWindow = targetView.isAttachedToWindow();
-                }
-                else
-                {
-                    isTargetAttachedToWindow = targetView.getWindowToken() != null;
-                }
-
-                if (!isTargetAttachedToWindow)
-                {
-                    return;
-                }
+                mPromptOptions.getPromptHost().updatePromptViewBounds(
+                        mPromptOptions.getResourceFinder().getPromptParentView(), mView);
+            }
+            final View targetView = mPromptOptions.getTargetView();
+            if (targetView != null && !isAttachedToWindow(targetView))
+            {
+                return;
             }
             prepare();
 
@@ -255,27 +389,81 @@ public class MaterialTapTargetPrompt
 
     /**
      * Displays the prompt.
+     * The prompt is shown without the reveal animation in instant mode.
+     *
+     * @see PromptOptions#setInstantMode(boolean)
      */
     public void show()
     {
-        if (isStarting())
+        cancelShowWhenReady();
+        if (isStarting() || mPromptOptions.isReleased())
+        {
+            return;
+        }
+        showPrompt(!mPromptOptions.isInstantMode());
+    }
+
+    /**
+     * Displays the prompt in the {@link #STATE_REVEALED} state without playing the reveal
+     * animation, {@link #STATE_REVEALING} is not emitted.
+     * Used to show a prompt again after a configuration change without replaying the reveal.
+     */
+    public void showRevealed()
+    {
+        cancelShowWhenReady();
+        if (isStarting() || mPromptOptions.isReleased())
         {
             return;
         }
+        showPrompt(false);
+    }
+
+    /**
+     * Adds the prompt view to the parent and prepares the prompt.
+     *
+     * @param reveal True to play the reveal animation, false to show the prompt revealed.
+     */
+    void showPrompt(final boolean reveal)
+    {
+        claimView();
 
-        final ViewGroup parent = mView.mPromptOptions.getResourceFinder().getPromptParentView();
+        final ResourceFinder resourceFinder = mPromptOptions.getResourceFinder();
+        final ViewGroup parent = resourceFinder.getPromptParentView();
+        final PromptHost promptHost = mPromptOptions.getPromptHost();
 
-        // If dismissing or the prompt already exists in the parent view
-        if (isDismissing() || parent.findViewById(R.id.material_target_prompt_view) != null)
+        // If dismissing or a prompt is already shown in the window, the shown prompt views are
+        // tracked on the window root view so the view hierarchy doesn't need searching
+        if (isDismissing() || promptHost.containsPromptView(parent, mView)
+                || PromptViewPool.isViewShown(resourceFinder))
         {
             cleanUpPrompt(mState);
         }
 
-        parent.addView(mView);
+        promptHost.addPromptView(parent, mView);
+        PromptViewPool.onViewShown(resourceFinder, mView);
         addGlobalLayoutListener();
-        onPromptStateChanged(STATE_REVEALING);
+        final int renderingProfile = mPromptOptions.resolveRenderingProfile();
+        mView.mLowEndRendering = renderingProfile == PromptOptions.RENDERING_PROFILE_LOW_END;
+        mPromptOptions.getPromptFocal().setDrawRipple(
+                !mView.mLowEndRendering && mPromptOptions.getIdleAnimationEnabled());
+        mPromptOptions.onRenderingProfileSelected(this, renderingProfile);
+        if (reveal)
+        {
+            onPromptStateChanged(STATE_REVEALING);
+        }
+        // Reuse the elements prepared by PromptOptions.measure() if nothing has changed since
+        final PromptGeometry measuredGeometry = mPromptOptions.getMeasuredGeometry();
+        mGeometryInput = measuredGeometry != null ? measuredGeometry.getInput() : null;
+        mPromptOptions.clearMeasuredGeometry();
         prepare();
-        startRevealAnimation();
+        if (reveal)
+        {
+            startRevealAnimation();
+        }
+        else
+        {
+            onRevealed();
+        }
     }
 
     /**
@@ -285,10 +473,354 @@ public class MaterialTapTargetPrompt
      */
     public void showFor(long millis)
     {
-        mView.postDelayed(mTimeoutRunnable, millis);
+        startShowForTimer(millis);
         show();
     }
 
+    /**
+     * Starts the timer used by {@link #showFor(long)}, the prompt is dismissed after emitting
+     * {@link #STATE_SHOW_FOR_TIMEOUT} once the time has passed.
+     *
+     * @param millis The number of milliseconds to show the prompt for.
+     */
+    public void startShowForTimer(long millis)
+    {
+        if (mPromptOptions.isReleased())
+        {
+            return;
+        }
+        claimView();
+        mView.postDelayed(mTimeoutRunnable, millis);
+    }
+
+    /**
+     * Displays the prompt once the target view has been attached to the window and laid out.
+     * Showing the prompt before the target has been laid out prepares the prompt against the
+     * wrong target bounds and then prepares it again after the next layout, waiting means that
+     * the prompt is only prepared once.
+     * <p>
+     * The prompt is shown immediately if the target has already been laid out and is shown
+     * regardless once the timeout has passed if the parent view is attached to a window.
+     * Waiting stops if the parent view is detached from its window.
+     * </p>
+     *
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     */
+    public void showWhenReady(final long timeoutMillis)
+    {
+        showWhenReady(timeoutMillis, false);
+    }
+
+    /**
+     * Displays the prompt with {@link #showRevealed()} once the target view has been attached to
+     * the window and laid out, so that the prompt is only prepared once in a new configuration.
+     * <p>
+     * The prompt is shown immediately if the target has already been laid out and is shown
+     * regardless once the timeout has passed if the parent view is attached to a window.
+     * Waiting stops if the parent view is detached from its window.
+     * </p>
+     *
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     */
+    public void showRevealedWhenReady(final long timeoutMillis)
+    {
+        showWhenReady(timeoutMillis, true);
+    }
+
+    /**
+     * Displays the prompt once the target view has been laid out.
+     *
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     * @param revealed True to show the prompt without the reveal animation.
+     */
+    private void showWhenReady(final long timeoutMillis, final boolean revealed)
+    {
+        if (isStarting() || mShowWhenReadyListener != null || mPromptOptions.isReleased())
+        {
+            return;
+        }
+        mShowWhenReadyRevealed = revealed;
+        if (isTargetLaidOut())
+        {
+            showReady();
+            return;
+        }
+        final ViewGroup parent = mPromptOptions.getResourceFinder().getPromptParentView();
+        mShowWhenReadyListener = () -> {
+            if (isTargetLaidOut())
+            {
+                cancelShowWhenReady();
+                showReady();
+            }
+        };
+        parent.getViewTreeObserver().addOnGlobalLayoutListener(mShowWhenReadyListener);
+        mShowWhenReadyAttachListener = new View.OnAttachStateChangeListener()
+        {
+            @Override
+            public void onViewAttachedToWindow(final View view)
+            {
+            }
+
+            @Override
+            public void onViewDetachedFromWindow(final View view)
+            {
+                // The timeout doesn't need to keep the activity alive
+                cancelShowWhenReady();
+            }
+        };
+        parent.addOnAttachStateChangeListener(mShowWhenReadyAttachListener);
+        mShowWhenReadyHandler.postDelayed(mShowWhenReadyTimeoutRunnable, timeoutMillis);
+    }
+
+    /**
+     * Shows the prompt that was waiting for the target layout.
+     */
+    void showReady()
+    {
+        if (mShowWhenReadyRevealed)
+        {
+            showRevealed();
+        }
+        else
+        {
+            show();
+        }
+    }
+
+    /**
+     * Saves whether the prompt is showing, so that the prompt can be shown again after a
+     * configuration change with {@link #restoreState(Bundle, long)} or
+     * {@link PromptOptions#restoreState(Bundle, long)}.
+     * Use a separate bundle for each prompt that is saved.
+     *
+     * @param outState The bundle to save the state in.
+     */
+    public void saveState(@NonNull final Bundle outState)
+    {
+        outState.putBoolean(STATE_KEY_SHOWING, !isComplete());
+    }
+
+    /**
+     * Was the prompt showing when its state was saved with {@link #saveState(Bundle)}.
+     *
+     * @param savedState The bundle that the prompt state was saved in.
+     * @return True if the prompt was revealing or revealed.
+     */
+    public static boolean wasShowing(@Nullable final Bundle savedState)
+    {
+        return savedState != null && savedState.getBoolean(STATE_KEY_SHOWING);
+    }
+
+    /**
+     * Shows the prompt with {@link #showRevealedWhenReady(long)} if it was showing when its
+     * state was saved with {@link #saveState(Bundle)}.
+     *
+     * @param savedState The bundle that the prompt state was saved in.
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     * @return True if the prompt was showing and is being restored.
+     */
+    public boolean restoreState(@Nullable final Bundle savedState, final long timeoutMillis)
+    {
+        if (!wasShowing(savedState))
+        {
+            return false;
+        }
+        showRevealedWhenReady(timeoutMillis);
+        return true;
+    }
+
+    /**
+     * Stop waiting for the target layout if {@link #showWhenReady(long)} has been called.
+     */
+    public void cancelShowWhenReady()
+    {
+        if (mShowWhenReadyListener == null)
+        {
+            return;
+        }
+        mShowWhenReadyHandler.removeCallbacks(mShowWhenReadyTimeoutRunnable);
+        final ViewGroup parent = mPromptOptions.getResourceFinder().getPromptParentView();
+        parent.removeOnAttachStateChangeListener(mShowWhenReadyAttachListener);
+        mShowWhenReadyAttachListener = null;
+        final ViewTreeObserver viewTreeObserver = parent.getViewTreeObserver();
+        if (viewTreeObserver.isAlive())
+        {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+            {
+                viewTreeObserver.removeOnGlobalLayoutListener(mShowWhenReadyListener);
+            }
+            else
+            {
+                viewTreeObserver.removeGlobalOnLayoutListener(mShowWhenReadyListener);
+            }
+        }
+        mShowWhenReadyListener = null;
+    }
+
+    /**
+     * Has the target view, or the parent view when targeting a point, been attached to the
+     * window and laid out with a size.
+     *
+     * @return True if the prompt can be prepared against the target.
+     */
+    boolean isTargetLaidOut()
+    {
+        View view = mPromptOptions.getTargetView();
+        if (view == null)
+        {
+            view = mPromptOptions.getResourceFinder().getPromptParentView();
+        }
+        return isAttachedToWindow(view) && !view.isLayoutRequested()
+                && view.getWidth() > 0 && view.getHeight() > 0;
+    }
+
+    /**
+     * Is the view attached to a window.
+     *
+     * @param view The view to check.
+     * @return True if the view is attached.
+     */
+    static boolean isAttachedToWindow(@NonNull final View view)
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT)
+        {
+            return view.isAttachedToWindow();
+        }
+        return view.getWindowToken() != null;
+    }
+
+    /**
+     * Binds the prompt to a life-cycle so that the prompt animations are paused while the owner
+     * is stopped and the prompt is released when the owner is destroyed.
+     * The prompt is released immediately if the owner has already been destroyed.
+     *
+     * @param owner The life-cycle owner that the prompt is displayed in.
+     * @see #release()
+     */
+    public void bindToLifecycle(@NonNull final LifecycleOwner owner)
+    {
+        unbindFromLifecycle();
+        final Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED)
+        {
+            release();
+            return;
+        }
+        mLifecycle = lifecycle;
+        lifecycle.addObserver(mLifecycleObserver);
+    }
+
+    /**
+     * Stops listening to the life-cycle that the prompt was bound to with
+     * {@link #bindToLifecycle(LifecycleOwner)}.
+     */
+    public void unbindFromLifecycle()
+    {
+        if (mLifecycle != null)
+        {
+            mLifecycle.removeObserver(mLifecycleObserver);
+            mLifecycle = null;
+        }
+    }
+
+    /**
+     * Handles an event from the life-cycle that the prompt is bound to.
+     *
+     * @param event The life-cycle event.
+     */
+    void onLifecycleEvent(@NonNull final Lifecycle.Event event)
+    {
+        switch (event)
+        {
+            case ON_START:
+                resumeAnimations();
+                break;
+            case ON_STOP:
+                pauseAnimations();
+                break;
+            case ON_DESTROY:
+                release();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Immediately removes the prompt from view without animating or emitting any state changes
+     * and drops the references that the prompt and its options hold to views, drawables and
+     * listeners. Used when the prompt host is being destroyed, the prompt can't be shown again
+     * afterwards.
+     */
+    public void release()
+    {
+        if (mPromptOptions.isReleased())
+        {
+            return;
+        }
+        unbindFromLifecycle();
+        cancelShowWhenReady();
+        mIdleAnimationsPaused = false;
+        // The view might have been passed on to another prompt through the pool
+        if (mView.mPrompt == this)
+        {
+            cancelShowForTimer();
+            cleanUpAnimation();
+            removeGlobalLayoutListener();
+            final ResourceFinder resourceFinder = mPromptOptions.getResourceFinder();
+            if (mView.getParent() != null)
+            {
+                mPromptOptions.getPromptHost().removePromptView(
+                        resourceFinder.getPromptParentView(), mView);
+            }
+            PromptViewPool.onViewRemoved(resourceFinder, mView);
+            PromptViewPool.remove(resourceFinder, mView);
+            mView.reset();
+        }
+        if (!isComplete())
+        {
+            mState = STATE_DISMISSED;
+        }
+        mGeometryInput = null;
+        mPromptOptions.release();
+        if (mCoordinator != null)
+        {
+            mCoordinator.onPromptReleased(this);
+            mCoordinator = null;
+        }
+    }
+
+    /**
+     * Sets up the view for this prompt.
+     */
+    void bindView()
+    {
+        mView.mPrompt = this;
+        mView.mPromptOptions = mPromptOptions;
+        mView.mPromptTouchedListener = mPromptTouchedListener;
+        mView.setContentDescription(mPromptOptions.getContentDescription());
+        mView.reset();
+        mPressedFocalIndex = -1;
+    }
+
+    /**
+     * Makes sure that the view is not being used by another prompt before it is shown again,
+     * the view is returned to the {@link PromptViewPool} once the prompt has been removed.
+     */
+    void claimView()
+    {
+        final ResourceFinder resourceFinder = mPromptOptions.getResourceFinder();
+        if (mView.mPrompt != this)
+        {
+            mView = PromptViewPool.obtain(resourceFinder);
+            bindView();
+        }
+        else
+        {
+            PromptViewPool.remove(resourceFinder, mView);
+        }
+    }
+
     /**
      * Cancel the show for timer if it has been created.
      */
@@ -311,9 +843,124 @@ public class MaterialTapTargetPrompt
      * @see #STATE_DISMISSING
      * @see #STATE_DISMISSED
      */
-    public int getState()
+    public int getState()
+    {
+        return mState;
+    }
+
+    /**
+     * Get the index of the focal that was last pressed.
+     * This is always 0 unless a {@link uk.co.samuelwall.materialtaptargetprompt.extras.focals.MultiPromptFocal}
+     * is used, read it when the {@link #STATE_FOCAL_PRESSED} state change is emitted.
+     *
+     * @return The focal index or -1 if no focal has been pressed.
+     */
+    public int getPressedFocalIndex()
+    {
+        return mPressedFocalIndex;
+    }
+
+    /**
+     * Changes the primary text, if the prompt is showing then only the text is laid out again.
+     * The background is only prepared again if the text bounds change.
+     *
+     * @param text The new primary text or null to remove it.
+     */
+    public void setPrimaryText(@Nullable final CharSequence text)
+    {
+        mPromptOptions.setPrimaryText(text);
+        onTextChanged();
+    }
+
+    /**
+     * Changes the secondary text, if the prompt is showing then only the text is laid out again.
+     * The background is only prepared again if the text bounds change.
+     *
+     * @param text The new secondary text or null to remove it.
+     */
+    public void setSecondaryText(@Nullable final CharSequence text)
+    {
+        mPromptOptions.setSecondaryText(text);
+        onTextChanged();
+    }
+
+    /**
+     * Lays out the text again after a {@link PromptTextBlock} in the prompt options has been
+     * changed, or a block has been added or removed, on a showing prompt.
+     */
+    public void updateText()
+    {
+        onTextChanged();
+    }
+
+    /**
+     * Was any of the prompt text cut off by {@link PromptOptions#setMaxTextLines(int)} when it
+     * was laid out.
+     *
+     * @return True if some of the text isn't displayed.
+     */
+    public boolean isTextTruncated()
+    {
+        return mPromptOptions.getPromptText().isTextTruncated();
+    }
+
+    /**
+     * Applies the colours currently set in the prompt options to the prompt, e.g. after
+     * {@link PromptOptions#loadColours(int)} has been called for a night mode change.
+     * The focal, background, text and icon are recoloured without changing the prompt geometry
+     * or creating new text layouts.
+     */
+    public void updateColours()
     {
-        return mState;
+        mPromptOptions.applyColours();
+        if (mView.mPrompt == this && mView.getParent() != null)
+        {
+            if (mAnimationCurrent == null && mView.mIconDrawable != null)
+            {
+                // Applying the colour filter changes the alpha, restore the revealed alpha
+                mView.mIconDrawable.setAlpha(255);
+            }
+            mView.invalidate();
+        }
+    }
+
+    /**
+     * Lays out the text again after it has changed on a showing prompt and invalidates the
+     * area that has changed.
+     */
+    void onTextChanged()
+    {
+        if (mView.mPrompt != this || mView.getParent() == null)
+        {
+            // The text is prepared when the prompt is shown
+            return;
+        }
+        final PromptText promptText = mPromptOptions.getPromptText();
+        final RectF previousBounds = new RectF(promptText.getBounds());
+        final boolean boundsChanged = promptText.updateText(mPromptOptions);
+        if (mGeometryInput != null)
+        {
+            // Otherwise the next layout pass prepares all the elements again for the new text
+            mGeometryInput = mGeometryInput.withOptionValues(mPromptOptions);
+        }
+        if (boundsChanged)
+        {
+            final PromptBackground promptBackground = mPromptOptions.getPromptBackground();
+            promptBackground.prepare(mPromptOptions, mView.mClipToBounds, mView.mClipBounds);
+            if (mAnimationCurrent == null)
+            {
+                // Otherwise the running animation updates the background on the next frame
+                promptBackground.update(mPromptOptions, 1, 1);
+            }
+            mView.invalidate();
+        }
+        else
+        {
+            // Text that changes without moving stays within the text bounds
+            final Rect dirty = new Rect();
+            previousBounds.roundOut(dirty);
+            mView.invalidate(dirty);
+        }
     }
 
     /**
@@ -361,7 +1008,9 @@ public class MaterialTapTargetPrompt
      */
     void addGlobalLayoutListener()
     {
-        final ViewTreeObserver viewTreeObserver = ((ViewGroup) mView.getParent()).getViewTreeObserver();
+        // Listen to the parent as the prompt view might not be in the same view hierarchy
+        final ViewTreeObserver viewTreeObserver = mPromptOptions.getResourceFinder()
+                .getPromptParentView().getViewTreeObserver();
         if (viewTreeObserver.isAlive())
         {
             viewTreeObserver.addOnGlobalLayoutListener(mGlobalLayoutListener);
@@ -373,12 +1022,12 @@ public class MaterialTapTargetPrompt
      */
     void removeGlobalLayoutListener()
     {
-        final ViewGroup parent = (ViewGroup) mView.getParent();
-        if (parent == null)
+        if (mView.getParent() == null)
         {
             return;
         }
-        final ViewTreeObserver viewTreeObserver = ((ViewGroup) mView.getParent()).getViewTreeObserver();
+        final ViewTreeObserver viewTreeObserver = mPromptOptions.getResourceFinder()
+                .getPromptParentView().getViewTreeObserver();
         if (viewTreeObserver.isAlive())
         {
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
@@ -399,15 +1048,22 @@ public class MaterialTapTargetPrompt
      */
     public void finish()
     {
+        cancelShowWhenReady();
         if (isComplete())
         {
             return;
         }
         cancelShowForTimer();
         cleanUpAnimation();
+        if (mPromptOptions.isInstantMode())
+        {
+            onPromptStateChanged(STATE_FINISHING);
+            removeInstantly(STATE_FINISHED);
+            return;
+        }
         mAnimationCurrent = ValueAnimator.ofFloat(1f, 0f);
         mAnimationCurrent.setDuration(225);
-        mAnimationCurrent.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
+        mAnimationCurrent.setInterpolator(mPromptOptions.getAnimationInterpolator());
         mAnimationCurrent.addUpdateListener(animation -> {
             final float value = (float) animation.getAnimatedValue();
             updateAnimation(1f + ((1f - value) / 4), value);
@@ -417,8 +1073,8 @@ public class MaterialTapTargetPrompt
             @Override
             public void onAnimationEnd(Animator animation)
             {
-                cleanUpPrompt(STATE_FINISHED);
                 mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED);
+                cleanUpPrompt(STATE_FINISHED);
             }
         });
         onPromptStateChanged(STATE_FINISHING);
@@ -432,15 +1088,22 @@ public class MaterialTapTargetPrompt
      */
     public void dismiss()
     {
+        cancelShowWhenReady();
         if (isComplete())
         {
             return;
         }
         cancelShowForTimer();
         cleanUpAnimation();
+        if (mPromptOptions.isInstantMode())
+        {
+            onPromptStateChanged(STATE_DISMISSING);
+            removeInstantly(STATE_DISMISSED);
+            return;
+        }
         mAnimationCurrent = ValueAnimator.ofFloat(1f, 0f);
         mAnimationCurrent.setDuration(225);
-        mAnimationCurrent.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
+        mAnimationCurrent.setInterpolator(mPromptOptions.getAnimationInterpolator());
         mAnimationCurrent.addUpdateListener(animation -> {
             final float value = (float) animation.getAnimatedValue();
             updateAnimation(value, value);
@@ -450,14 +1113,26 @@ public class MaterialTapTargetPrompt
             @Override
             public void onAnimationEnd(Animator animation)
             {
-                cleanUpPrompt(STATE_DISMISSED);
                 mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED);
+                cleanUpPrompt(STATE_DISMISSED);
             }
         });
         onPromptStateChanged(STATE_DISMISSING);
         mAnimationCurrent.start();
     }
 
+    /**
+     * Removes the prompt from view without the finish or dismiss animation, used in instant
+     * mode.
+     *
+     * @param state The state to emit once the prompt has been removed.
+     */
+    void removeInstantly(final int state)
+    {
+        mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED);
+        cleanUpPrompt(state);
+    }
+
     /**
      * Removes the prompt from view and triggers the {@link #onPromptStateChanged(int)} event.
      */
@@ -465,13 +1140,20 @@ public class MaterialTapTargetPrompt
     {
         cleanUpAnimation();
         removeGlobalLayoutListener();
-        final ViewGroup parent = (ViewGroup) mView.getParent();
-        if (parent != null)
+        if (mView.getParent() != null)
         {
-            parent.removeView(mView);
+            mPromptOptions.getPromptHost().removePromptView(
+                    mPromptOptions.getResourceFinder().getPromptParentView(), mView);
         }
+        PromptViewPool.onViewRemoved(mPromptOptions.getResourceFinder(), mView);
         if (isDismissing())
         {
+            if (state == STATE_FINISHED || state == STATE_DISMISSED)
+            {
+                // Release before the state change so that a prompt shown next can reuse the view
+                cancelShowForTimer();
+                PromptViewPool.release(mPromptOptions.getResourceFinder(), mView);
+            }
             onPromptStateChanged(state);
         }
     }
@@ -488,6 +1170,14 @@ public class MaterialTapTargetPrompt
             mAnimationCurrent.cancel();
             mAnimationCurrent = null;
         }
+        cleanUpIdleAnimations();
+    }
+
+    /**
+     * Stops the idle animations and removes references to them.
+     */
+    void cleanUpIdleAnimations()
+    {
         if (mAnimationFocalRipple != null)
         {
             mAnimationFocalRipple.removeAllUpdateListeners();
@@ -497,9 +1187,55 @@ public class MaterialTapTargetPrompt
         if (mAnimationFocalBreathing != null)
         {
             mAnimationFocalBreathing.removeAllUpdateListeners();
+            mAnimationFocalBreathing.removeAllListeners();
             mAnimationFocalBreathing.cancel();
             mAnimationFocalBreathing = null;
         }
+        mView.removeCallbacks(mIdleAnimationRunnable);
+    }
+
+    /**
+     * Pauses the prompt animations while the prompt host isn't visible.
+     * The idle animations are stopped and restarted by {@link #resumeAnimations()}, the reveal
+     * and dismiss animations are paused or skipped to the end below API 19.
+     */
+    void pauseAnimations()
+    {
+        if (mAnimationCurrent != null)
+        {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT)
+            {
+                mAnimationCurrent.pause();
+            }
+            else
+            {
+                mAnimationCurrent.end();
+            }
+        }
+        if (mAnimationFocalBreathing != null)
+        {
+            mIdleAnimationsPaused = true;
+            cleanUpIdleAnimations();
+        }
+    }
+
+    /**
+     * Resumes the animations paused by {@link #pauseAnimations()}.
+     */
+    void resumeAnimations()
+    {
+        if (mAnimationCurrent != null)
+        {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT)
+            {
+                mAnimationCurrent.resume();
+            }
+        }
+        else if (mIdleAnimationsPaused && mView.getParent() != null && !isComplete())
+        {
+            startIdleAnimations();
+        }
+        mIdleAnimationsPaused = false;
     }
 
     /**
@@ -510,7 +1246,7 @@ public class MaterialTapTargetPrompt
         updateAnimation(0, 0);
         cleanUpAnimation();
         mAnimationCurrent = ValueAnimator.ofFloat(0f, 1f);
-        mAnimationCurrent.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
+        mAnimationCurrent.setInterpolator(mPromptOptions.getAnimationInterpolator());
         mAnimationCurrent.setDuration(225);
         mAnimationCurrent.addUpdateListener(animation -> {
             final float value = (float) animation.getAnimatedValue();
@@ -522,32 +1258,59 @@ public class MaterialTapTargetPrompt
             public void onAnimationEnd(@NonNull Animator animation)
             {
                 animation.removeAllListeners();
-                updateAnimation(1, 1);
-                cleanUpAnimation();
-                if (mView.mPromptOptions.getIdleAnimationEnabled())
-                {
-                    startIdleAnimations();
-                }
-                onPromptStateChanged(STATE_REVEALED);
-
-                mView.requestFocus();
-                mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_FOCUSED);
+                onRevealed();
             }
         });
         mAnimationCurrent.start();
     }
 
+    /**
+     * Moves the prompt into the revealed state once the reveal animation has ended or when the
+     * prompt is shown without the reveal.
+     */
+    void onRevealed()
+    {
+        updateAnimation(1, 1);
+        cleanUpAnimation();
+        if (mPromptOptions.getIdleAnimationEnabled() && !mPromptOptions.isInstantMode())
+        {
+            startIdleAnimations();
+        }
+        onPromptStateChanged(STATE_REVEALED);
+
+        mView.requestFocus();
+        mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_FOCUSED);
+    }
+
     /**
      * Starts the prompt idle animations.
+     * With the low end rendering profile the focal breathes once every
+     * {@link #LOW_END_IDLE_ANIMATION_DELAY} milliseconds without the ripple and only the focal
+     * area is redrawn.
      */
     void startIdleAnimations()
     {
         cleanUpAnimation();
+        final boolean lowEndRendering = mView.mLowEndRendering;
         mAnimationFocalBreathing = ValueAnimator.ofFloat(1, 1.1f, 1);
-        mAnimationFocalBreathing.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
+        mAnimationFocalBreathing.setInterpolator(mPromptOptions.getAnimationInterpolator());
         mAnimationFocalBreathing.setDuration(1000);
         mAnimationFocalBreathing.setStartDelay(225);
-        mAnimationFocalBreathing.setRepeatCount(ValueAnimator.INFINITE);
+        if (lowEndRendering)
+        {
+            mAnimationFocalBreathing.addListener(new AnimatorListener()
+            {
+                @Override
+                public void onAnimationEnd(@NonNull Animator animation)
+                {
+                    mView.postDelayed(mIdleAnimationRunnable, LOW_END_IDLE_ANIMATION_DELAY);
+                }
+            });
+        }
+        else
+        {
+            mAnimationFocalBreathing.setRepeatCount(ValueAnimator.INFINITE);
+        }
         mAnimationFocalBreathing.addUpdateListener(new ValueAnimator.AnimatorUpdateListener()
         {
             boolean direction = true;
@@ -565,27 +1328,53 @@ public class MaterialTapTargetPrompt
                 {
                     newDirection = true;
                 }
-                if (newDirection != direction && !newDirection)
+                if (newDirection != direction && !newDirection && mAnimationFocalRipple != null)
                 {
                     mAnimationFocalRipple.start();
                 }
                 direction = newDirection;
                 mFocalRippleProgress = newFocalFraction;
-                mView.mPromptOptions.getPromptFocal().update(mView.mPromptOptions, newFocalFraction, 1);
-                mView.invalidate();
+                mPromptOptions.getPromptFocal().update(mPromptOptions, newFocalFraction, 1);
+                if (lowEndRendering)
+                {
+                    invalidateIdleFocal();
+                }
+                else
+                {
+                    mView.invalidate();
+                }
             }
         });
 
+        if (lowEndRendering)
+        {
+            mAnimationFocalBreathing.start();
+            return;
+        }
         mAnimationFocalRipple = ValueAnimator.ofFloat(1.1f, 1.6f);
-        mAnimationFocalRipple.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
+        mAnimationFocalRipple.setInterpolator(mPromptOptions.getAnimationInterpolator());
         mAnimationFocalRipple.setDuration(500);
         mAnimationFocalRipple.addUpdateListener(animation -> {
             final float value = (float) animation.getAnimatedValue();
-            mView.mPromptOptions.getPromptFocal().updateRipple(value, (1.6f - value) * 2);
+            mPromptOptions.getPromptFocal().updateRipple(value, (1.6f - value) * 2);
         });
         mAnimationFocalBreathing.start();
     }
 
+    /**
+     * Invalidates the focal bounds at the largest idle animation size.
+     */
+    void invalidateIdleFocal()
+    {
+        final RectF focalBounds = mPromptOptions.getPromptFocal().getBounds();
+        final float insetX = focalBounds.width() * 0.05f + 1;
+        final float insetY = focalBounds.height() * 0.05f + 1;
+        mIdleInvalidateBounds.set((int) (focalBounds.left - insetX),
+                (int) (focalBounds.top - insetY), (int) Math.ceil(focalBounds.right + insetX),
+                (int) Math.ceil(focalBounds.bottom + insetY));
+        mView.invalidate(mIdleInvalidateBounds);
+    }
+
     /**
      * Updates the positioning and alpha values using the animation values.
      *
@@ -598,13 +1387,13 @@ public class MaterialTapTargetPrompt
         {
             return;
         }
-        mView.mPromptOptions.getPromptText().update(mView.mPromptOptions, revealModifier, alphaModifier);
+        mPromptOptions.getPromptText().update(mPromptOptions, revealModifier, alphaModifier);
         if (mView.mIconDrawable != null)
         {
             mView.mIconDrawable.setAlpha((int) (255f * alphaModifier));
         }
-        mView.mPromptOptions.getPromptFocal().update(mView.mPromptOptions, revealModifier, alphaModifier);
-        mView.mPromptOptions.getPromptBackground().update(mView.mPromptOptions, revealModifier, alphaModifier);
+        mPromptOptions.getPromptFocal().update(mPromptOptions, revealModifier, alphaModifier);
+        mPromptOptions.getPromptBackground().update(mPromptOptions, revealModifier, alphaModifier);
         mView.invalidate();
     }
 
@@ -613,30 +1402,39 @@ public class MaterialTapTargetPrompt
      */
     void prepare()
     {
-        final View targetRenderView = mView.mPromptOptions.getTargetRenderView();
-        if (targetRenderView == null)
+        final View targetRenderView = mPromptOptions.getTargetRenderView();
+        if (mView.mLowEndRendering)
+        {
+            // Rendering the target view every frame is skipped on low end devices
+            mView.mTargetRenderView = null;
+        }
+        else if (targetRenderView == null)
         {
-            mView.mTargetRenderView = mView.mPromptOptions.getTargetView();
+            mView.mTargetRenderView = mPromptOptions.getTargetView();
         }
         else
         {
             mView.mTargetRenderView = targetRenderView;
         }
         updateClipBounds();
-        final View targetView = mView.mPromptOptions.getTargetView();
-        if (targetView != null)
+        mPromptOptions.getPromptHost().getLocationInWindow(
+                mPromptOptions.getResourceFinder().getPromptParentView(), mView,
+                mViewPosition);
+        // Layout passes that don't move the target or resize the parent don't need the
+        // elements preparing again, unless an element reads view state outside of the snapshot.
+        // The snapshot is only captured when it changes so the steady state does not allocate
+        if (mGeometryInput == null
+                || !mGeometryInput.matches(mPromptOptions, mViewPosition, mView.mClipToBounds,
+                        mView.mClipBounds, mTargetPosition))
         {
-            final int[] viewPosition = new int[2];
-            mView.getLocationInWindow(viewPosition);
-            mView.mPromptOptions.getPromptFocal().prepare(mView.mPromptOptions, targetView, viewPosition);
+            mGeometryInput = PromptGeometry.Input.capture(mPromptOptions, mViewPosition,
+                    mView.mClipToBounds, mView.mClipBounds);
+            PromptGeometry.prepare(mPromptOptions, mGeometryInput);
         }
-        else
+        else if (!PromptGeometry.isPreparedOnlyFromSnapshot(mPromptOptions))
         {
-            final PointF targetPosition = mView.mPromptOptions.getTargetPosition();
-            mView.mPromptOptions.getPromptFocal().prepare(mView.mPromptOptions, targetPosition.x, targetPosition.y);
+            PromptGeometry.prepare(mPromptOptions, mGeometryInput);
         }
-        mView.mPromptOptions.getPromptText().prepare(mView.mPromptOptions, mView.mClipToBounds, mView.mClipBounds);
-        mView.mPromptOptions.getPromptBackground().prepare(mView.mPromptOptions, mView.mClipToBounds, mView.mClipBounds);
         updateIconPosition();
     }
 
@@ -645,10 +1443,10 @@ public class MaterialTapTargetPrompt
      */
     void updateIconPosition()
     {
-        mView.mIconDrawable = mView.mPromptOptions.getIconDrawable();
+        mView.mIconDrawable = mPromptOptions.getIconDrawable();
         if (mView.mIconDrawable != null)
         {
-            final RectF mFocalBounds = mView.mPromptOptions.getPromptFocal().getBounds();
+            final RectF mFocalBounds = mPromptOptions.getPromptFocal().getTargetBounds();
             mView.mIconDrawableLeft = mFocalBounds.centerX()
                     - (mView.mIconDrawable.getIntrinsicWidth() / 2);
             mView.mIconDrawableTop = mFocalBounds.centerY()
@@ -656,13 +1454,13 @@ public class MaterialTapTargetPrompt
         }
         else if (mView.mTargetRenderView != null)
         {
-            final int[] viewPosition = new int[2];
-            mView.getLocationInWindow(viewPosition);
-            final int[] targetPosition = new int[2];
-            mView.mTargetRenderView.getLocationInWindow(targetPosition);
+            mPromptOptions.getPromptHost().getLocationInWindow(
+                    mPromptOptions.getResourceFinder().getPromptParentView(), mView,
+                    mViewPosition);
+            mView.mTargetRenderView.getLocationInWindow(mTargetPosition);
 
-            mView.mIconDrawableLeft = targetPosition[0] - viewPosition[0] - mView.mTargetRenderView.getScrollX();
-            mView.mIconDrawableTop = targetPosition[1] - viewPosition[1] - mView.mTargetRenderView.getScrollY();
+            mView.mIconDrawableLeft = mTargetPosition[0] - mViewPosition[0] - mView.mTargetRenderView.getScrollX();
+            mView.mIconDrawableTop = mTargetPosition[1] - mViewPosition[1] - mView.mTargetRenderView.getScrollY();
         }
     }
 
@@ -671,28 +1469,8 @@ public class MaterialTapTargetPrompt
      */
     void updateClipBounds()
     {
-        final View clipToView = mView.mPromptOptions.getClipToView();
-        if (clipToView != null)
-        {
-            mView.mClipToBounds = true;
-
-            //Reset the top to 0
-            mView.mClipBounds.set(0, 0, 0, 0);
-
-            //Find the location of the clip view on the screen
-            final Point offset = new Point();
-            clipToView.getGlobalVisibleRect(mView.mClipBounds, offset);
-
-            if (offset.y == 0)
-            {
-                mView.mClipBounds.top += mStatusBarHeight;
-            }
-        }
-        else
-        {
-            mView.mPromptOptions.getResourceFinder().getPromptParentView().getGlobalVisibleRect(mView.mClipBounds, new Point());
-            mView.mClipToBounds = false;
-        }
+        mView.mClipToBounds = PromptUtils.calculateClipBounds(mPromptOptions, mStatusBarHeight,
+                mView.mClipBounds, mClipOffset);
     }
 
     /**
@@ -703,8 +1481,14 @@ public class MaterialTapTargetPrompt
     protected void onPromptStateChanged(final int state)
     {
         mState = state;
-        mView.mPromptOptions.onPromptStateChanged(this, state);
-        mView.mPromptOptions.onExtraPromptStateChanged(this, state);
+        mPromptOptions.onPromptStateChanged(this, state);
+        mPromptOptions.onExtraPromptStateChanged(this, state);
+        if (mCoordinator != null && (state == STATE_FINISHED || state == STATE_DISMISSED))
+        {
+            final PromptCoordinator coordinator = mCoordinator;
+            mCoordinator = null;
+            coordinator.onPromptComplete(this);
+        }
     }
 
     /**
@@ -737,7 +1521,27 @@ public class MaterialTapTargetPrompt
         MaterialTapTargetPrompt mPrompt;
         PromptOptions mPromptOptions;
         boolean mClipToBounds;
+        boolean mLowEndRendering;
+        final Rect mOpaqueTargetBounds = new Rect();
         AccessibilityManager mAccessibilityManager;
+        int mPressedFocalIndex = -1;
+        boolean mGestureInProgress;
+        boolean mGestureCaptured;
+
+        /**
+         * Is the press that started the current captured gesture waiting to find out if the
+         * gesture is a tap or a drag.
+         */
+        boolean mPressPending;
+        float mGestureDownX;
+        float mGestureDownY;
+
+        /**
+         * The distance a touch can move before the gesture is treated as a drag instead of a
+         * press.
+         */
+        final int mTouchSlop;
+        final Matrix mInverseMatrix = new Matrix();
 
         /**
          * Create a new prompt view.
@@ -748,6 +1552,7 @@ public class MaterialTapTargetPrompt
         {
             super(context);
             setId(R.id.material_target_prompt_view);
+            mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
             setFocusableInTouchMode(true);
             requestFocus();
 
@@ -771,12 +1576,64 @@ public class MaterialTapTargetPrompt
             }
         }
 
+        /**
+         * Drops the references to the prompt that was using the view, called when the view is
+         * released to the {@link PromptViewPool} so that a pooled view doesn't keep the finished
+         * prompt, its options and target view alive.
+         */
+        void unbindPrompt()
+        {
+            mPrompt = null;
+            mPromptOptions = null;
+            mPromptTouchedListener = null;
+            setContentDescription(null);
+            reset();
+        }
+
+        /**
+         * Clears the state left from the previous prompt when the view is reused.
+         */
+        void reset()
+        {
+            mIconDrawable = null;
+            mTargetRenderView = null;
+            mClipToBounds = false;
+            mLowEndRendering = false;
+            mClipBounds.setEmpty();
+            mPressedFocalIndex = -1;
+            mGestureInProgress = false;
+            mPressPending = false;
+            if (mAccessibilityManager.isEnabled() && !isClickable())
+            {
+                setupAccessibilityClickListener();
+            }
+        }
+
         @Override
         protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec)
         {
             // Stop the prompt increasing the parent size by setting it to the parents size.
-            final View parent = (View) this.getParent();
-            this.setMeasuredDimension(parent.getMeasuredWidth(), parent.getMeasuredHeight());
+            final ViewParent parent = this.getParent();
+            if (parent instanceof View && ((View) parent).getMeasuredWidth() != 0)
+            {
+                this.setMeasuredDimension(((View) parent).getMeasuredWidth(),
+                        ((View) parent).getMeasuredHeight());
+            }
+            else
+            {
+                // Hosted in a window or an overlay, use the size that the host requested
+                this.setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec),
+                        MeasureSpec.getSize(heightMeasureSpec));
+            }
+        }
+
+        @Override
+        public boolean dispatchTouchEvent(MotionEvent event)
+        {
+            // Give the host the chance to pass on the touch events that the prompt didn't capture
+            return super.dispatchTouchEvent(event)
+                    || mPromptOptions.getPromptHost().dispatchUnhandledTouchEvent(
+                            mPromptOptions.getResourceFinder().getPromptParentView(), event);
         }
 
         @Override
@@ -787,12 +1644,36 @@ public class MaterialTapTargetPrompt
                 canvas.clipRect(mClipBounds);
             }
 
+            //Skip the background and focal pixels that an opaque icon or target will cover.
+            final boolean clipOpaqueTarget = mPromptOptions.getOverdrawReductionEnabled()
+                    && calculateOpaqueTargetBounds();
+            if (clipOpaqueTarget)
+            {
+                canvas.save();
+                canvas.clipRect(mOpaqueTargetBounds, Region.Op.DIFFERENCE);
+            }
+
             //Draw the backgrounds, clipping the focal path so we don't draw over it.
-            final Path focalPath = mPromptOptions.getPromptFocal().getPath();
+            //Path clipping is skipped on low end devices, the focal is drawn over the background.
+            final PromptFocal promptFocal = mPromptOptions.getPromptFocal();
+            Path focalPath = null;
+            Matrix focalPathMatrix = null;
+            if (!mLowEndRendering)
+            {
+                focalPath = promptFocal.getBasePath();
+                if (focalPath != null)
+                {
+                    focalPathMatrix = promptFocal.getPathMatrix();
+                }
+                else
+                {
+                    focalPath = promptFocal.getPath();
+                }
+            }
             if (focalPath != null)
             {
                 canvas.save();
-                canvas.clipPath(focalPath, Region.Op.DIFFERENCE);
+                clipPath(canvas, focalPath, focalPathMatrix, Region.Op.DIFFERENCE);
             }
 
             mPromptOptions.getPromptBackground().draw(canvas);
@@ -805,6 +1686,11 @@ public class MaterialTapTargetPrompt
             //Draw the focal
             mPromptOptions.getPromptFocal().draw(canvas);
 
+            if (clipOpaqueTarget)
+            {
+                canvas.restore();
+            }
+
             /*canvas.drawRect(mPrimaryTextLeft - padding, mPrimaryTextTop, mPrimaryTextLeft, mPrimaryTextTop + mSecondaryTextOffsetTop + mSecondaryTextLayout.getHeight(), paddingPaint);
             canvas.drawRect(mTextBounds, itemPaint);
             canvas.drawRect(mTextBounds.right, mPrimaryTextTop, mTextBounds.right + padding, mPrimaryTextTop + mSecondaryTextOffsetTop + mSecondaryTextLayout.getHeight(), paddingPaint);*/
@@ -824,11 +1710,25 @@ public class MaterialTapTargetPrompt
             }
 
             //Draw the text
-            Path backgroundPath = mPromptOptions.getPromptBackground().getPath();
+            final PromptBackground promptBackground = mPromptOptions.getPromptBackground();
+            Path backgroundPath = null;
+            Matrix backgroundPathMatrix = null;
+            if (!mLowEndRendering)
+            {
+                backgroundPath = promptBackground.getBasePath();
+                if (backgroundPath != null)
+                {
+                    backgroundPathMatrix = promptBackground.getPathMatrix();
+                }
+                else
+                {
+                    backgroundPath = promptBackground.getPath();
+                }
+            }
             if (backgroundPath != null)
             {
                 canvas.save();
-                canvas.clipPath(backgroundPath, Region.Op.INTERSECT);
+                clipPath(canvas, backgroundPath, backgroundPathMatrix, Region.Op.INTERSECT);
             }
             mPromptOptions.getPromptText().draw(canvas);
             if (backgroundPath != null)
@@ -837,6 +1737,71 @@ public class MaterialTapTargetPrompt
             }
         }
 
+        /**
+         * Calculate the area drawn by the icon drawable or target render view if it is opaque.
+         *
+         * @return True if {@link #mOpaqueTargetBounds} has been set to the opaque area.
+         */
+        boolean calculateOpaqueTargetBounds()
+        {
+            if (mIconDrawable != null)
+            {
+                if (mIconDrawable.getOpacity() != PixelFormat.OPAQUE)
+                {
+                    return false;
+                }
+                mOpaqueTargetBounds.set(mIconDrawable.getBounds());
+            }
+            else if (mTargetRenderView != null && mTargetRenderView.isOpaque())
+            {
+                // The target draws its background at its scroll position
+                mOpaqueTargetBounds.set(0, 0, mTargetRenderView.getWidth(),
+                        mTargetRenderView.getHeight());
+                mOpaqueTargetBounds.offset(mTargetRenderView.getScrollX(),
+                        mTargetRenderView.getScrollY());
+            }
+            else
+            {
+                return false;
+            }
+            // Round inwards so partially covered edge pixels are still painted underneath
+            mOpaqueTargetBounds.set(
+                    (int) Math.ceil(mOpaqueTargetBounds.left + mIconDrawableLeft),
+                    (int) Math.ceil(mOpaqueTargetBounds.top + mIconDrawableTop),
+                    (int) Math.floor(mOpaqueTargetBounds.right + mIconDrawableLeft),
+                    (int) Math.floor(mOpaqueTargetBounds.bottom + mIconDrawableTop));
+            return !mOpaqueTargetBounds.isEmpty();
+        }
+
+        /**
+         * Clip the canvas to a path that is transformed by a matrix.
+         *
+         * @param canvas The canvas to clip.
+         * @param path The path to clip to.
+         * @param matrix The matrix to transform the path by or null for no transform.
+         * @param op The clip operation.
+         */
+        void clipPath(@NonNull final Canvas canvas, @NonNull final Path path,
+                      @Nullable final Matrix matrix, @NonNull final Region.Op op)
+        {
+            if (matrix == null)
+            {
+                canvas.clipPath(path, op);
+            }
+            else if (matrix.invert(mInverseMatrix))
+            {
+                // The clip is kept in device coordinates when the transform is undone
+                canvas.concat(matrix);
+                canvas.clipPath(path, op);
+                canvas.concat(mInverseMatrix);
+            }
+            else if (op == Region.Op.INTERSECT)
+            {
+                // The path has been scaled to nothing so nothing can be drawn inside it
+                canvas.clipRect(0, 0, 0, 0);
+            }
+        }
+
         @Override
         public boolean onHoverEvent(MotionEvent event) {
             if (mAccessibilityManager.isTouchExplorationEnabled() && event.getPointerCount() == 1) {
@@ -859,37 +1824,122 @@ public class MaterialTapTargetPrompt
 
         @Override
         public boolean onTouchEvent(MotionEvent event)
+        {
+            final int action = event.getActionMasked();
+            final boolean gestureEnded = action == MotionEvent.ACTION_UP
+                    || action == MotionEvent.ACTION_CANCEL;
+            if (mGestureInProgress && action != MotionEvent.ACTION_DOWN)
+            {
+                // The prompt has already decided how to handle this gesture so treat the rest
+                // of the events the same way as the first
+                mGestureInProgress = !gestureEnded;
+                if (mPressPending)
+                {
+                    handlePendingPress(event);
+                }
+                return mGestureCaptured;
+            }
+            mGestureInProgress = !gestureEnded;
+            mGestureCaptured = handleGestureStart(event);
+            return mGestureCaptured;
+        }
+
+        /**
+         * Handles the first event of a touch gesture, deciding whether the focal or somewhere
+         * else was pressed.
+         * <p>
+         * The listener is only notified of a captured press once the gesture ends without moving
+         * further than the touch slop, so that dragging across the prompt isn't treated as a
+         * press. A press that isn't captured is notified straight away as the rest of the gesture
+         * is passed on to the views under the prompt.
+         * </p>
+         *
+         * @param event The first touch event in the gesture.
+         * @return True if the gesture should be captured by the prompt.
+         */
+        boolean handleGestureStart(MotionEvent event)
         {
             final float x = event.getX();
             final float y = event.getY();
             //If the touch point is within the prompt background stop the event from passing through it
             boolean captureEvent = (!mClipToBounds || mClipBounds.contains((int) x, (int) y))
                     && mPromptOptions.getPromptBackground().contains(x, y);
+            mPressedFocalIndex = captureEvent ? mPromptOptions.getPromptFocal().findFocalIndex(x, y) : -1;
             //If the touch event was at least in the background and in the focal
-            if (captureEvent && mPromptOptions.getPromptFocal().contains(x, y))
+            if (mPressedFocalIndex != -1)
             {
                 //Override allowing the touch event to pass through the view with the user defined value
                 captureEvent = mPromptOptions.getCaptureTouchEventOnFocal();
-                if (mPromptTouchedListener != null)
-                {
-                    mPromptTouchedListener.onFocalPressed();
-                }
             }
-            else
+            // If the prompt background was not touched
+            else if (!captureEvent)
             {
-                // If the prompt background was not touched
-                if (!captureEvent)
-                {
-                    captureEvent = mPromptOptions.getCaptureTouchEventOutsidePrompt();
-                }
-                if (mPromptTouchedListener != null)
-                {
-                    mPromptTouchedListener.onNonFocalPressed();
-                }
+                captureEvent = mPromptOptions.getCaptureTouchEventOutsidePrompt();
+            }
+            mPressPending = false;
+            if (!captureEvent || event.getActionMasked() == MotionEvent.ACTION_UP)
+            {
+                notifyPressed();
+            }
+            else if (event.getActionMasked() != MotionEvent.ACTION_CANCEL)
+            {
+                mPressPending = true;
+                mGestureDownX = x;
+                mGestureDownY = y;
             }
             return captureEvent;
         }
 
+        /**
+         * Handles the rest of a captured gesture, notifying the listener of the press when the
+         * gesture ends unless it moved far enough to be a drag.
+         *
+         * @param event The touch event after the first event in the gesture.
+         */
+        void handlePendingPress(MotionEvent event)
+        {
+            switch (event.getActionMasked())
+            {
+                case MotionEvent.ACTION_MOVE:
+                    final float deltaX = event.getX() - mGestureDownX;
+                    final float deltaY = event.getY() - mGestureDownY;
+                    if ((deltaX * deltaX) + (deltaY * deltaY) > mTouchSlop * mTouchSlop)
+                    {
+                        // Dragging is not a press
+                        mPressPending = false;
+                    }
+                    break;
+                case MotionEvent.ACTION_UP:
+                    mPressPending = false;
+                    notifyPressed();
+                    break;
+                case MotionEvent.ACTION_CANCEL:
+                    mPressPending = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Notifies the listener whether the focal or somewhere else was pressed.
+         */
+        void notifyPressed()
+        {
+            if (mPromptTouchedListener == null)
+            {
+                return;
+            }
+            if (mPressedFocalIndex != -1)
+            {
+                mPromptTouchedListener.onFocalPressed();
+            }
+            else
+            {
+                mPromptTouchedListener.onNonFocalPressed();
+            }
+        }
+
         @Override
         public boolean dispatchKeyEventPreIme(KeyEvent event)
         {
@@ -1176,6 +2226,25 @@ public class MaterialTapTargetPrompt
         void onPromptStateChanged(@NonNull final MaterialTapTargetPrompt prompt, final int state);
     }
 
+    /**
+     * Interface definition for a callback to be invoked when the rendering profile is selected
+     * as a prompt is shown.
+     */
+    public interface RenderingProfileListener
+    {
+        /**
+         * Called when the prompt is shown with the rendering profile that it is drawn with.
+         *
+         * @param prompt The prompt that is being shown.
+         * @param profile Either {@link PromptOptions#RENDERING_PROFILE_FULL} or
+         *                {@link PromptOptions#RENDERING_PROFILE_LOW_END}.
+         * @param automatic True if the profile was selected from the device class, false if it
+         *                  was set with {@link PromptOptions#setRenderingProfile(int)}.
+         */
+        void onRenderingProfileSelected(@NonNull final MaterialTapTargetPrompt prompt,
+                                        final int profile, final boolean automatic);
+    }
+
     static class AnimatorListener implements Animator.AnimatorListener
     {
 
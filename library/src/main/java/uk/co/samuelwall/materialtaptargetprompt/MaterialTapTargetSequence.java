@@ -16,12 +16,19 @@
 
 package uk.co.samuelwall.materialtaptargetprompt;
 
+import android.os.Bundle;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometryPlanner;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceItem;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceItemShowFor;
@@ -33,6 +40,11 @@ import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceStatePro
  */
 public class MaterialTapTargetSequence
 {
+    /**
+     * The key used by {@link #saveState(Bundle)} to save the index of the showing prompt.
+     */
+    static final String STATE_KEY_INDEX = "uk.co.samuelwall.materialtaptargetprompt.sequence_index";
+
     /**
      * The list of prompts to display when the sequence is shown
      */
@@ -59,7 +71,7 @@ public class MaterialTapTargetSequence
             final MaterialTapTargetPrompt prompt = currentItem.getState().getPrompt();
             if (prompt != null)
             {
-                prompt.mView.mPromptOptions.setSequenceListener(null);
+                prompt.mPromptOptions.setSequenceListener(null);
             }
             nextPromptIndex++;
             // Check if there is another prompt to show
@@ -67,10 +79,14 @@ public class MaterialTapTargetSequence
             {
                 show(nextPromptIndex);
             }
-            else if (mOnCompleteListener != null)
+            else
             {
-                mOnCompleteListener.onSequenceComplete();
-                nextPromptIndex = -1;
+                invalidatePlan();
+                if (mOnCompleteListener != null)
+                {
+                    mOnCompleteListener.onSequenceComplete();
+                    nextPromptIndex = -1;
+                }
             }
         }
     };
@@ -81,6 +97,25 @@ public class MaterialTapTargetSequence
     @Nullable
     private SequenceCompleteListener mOnCompleteListener;
 
+    /**
+     * The geometry planned for the sequence prompts by {@link #plan()}.
+     */
+    @Nullable
+    private PromptGeometryPlanner mPlanner;
+
+    /**
+     * The life-cycle that the sequence is bound to, null when not bound.
+     */
+    @Nullable
+    private Lifecycle mLifecycle;
+
+    /**
+     * Pauses the current prompt animations when the life-cycle owner is stopped and releases the
+     * sequence when it is destroyed.
+     */
+    @NonNull
+    private final LifecycleEventObserver mLifecycleObserver = (source, event) -> onLifecycleEvent(event);
+
     /**
      * Set the listener to listen with the action to call when the sequence ends
      * @param listener the listener with the action to execute
@@ -216,12 +251,237 @@ public class MaterialTapTargetSequence
         return this;
     }
 
+    /**
+     * Calculates the geometry for all the prompts in the sequence in a single pass, instead of
+     * when each prompt is shown. The target views of prompts targeted by id are found again in a
+     * single traversal of the view hierarchy. The planned geometry is reused when each prompt is
+     * shown unless the layout has changed and is discarded when the position or size of the
+     * prompt parent view changes, the prompt parent view is detached from its window or
+     * {@link #unbindFromLifecycle()} is called.
+     * Prompts that are currently showing and custom sequence states are not planned.
+     *
+     * @return This.
+     */
+    @NonNull
+    public MaterialTapTargetSequence plan()
+    {
+        invalidatePlan();
+        final List<PromptOptions> options = new ArrayList<>(this.items.size());
+        for (int i = 0, count = this.items.size(); i < count; i++)
+        {
+            // The current prompt is already showing
+            options.add(i == this.nextPromptIndex ? null : getPlannableOptions(this.items.get(i).getState()));
+        }
+        mPlanner = new PromptGeometryPlanner(options);
+        mPlanner.plan();
+        return this;
+    }
+
+    /**
+     * Get the geometry planned for a prompt by {@link #plan()}.
+     *
+     * @param index The 0 based index of the prompt in the sequence.
+     * @return The planned geometry or null if not planned or the plan is out of date.
+     */
+    @Nullable
+    public PromptGeometry getPlannedGeometry(final int index)
+    {
+        if (mPlanner == null || !mPlanner.isPlanned())
+        {
+            return null;
+        }
+        return mPlanner.getGeometry(index);
+    }
+
+    /**
+     * Discard the geometry planned by {@link #plan()}.
+     */
+    private void invalidatePlan()
+    {
+        if (mPlanner != null)
+        {
+            mPlanner.invalidate();
+            mPlanner = null;
+        }
+    }
+
+    /**
+     * Get the options for a sequence state if the prompt can be planned.
+     *
+     * @param state The sequence item state.
+     * @return The options or null if the prompt is showing or the options are unknown.
+     */
+    @Nullable
+    private static PromptOptions getPlannableOptions(@NonNull final SequenceState state)
+    {
+        if (state instanceof SequenceStatePromptOptions)
+        {
+            return ((SequenceStatePromptOptions) state).getPromptOptions();
+        }
+        final MaterialTapTargetPrompt prompt = state.getPrompt();
+        if (prompt == null || prompt.isStarting() || prompt.isDismissing())
+        {
+            return null;
+        }
+        return prompt.mPromptOptions;
+    }
+
+    /**
+     * Binds the sequence to a life-cycle so that the current prompt animations are paused while
+     * the owner is stopped and the sequence is released when the owner is destroyed.
+     * The sequence is released immediately if the owner has already been destroyed.
+     *
+     * @param owner The life-cycle owner that the sequence is displayed in.
+     * @return This.
+     * @see #release()
+     */
+    @NonNull
+    public MaterialTapTargetSequence bindToLifecycle(@NonNull final LifecycleOwner owner)
+    {
+        removeLifecycleObserver();
+        final Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED)
+        {
+            release();
+            return this;
+        }
+        mLifecycle = lifecycle;
+        lifecycle.addObserver(mLifecycleObserver);
+        return this;
+    }
+
+    /**
+     * Stops listening to the life-cycle that the sequence was bound to with
+     * {@link #bindToLifecycle(LifecycleOwner)} and discards the geometry planned by
+     * {@link #plan()}, so that the sequence no longer listens for layout changes.
+     *
+     * @return This.
+     */
+    @NonNull
+    public MaterialTapTargetSequence unbindFromLifecycle()
+    {
+        removeLifecycleObserver();
+        invalidatePlan();
+        return this;
+    }
+
+    /**
+     * Stops listening to the life-cycle that the sequence was bound to.
+     */
+    private void removeLifecycleObserver()
+    {
+        if (mLifecycle != null)
+        {
+            mLifecycle.removeObserver(mLifecycleObserver);
+            mLifecycle = null;
+        }
+    }
+
+    /**
+     * Handles an event from the life-cycle that the sequence is bound to.
+     *
+     * @param event The life-cycle event.
+     */
+    void onLifecycleEvent(@NonNull final Lifecycle.Event event)
+    {
+        final MaterialTapTargetPrompt prompt;
+        switch (event)
+        {
+            case ON_START:
+                prompt = getCurrentPrompt();
+                if (prompt != null)
+                {
+                    prompt.resumeAnimations();
+                }
+                break;
+            case ON_STOP:
+                prompt = getCurrentPrompt();
+                if (prompt != null)
+                {
+                    prompt.pauseAnimations();
+                }
+                break;
+            case ON_DESTROY:
+                release();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Immediately removes the current prompt from view without continuing the sequence or calling
+     * the complete listener, then releases all the prompts and options in the sequence and
+     * removes them from the sequence.
+     *
+     * @see MaterialTapTargetPrompt#release()
+     */
+    public void release()
+    {
+        unbindFromLifecycle();
+        invalidatePlan();
+        final MaterialTapTargetPrompt currentPrompt = getCurrentPrompt();
+        for (final SequenceItem item : this.items)
+        {
+            item.setSequenceListener(null);
+            final SequenceState state = item.getState();
+            if (state instanceof SequenceStatePromptOptions)
+            {
+                // Don't create a prompt just to release it
+                ((SequenceStatePromptOptions) state).getPromptOptions().release();
+            }
+            else
+            {
+                final MaterialTapTargetPrompt prompt = state.getPrompt();
+                if (prompt != null)
+                {
+                    prompt.release();
+                }
+            }
+        }
+        if (currentPrompt != null)
+        {
+            currentPrompt.release();
+        }
+        this.items.clear();
+        this.nextPromptIndex = -1;
+        mOnCompleteListener = null;
+    }
+
+    /**
+     * Get the prompt for the sequence item that is currently showing.
+     *
+     * @return The current prompt or null if the sequence isn't showing.
+     */
+    @Nullable
+    private MaterialTapTargetPrompt getCurrentPrompt()
+    {
+        if (this.nextPromptIndex > -1 && this.nextPromptIndex < this.items.size())
+        {
+            return this.items.get(this.nextPromptIndex).getState().getPrompt();
+        }
+        return null;
+    }
+
     /**
      * Shows a prompt from a sequence item at the supplied index.
      *
      * @param index The 0 based index for the sequence item to show.
      */
     private void show(final int index)
+    {
+        getItemForShowing(index).show();
+    }
+
+    /**
+     * Adds the listeners to the sequence item at the supplied index that trigger the next
+     * prompt in the sequence.
+     *
+     * @param index The 0 based index for the sequence item to show.
+     * @return The sequence item.
+     */
+    @NonNull
+    private SequenceItem getItemForShowing(final int index)
     {
         final SequenceItem sequenceItem = this.items.get(index);
         sequenceItem.setSequenceListener(this.itemListener);
@@ -229,9 +489,43 @@ public class MaterialTapTargetSequence
         if (prompt != null)
         {
             // add the listener to trigger the next in the sequence
-            prompt.mView.mPromptOptions.setSequenceListener(sequenceItem);
+            prompt.mPromptOptions.setSequenceListener(sequenceItem);
         }
-        sequenceItem.show();
+        return sequenceItem;
+    }
+
+    /**
+     * Saves the index of the prompt that is showing, so that the sequence can continue from the
+     * same prompt after a configuration change with {@link #restoreState(Bundle, long)}.
+     *
+     * @param outState The bundle to save the state in.
+     */
+    public void saveState(@NonNull final Bundle outState)
+    {
+        final MaterialTapTargetPrompt prompt = getCurrentPrompt();
+        outState.putInt(STATE_KEY_INDEX,
+                prompt != null && !prompt.isComplete() ? this.nextPromptIndex : -1);
+    }
+
+    /**
+     * Continues the sequence from the prompt that was showing when the state was saved with
+     * {@link #saveState(Bundle)}. The prompt is shown in the revealed state without the reveal
+     * animation once its target has been laid out.
+     *
+     * @param savedState The bundle that the sequence state was saved in.
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     * @return True if a prompt was showing and is being restored.
+     */
+    public boolean restoreState(@Nullable final Bundle savedState, final long timeoutMillis)
+    {
+        final int index = savedState != null ? savedState.getInt(STATE_KEY_INDEX, -1) : -1;
+        if (index < 0 || index >= this.items.size())
+        {
+            return false;
+        }
+        this.nextPromptIndex = index;
+        getItemForShowing(index).restore(timeoutMillis);
+        return true;
     }
 
     /**
@@ -250,7 +544,7 @@ public class MaterialTapTargetSequence
             final MaterialTapTargetPrompt prompt = sequenceItem.getState().getPrompt();
             if (prompt != null)
             {
-                prompt.mView.mPromptOptions.setSequenceListener(null);
+                prompt.mPromptOptions.setSequenceListener(null);
             }
             sequenceItem.finish();
         }
@@ -273,7 +567,7 @@ public class MaterialTapTargetSequence
             final MaterialTapTargetPrompt prompt = sequenceItem.getState().getPrompt();
             if (prompt != null)
             {
-                prompt.mView.mPromptOptions.setSequenceListener(null);
+                prompt.mPromptOptions.setSequenceListener(null);
             }
             sequenceItem.dismiss();
         }
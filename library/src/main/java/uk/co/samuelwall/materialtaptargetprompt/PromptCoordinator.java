@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.text.TextUtils;
+import android.view.View;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+/**
+ * Shows the prompts requested for a window one at a time in priority order.
+ * <p>
+ * Showing a prompt while another prompt is displayed in the same window removes the displayed
+ * prompt, so features that request prompts at the same time replace each others prompts.
+ * Enqueuing the prompts with the coordinator instead waits for the displayed prompt to be
+ * finished or dismissed before the next prompt is created and shown. Requests for the same
+ * options or with the same key as a request that is already queued or showing are ignored.
+ * </p>
+ * <p>
+ * The coordinator is stored as a tag on the window root view and the queue is cleared when the
+ * root view is detached from the window, which happens when the activity or dialog is destroyed.
+ * </p>
+ */
+public final class PromptCoordinator implements View.OnAttachStateChangeListener
+{
+    /**
+     * The priority used when a priority isn't supplied.
+     */
+    public static final int PRIORITY_DEFAULT = 0;
+
+    /**
+     * The requests waiting to be shown, ordered highest priority first and then in the order
+     * that they were enqueued.
+     */
+    @NonNull final List<Request> mQueue = new ArrayList<>();
+
+    /**
+     * The request for the prompt that is currently showing.
+     */
+    @Nullable Request mCurrent;
+
+    /**
+     * Use {@link #get(ResourceFinder)}.
+     */
+    PromptCoordinator()
+    {
+
+    }
+
+    /**
+     * Get the coordinator for the window that the resource finder displays prompts in.
+     *
+     * @param resourceFinder The resource finder for the prompts.
+     * @return The coordinator for the window.
+     */
+    @MainThread
+    @NonNull
+    public static PromptCoordinator get(@NonNull final ResourceFinder resourceFinder)
+    {
+        final View rootView = resourceFinder.getPromptParentView().getRootView();
+        PromptCoordinator coordinator =
+                (PromptCoordinator) rootView.getTag(R.id.material_target_prompt_coordinator);
+        if (coordinator == null)
+        {
+            coordinator = new PromptCoordinator();
+            rootView.setTag(R.id.material_target_prompt_coordinator, coordinator);
+            rootView.addOnAttachStateChangeListener(coordinator);
+        }
+        return coordinator;
+    }
+
+    /**
+     * Adds a request to show a prompt with the default priority.
+     *
+     * @param options The options to create the prompt from when it is shown.
+     * @return False if the request is a duplicate and has been ignored.
+     * @see #enqueue(PromptOptions, int, String)
+     */
+    @MainThread
+    public boolean enqueue(@NonNull final PromptOptions options)
+    {
+        return enqueue(options, PRIORITY_DEFAULT, null);
+    }
+
+    /**
+     * Adds a request to show a prompt. The prompt is created and shown straight away if no other
+     * prompt is showing, otherwise it is shown after the prompts that were requested with a
+     * higher or equal priority have been finished or dismissed. A showing prompt is never
+     * removed for a higher priority request.
+     * <p>
+     * If a request with the same options or key is already queued then the request is ignored,
+     * the queued request is moved up if the new priority is higher.
+     * </p>
+     *
+     * @param options The options to create the prompt from when it is shown.
+     * @param priority The request priority, higher values are shown first.
+     * @param key Identifies requests for the same prompt or null to only compare the options.
+     * @return False if the request is a duplicate and has been ignored.
+     */
+    @MainThread
+    public boolean enqueue(@NonNull final PromptOptions options, final int priority,
+                           @Nullable final String key)
+    {
+        if (mCurrent != null && mCurrent.matches(options, key))
+        {
+            return false;
+        }
+        for (int i = 0, count = mQueue.size(); i < count; i++)
+        {
+            final Request queued = mQueue.get(i);
+            if (queued.matches(options, key))
+            {
+                if (priority > queued.mPriority)
+                {
+                    mQueue.remove(i);
+                    insert(new Request(queued.mOptions, priority, queued.mKey));
+                }
+                return false;
+            }
+        }
+        insert(new Request(options, priority, key));
+        showNext();
+        return true;
+    }
+
+    /**
+     * Removes a queued request that hasn't been shown yet.
+     *
+     * @param key The key that the request was enqueued with.
+     * @return True if a request was removed.
+     */
+    @MainThread
+    public boolean cancel(@NonNull final String key)
+    {
+        for (int i = 0, count = mQueue.size(); i < count; i++)
+        {
+            if (TextUtils.equals(key, mQueue.get(i).mKey))
+            {
+                mQueue.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all the queued requests, the prompt that is currently showing is not removed.
+     */
+    @MainThread
+    public void clear()
+    {
+        mQueue.clear();
+    }
+
+    /**
+     * Get the number of requests waiting to be shown.
+     *
+     * @return The number of queued requests.
+     */
+    public int getQueuedCount()
+    {
+        return mQueue.size();
+    }
+
+    /**
+     * Get the prompt that the coordinator is currently showing.
+     *
+     * @return The showing prompt or null if no prompt is showing.
+     */
+    @Nullable
+    public MaterialTapTargetPrompt getCurrentPrompt()
+    {
+        return mCurrent != null ? mCurrent.mPrompt : null;
+    }
+
+    /**
+     * Called by a prompt shown by the coordinator when it has been finished or dismissed.
+     *
+     * @param prompt The prompt that has been removed.
+     */
+    void onPromptComplete(@NonNull final MaterialTapTargetPrompt prompt)
+    {
+        if (mCurrent != null && mCurrent.mPrompt == prompt)
+        {
+            mCurrent = null;
+            showNext();
+        }
+    }
+
+    /**
+     * Called by a prompt shown by the coordinator when it has been released. The next prompt
+     * isn't shown as the window is most likely being destroyed.
+     *
+     * @param prompt The prompt that has been released.
+     */
+    void onPromptReleased(@NonNull final MaterialTapTargetPrompt prompt)
+    {
+        if (mCurrent != null && mCurrent.mPrompt == prompt)
+        {
+            mCurrent = null;
+        }
+    }
+
+    /**
+     * Adds the request after the requests with a higher or equal priority.
+     *
+     * @param request The request to add.
+     */
+    private void insert(@NonNull final Request request)
+    {
+        int index = mQueue.size();
+        while (index > 0 && mQueue.get(index - 1).mPriority < request.mPriority)
+        {
+            index--;
+        }
+        mQueue.add(index, request);
+    }
+
+    /**
+     * Shows the highest priority request if no prompt is showing. Requests that don't create a
+     * prompt are skipped.
+     */
+    private void showNext()
+    {
+        while (mCurrent == null && !mQueue.isEmpty())
+        {
+            final Request request = mQueue.remove(0);
+            final MaterialTapTargetPrompt prompt = request.mOptions.create();
+            if (prompt == null)
+            {
+                continue;
+            }
+            request.mPrompt = prompt;
+            mCurrent = request;
+            prompt.mCoordinator = this;
+            prompt.show();
+        }
+    }
+
+    @Override
+    public void onViewAttachedToWindow(final View v)
+    {
+
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(final View v)
+    {
+        // The window has been removed so drop the requests
+        mQueue.clear();
+        mCurrent = null;
+        v.removeOnAttachStateChangeListener(this);
+        v.setTag(R.id.material_target_prompt_coordinator, null);
+    }
+
+    /**
+     * A request to show a prompt.
+     */
+    static class Request
+    {
+        @NonNull final PromptOptions mOptions;
+        final int mPriority;
+        @Nullable final String mKey;
+        @Nullable MaterialTapTargetPrompt mPrompt;
+
+        Request(@NonNull final PromptOptions options, final int priority,
+                @Nullable final String key)
+        {
+            mOptions = options;
+            mPriority = priority;
+            mKey = key;
+        }
+
+        /**
+         * Is this request for the same prompt as the supplied options and key.
+         *
+         * @param options The options for the other request.
+         * @param key The key for the other request.
+         * @return True if the requests are duplicates.
+         */
+        boolean matches(@NonNull final PromptOptions options, @Nullable final String key)
+        {
+            return mOptions == options || (key != null && key.equals(mKey));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool of {@link MaterialTapTargetPrompt.PromptView}s that have been removed from view so that
+ * they can be reused by the next prompt shown in the same window.
+ * <p>
+ * The pool also tracks the prompt views that are being shown in the window, so showing a prompt
+ * can find out if another prompt is displayed without searching the view hierarchy.
+ * <p>
+ * The pool is stored as a tag on the window root view and is cleared when the root view is
+ * detached from the window, which happens when the activity or dialog is destroyed.
+ */
+class PromptViewPool implements View.OnAttachStateChangeListener
+{
+    /**
+     * The maximum number of views kept for reuse in each window.
+     */
+    @VisibleForTesting
+    static final int MAX_POOL_SIZE = 2;
+
+    /**
+     * The views available for reuse.
+     */
+    @NonNull final List<MaterialTapTargetPrompt.PromptView> mViews = new ArrayList<>(MAX_POOL_SIZE);
+
+    /**
+     * The views that have been added by a prompt host and not removed yet.
+     */
+    @NonNull final List<MaterialTapTargetPrompt.PromptView> mShownViews = new ArrayList<>(1);
+
+    /**
+     * Get a prompt view for the window that the resource finder displays prompts in.
+     * A pooled view is returned if one is available, otherwise a new view is created.
+     *
+     * @param resourceFinder The resource finder for the prompt.
+     * @return The prompt view to use.
+     */
+    @NonNull
+    static MaterialTapTargetPrompt.PromptView obtain(@NonNull final ResourceFinder resourceFinder)
+    {
+        final PromptViewPool pool = getPool(resourceFinder, false);
+        if (pool != null)
+        {
+            for (int i = pool.mViews.size() - 1; i >= 0; i--)
+            {
+                final MaterialTapTargetPrompt.PromptView view = pool.mViews.get(i);
+                // Views can only be reused with the context that they were created with
+                if (view.getContext() == resourceFinder.getContext())
+                {
+                    pool.mViews.remove(i);
+                    return view;
+                }
+            }
+        }
+        return new MaterialTapTargetPrompt.PromptView(resourceFinder.getContext());
+    }
+
+    /**
+     * Add a prompt view that is no longer in use to the pool for the window that the resource
+     * finder displays prompts in. The view is discarded if the pool is full, otherwise it drops
+     * its references to the prompt that was using it.
+     *
+     * @param resourceFinder The resource finder for the prompt.
+     * @param view The view that is no longer displayed.
+     */
+    static void release(@NonNull final ResourceFinder resourceFinder,
+                        @NonNull final MaterialTapTargetPrompt.PromptView view)
+    {
+        if (view.getParent() != null)
+        {
+            return;
+        }
+        final PromptViewPool pool = getPool(resourceFinder, true);
+        if (pool != null && pool.mViews.size() < MAX_POOL_SIZE && !pool.mViews.contains(view))
+        {
+            view.unbindPrompt();
+            pool.mViews.add(view);
+        }
+    }
+
+    /**
+     * Remove a view from the pool so that it is not given to another prompt.
+     *
+     * @param resourceFinder The resource finder for the prompt.
+     * @param view The view to remove.
+     */
+    static void remove(@NonNull final ResourceFinder resourceFinder,
+                       @NonNull final MaterialTapTargetPrompt.PromptView view)
+    {
+        final PromptViewPool pool = getPool(resourceFinder, false);
+        if (pool != null)
+        {
+            pool.mViews.remove(view);
+        }
+    }
+
+    /**
+     * Record that a prompt view has been added by the prompt host.
+     *
+     * @param resourceFinder The resource finder for the prompt.
+     * @param view The view that is displayed.
+     */
+    static void onViewShown(@NonNull final ResourceFinder resourceFinder,
+                            @NonNull final MaterialTapTargetPrompt.PromptView view)
+    {
+        final PromptViewPool pool = getPool(resourceFinder, true);
+        if (pool != null && !pool.mShownViews.contains(view))
+        {
+            pool.mShownViews.add(view);
+        }
+    }
+
+    /**
+     * Record that a prompt view has been removed by the prompt host.
+     *
+     * @param resourceFinder The resource finder for the prompt.
+     * @param view The view that is no longer displayed.
+     */
+    static void onViewRemoved(@NonNull final ResourceFinder resourceFinder,
+                              @NonNull final MaterialTapTargetPrompt.PromptView view)
+    {
+        final PromptViewPool pool = getPool(resourceFinder, false);
+        if (pool != null)
+        {
+            pool.mShownViews.remove(view);
+        }
+    }
+
+    /**
+     * Is a prompt view being shown in the window that the resource finder displays prompts in.
+     *
+     * @param resourceFinder The resource finder for the prompt.
+     * @return True if a prompt view has been added and not removed.
+     */
+    static boolean isViewShown(@NonNull final ResourceFinder resourceFinder)
+    {
+        final PromptViewPool pool = getPool(resourceFinder, false);
+        if (pool == null)
+        {
+            return false;
+        }
+        for (int i = pool.mShownViews.size() - 1; i >= 0; i--)
+        {
+            // Drop views that have been removed without going through the prompt
+            if (pool.mShownViews.get(i).getParent() == null)
+            {
+                pool.mShownViews.remove(i);
+            }
+        }
+        return !pool.mShownViews.isEmpty();
+    }
+
+    /**
+     * Get the pool stored on the window root view.
+     *
+     * @param resourceFinder The resource finder for the prompt.
+     * @param create True to create the pool if it does not exist.
+     * @return The pool or null if there is no pool or the root view could not be found.
+     */
+    @Nullable
+    static PromptViewPool getPool(@NonNull final ResourceFinder resourceFinder,
+                                  final boolean create)
+    {
+        final ViewGroup parent = resourceFinder.getPromptParentView();
+        final View rootView = parent != null ? parent.getRootView() : null;
+        if (rootView == null)
+        {
+            return null;
+        }
+        PromptViewPool pool = (PromptViewPool) rootView.getTag(R.id.material_target_prompt_view_pool);
+        if (pool == null && create)
+        {
+            pool = new PromptViewPool();
+            rootView.setTag(R.id.material_target_prompt_view_pool, pool);
+            rootView.addOnAttachStateChangeListener(pool);
+        }
+        return pool;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(final View v)
+    {
+
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(final View v)
+    {
+        // The window has been removed so release the views
+        mViews.clear();
+        mShownViews.clear();
+        v.removeOnAttachStateChangeListener(this);
+        v.setTag(R.id.material_target_prompt_view_pool, null);
+    }
+}
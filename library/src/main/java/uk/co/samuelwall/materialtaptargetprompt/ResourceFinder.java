@@ -45,6 +45,36 @@ public interface ResourceFinder
     @Nullable
     View findViewById(@IdRes int resId);
 
+    /**
+     * Finds the child views for several identifiers. Implementations should override this to
+     * find all the views in a single traversal of the view hierarchy.
+     *
+     * @param resIds The identifiers of the views to find.
+     * @param outViews Receives the views in the same order as the identifiers, null for
+     *                 identifiers that do not exist. Must be at least as long as resIds.
+     */
+    default void findViewsById(@NonNull @IdRes int[] resIds, @NonNull View[] outViews)
+    {
+        for (int i = 0; i < resIds.length; i++)
+        {
+            outViews[i] = findViewById(resIds[i]);
+        }
+    }
+
+    /**
+     * Get the view that {@link #findViewById(int)} searches in, so that the views for several
+     * prompts sharing the same root view can be found in a single traversal.
+     * Base implementation returns null, the views are found using
+     * {@link #findViewsById(int[], View[])} instead.
+     *
+     * @return The view searched in or null if unknown.
+     */
+    @Nullable
+    default View getSearchRootView()
+    {
+        return null;
+    }
+
     /**
      * Get the view to add the prompt to.
      *
@@ -43,6 +43,12 @@ public class SupportFragmentResourceFinder implements ResourceFinder
      */
     private ViewGroup parent;
 
+    /**
+     * Finds and caches views within the fragment view.
+     */
+    @NonNull
+    private final ViewIdResolver viewIdResolver = new ViewIdResolver();
+
     /**
      * Constructor.
      *
@@ -57,7 +63,22 @@ public class SupportFragmentResourceFinder implements ResourceFinder
     @Override
     public View findViewById(int resId)
     {
-        return this.fragment.getView().findViewById(resId);
+        //noinspection ConstantConditions
+        return this.viewIdResolver.findViewById(this.fragment.getView(), resId);
+    }
+
+    @Override
+    public void findViewsById(@NonNull int[] resIds, @NonNull View[] outViews)
+    {
+        //noinspection ConstantConditions
+        this.viewIdResolver.findViewsById(this.fragment.getView(), resIds, outViews);
+    }
+
+    @Nullable
+    @Override
+    public View getSearchRootView()
+    {
+        return this.fragment.getView();
     }
 
     @NonNull
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.os.Build;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.IdRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds views by id within a root view, resolving several ids in a single traversal of the view
+ * hierarchy and caching the found views.
+ * <p>
+ * Views are cached with weak references so the cache does not keep removed views alive. A cached
+ * view is only returned while it still has the id and is still within the root view, and the
+ * cache is cleared the next time the view tree is laid out as views have been added or removed.
+ * </p>
+ */
+public class ViewIdResolver implements ViewTreeObserver.OnGlobalLayoutListener
+{
+    /**
+     * The found views keyed by id.
+     */
+    @NonNull private final SparseArray<WeakReference<View>> mCache = new SparseArray<>();
+
+    /**
+     * The root view that the cached views were found in.
+     */
+    @Nullable private WeakReference<View> mRoot;
+
+    /**
+     * The observer that the layout listener is registered with.
+     */
+    @Nullable private ViewTreeObserver mViewTreeObserver;
+
+    /**
+     * Traversal stack reused between finds.
+     */
+    @NonNull private final List<View> mStack = new ArrayList<>();
+
+    /**
+     * Finds the first view with the id within the root view.
+     *
+     * @param root The view to search in.
+     * @param resId The id of the view to find.
+     * @return The found view or null if no view has the id.
+     */
+    @Nullable
+    public View findViewById(@NonNull final View root, @IdRes final int resId)
+    {
+        final View[] outViews = new View[1];
+        findViewsById(root, new int[] {resId}, outViews);
+        return outViews[0];
+    }
+
+    /**
+     * Finds the first view for each id within the root view, traversing the view hierarchy at
+     * most once for all the ids that are not cached.
+     *
+     * @param root The view to search in.
+     * @param resIds The ids of the views to find.
+     * @param outViews Receives the found views in the same order as the ids, null for ids that
+     *                 no view has. Must be at least as long as resIds.
+     */
+    public void findViewsById(@NonNull final View root, @NonNull @IdRes final int[] resIds,
+                              @NonNull final View[] outViews)
+    {
+        setRoot(root);
+        int missing = 0;
+        for (int i = 0; i < resIds.length; i++)
+        {
+            outViews[i] = getCachedView(root, resIds[i]);
+            if (outViews[i] == null && resIds[i] != View.NO_ID)
+            {
+                missing++;
+            }
+        }
+        if (missing == 0)
+        {
+            return;
+        }
+
+        // Depth first in child order to find the same views as View.findViewById
+        mStack.add(root);
+        while (missing > 0 && !mStack.isEmpty())
+        {
+            final View view = mStack.remove(mStack.size() - 1);
+            final int id = view.getId();
+            if (id != View.NO_ID)
+            {
+                for (int i = 0; i < resIds.length; i++)
+                {
+                    if (outViews[i] == null && resIds[i] == id)
+                    {
+                        outViews[i] = view;
+                        missing--;
+                    }
+                }
+            }
+            if (view instanceof ViewGroup)
+            {
+                final ViewGroup group = (ViewGroup) view;
+                for (int i = group.getChildCount() - 1; i >= 0; i--)
+                {
+                    mStack.add(group.getChildAt(i));
+                }
+            }
+        }
+        mStack.clear();
+
+        for (int i = 0; i < resIds.length; i++)
+        {
+            if (outViews[i] != null)
+            {
+                mCache.put(resIds[i], new WeakReference<>(outViews[i]));
+            }
+        }
+        if (mCache.size() > 0)
+        {
+            addLayoutListener(root);
+        }
+    }
+
+    /**
+     * Clears the cached views.
+     */
+    public void clear()
+    {
+        mCache.clear();
+        removeLayoutListener();
+    }
+
+    @Override
+    public void onGlobalLayout()
+    {
+        clear();
+    }
+
+    /**
+     * Clears the cache if the root view has changed.
+     *
+     * @param root The root view being searched.
+     */
+    private void setRoot(@NonNull final View root)
+    {
+        if (mRoot == null || mRoot.get() != root)
+        {
+            clear();
+            mRoot = new WeakReference<>(root);
+        }
+    }
+
+    /**
+     * Get a cached view if it still has the id and is within the root view.
+     *
+     * @param root The root view being searched.
+     * @param resId The view id.
+     * @return The cached view or null.
+     */
+    @Nullable
+    private View getCachedView(@NonNull final View root, @IdRes final int resId)
+    {
+        final WeakReference<View> reference = mCache.get(resId);
+        final View view = reference != null ? reference.get() : null;
+        if (view == null)
+        {
+            return null;
+        }
+        if (view.getId() == resId)
+        {
+            View current = view;
+            while (current != root)
+            {
+                final ViewParent parent = current.getParent();
+                if (!(parent instanceof View))
+                {
+                    current = null;
+                    break;
+                }
+                current = (View) parent;
+            }
+            if (current == root)
+            {
+                return view;
+            }
+        }
+        mCache.remove(resId);
+        return null;
+    }
+
+    /**
+     * Listen for the root view tree being laid out to clear the cache.
+     *
+     * @param root The root view.
+     */
+    private void addLayoutListener(@NonNull final View root)
+    {
+        final ViewTreeObserver viewTreeObserver = root.getViewTreeObserver();
+        if (mViewTreeObserver != viewTreeObserver && viewTreeObserver != null)
+        {
+            removeLayoutListener();
+            mViewTreeObserver = viewTreeObserver;
+            viewTreeObserver.addOnGlobalLayoutListener(this);
+        }
+    }
+
+    /**
+     * Stop listening for the view tree being laid out.
+     */
+    private void removeLayoutListener()
+    {
+        if (mViewTreeObserver != null)
+        {
+            if (mViewTreeObserver.isAlive())
+            {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+                {
+                    mViewTreeObserver.removeOnGlobalLayoutListener(this);
+                }
+                else
+                {
+                    //noinspection deprecation
+                    mViewTreeObserver.removeGlobalOnLayoutListener(this);
+                }
+            }
+            mViewTreeObserver = null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Region;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Hit tester for arbitrary {@link Path} shapes, for use by custom {@link PromptFocal} and
+ * {@link PromptBackground} implementations in {@link PromptUIElement#contains(float, float)}.
+ * <p>
+ * Call {@link #setPath(Path)} from {@code update} whenever the path changes. The path is
+ * converted to a {@link Region} the first time a point is tested after it has changed and every
+ * test after that is a bounds check followed by a region lookup.
+ */
+public class PathHitTester
+{
+    /**
+     * The path bounds, used to reject points without checking the region.
+     */
+    @NonNull final RectF mBounds = new RectF();
+
+    /**
+     * The region containing the path area.
+     */
+    @NonNull final Region mRegion = new Region();
+
+    /**
+     * The region used to clip the path when creating {@link #mRegion}.
+     */
+    @NonNull private final Region mClip = new Region();
+
+    /**
+     * The path to test against.
+     */
+    @Nullable private Path mPath;
+
+    /**
+     * Does the region need to be created from the path.
+     */
+    boolean mDirty;
+
+    /**
+     * Set the path to test points against.
+     * Call this whenever the path is modified as well as when it is replaced.
+     *
+     * @param path The shape path or null to not contain any point.
+     */
+    public void setPath(@Nullable final Path path)
+    {
+        mPath = path;
+        mDirty = true;
+    }
+
+    /**
+     * Is the point inside the path.
+     *
+     * @param x x coordinate.
+     * @param y y coordinate.
+     * @return True if the path contains the point.
+     */
+    public boolean contains(final float x, final float y)
+    {
+        if (mPath == null)
+        {
+            return false;
+        }
+        if (mDirty)
+        {
+            mDirty = false;
+            mPath.computeBounds(mBounds, true);
+            mClip.set((int) Math.floor(mBounds.left), (int) Math.floor(mBounds.top),
+                    (int) Math.ceil(mBounds.right), (int) Math.ceil(mBounds.bottom));
+            mRegion.setPath(mPath, mClip);
+        }
+        return mBounds.contains(x, y) && mRegion.contains((int) x, (int) y);
+    }
+}
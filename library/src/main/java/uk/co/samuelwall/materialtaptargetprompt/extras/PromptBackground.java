@@ -16,16 +16,23 @@
 
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
+import android.graphics.Matrix;
 import android.graphics.Path;
 import android.graphics.Rect;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 /**
  * Used to render the prompt background.
  */
 public abstract class PromptBackground implements PromptUIElement
 {
+    /**
+     * The path returned by {@link #getPath()} when the base path is transformed.
+     */
+    @Nullable private Path mTransformedPath;
+
     /**
      * Sets the colour to use for the background.
      *
@@ -44,9 +51,87 @@ public abstract class PromptBackground implements PromptUIElement
                                  boolean clipToBounds, @NonNull Rect clipBounds);
 
     /**
+     * Prepares the background for drawing from a geometry input snapshot.
+     * This is called after the focal and text have been prepared from the same input and can
+     * be called from a background thread when {@link #supportsGeometryInput()} returns true.
+     *
+     * @param options The options from which the prompt was created.
+     * @param input The geometry snapshot to prepare the background with.
+     */
+    public void prepare(@NonNull final PromptOptions options, @NonNull PromptGeometry.Input input)
+    {
+        prepare(options, input.isClipToBounds(), input.getClipBounds());
+    }
+
+    /**
+     * Is the background prepared only from the {@link PromptOptions}, focal, text and clip
+     * bounds without reading any view state, so it is safe to prepare from a
+     * {@link PromptGeometry.Input} on a background thread.
+     *
+     * @return True if the background can be prepared from a geometry input.
+     */
+    public boolean supportsGeometryInput()
+    {
+        return false;
+    }
+
+    /**
+     * Does the background only depend on the values captured in a
+     * {@link PromptGeometry.Input}, so a layout pass with a matching snapshot doesn't need the
+     * background preparing again.
+     * Base implementation returns {@link #supportsGeometryInput()}.
+     *
+     * @return True if the background is prepared only from the geometry snapshot.
+     */
+    public boolean isPreparedOnlyFromSnapshot()
+    {
+        return supportsGeometryInput();
+    }
+
+    /**
+     * Base implementation returns the path from {@link #getBasePath()} transformed by
+     * {@link #getPathMatrix()}, the transformed path is updated each time this is called.
+     *
      * @return The path of the current background, useful for clipping content
      */
     public Path getPath() {
+        final Path basePath = getBasePath();
+        final Matrix matrix = getPathMatrix();
+        if (basePath == null || matrix == null)
+        {
+            return basePath;
+        }
+        if (mTransformedPath == null)
+        {
+            mTransformedPath = new Path();
+        }
+        basePath.transform(matrix, mTransformedPath);
+        return mTransformedPath;
+    }
+
+    /**
+     * Get the background path that is transformed by {@link #getPathMatrix()} for the current
+     * animation frame. Using a transform allows the path to be created once in {@code prepare}
+     * instead of being rebuilt every frame.
+     * Base implementation returns null, {@link #getPath()} is used without a transform instead.
+     *
+     * @return The path to transform or null to use {@link #getPath()}.
+     */
+    @Nullable
+    public Path getBasePath()
+    {
+        return null;
+    }
+
+    /**
+     * Get the transform to apply to the path returned by {@link #getBasePath()} for the current
+     * animation frame.
+     *
+     * @return The matrix to apply to the path or null if the path is already at the current size.
+     */
+    @Nullable
+    public Matrix getPathMatrix()
+    {
         return null;
     }
 }
@@ -16,13 +16,16 @@
 
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
+import android.graphics.Matrix;
 import android.graphics.Path;
 import android.graphics.PointF;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import androidx.annotation.ColorInt;
 import androidx.annotation.FloatRange;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import android.view.View;
 
 /**
@@ -40,6 +43,11 @@ public abstract class PromptFocal implements PromptUIElement
      */
     protected int mBaseRippleAlpha;
 
+    /**
+     * The path returned by {@link #getPath()} when the base path is transformed.
+     */
+    @Nullable private Path mTransformedPath;
+
     /**
      * Sets whether the ripple is drawn around the focal.
      *
@@ -61,10 +69,50 @@ public abstract class PromptFocal implements PromptUIElement
     }
 
     /**
-     * Get the focal path to be drawn. Override this to support a transparent focal colour.
+     * Get the focal path at the current animation size. Override this or {@link #getBasePath()}
+     * to support a transparent focal colour.
+     * Base implementation returns the path from {@link #getBasePath()} transformed by
+     * {@link #getPathMatrix()}, the transformed path is updated each time this is called.
      * @return The path used to draw the focal
      */
     public Path getPath() {
+        final Path basePath = getBasePath();
+        final Matrix matrix = getPathMatrix();
+        if (basePath == null || matrix == null)
+        {
+            return basePath;
+        }
+        if (mTransformedPath == null)
+        {
+            mTransformedPath = new Path();
+        }
+        basePath.transform(matrix, mTransformedPath);
+        return mTransformedPath;
+    }
+
+    /**
+     * Get the focal path that is transformed by {@link #getPathMatrix()} for the current
+     * animation frame. Using a transform allows the path to be created once in {@code prepare}
+     * instead of being rebuilt every frame.
+     * Base implementation returns null, {@link #getPath()} is used without a transform instead.
+     *
+     * @return The path to transform or null to use {@link #getPath()}.
+     */
+    @Nullable
+    public Path getBasePath()
+    {
+        return null;
+    }
+
+    /**
+     * Get the transform to apply to the path returned by {@link #getBasePath()} for the current
+     * animation frame.
+     *
+     * @return The matrix to apply to the path or null if the path is already at the current size.
+     */
+    @Nullable
+    public Matrix getPathMatrix()
+    {
         return null;
     }
 
@@ -81,6 +129,40 @@ public abstract class PromptFocal implements PromptUIElement
      */
     @NonNull
     public PointF calculateAngleEdgePoint(float angle, final float padding)
+    {
+        final PointF point = new PointF();
+        calculateBoundsEdgePoint(angle, padding, point);
+        return point;
+    }
+
+    /**
+     * Calculate the point on the focal edge based on the angle without allocating.
+     * This is called after {@link #prepare(PromptOptions, float, float)} or
+     * {@link #prepare(PromptOptions, View, int[])}.
+     *
+     * Base implementation calls {@link #calculateAngleEdgePoint(float, float)} so focals that
+     * only override that method are still used, override this to prepare without allocating.
+     *
+     * @param angle The angle with 0 based on the right.
+     * @param padding The padding added to the focal bounds.
+     * @param outPoint The point to set to the calculated point.
+     */
+    public void calculateAngleEdgePoint(float angle, final float padding,
+                                        @NonNull final PointF outPoint)
+    {
+        outPoint.set(calculateAngleEdgePoint(angle, padding));
+    }
+
+    /**
+     * Calculate the point on the edge of the focal bounds based on the angle, treating the focal
+     * as a rectangle.
+     *
+     * @param angle The angle with 0 based on the right.
+     * @param padding The padding added to the focal bounds.
+     * @param outPoint The point to set to the calculated point.
+     */
+    protected void calculateBoundsEdgePoint(float angle, final float padding,
+                                            @NonNull final PointF outPoint)
     {
         // Calculate the x and y on the focal from the angle calculated
         final RectF bounds = this.getBounds();
@@ -96,7 +178,20 @@ public abstract class PromptFocal implements PromptUIElement
         final float dx = Math.abs(dxs) < Math.abs(dyc) ? dx1 : dyc / sin;
         final float dy = Math.abs(dxs) < Math.abs(dyc) ? dxs / cos : dy1;*/
 
-        return new PointF(bounds.centerX() + dx1, bounds.centerY() + dy1);
+        outPoint.set(bounds.centerX() + dx1, bounds.centerY() + dy1);
+    }
+
+    /**
+     * Get the index of the focal that contains the point.
+     * Override this when more than one focal is rendered.
+     *
+     * @param x x coordinate.
+     * @param y y coordinate.
+     * @return 0 if the focal contains the point, otherwise -1.
+     */
+    public int findFocalIndex(final float x, final float y)
+    {
+        return contains(x, y) ? 0 : -1;
     }
 
     /**
@@ -106,6 +201,20 @@ public abstract class PromptFocal implements PromptUIElement
      */
     public abstract void setColour(@ColorInt int colour);
 
+    /**
+     * Applies any colours other than the focal colour from the options, called after
+     * {@link #setColour(int)} when the prompt colours are updated. The focal must not be laid
+     * out again.
+     * Base implementation does nothing.
+     *
+     * @param options The options the prompt was created from.
+     * @see PromptOptions#applyColours()
+     */
+    public void updateColours(@NonNull final PromptOptions options)
+    {
+
+    }
+
     /**
      * Get the focal bounds at scale 1.
      * @return The screen area that the focal is drawn in at scale 1.
@@ -113,6 +222,19 @@ public abstract class PromptFocal implements PromptUIElement
     @NonNull
     public abstract RectF getBounds();
 
+    /**
+     * Get the bounds of the focal placed around the prompt target at scale 1, used to position
+     * the icon and the text.
+     * Base implementation returns {@link #getBounds()}.
+     *
+     * @return The screen area that the target focal is drawn in at scale 1.
+     */
+    @NonNull
+    public RectF getTargetBounds()
+    {
+        return getBounds();
+    }
+
     /**
      * Setup the focal ready for rendering when targeting a view, called prior to first render.
      *
@@ -132,6 +254,68 @@ public abstract class PromptFocal implements PromptUIElement
      */
     public abstract void prepare(@NonNull final PromptOptions options, float targetX, float targetY);
 
+    /**
+     * Setup the focal ready for rendering from a geometry input snapshot.
+     * This can be called from a background thread when {@link #supportsGeometryInput()}
+     * returns true.
+     * Base implementation prepares the focal around the centre of the target.
+     *
+     * @param options The option that the prompt was built from.
+     * @param input The geometry snapshot to prepare the focal with.
+     */
+    public void prepare(@NonNull final PromptOptions options, @NonNull PromptGeometry.Input input)
+    {
+        final Rect targetBounds = input.getTargetBounds();
+        if (targetBounds != null)
+        {
+            prepare(options, targetBounds.left + (targetBounds.width() / 2),
+                    targetBounds.top + (targetBounds.height() / 2));
+        }
+        else
+        {
+            final PointF targetPosition = input.getTargetPosition();
+            prepare(options, targetPosition.x, targetPosition.y);
+        }
+    }
+
+    /**
+     * Does {@link #prepare(PromptOptions, PromptGeometry.Input)} produce the same result as
+     * {@link #prepare(PromptOptions, View, int[])} without reading any view state, so the focal
+     * can be prepared on a background thread.
+     * Subclasses that change how the focal is prepared from the target view must override this
+     * to return true only if they also support being prepared from a geometry input.
+     *
+     * @return True if the focal can be prepared from a geometry input.
+     */
+    public boolean supportsGeometryInput()
+    {
+        return false;
+    }
+
+    /**
+     * Does the focal only depend on the values captured in a {@link PromptGeometry.Input}, so
+     * a layout pass with a matching snapshot doesn't need the focal preparing again.
+     * This is separate from {@link #supportsGeometryInput()} as a focal can read view state that
+     * is captured in the snapshot while still needing the main thread to read it.
+     * Base implementation returns {@link #supportsGeometryInput()}.
+     *
+     * @return True if the focal is prepared only from the geometry snapshot.
+     */
+    public boolean isPreparedOnlyFromSnapshot()
+    {
+        return supportsGeometryInput();
+    }
+
+    /**
+     * Drops any references to views held by the focal, called when the prompt options are
+     * released. The focal can't be prepared again afterwards.
+     *
+     * @see PromptOptions#release()
+     */
+    public void release()
+    {
+    }
+
     /**
      * Update the ripple around the focal.
      *
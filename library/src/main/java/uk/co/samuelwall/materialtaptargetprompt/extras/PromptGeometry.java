@@ -0,0 +1,688 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Path;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.text.TextUtils;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The solved placement of a prompt's focal, text and background.
+ *
+ * Solving the geometry is split in two:
+ * <ol>
+ *     <li>{@link Input#capture(PromptOptions, int[], boolean, Rect)} takes an immutable
+ *     snapshot of the view state and the option values that the elements are prepared from.</li>
+ *     <li>{@link #solve(PromptOptions, Input)} prepares the prompt elements from the snapshot
+ *     and returns the immutable result.</li>
+ * </ol>
+ *
+ * The elements belonging to the options are prepared in place, so the geometry must be solved
+ * on the main thread.
+ */
+public final class PromptGeometry
+{
+    /**
+     * The snapshot that the geometry was solved from.
+     */
+    @NonNull private final Input mInput;
+
+    /**
+     * The focal bounds at scale 1.
+     */
+    @NonNull private final RectF mFocalBounds;
+
+    /**
+     * The text bounds.
+     */
+    @NonNull private final RectF mTextBounds;
+
+    /**
+     * The background bounds at scale 1.
+     */
+    @NonNull private final RectF mBackgroundBounds;
+
+    PromptGeometry(@NonNull final Input input, @NonNull final RectF focalBounds,
+                   @NonNull final RectF textBounds, @NonNull final RectF backgroundBounds)
+    {
+        mInput = input;
+        mFocalBounds = new RectF(focalBounds);
+        mTextBounds = new RectF(textBounds);
+        mBackgroundBounds = new RectF(backgroundBounds);
+    }
+
+    /**
+     * Get the view state snapshot that the geometry was solved from.
+     *
+     * @return The geometry input.
+     */
+    @NonNull
+    public Input getInput()
+    {
+        return mInput;
+    }
+
+    /**
+     * Get the focal bounds at scale 1 relative to the prompt view.
+     *
+     * @return A copy of the focal bounds.
+     */
+    @NonNull
+    public RectF getFocalBounds()
+    {
+        return new RectF(mFocalBounds);
+    }
+
+    /**
+     * Get the primary and secondary text bounds relative to the prompt view.
+     *
+     * @return A copy of the text bounds.
+     */
+    @NonNull
+    public RectF getTextBounds()
+    {
+        return new RectF(mTextBounds);
+    }
+
+    /**
+     * Get the background bounds at scale 1 relative to the prompt view.
+     * Empty when the background does not supply a path.
+     *
+     * @return A copy of the background bounds.
+     */
+    @NonNull
+    public RectF getBackgroundBounds()
+    {
+        return new RectF(mBackgroundBounds);
+    }
+
+    /**
+     * Can all the prompt elements be prepared from a geometry input without reading view state.
+     *
+     * @param options The options to check the elements of.
+     * @return True if the geometry can be solved on a background thread.
+     */
+    public static boolean canSolveOffMainThread(@NonNull final PromptOptions options)
+    {
+        return options.getPromptFocal().supportsGeometryInput()
+                && options.getPromptText().supportsGeometryInput()
+                && options.getPromptBackground().supportsGeometryInput();
+    }
+
+    /**
+     * Do all the prompt elements depend only on the values captured in a geometry input, so
+     * they don't need preparing again while the input matches the view state.
+     *
+     * @param options The options to check the elements of.
+     * @return True if the elements are prepared only from the geometry snapshot.
+     */
+    public static boolean isPreparedOnlyFromSnapshot(@NonNull final PromptOptions options)
+    {
+        return options.getPromptFocal().isPreparedOnlyFromSnapshot()
+                && options.getPromptText().isPreparedOnlyFromSnapshot()
+                && options.getPromptBackground().isPreparedOnlyFromSnapshot();
+    }
+
+    /**
+     * Prepare the focal, text and background from the geometry input.
+     * Elements that do not support geometry input are prepared from the live view state so
+     * this must be called on the main thread unless {@link #canSolveOffMainThread(PromptOptions)}
+     * returns true.
+     *
+     * @param options The options containing the elements to prepare.
+     * @param input The view state snapshot.
+     */
+    static void prepare(@NonNull final PromptOptions options, @NonNull final Input input)
+    {
+        final PromptFocal promptFocal = options.getPromptFocal();
+        final View targetView = options.getTargetView();
+        if (promptFocal.supportsGeometryInput() || targetView == null)
+        {
+            promptFocal.prepare(options, input);
+        }
+        else
+        {
+            promptFocal.prepare(options, targetView, input.mPromptViewPosition);
+        }
+
+        final PromptText promptText = options.getPromptText();
+        if (promptText.supportsGeometryInput())
+        {
+            promptText.prepare(options, input);
+        }
+        else
+        {
+            promptText.prepare(options, input.mClipToBounds, input.mClipBounds);
+        }
+
+        final PromptBackground promptBackground = options.getPromptBackground();
+        if (promptBackground.supportsGeometryInput())
+        {
+            promptBackground.prepare(options, input);
+        }
+        else
+        {
+            promptBackground.prepare(options, input.mClipToBounds, input.mClipBounds);
+        }
+    }
+
+    /**
+     * Solve the geometry on the calling thread.
+     *
+     * @param options The options containing the elements to prepare.
+     * @param input The view state snapshot.
+     * @return The solved geometry.
+     */
+    @MainThread
+    @NonNull
+    public static PromptGeometry solve(@NonNull final PromptOptions options, @NonNull final Input input)
+    {
+        prepare(options, input);
+        final RectF backgroundBounds = new RectF();
+        // The base path is at scale 1, the transformed path depends on the last update
+        final Path basePath = options.getPromptBackground().getBasePath();
+        final Path backgroundPath = basePath != null
+                ? basePath : options.getPromptBackground().getPath();
+        if (backgroundPath != null)
+        {
+            backgroundPath.computeBounds(backgroundBounds, true);
+        }
+        return new PromptGeometry(input, options.getPromptFocal().getBounds(),
+                options.getPromptText().getBounds(), backgroundBounds);
+    }
+
+    /**
+     * Immutable snapshot of the view state that the prompt geometry depends on.
+     */
+    public static final class Input
+    {
+        @NonNull final int[] mPromptViewPosition;
+        @Nullable final Rect mTargetBounds;
+        @NonNull final PointF mTargetPosition;
+        final boolean mClipToBounds;
+        @NonNull final Rect mClipBounds;
+        @NonNull final Rect mParentBounds;
+
+        /**
+         * The option values used when preparing the elements, null when the input was not
+         * captured from options.
+         */
+        @Nullable final OptionValues mOptionValues;
+
+        /**
+         * Constructor.
+         *
+         * @param promptViewPosition The prompt view position in the window.
+         * @param targetBounds The target view bounds relative to the prompt view or null when
+         *                     targeting a point.
+         * @param targetPosition The target point relative to the prompt view, used when the
+         *                       target bounds are null.
+         * @param clipToBounds Should the prompt be clipped to the clip bounds.
+         * @param clipBounds The bounds the prompt is clipped to.
+         * @param parentBounds The prompt parent view bounds within its parent.
+         */
+        public Input(@NonNull final int[] promptViewPosition, @Nullable final Rect targetBounds,
+                     @NonNull final PointF targetPosition, final boolean clipToBounds,
+                     @NonNull final Rect clipBounds, @NonNull final Rect parentBounds)
+        {
+            mPromptViewPosition = new int[] {promptViewPosition[0], promptViewPosition[1]};
+            mTargetBounds = targetBounds != null ? new Rect(targetBounds) : null;
+            mTargetPosition = new PointF(targetPosition.x, targetPosition.y);
+            mClipToBounds = clipToBounds;
+            mClipBounds = new Rect(clipBounds);
+            mParentBounds = new Rect(parentBounds);
+            mOptionValues = null;
+        }
+
+        private Input(@NonNull final PromptOptions options, @NonNull final int[] promptViewPosition,
+                      @Nullable final Rect targetBounds, @NonNull final PointF targetPosition,
+                      final boolean clipToBounds, @NonNull final Rect clipBounds,
+                      @NonNull final Rect parentBounds)
+        {
+            mPromptViewPosition = new int[] {promptViewPosition[0], promptViewPosition[1]};
+            mTargetBounds = targetBounds;
+            mTargetPosition = targetPosition;
+            mClipToBounds = clipToBounds;
+            mClipBounds = new Rect(clipBounds);
+            mParentBounds = parentBounds;
+            mOptionValues = new OptionValues(options);
+        }
+
+        /**
+         * Capture the current view state, must be called on the main thread.
+         *
+         * @param options The options the prompt was created from.
+         * @param promptViewPosition The prompt view position in the window.
+         * @param clipToBounds Should the prompt be clipped to the clip bounds.
+         * @param clipBounds The bounds the prompt is clipped to.
+         * @return The view state snapshot.
+         */
+        @MainThread
+        @NonNull
+        public static Input capture(@NonNull final PromptOptions options,
+                                    @NonNull final int[] promptViewPosition,
+                                    final boolean clipToBounds, @NonNull final Rect clipBounds)
+        {
+            final View targetView = options.getTargetView();
+            Rect targetBounds = null;
+            final PointF targetPosition;
+            if (targetView != null)
+            {
+                final int[] targetViewPosition = new int[2];
+                targetView.getLocationInWindow(targetViewPosition);
+                final int left = targetViewPosition[0] - promptViewPosition[0];
+                final int top = targetViewPosition[1] - promptViewPosition[1];
+                targetBounds = new Rect(left, top, left + targetView.getWidth(),
+                        top + targetView.getHeight());
+                targetPosition = new PointF(targetBounds.centerX(), targetBounds.centerY());
+            }
+            else
+            {
+                final PointF optionsPosition = options.getTargetPosition();
+                targetPosition = optionsPosition != null
+                        ? new PointF(optionsPosition.x, optionsPosition.y) : new PointF();
+            }
+            final ViewGroup parent = options.getResourceFinder().getPromptParentView();
+            final Rect parentBounds = new Rect(parent.getLeft(), parent.getTop(),
+                    parent.getRight(), parent.getBottom());
+            return new Input(options, promptViewPosition, targetBounds, targetPosition, clipToBounds,
+                    clipBounds, parentBounds);
+        }
+
+        /**
+         * Creates a copy of this snapshot with the option values captured again, used after an
+         * option change has been applied without preparing all the elements again so that the
+         * next layout pass still matches the snapshot.
+         *
+         * @param options The options the prompt was created from.
+         * @return The view state snapshot with the current option values.
+         */
+        @MainThread
+        @NonNull
+        public Input withOptionValues(@NonNull final PromptOptions options)
+        {
+            return new Input(options, mPromptViewPosition, mTargetBounds, mTargetPosition,
+                    mClipToBounds, mClipBounds, mParentBounds);
+        }
+
+        /**
+         * Does the current view state and options match this snapshot, checked without
+         * allocating so that it can be called every layout pass. Must be called on the main
+         * thread.
+         *
+         * @param options The options the prompt was created from.
+         * @param promptViewPosition The prompt view position in the window.
+         * @param clipToBounds Should the prompt be clipped to the clip bounds.
+         * @param clipBounds The bounds the prompt is clipped to.
+         * @param outTargetViewPosition Array used to store the target view position in.
+         * @return True if {@link #capture(PromptOptions, int[], boolean, Rect)} would return an
+         * input equal to this one.
+         */
+        @MainThread
+        public boolean matches(@NonNull final PromptOptions options,
+                               @NonNull final int[] promptViewPosition, final boolean clipToBounds,
+                               @NonNull final Rect clipBounds,
+                               @NonNull final int[] outTargetViewPosition)
+        {
+            if (mOptionValues == null || mClipToBounds != clipToBounds
+                    || mPromptViewPosition[0] != promptViewPosition[0]
+                    || mPromptViewPosition[1] != promptViewPosition[1]
+                    || !mClipBounds.equals(clipBounds))
+            {
+                return false;
+            }
+            final View targetView = options.getTargetView();
+            if (targetView != null)
+            {
+                if (mTargetBounds == null)
+                {
+                    return false;
+                }
+                targetView.getLocationInWindow(outTargetViewPosition);
+                final int left = outTargetViewPosition[0] - promptViewPosition[0];
+                final int top = outTargetViewPosition[1] - promptViewPosition[1];
+                // The target position is the bounds centre so only the bounds need checking
+                if (mTargetBounds.left != left || mTargetBounds.top != top
+                        || mTargetBounds.right != left + targetView.getWidth()
+                        || mTargetBounds.bottom != top + targetView.getHeight())
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                final PointF optionsPosition = options.getTargetPosition();
+                if (mTargetBounds != null || (optionsPosition != null
+                        ? !mTargetPosition.equals(optionsPosition.x, optionsPosition.y)
+                        : !mTargetPosition.equals(0, 0)))
+                {
+                    return false;
+                }
+            }
+            final ViewGroup parent = options.getResourceFinder().getPromptParentView();
+            if (mParentBounds.left != parent.getLeft() || mParentBounds.top != parent.getTop()
+                    || mParentBounds.right != parent.getRight()
+                    || mParentBounds.bottom != parent.getBottom())
+            {
+                return false;
+            }
+            return mOptionValues.matches(options);
+        }
+
+        /**
+         * Get the prompt view position in the window.
+         *
+         * @return A copy of the position array.
+         */
+        @NonNull
+        public int[] getPromptViewPosition()
+        {
+            return mPromptViewPosition.clone();
+        }
+
+        /**
+         * Get the target view bounds relative to the prompt view. The returned rect must not be
+         * modified.
+         *
+         * @return The target bounds or null when targeting a point.
+         */
+        @Nullable
+        public Rect getTargetBounds()
+        {
+            return mTargetBounds;
+        }
+
+        /**
+         * Get the target position relative to the prompt view, the centre of the target bounds
+         * when targeting a view. The returned point must not be modified.
+         *
+         * @return The target position.
+         */
+        @NonNull
+        public PointF getTargetPosition()
+        {
+            return mTargetPosition;
+        }
+
+        /**
+         * Should the prompt be clipped to the clip bounds.
+         *
+         * @return True to clip to the bounds.
+         */
+        public boolean isClipToBounds()
+        {
+            return mClipToBounds;
+        }
+
+        /**
+         * Get the bounds the prompt is clipped to. The returned rect must not be modified.
+         *
+         * @return The clip bounds.
+         */
+        @NonNull
+        public Rect getClipBounds()
+        {
+            return mClipBounds;
+        }
+
+        /**
+         * Get the prompt parent view bounds within its parent. The returned rect must not be
+         * modified.
+         *
+         * @return The parent view bounds.
+         */
+        @NonNull
+        public Rect getParentBounds()
+        {
+            return mParentBounds;
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Input))
+            {
+                return false;
+            }
+            final Input other = (Input) obj;
+            return mClipToBounds == other.mClipToBounds
+                    && Arrays.equals(mPromptViewPosition, other.mPromptViewPosition)
+                    && (mTargetBounds == null ? other.mTargetBounds == null
+                        : mTargetBounds.equals(other.mTargetBounds))
+                    && mTargetPosition.equals(other.mTargetPosition.x, other.mTargetPosition.y)
+                    && mClipBounds.equals(other.mClipBounds)
+                    && mParentBounds.equals(other.mParentBounds)
+                    && (mOptionValues == null ? other.mOptionValues == null
+                        : mOptionValues.equals(other.mOptionValues));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = Arrays.hashCode(mPromptViewPosition);
+            result = 31 * result + (mTargetBounds != null ? mTargetBounds.hashCode() : 0);
+            result = 31 * result + Float.floatToIntBits(mTargetPosition.x);
+            result = 31 * result + Float.floatToIntBits(mTargetPosition.y);
+            result = 31 * result + (mClipToBounds ? 1 : 0);
+            result = 31 * result + mClipBounds.hashCode();
+            result = 31 * result + mParentBounds.hashCode();
+            result = 31 * result + (mOptionValues != null ? mOptionValues.hashCode() : 0);
+            return result;
+        }
+    }
+
+    /**
+     * The option values that change how the elements are prepared, so that changing an option
+     * results in the elements being prepared again. Each value is compared by
+     * {@link #matches(PromptOptions)} and {@link #equals(Object)}, add new options to both.
+     */
+    static final class OptionValues
+    {
+        @NonNull final PromptFocal mPromptFocal;
+        @NonNull final PromptText mPromptText;
+        @NonNull final PromptBackground mPromptBackground;
+        @Nullable final CharSequence mPrimaryText;
+        final float mPrimaryTextSize;
+        final int mPrimaryTextColour;
+        @Nullable final Typeface mPrimaryTextTypeface;
+        final int mPrimaryTextTypefaceStyle;
+        final int mPrimaryTextGravity;
+        @Nullable final CharSequence mSecondaryText;
+        final float mSecondaryTextSize;
+        final int mSecondaryTextColour;
+        @Nullable final Typeface mSecondaryTextTypeface;
+        final int mSecondaryTextTypefaceStyle;
+        final int mSecondaryTextGravity;
+        final float mTextPadding;
+        final float mTextSeparation;
+        final float mMaxTextWidth;
+        final float mFocalPadding;
+        final float mFocalRadius;
+        final int mMaxTextLines;
+        @Nullable final TextUtils.TruncateAt mTextEllipsize;
+
+        /**
+         * The text blocks with the text and style version that each block had when captured.
+         */
+        @NonNull final PromptTextBlock[] mTextBlocks;
+        @NonNull final CharSequence[] mTextBlockTexts;
+        @NonNull final int[] mTextBlockVersions;
+
+        OptionValues(@NonNull final PromptOptions options)
+        {
+            mPromptFocal = options.getPromptFocal();
+            mPromptText = options.getPromptText();
+            mPromptBackground = options.getPromptBackground();
+            mPrimaryText = options.getPrimaryText();
+            mPrimaryTextSize = options.getPrimaryTextSize();
+            mPrimaryTextColour = options.getPrimaryTextColour();
+            mPrimaryTextTypeface = options.getPrimaryTextTypeface();
+            mPrimaryTextTypefaceStyle = options.getPrimaryTextTypefaceStyle();
+            mPrimaryTextGravity = options.getPrimaryTextGravity();
+            mSecondaryText = options.getSecondaryText();
+            mSecondaryTextSize = options.getSecondaryTextSize();
+            mSecondaryTextColour = options.getSecondaryTextColour();
+            mSecondaryTextTypeface = options.getSecondaryTextTypeface();
+            mSecondaryTextTypefaceStyle = options.getSecondaryTextTypefaceStyle();
+            mSecondaryTextGravity = options.getSecondaryTextGravity();
+            mTextPadding = options.getTextPadding();
+            mTextSeparation = options.getTextSeparation();
+            mMaxTextWidth = options.getMaxTextWidth();
+            mFocalPadding = options.getFocalPadding();
+            mFocalRadius = options.getFocalRadius();
+            mMaxTextLines = options.getMaxTextLines();
+            mTextEllipsize = options.getTextEllipsize();
+            final List<PromptTextBlock> textBlocks = options.getTextBlocks();
+            final int count = textBlocks.size();
+            mTextBlocks = textBlocks.toArray(new PromptTextBlock[count]);
+            mTextBlockTexts = new CharSequence[count];
+            mTextBlockVersions = new int[count];
+            for (int i = 0; i < count; i++)
+            {
+                mTextBlockTexts[i] = mTextBlocks[i].getText();
+                mTextBlockVersions[i] = mTextBlocks[i].mVersion;
+            }
+        }
+
+        /**
+         * Do the current option values match the captured values, checked without allocating.
+         *
+         * @param options The options the prompt was created from.
+         * @return True if the options have the captured values.
+         */
+        boolean matches(@NonNull final PromptOptions options)
+        {
+            final List<PromptTextBlock> textBlocks = options.getTextBlocks();
+            if (textBlocks.size() != mTextBlocks.length)
+            {
+                return false;
+            }
+            for (int i = 0; i < mTextBlocks.length; i++)
+            {
+                final PromptTextBlock textBlock = textBlocks.get(i);
+                if (mTextBlocks[i] != textBlock
+                        || !valueEquals(mTextBlockTexts[i], textBlock.getText())
+                        || mTextBlockVersions[i] != textBlock.mVersion)
+                {
+                    return false;
+                }
+            }
+            return mPromptFocal == options.getPromptFocal()
+                    && mPromptText == options.getPromptText()
+                    && mPromptBackground == options.getPromptBackground()
+                    && valueEquals(mPrimaryText, options.getPrimaryText())
+                    && Float.compare(mPrimaryTextSize, options.getPrimaryTextSize()) == 0
+                    && mPrimaryTextColour == options.getPrimaryTextColour()
+                    && valueEquals(mPrimaryTextTypeface, options.getPrimaryTextTypeface())
+                    && mPrimaryTextTypefaceStyle == options.getPrimaryTextTypefaceStyle()
+                    && mPrimaryTextGravity == options.getPrimaryTextGravity()
+                    && valueEquals(mSecondaryText, options.getSecondaryText())
+                    && Float.compare(mSecondaryTextSize, options.getSecondaryTextSize()) == 0
+                    && mSecondaryTextColour == options.getSecondaryTextColour()
+                    && valueEquals(mSecondaryTextTypeface, options.getSecondaryTextTypeface())
+                    && mSecondaryTextTypefaceStyle == options.getSecondaryTextTypefaceStyle()
+                    && mSecondaryTextGravity == options.getSecondaryTextGravity()
+                    && Float.compare(mTextPadding, options.getTextPadding()) == 0
+                    && Float.compare(mTextSeparation, options.getTextSeparation()) == 0
+                    && Float.compare(mMaxTextWidth, options.getMaxTextWidth()) == 0
+                    && Float.compare(mFocalPadding, options.getFocalPadding()) == 0
+                    && Float.compare(mFocalRadius, options.getFocalRadius()) == 0
+                    && mMaxTextLines == options.getMaxTextLines()
+                    && mTextEllipsize == options.getTextEllipsize();
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof OptionValues))
+            {
+                return false;
+            }
+            final OptionValues other = (OptionValues) obj;
+            return mPromptFocal == other.mPromptFocal
+                    && mPromptText == other.mPromptText
+                    && mPromptBackground == other.mPromptBackground
+                    && valueEquals(mPrimaryText, other.mPrimaryText)
+                    && Float.compare(mPrimaryTextSize, other.mPrimaryTextSize) == 0
+                    && mPrimaryTextColour == other.mPrimaryTextColour
+                    && valueEquals(mPrimaryTextTypeface, other.mPrimaryTextTypeface)
+                    && mPrimaryTextTypefaceStyle == other.mPrimaryTextTypefaceStyle
+                    && mPrimaryTextGravity == other.mPrimaryTextGravity
+                    && valueEquals(mSecondaryText, other.mSecondaryText)
+                    && Float.compare(mSecondaryTextSize, other.mSecondaryTextSize) == 0
+                    && mSecondaryTextColour == other.mSecondaryTextColour
+                    && valueEquals(mSecondaryTextTypeface, other.mSecondaryTextTypeface)
+                    && mSecondaryTextTypefaceStyle == other.mSecondaryTextTypefaceStyle
+                    && mSecondaryTextGravity == other.mSecondaryTextGravity
+                    && Float.compare(mTextPadding, other.mTextPadding) == 0
+                    && Float.compare(mTextSeparation, other.mTextSeparation) == 0
+                    && Float.compare(mMaxTextWidth, other.mMaxTextWidth) == 0
+                    && Float.compare(mFocalPadding, other.mFocalPadding) == 0
+                    && Float.compare(mFocalRadius, other.mFocalRadius) == 0
+                    && mMaxTextLines == other.mMaxTextLines
+                    && mTextEllipsize == other.mTextEllipsize
+                    && Arrays.equals(mTextBlocks, other.mTextBlocks)
+                    && Arrays.equals(mTextBlockTexts, other.mTextBlockTexts)
+                    && Arrays.equals(mTextBlockVersions, other.mTextBlockVersions);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = System.identityHashCode(mPromptFocal);
+            result = 31 * result + System.identityHashCode(mPromptText);
+            result = 31 * result + System.identityHashCode(mPromptBackground);
+            result = 31 * result + (mPrimaryText != null ? mPrimaryText.hashCode() : 0);
+            result = 31 * result + Float.floatToIntBits(mPrimaryTextSize);
+            result = 31 * result + mPrimaryTextColour;
+            result = 31 * result + (mSecondaryText != null ? mSecondaryText.hashCode() : 0);
+            result = 31 * result + Float.floatToIntBits(mSecondaryTextSize);
+            result = 31 * result + mSecondaryTextColour;
+            result = 31 * result + Float.floatToIntBits(mMaxTextWidth);
+            result = 31 * result + mMaxTextLines;
+            result = 31 * result + Arrays.hashCode(mTextBlockTexts);
+            result = 31 * result + Arrays.hashCode(mTextBlockVersions);
+            return result;
+        }
+
+        private static boolean valueEquals(@Nullable final Object value,
+                                           @Nullable final Object current)
+        {
+            return value == null ? current == null : value.equals(current);
+        }
+    }
+}
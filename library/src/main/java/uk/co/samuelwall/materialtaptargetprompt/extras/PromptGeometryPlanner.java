@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uk.co.samuelwall.materialtaptargetprompt.ResourceFinder;
+import uk.co.samuelwall.materialtaptargetprompt.ViewIdResolver;
+
+/**
+ * Calculates the geometry for a batch of prompts in a single pass so that the placements are
+ * known before the prompts are shown.
+ * <p>
+ * The target views of prompts that were targeted by id are found again in a single traversal
+ * of each view hierarchy. The window state is read once for each prompt parent view and shared
+ * by every prompt in that parent. The results are cached until the position or size of a parent
+ * view changes or a parent view is detached from its window. Each prompt also keeps its result
+ * as the {@link PromptOptions#getMeasuredGeometry()} so that it is not calculated again when it
+ * is shown.
+ * </p>
+ */
+public class PromptGeometryPlanner implements ViewTreeObserver.OnGlobalLayoutListener,
+        View.OnAttachStateChangeListener
+{
+    /**
+     * The prompts to plan, may contain null entries.
+     */
+    @NonNull private final List<PromptOptions> mOptions;
+
+    /**
+     * The planned geometry for each prompt, null for prompts that could not be planned.
+     */
+    @NonNull private final List<PromptGeometry> mGeometry = new ArrayList<>();
+
+    /**
+     * The window state read for each prompt parent view.
+     */
+    @NonNull private final Map<ViewGroup, ParentState> mParentStates = new IdentityHashMap<>();
+
+    /**
+     * Finds the target views for all the prompts that share a root view in one traversal.
+     */
+    @NonNull private final ViewIdResolver mViewIdResolver = new ViewIdResolver();
+
+    /**
+     * Constructor.
+     *
+     * @param options The prompts to plan, null entries are skipped.
+     */
+    public PromptGeometryPlanner(@NonNull final List<? extends PromptOptions> options)
+    {
+        mOptions = new ArrayList<>(options);
+    }
+
+    /**
+     * Calculate the geometry for all the prompts, if not already planned.
+     */
+    @MainThread
+    public void plan()
+    {
+        if (isPlanned())
+        {
+            return;
+        }
+        resolveTargets();
+        final Set<PromptUIElement> preparedElements =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<PromptOptions> preparedOptions = new ArrayList<>();
+        for (final PromptOptions options : mOptions)
+        {
+            PromptGeometry geometry = null;
+            if (options != null)
+            {
+                final ParentState parentState =
+                        getParentState(options.getResourceFinder().getPromptParentView());
+                geometry = options.measure(parentState.mPosition, parentState.mDisplayFrameTop,
+                        parentState.mClipBounds);
+                // Elements shared between prompts only hold the latest preparation so the earlier
+                // prompts need preparing again when shown
+                final PromptUIElement[] elements = new PromptUIElement[] {options.getPromptFocal(),
+                        options.getPromptText(), options.getPromptBackground()};
+                for (final PromptUIElement element : elements)
+                {
+                    if (!preparedElements.add(element))
+                    {
+                        for (final PromptOptions prepared : preparedOptions)
+                        {
+                            if (prepared.getPromptFocal() == element
+                                    || prepared.getPromptText() == element
+                                    || prepared.getPromptBackground() == element)
+                            {
+                                prepared.clearMeasuredGeometry();
+                            }
+                        }
+                    }
+                }
+                preparedOptions.add(options);
+            }
+            mGeometry.add(geometry);
+        }
+    }
+
+    /**
+     * Has the geometry been planned since the last layout change.
+     *
+     * @return True if the planned geometry is available.
+     */
+    public boolean isPlanned()
+    {
+        return !mGeometry.isEmpty() || mOptions.isEmpty();
+    }
+
+    /**
+     * Get the planned geometry for a prompt, planning all prompts if required.
+     *
+     * @param index The index of the prompt options supplied to the constructor.
+     * @return The planned geometry or null if the prompt has no target.
+     */
+    @MainThread
+    @Nullable
+    public PromptGeometry getGeometry(final int index)
+    {
+        plan();
+        return mGeometry.get(index);
+    }
+
+    /**
+     * Discard the planned geometry and stop listening for layout and window changes.
+     */
+    @MainThread
+    public void invalidate()
+    {
+        for (final Map.Entry<ViewGroup, ParentState> entry : mParentStates.entrySet())
+        {
+            entry.getKey().removeOnAttachStateChangeListener(this);
+            final ViewTreeObserver viewTreeObserver = entry.getValue().mViewTreeObserver;
+            if (viewTreeObserver != null && viewTreeObserver.isAlive())
+            {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+                {
+                    viewTreeObserver.removeOnGlobalLayoutListener(this);
+                }
+                else
+                {
+                    //noinspection deprecation
+                    viewTreeObserver.removeGlobalOnLayoutListener(this);
+                }
+            }
+        }
+        mParentStates.clear();
+        mGeometry.clear();
+    }
+
+    @Override
+    public void onViewAttachedToWindow(final View view)
+    {
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(final View view)
+    {
+        // Don't keep the parent views alive once they have left the window
+        invalidate();
+    }
+
+    @Override
+    public void onGlobalLayout()
+    {
+        for (final Map.Entry<ViewGroup, ParentState> entry : mParentStates.entrySet())
+        {
+            if (entry.getValue().hasChanged(entry.getKey()))
+            {
+                invalidate();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Find the target views for the prompts that were targeted by id, with a single traversal
+     * for all the prompts that search the same root view.
+     */
+    private void resolveTargets()
+    {
+        final Map<Object, List<PromptOptions>> groups = new IdentityHashMap<>();
+        for (final PromptOptions options : mOptions)
+        {
+            if (options != null && options.getTargetViewId() != 0)
+            {
+                final ResourceFinder resourceFinder = options.getResourceFinder();
+                final View root = resourceFinder.getSearchRootView();
+                // Prompts with an unknown root view are found by their own resource finder
+                final Object key = root != null ? root : resourceFinder;
+                List<PromptOptions> group = groups.get(key);
+                if (group == null)
+                {
+                    group = new ArrayList<>();
+                    groups.put(key, group);
+                }
+                group.add(options);
+            }
+        }
+        for (final Map.Entry<Object, List<PromptOptions>> entry : groups.entrySet())
+        {
+            final List<PromptOptions> group = entry.getValue();
+            final int count = group.size();
+            final int[] resIds = new int[count];
+            final View[] views = new View[count];
+            for (int i = 0; i < count; i++)
+            {
+                resIds[i] = group.get(i).getTargetViewId();
+            }
+            if (entry.getKey() instanceof View)
+            {
+                mViewIdResolver.findViewsById((View) entry.getKey(), resIds, views);
+            }
+            else
+            {
+                ((ResourceFinder) entry.getKey()).findViewsById(resIds, views);
+            }
+            for (int i = 0; i < count; i++)
+            {
+                group.get(i).setResolvedTarget(views[i]);
+            }
+        }
+        // The views are only needed for this plan, don't keep listening for layout changes
+        mViewIdResolver.clear();
+    }
+
+    /**
+     * Get the window state for a parent view, reading it the first time the parent is used.
+     *
+     * @param parent The prompt parent view.
+     * @return The parent window state.
+     */
+    @NonNull
+    private ParentState getParentState(@NonNull final ViewGroup parent)
+    {
+        ParentState parentState = mParentStates.get(parent);
+        if (parentState == null)
+        {
+            parentState = new ParentState(parent);
+            mParentStates.put(parent, parentState);
+            final ViewTreeObserver viewTreeObserver = parent.getViewTreeObserver();
+            if (viewTreeObserver != null)
+            {
+                viewTreeObserver.addOnGlobalLayoutListener(this);
+                // The listener is removed from the same observer if the parent is detached
+                parentState.mViewTreeObserver = viewTreeObserver;
+            }
+            parent.addOnAttachStateChangeListener(this);
+        }
+        return parentState;
+    }
+
+    /**
+     * The window state shared by all prompts in a parent view.
+     */
+    static class ParentState
+    {
+        @NonNull final int[] mPosition = new int[2];
+        final int mDisplayFrameTop;
+        @NonNull final Rect mClipBounds = new Rect();
+        final int mWidth;
+        final int mHeight;
+        @Nullable ViewTreeObserver mViewTreeObserver;
+
+        ParentState(@NonNull final ViewGroup parent)
+        {
+            parent.getLocationInWindow(mPosition);
+            final Rect displayFrame = new Rect();
+            parent.getWindowVisibleDisplayFrame(displayFrame);
+            mDisplayFrameTop = displayFrame.top;
+            parent.getGlobalVisibleRect(mClipBounds, new Point());
+            mWidth = parent.getWidth();
+            mHeight = parent.getHeight();
+        }
+
+        /**
+         * Has the parent moved or changed size since the state was read.
+         *
+         * @param parent The parent view the state was read from.
+         * @return True if the parent has changed.
+         */
+        boolean hasChanged(@NonNull final ViewGroup parent)
+        {
+            final int[] position = new int[2];
+            parent.getLocationInWindow(position);
+            return position[0] != mPosition[0] || position[1] != mPosition[1]
+                    || parent.getWidth() != mWidth || parent.getHeight() != mHeight;
+        }
+    }
+}
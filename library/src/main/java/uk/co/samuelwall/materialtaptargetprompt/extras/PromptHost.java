@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Used to attach the prompt view to the screen.
+ * <p>
+ * The host decides how the prompt view is added to and removed from the
+ * {@link uk.co.samuelwall.materialtaptargetprompt.ResourceFinder#getPromptParentView()}.
+ */
+public abstract class PromptHost
+{
+    /**
+     * Add the prompt view so that it is displayed over the parent view.
+     *
+     * @param parent The view that the prompt is to be displayed over.
+     * @param promptView The view that renders the prompt.
+     */
+    public abstract void addPromptView(@NonNull ViewGroup parent, @NonNull View promptView);
+
+    /**
+     * Remove the prompt view previously added in {@link #addPromptView(ViewGroup, View)}.
+     *
+     * @param parent The view that the prompt is displayed over.
+     * @param promptView The view that renders the prompt.
+     */
+    public abstract void removePromptView(@NonNull ViewGroup parent, @NonNull View promptView);
+
+    /**
+     * Is the prompt view already displayed over the parent view.
+     * Base implementation returns true if the prompt view has been added by this host.
+     * Other prompt views shown in the same window are tracked by the prompt, so the host
+     * doesn't need to search the parent view hierarchy for them.
+     *
+     * @param parent The view that the prompt is displayed over.
+     * @param promptView The view that renders the prompt.
+     * @return True if the prompt view is displayed.
+     */
+    public boolean containsPromptView(@NonNull final ViewGroup parent,
+                                      @NonNull final View promptView)
+    {
+        return promptView.getParent() != null;
+    }
+
+    /**
+     * Called when the parent view layout has changed so that the prompt view can be resized to
+     * match it.
+     *
+     * @param parent The view that the prompt is displayed over.
+     * @param promptView The view that renders the prompt.
+     */
+    public void updatePromptViewBounds(@NonNull final ViewGroup parent,
+                                       @NonNull final View promptView)
+    {
+
+    }
+
+    /**
+     * Get the position of the prompt view within the parent view's window, used to translate the
+     * target view position into the prompt view coordinates.
+     *
+     * @param parent The view that the prompt is displayed over.
+     * @param promptView The view that renders the prompt.
+     * @param outLocation An array of two integers to store the position in.
+     */
+    public void getLocationInWindow(@NonNull final ViewGroup parent, @NonNull final View promptView,
+                                    @NonNull final int[] outLocation)
+    {
+        promptView.getLocationInWindow(outLocation);
+    }
+
+    /**
+     * Called with touch events that the prompt view did not capture so that they can be passed
+     * on to the parent view when the host does not do this itself.
+     *
+     * @param parent The view that the prompt is displayed over.
+     * @param event The touch event.
+     * @return True if the event was consumed.
+     */
+    public boolean dispatchUnhandledTouchEvent(@NonNull final ViewGroup parent,
+                                               @NonNull final MotionEvent event)
+    {
+        return false;
+    }
+}
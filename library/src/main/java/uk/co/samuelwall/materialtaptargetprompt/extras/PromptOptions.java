@@ -21,29 +21,41 @@ import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.PointF;
 import android.graphics.PorterDuff;
+import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Bundle;
 import androidx.annotation.ColorInt;
 import androidx.annotation.DimenRes;
 import androidx.annotation.Dimension;
 import androidx.annotation.DrawableRes;
 import androidx.annotation.IdRes;
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 import androidx.annotation.StyleRes;
+import android.text.TextUtils;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
+import android.view.ViewGroup;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.Interpolator;
 
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
 import uk.co.samuelwall.materialtaptargetprompt.R;
 import uk.co.samuelwall.materialtaptargetprompt.ResourceFinder;
 import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.CirclePromptBackground;
 import uk.co.samuelwall.materialtaptargetprompt.extras.focals.CirclePromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.hosts.DecorPromptHost;
 
 /**
  * Contains all the settings for creating a prompt.
@@ -53,6 +65,23 @@ import uk.co.samuelwall.materialtaptargetprompt.extras.focals.CirclePromptFocal;
 @SuppressWarnings("unchecked")
 public class PromptOptions<T extends PromptOptions>
 {
+    /**
+     * Select the rendering profile from the device class when the prompt is shown.
+     */
+    public static final int RENDERING_PROFILE_AUTO = 0;
+
+    /**
+     * Render the prompt with the ripple, path clipping, idle animation and live target.
+     */
+    public static final int RENDERING_PROFILE_FULL = 1;
+
+    /**
+     * Render the prompt for low RAM or low refresh rate devices, the ripple is disabled, the
+     * focal and text are not clipped to paths, the idle animation runs less often and only
+     * redraws the focal and the target view is not rendered in the focal.
+     */
+    public static final int RENDERING_PROFILE_LOW_END = 2;
+
     /**
      * The {@link ResourceFinder} used to find views and resources.
      */
@@ -68,6 +97,11 @@ public class PromptOptions<T extends PromptOptions>
      */
     @Nullable private View mTargetView;
 
+    /**
+     * The id that the target view was set with, 0 if not set by id.
+     */
+    @IdRes private int mTargetViewId;
+
     /**
      * The left and top positioning for the focal centre point.
      */
@@ -83,6 +117,17 @@ public class PromptOptions<T extends PromptOptions>
      */
     @Nullable private CharSequence mSecondaryText;
 
+    /**
+     * The text blocks to display below the secondary text.
+     */
+    @NonNull private final ArrayList<PromptTextBlock> mTextBlocks = new ArrayList<>();
+
+    /**
+     * Read only view of {@link #mTextBlocks}.
+     */
+    @NonNull private final List<PromptTextBlock> mTextBlocksView =
+            Collections.unmodifiableList(mTextBlocks);
+
     /**
      * The colour for the primary text.
      */
@@ -123,6 +168,16 @@ public class PromptOptions<T extends PromptOptions>
      */
     private float mMaxTextWidth;
 
+    /**
+     * The maximum number of lines that each text can be laid out with, 0 for no maximum.
+     */
+    private int mMaxTextLines;
+
+    /**
+     * Where to ellipsize text that is cut off by the maximum number of lines.
+     */
+    @Nullable private TextUtils.TruncateAt mTextEllipsize = TextUtils.TruncateAt.END;
+
     /**
      * The distance between the text and the background edge.
      */
@@ -179,6 +234,10 @@ public class PromptOptions<T extends PromptOptions>
     private int mIconDrawableColourFilter;
     @Nullable private View mTargetRenderView;
     private boolean mIdleAnimationEnabled = true;
+    private boolean mOverdrawReductionEnabled;
+    @Nullable private Boolean mInstantMode;
+    private int mRenderingProfile = RENDERING_PROFILE_AUTO;
+    @Nullable private MaterialTapTargetPrompt.RenderingProfileListener mRenderingProfileListener;
     private int mPrimaryTextGravity = Gravity.START, mSecondaryTextGravity = Gravity.START;
     @Nullable private View mClipToView;
 
@@ -197,6 +256,21 @@ public class PromptOptions<T extends PromptOptions>
      */
     @NonNull private PromptText mPromptText = new PromptText();
 
+    /**
+     * Attaches the prompt view to the screen.
+     */
+    @NonNull private PromptHost mPromptHost = new DecorPromptHost();
+
+    /**
+     * The geometry calculated by {@link #measure()}, reused by the next prompt shown.
+     */
+    @Nullable private PromptGeometry mMeasuredGeometry;
+
+    /**
+     * The life-cycle that created prompts are bound to.
+     */
+    @Nullable private LifecycleOwner mLifecycleOwner;
+
     /**
      * Constructor.
      *
@@ -222,25 +296,16 @@ public class PromptOptions<T extends PromptOptions>
      */
     public void load(@StyleRes int themeResId)
     {
-        //Attempt to load the theme from the activity theme
-        if (themeResId == 0)
-        {
-            final TypedValue outValue = new TypedValue();
-            mResourceFinder.getTheme().resolveAttribute(R.attr.MaterialTapTargetPromptTheme, outValue, true);
-            themeResId = outValue.resourceId;
-        }
-
-        final TypedArray a = mResourceFinder.obtainStyledAttributes(themeResId, R.styleable.PromptView);
-        mPrimaryTextColour = a.getColor(R.styleable.PromptView_mttp_primaryTextColour, mPrimaryTextColour);
-        mSecondaryTextColour = a.getColor(R.styleable.PromptView_mttp_secondaryTextColour, mSecondaryTextColour);
+        final TypedArray a = mResourceFinder.obtainStyledAttributes(resolveTheme(themeResId),
+                R.styleable.PromptView);
+        loadColours(a);
         mPrimaryText = a.getString(R.styleable.PromptView_mttp_primaryText);
         mSecondaryText = a.getString(R.styleable.PromptView_mttp_secondaryText);
-        mBackgroundColour = a.getColor(R.styleable.PromptView_mttp_backgroundColour, mBackgroundColour);
-        mFocalColour = a.getColor(R.styleable.PromptView_mttp_focalColour, mFocalColour);
         mFocalRadius = a.getDimension(R.styleable.PromptView_mttp_focalRadius, mFocalRadius);
         mPrimaryTextSize = a.getDimension(R.styleable.PromptView_mttp_primaryTextSize, mPrimaryTextSize);
         mSecondaryTextSize = a.getDimension(R.styleable.PromptView_mttp_secondaryTextSize, mSecondaryTextSize);
         mMaxTextWidth = a.getDimension(R.styleable.PromptView_mttp_maxTextWidth, mMaxTextWidth);
+        mMaxTextLines = a.getInt(R.styleable.PromptView_mttp_maxTextLines, mMaxTextLines);
         mTextPadding = a.getDimension(R.styleable.PromptView_mttp_textPadding, mTextPadding);
         mFocalPadding = a.getDimension(R.styleable.PromptView_mttp_focalToTextPadding, mFocalPadding);
         mTextSeparation = a.getDimension(R.styleable.PromptView_mttp_textSeparation, mTextSeparation);
@@ -254,31 +319,83 @@ public class PromptOptions<T extends PromptOptions>
         mSecondaryTextTypeface = PromptUtils.setTypefaceFromAttrs(a.getString(R.styleable.PromptView_mttp_secondaryTextFontFamily), a.getInt(R.styleable.PromptView_mttp_secondaryTextTypeface, 0), mSecondaryTextTypefaceStyle);
         mContentDescription = a.getString(R.styleable.PromptView_mttp_contentDescription);
 
-        mIconDrawableColourFilter = a.getColor(R.styleable.PromptView_mttp_iconColourFilter, mBackgroundColour);
-        mIconDrawableTintList = a.getColorStateList(R.styleable.PromptView_mttp_iconTint);
-        mIconDrawableTintMode = PromptUtils.parseTintMode(a.getInt(R.styleable.PromptView_mttp_iconTintMode, -1), mIconDrawableTintMode);
-        mHasIconDrawableTint = true;
-
         final int targetId = a.getResourceId(R.styleable.PromptView_mttp_target, 0);
         a.recycle();
 
+        // Find the target and content views in a single traversal
+        final View[] views = new View[2];
+        mResourceFinder.findViewsById(targetId != 0 ? new int[] {android.R.id.content, targetId}
+                : new int[] {android.R.id.content}, views);
         if (targetId != 0)
         {
-            mTargetView = mResourceFinder.findViewById(targetId);
+            mTargetViewId = targetId;
+            mTargetView = views[1];
             if (mTargetView != null)
             {
                 mTargetSet = true;
             }
         }
-        final View contentView = mResourceFinder.findViewById(android.R.id.content);
+        final View contentView = views[0];
         if (contentView != null)
         {
             mClipToView = (View) contentView.getParent();
         }
     }
 
+    /**
+     * Loads only the colours from the supplied theme, overwriting any previously set colours if
+     * they are set in the theme. Use with {@link MaterialTapTargetPrompt#updateColours()} to
+     * re-theme a prompt that is showing, e.g. when the night mode changes.
+     *
+     * @param themeResId The resource id for the theme or 0 to use the activity theme.
+     */
+    public void loadColours(@StyleRes final int themeResId)
+    {
+        final TypedArray a = mResourceFinder.obtainStyledAttributes(resolveTheme(themeResId),
+                R.styleable.PromptView);
+        loadColours(a);
+        a.recycle();
+    }
+
+    /**
+     * Get the prompt theme from the activity theme if a theme has not been supplied.
+     *
+     * @param themeResId The resource id for the theme or 0 to use the activity theme.
+     * @return The resource id for the theme.
+     */
+    @StyleRes
+    private int resolveTheme(@StyleRes final int themeResId)
+    {
+        if (themeResId != 0)
+        {
+            return themeResId;
+        }
+        //Attempt to load the theme from the activity theme
+        final TypedValue outValue = new TypedValue();
+        mResourceFinder.getTheme().resolveAttribute(R.attr.MaterialTapTargetPromptTheme, outValue, true);
+        return outValue.resourceId;
+    }
+
+    /**
+     * Reads the colours from the theme attributes.
+     *
+     * @param a The prompt theme attributes.
+     */
+    private void loadColours(@NonNull final TypedArray a)
+    {
+        mPrimaryTextColour = a.getColor(R.styleable.PromptView_mttp_primaryTextColour, mPrimaryTextColour);
+        mSecondaryTextColour = a.getColor(R.styleable.PromptView_mttp_secondaryTextColour, mSecondaryTextColour);
+        mBackgroundColour = a.getColor(R.styleable.PromptView_mttp_backgroundColour, mBackgroundColour);
+        mFocalColour = a.getColor(R.styleable.PromptView_mttp_focalColour, mFocalColour);
+        mIconDrawableColourFilter = a.getColor(R.styleable.PromptView_mttp_iconColourFilter, mBackgroundColour);
+        mIconDrawableTintList = a.getColorStateList(R.styleable.PromptView_mttp_iconTint);
+        mIconDrawableTintMode = PromptUtils.parseTintMode(a.getInt(R.styleable.PromptView_mttp_iconTintMode, -1), mIconDrawableTintMode);
+        mHasIconDrawableTint = true;
+    }
+
     /**
      * Get the resource finder being used.
+     * Must not be called once the options have been released with {@link #release()}.
      *
      * @return The resource finder being used.
      */
@@ -298,6 +415,7 @@ public class PromptOptions<T extends PromptOptions>
     public T setTarget(@Nullable final View target)
     {
         mTargetView = target;
+        mTargetViewId = 0;
         mTargetPosition = null;
         mTargetSet = mTargetView != null;
         return (T) this;
@@ -313,11 +431,35 @@ public class PromptOptions<T extends PromptOptions>
     public T setTarget(@IdRes final int target)
     {
         mTargetView = mResourceFinder.findViewById(target);
+        mTargetViewId = target;
         mTargetPosition = null;
         mTargetSet = mTargetView != null;
         return (T) this;
     }
 
+    /**
+     * Get the id that the target view was set with.
+     *
+     * @return The target view id or 0 if the target was not set by id.
+     */
+    @IdRes
+    int getTargetViewId()
+    {
+        return mTargetViewId;
+    }
+
+    /**
+     * Set the target view found for the id that the target was set with, used when the views for
+     * several prompts are found in a single traversal.
+     *
+     * @param target The view found for {@link #getTargetViewId()} or null if not found.
+     */
+    void setResolvedTarget(@Nullable final View target)
+    {
+        mTargetView = target;
+        mTargetSet = mTargetView != null;
+    }
+
     /**
      * Gets the view that the prompt is targeting.
      *
@@ -340,6 +482,7 @@ public class PromptOptions<T extends PromptOptions>
     public T setTarget(final float left, final float top)
     {
         mTargetView = null;
+        mTargetViewId = 0;
         mTargetPosition = new PointF(left, top);
         mTargetSet = true;
         return (T) this;
@@ -601,6 +744,44 @@ public class PromptOptions<T extends PromptOptions>
         return mSecondaryText;
     }
 
+    /**
+     * Add a styled block of text to display below the secondary text, for example a short
+     * action hint. Blocks are displayed in the order they are added and use the secondary text
+     * style for any style that the block doesn't set.
+     *
+     * @param textBlock The text block to display.
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T addTextBlock(@NonNull final PromptTextBlock textBlock)
+    {
+        mTextBlocks.add(textBlock);
+        return (T) this;
+    }
+
+    /**
+     * Remove all the text blocks added with {@link #addTextBlock(PromptTextBlock)}.
+     *
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T clearTextBlocks()
+    {
+        mTextBlocks.clear();
+        return (T) this;
+    }
+
+    /**
+     * Get the text blocks displayed below the secondary text.
+     *
+     * @return The text blocks in the order they are displayed.
+     */
+    @NonNull
+    public List<PromptTextBlock> getTextBlocks()
+    {
+        return mTextBlocksView;
+    }
+
     /**
      * Set the secondary text font size using the give resource id.
      *
@@ -736,7 +917,7 @@ public class PromptOptions<T extends PromptOptions>
 
     /**
      * Get the text for the accessibility content description.
-     * Defaults to a concatenation of primary and secondary texts.
+     * Defaults to a concatenation of primary, secondary and text block texts.
      *
      * @return The accessibility content description text.
      */
@@ -749,7 +930,20 @@ public class PromptOptions<T extends PromptOptions>
         }
         else
         {
-            return String.format("%s. %s", mPrimaryText, mSecondaryText);
+            final String description = String.format("%s. %s", mPrimaryText, mSecondaryText);
+            if (mTextBlocks.isEmpty())
+            {
+                return description;
+            }
+            final StringBuilder builder = new StringBuilder(description);
+            for (final PromptTextBlock textBlock : mTextBlocks)
+            {
+                if (textBlock.getText() != null)
+                {
+                    builder.append(". ").append(textBlock.getText());
+                }
+            }
+            return builder.toString();
         }
     }
 
@@ -912,6 +1106,63 @@ public class PromptOptions<T extends PromptOptions>
         return mIdleAnimationEnabled;
     }
 
+    /**
+     * Enable/disable clipping the background and focal out of the area covered by an opaque
+     * icon drawable or target render view so that those pixels are only painted once per frame.
+     * false by default
+     *
+     * @param enabled Overdraw reduction enabled
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setOverdrawReductionEnabled(final boolean enabled)
+    {
+        mOverdrawReductionEnabled = enabled;
+        return (T) this;
+    }
+
+    /**
+     * Is the background and focal clipped out of the area covered by an opaque icon drawable or
+     * target render view.
+     *
+     * @return True if overdraw reduction is enabled.
+     */
+    public boolean getOverdrawReductionEnabled()
+    {
+        return mOverdrawReductionEnabled;
+    }
+
+    /**
+     * Enable/disable instant mode. In instant mode the prompt is shown in its final state and
+     * removed without any animations and the idle animation is not run.
+     * By default instant mode is used when the system animator duration scale is 0, which is
+     * the case when the user has chosen to remove animations.
+     *
+     * @param instantMode True to show and remove the prompt without animating.
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setInstantMode(final boolean instantMode)
+    {
+        mInstantMode = instantMode;
+        return (T) this;
+    }
+
+    /**
+     * Is the prompt shown and removed without animating.
+     *
+     * @return True if instant mode has been enabled or animations are disabled by the system.
+     * @see #setInstantMode(boolean)
+     */
+    public boolean isInstantMode()
+    {
+        if (mInstantMode != null)
+        {
+            return mInstantMode;
+        }
+        return PromptUtils.areAnimationsDisabled(mResourceFinder.getContext());
+    }
+
     /**
      * Set the icon to draw in the focal point using the given resource id.
      *
@@ -1055,10 +1306,111 @@ public class PromptOptions<T extends PromptOptions>
         }
     }
 
+    /**
+     * Set the rendering profile used to draw the prompt.
+     * Default is {@link #RENDERING_PROFILE_AUTO} which uses {@link #RENDERING_PROFILE_LOW_END}
+     * on low RAM and low refresh rate devices.
+     *
+     * @param profile {@link #RENDERING_PROFILE_AUTO}, {@link #RENDERING_PROFILE_FULL} or
+     *                {@link #RENDERING_PROFILE_LOW_END}.
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setRenderingProfile(final int profile)
+    {
+        mRenderingProfile = profile;
+        return (T) this;
+    }
+
+    /**
+     * Get the rendering profile that has been set.
+     *
+     * @return The rendering profile, {@link #RENDERING_PROFILE_AUTO} if not set.
+     */
+    public int getRenderingProfile()
+    {
+        return mRenderingProfile;
+    }
+
+    /**
+     * Get the rendering profile to draw the prompt with, selecting the profile from the device
+     * class if it is {@link #RENDERING_PROFILE_AUTO}.
+     *
+     * @return {@link #RENDERING_PROFILE_FULL} or {@link #RENDERING_PROFILE_LOW_END}.
+     */
+    public int resolveRenderingProfile()
+    {
+        if (mRenderingProfile != RENDERING_PROFILE_AUTO)
+        {
+            return mRenderingProfile;
+        }
+        return PromptUtils.isLowEndDevice(mResourceFinder.getContext())
+                ? RENDERING_PROFILE_LOW_END : RENDERING_PROFILE_FULL;
+    }
+
+    /**
+     * Set the listener to listen for the rendering profile that is selected when the prompt is
+     * shown.
+     *
+     * @param listener The listener to use
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setRenderingProfileListener(
+            @Nullable final MaterialTapTargetPrompt.RenderingProfileListener listener)
+    {
+        mRenderingProfileListener = listener;
+        return (T) this;
+    }
+
+    /**
+     * Handles emitting the rendering profile selected event.
+     *
+     * @param prompt The prompt that is being shown.
+     * @param profile The rendering profile the prompt is drawn with.
+     */
+    public void onRenderingProfileSelected(@NonNull final MaterialTapTargetPrompt prompt,
+                                           final int profile)
+    {
+        if (mRenderingProfileListener != null)
+        {
+            mRenderingProfileListener.onRenderingProfileSelected(prompt, profile,
+                    mRenderingProfile == RENDERING_PROFILE_AUTO);
+        }
+    }
+
+    /**
+     * Set the life-cycle owner that the prompt is displayed in. The prompt animations are paused
+     * while the owner is stopped and the prompt is released when the owner is destroyed.
+     *
+     * @param owner The life-cycle owner or null to not bind the prompt to a life-cycle.
+     * @return This Builder object to allow for chaining of calls to set methods
+     * @see MaterialTapTargetPrompt#bindToLifecycle(LifecycleOwner)
+     */
+    @NonNull
+    public T setLifecycleOwner(@Nullable final LifecycleOwner owner)
+    {
+        mLifecycleOwner = owner;
+        return (T) this;
+    }
+
+    /**
+     * Get the life-cycle owner that the prompt is bound to.
+     *
+     * @return The life-cycle owner or null if not set.
+     */
+    @Nullable
+    public LifecycleOwner getLifecycleOwner()
+    {
+        return mLifecycleOwner;
+    }
+
 
     /**
      * Set if the prompt should stop touch events on the focal point from passing to underlying
      * views. Default is false.
+     * A captured touch is only treated as a focal press once it is released without moving
+     * further than the touch slop, otherwise the focal press is emitted when the touch starts.
      *
      * @param captureTouchEvent True to capture touch events in the prompt
      * @return This Builder object to allow for chaining of calls to set methods
@@ -1119,6 +1471,58 @@ public class PromptOptions<T extends PromptOptions>
         return mMaxTextWidth;
     }
 
+    /**
+     * Set the maximum number of lines that the primary text, secondary text and each text block
+     * can be laid out with. Text that doesn't fit is cut off before it is measured, so long
+     * text doesn't increase the time taken to prepare the prompt or the background size.
+     * Use {@link PromptText#isTextTruncated()} to find out if any text was cut off.
+     *
+     * @param maxLines The maximum number of lines or 0 for no maximum.
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setMaxTextLines(final int maxLines)
+    {
+        mMaxTextLines = maxLines;
+        return (T) this;
+    }
+
+    /**
+     * Get the maximum number of lines that each text can be laid out with.
+     *
+     * @return The maximum number of lines or 0 for no maximum.
+     */
+    public int getMaxTextLines()
+    {
+        return mMaxTextLines;
+    }
+
+    /**
+     * Set where to ellipsize text that is cut off by {@link #setMaxTextLines(int)}.
+     * Defaults to {@link TextUtils.TruncateAt#END}.
+     *
+     * @param ellipsize Where to ellipsize the text or null to cut the text off without an
+     *                  ellipsis.
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setTextEllipsize(@Nullable final TextUtils.TruncateAt ellipsize)
+    {
+        mTextEllipsize = ellipsize;
+        return (T) this;
+    }
+
+    /**
+     * Get where to ellipsize text that is cut off by the maximum number of lines.
+     *
+     * @return Where to ellipsize the text or null for no ellipsis.
+     */
+    @Nullable
+    public TextUtils.TruncateAt getTextEllipsize()
+    {
+        return mTextEllipsize;
+    }
+
     /**
      * Set the background colour.
      * The Material Design Guidelines specify that this should be 244 or hex F4.
@@ -1501,6 +1905,34 @@ public class PromptOptions<T extends PromptOptions>
         return mPromptText;
     }
 
+    /**
+     * Set the {@link PromptHost} implementation used to attach the prompt view to the screen.
+     * Defaults to {@link DecorPromptHost} which adds the prompt view as a child of the
+     * {@link ResourceFinder#getPromptParentView()}.
+     *
+     * @param promptHost The prompt host implementation.
+     * @return This Builder object to allow for chaining of calls to set methods
+     * @see uk.co.samuelwall.materialtaptargetprompt.extras.hosts.OverlayPromptHost
+     * @see uk.co.samuelwall.materialtaptargetprompt.extras.hosts.WindowPromptHost
+     */
+    @NonNull
+    public T setPromptHost(@NonNull final PromptHost promptHost)
+    {
+        mPromptHost = promptHost;
+        return (T) this;
+    }
+
+    /**
+     * Get the {@link PromptHost} implementation used to attach the prompt view to the screen.
+     *
+     * @return The prompt host instance.
+     */
+    @NonNull
+    public PromptHost getPromptHost()
+    {
+        return mPromptHost;
+    }
+
     /**
      * Creates an {@link MaterialTapTargetPrompt} with the arguments supplied to this
      * builder.
@@ -1534,23 +1966,196 @@ public class PromptOptions<T extends PromptOptions>
         {
             mIconDrawable.mutate();
             mIconDrawable.setBounds(0, 0, mIconDrawable.getIntrinsicWidth(), mIconDrawable.getIntrinsicHeight());
-            if (mHasIconDrawableTint)
+            applyIconDrawableTint();
+        }
+
+        setupElements();
+
+        if (mLifecycleOwner != null)
+        {
+            mPrompt.bindToLifecycle(mLifecycleOwner);
+        }
+
+        return mPrompt;
+    }
+
+    /**
+     * Calculates where the prompt would be placed without showing it, so that the caller can
+     * decide whether and where to show the prompt.
+     * <p>
+     * The focal, text and background are prepared against the current view state. If the prompt
+     * is shown before the view state or these options change then the measured geometry is
+     * reused instead of being calculated again.
+     * </p>
+     * <p>
+     * Will return null if a valid target has not been set or the primary text and secondary
+     * text are null.
+     * </p>
+     *
+     * @return The calculated geometry or null if no target.
+     */
+    @MainThread
+    @Nullable
+    public PromptGeometry measure()
+    {
+        final ViewGroup parent = mResourceFinder.getPromptParentView();
+        final Rect displayFrame = new Rect();
+        parent.getWindowVisibleDisplayFrame(displayFrame);
+        // The prompt view fills the parent view
+        final int[] promptViewPosition = new int[2];
+        parent.getLocationInWindow(promptViewPosition);
+        return measure(promptViewPosition, displayFrame.top, null);
+    }
+
+    /**
+     * Calculates where the prompt would be placed using view state shared with other prompts.
+     *
+     * @param promptViewPosition The parent view position in the window.
+     * @param displayFrameTop The top of the window visible display frame.
+     * @param parentClipBounds The parent view global visible rect or null to calculate it.
+     * @return The calculated geometry or null if no target.
+     */
+    @MainThread
+    @Nullable
+    PromptGeometry measure(@NonNull final int[] promptViewPosition, final int displayFrameTop,
+                           @Nullable final Rect parentClipBounds)
+    {
+        if (!mTargetSet || (mPrimaryText == null && mSecondaryText == null))
+        {
+            return null;
+        }
+        setupElements();
+        final Rect clipBounds = new Rect();
+        final boolean clipToBounds;
+        if (mClipToView == null && parentClipBounds != null)
+        {
+            clipBounds.set(parentClipBounds);
+            clipToBounds = false;
+        }
+        else
+        {
+            clipToBounds = PromptUtils.calculateClipBounds(this,
+                    mIgnoreStatusBar ? 0 : displayFrameTop, clipBounds);
+        }
+        mMeasuredGeometry = PromptGeometry.solve(this,
+                PromptGeometry.Input.capture(this, promptViewPosition, clipToBounds, clipBounds));
+        return mMeasuredGeometry;
+    }
+
+    /**
+     * Get the geometry calculated by the last call to {@link #measure()} that has not yet been
+     * used by a prompt.
+     *
+     * @return The measured geometry or null if not measured.
+     */
+    @Nullable
+    public PromptGeometry getMeasuredGeometry()
+    {
+        return mMeasuredGeometry;
+    }
+
+    /**
+     * Clears the geometry calculated by {@link #measure()}, called when a prompt takes ownership
+     * of the prepared elements.
+     */
+    public void clearMeasuredGeometry()
+    {
+        mMeasuredGeometry = null;
+    }
+
+    /**
+     * Drops the references to the resource finder, views, drawables, listeners and text held by
+     * these options and their prompt elements, called when a prompt created from these options
+     * is released. The options can't be used to create a prompt afterwards.
+     *
+     * @see MaterialTapTargetPrompt#release()
+     */
+    public void release()
+    {
+        mTargetView = null;
+        mTargetViewId = 0;
+        mTargetRenderView = null;
+        mClipToView = null;
+        if (mIconDrawable != null)
+        {
+            mIconDrawable.setCallback(null);
+            mIconDrawable = null;
+        }
+        mPromptStateChangeListener = null;
+        mSequencePromptStateChangeListener = null;
+        mRenderingProfileListener = null;
+        mMeasuredGeometry = null;
+        mLifecycleOwner = null;
+        mTargetSet = false;
+        mPrimaryText = null;
+        mSecondaryText = null;
+        mTextBlocks.clear();
+        mPromptText.release();
+        mPromptFocal.release();
+        mResourceFinder = null;
+    }
+
+    /**
+     * Have these options been released with {@link #release()}.
+     *
+     * @return True if the options can no longer be used to create or show a prompt.
+     */
+    public boolean isReleased()
+    {
+        return mResourceFinder == null;
+    }
+
+    /**
+     * Applies the current colours to the focal, background, text and icon of a prompt created
+     * from these options. The prompt geometry and text layouts are not changed.
+     *
+     * @see MaterialTapTargetPrompt#updateColours()
+     */
+    public void applyColours()
+    {
+        mPromptBackground.setColour(getBackgroundColour());
+        mPromptFocal.setColour(getFocalColour());
+        mPromptFocal.updateColours(this);
+        mPromptText.updateColours(this);
+        if (mIconDrawable != null)
+        {
+            // Clear the previous tint as the new tint might use the other method
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
             {
-                if (mIconDrawableTintList != null)
-                {
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
-                    {
-                        mIconDrawable.setTintList(mIconDrawableTintList);
-                    }
-                }
-                else
+                mIconDrawable.setTintList(null);
+            }
+            mIconDrawable.setColorFilter(null);
+            applyIconDrawableTint();
+        }
+    }
+
+    /**
+     * Tints the icon drawable with the tint list or colour filter if a tint has been set.
+     */
+    private void applyIconDrawableTint()
+    {
+        if (mHasIconDrawableTint)
+        {
+            if (mIconDrawableTintList != null)
+            {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
                 {
-                    mIconDrawable.setColorFilter(mIconDrawableColourFilter, mIconDrawableTintMode);
-                    mIconDrawable.setAlpha(Color.alpha(mIconDrawableColourFilter));
+                    mIconDrawable.setTintList(mIconDrawableTintList);
                 }
             }
+            else
+            {
+                mIconDrawable.setColorFilter(mIconDrawableColourFilter, mIconDrawableTintMode);
+                mIconDrawable.setAlpha(Color.alpha(mIconDrawableColourFilter));
+            }
         }
+    }
 
+    /**
+     * Apply the options to the focal and background.
+     */
+    private void setupElements()
+    {
         mPromptBackground.setColour(getBackgroundColour());
 
         mPromptFocal.setColour(getFocalColour());
@@ -1560,8 +2165,6 @@ public class PromptOptions<T extends PromptOptions>
         {
             ((CirclePromptFocal) mPromptFocal).setRadius(getFocalRadius());
         }
-
-        return mPrompt;
     }
 
     /**
@@ -1622,4 +2225,70 @@ public class PromptOptions<T extends PromptOptions>
         }
         return mPrompt;
     }
+
+    /**
+     * Creates a {@link MaterialTapTargetPrompt} with the arguments supplied to this
+     * builder and displays the prompt once the target has been laid out.
+     * <p>
+     * Calling this method is functionally identical to:
+     * </p>
+     * <pre>
+     *     MaterialTapTargetPrompt prompt = builder.create();
+     *     prompt.showWhenReady(timeoutMillis);
+     * </pre>
+     * <p>
+     * Will return null if a valid target has not been set or the primary text and secondary
+     * text are null.
+     * To check that a valid target has been set call {@link #isTargetSet()}.
+     * </p>
+     *
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     * @return The created builder or null if no target
+     */
+    @Nullable
+    public MaterialTapTargetPrompt showWhenReady(final long timeoutMillis)
+    {
+        final MaterialTapTargetPrompt mPrompt = create();
+        if (mPrompt != null)
+        {
+            mPrompt.showWhenReady(timeoutMillis);
+        }
+        return mPrompt;
+    }
+
+    /**
+     * Creates a {@link MaterialTapTargetPrompt} with the arguments supplied to this
+     * builder and shows it in the revealed state, without the reveal animation, if the prompt
+     * was showing when its state was saved with {@link MaterialTapTargetPrompt#saveState(Bundle)}.
+     * <p>
+     * Calling this method is functionally identical to:
+     * </p>
+     * <pre>
+     *     MaterialTapTargetPrompt prompt = builder.create();
+     *     prompt.restoreState(savedState, timeoutMillis);
+     * </pre>
+     * <p>
+     * Will return null if the prompt was not showing, a valid target has not been set or the
+     * primary text and secondary text are null.
+     * </p>
+     *
+     * @param savedState The bundle that the prompt state was saved in.
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     * @return The created prompt or null if the prompt was not showing or there is no target
+     */
+    @Nullable
+    public MaterialTapTargetPrompt restoreState(@Nullable final Bundle savedState,
+                                                final long timeoutMillis)
+    {
+        if (!MaterialTapTargetPrompt.wasShowing(savedState))
+        {
+            return null;
+        }
+        final MaterialTapTargetPrompt mPrompt = create();
+        if (mPrompt != null)
+        {
+            mPrompt.restoreState(savedState, timeoutMillis);
+        }
+        return mPrompt;
+    }
 }
@@ -16,55 +16,95 @@
 
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
+import android.content.res.Resources;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.PorterDuff;
-import android.graphics.PorterDuffXfermode;
+import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.os.Build;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import android.text.DynamicLayout;
 import android.text.Layout;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
 import android.text.TextPaint;
+import android.text.TextUtils;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class PromptText implements PromptUIElement
 {
-    RectF mTextBounds = new RectF();
-    float mPrimaryTextLeft;
-    float mPrimaryTextLeftChange;
-    float mPrimaryTextTop;
-    float mSecondaryTextLeft;
-    float mSecondaryTextLeftChange;
-    float mSecondaryTextOffsetTop;
-    Layout mPrimaryTextLayout;
-    Layout mSecondaryTextLayout;
+    /**
+     * The block source for the primary text.
+     */
+    static final int BLOCK_PRIMARY = 0;
+
+    /**
+     * The block source for the secondary text.
+     */
+    static final int BLOCK_SECONDARY = 1;
 
     /**
-     * The paint used to draw the primary text.
+     * The block source for the first {@link PromptTextBlock} added to the options, following
+     * blocks use the next sources in order.
      */
-    TextPaint mPaintPrimaryText;
+    static final int BLOCK_EXTRA = 2;
+
+    RectF mTextBounds = new RectF();
 
     /**
-     * The paint used to draw the secondary text.
+     * The position of the text bounds before the right to left text change is applied.
      */
-    TextPaint mPaintSecondaryText;
+    float mTextLeft;
+    float mTextTop;
 
     /**
-     * The primary text layout alignment.
-     * Left, centre or right.
+     * The text blocks being displayed in the order they are drawn from the top, the primary
+     * text, the secondary text and then the {@link PromptTextBlock}s that have text.
+     * The blocks are measured, positioned and drawn together.
      */
-    Layout.Alignment mPrimaryTextAlignment;
+    final ArrayList<Block> mBlocks = new ArrayList<>();
 
     /**
-     * The secondary text layout alignment.
-     * Left, centre or right.
+     * Blocks that are not being displayed, kept so that preparing the text again reuses the
+     * blocks and their paints instead of creating new ones.
      */
-    Layout.Alignment mSecondaryTextAlignment;
+    final ArrayList<Block> mSpareBlocks = new ArrayList<>();
 
     boolean mClipToBounds;
 
     Rect mClipBounds;
 
+    /**
+     * The prompt parent view position and width that the text was last prepared with.
+     */
+    int mParentLeft, mParentRight, mParentWidth;
+
+    /**
+     * The width and alpha modifier that the current text layouts were created with, used to
+     * skip creating the layouts again when a layout pass updates the prompt with the same
+     * values.
+     */
+    int mLayoutMaxWidth;
+    float mLayoutAlphaModifier = -1;
+
+    /**
+     * The maximum lines and ellipsize that the current text layouts were created with.
+     */
+    int mLayoutMaxLines;
+    @Nullable TextUtils.TruncateAt mLayoutEllipsize;
+
+    /**
+     * Was any of the text cut off by the maximum number of lines when it was laid out.
+     */
+    boolean mTextTruncated;
+
     public  PromptText() {}
 
     /**
@@ -79,56 +119,313 @@ public class PromptText implements PromptUIElement
     }
 
     /**
-     * Recalculates the primary and secondary text positions.
+     * Was any of the primary text, secondary text or text blocks cut off by
+     * {@link PromptOptions#setMaxTextLines(int)} when the text was last laid out.
+     *
+     * @return True if some of the text isn't displayed.
+     */
+    public boolean isTextTruncated()
+    {
+        return mTextTruncated;
+    }
+
+    /**
+     * Recalculates the text block positions.
      */
     public void prepare(@NonNull PromptOptions options,
                         boolean clipToBounds, @NonNull Rect clipBounds)
+    {
+        final View parent = options.getResourceFinder().getPromptParentView();
+        prepare(options, clipToBounds, clipBounds, parent.getLeft(), parent.getRight(), parent.getWidth());
+    }
+
+    /**
+     * Recalculates the text block positions from a geometry input snapshot.
+     * This does not read any view state so can be called from a background thread when
+     * {@link #supportsGeometryInput()} returns true.
+     *
+     * @param options The options the prompt was created from.
+     * @param input The geometry snapshot to position the text with.
+     */
+    public void prepare(@NonNull PromptOptions options, @NonNull PromptGeometry.Input input)
+    {
+        final Rect parentBounds = input.getParentBounds();
+        prepare(options, input.isClipToBounds(), input.getClipBounds(),
+                parentBounds.left, parentBounds.right, parentBounds.width());
+    }
+
+    /**
+     * Does {@link #prepare(PromptOptions, PromptGeometry.Input)} produce the same result as
+     * {@link #prepare(PromptOptions, boolean, Rect)}.
+     * Subclasses that change how the text is prepared must override this to return true if
+     * they also support being prepared from a geometry input.
+     *
+     * @return True if the text can be prepared from a geometry input.
+     */
+    public boolean supportsGeometryInput()
+    {
+        return getClass() == PromptText.class;
+    }
+
+    /**
+     * Does the text only depend on the values captured in a {@link PromptGeometry.Input}, so
+     * a layout pass with a matching snapshot doesn't need the text preparing again.
+     * Base implementation returns {@link #supportsGeometryInput()}.
+     *
+     * @return True if the text is prepared only from the geometry snapshot.
+     */
+    public boolean isPreparedOnlyFromSnapshot()
+    {
+        return supportsGeometryInput();
+    }
+
+    /**
+     * Recalculates the text block positions.
+     *
+     * @param options The options the prompt was created from.
+     * @param clipToBounds Should the text be clipped to the clip bounds.
+     * @param clipBounds The bounds that the prompt is clipped to.
+     * @param parentLeft The prompt parent view left position.
+     * @param parentRight The prompt parent view right position.
+     * @param parentWidth The prompt parent view width.
+     */
+    private void prepare(@NonNull PromptOptions options, boolean clipToBounds, @NonNull Rect clipBounds,
+                         final int parentLeft, final int parentRight, final int parentWidth)
     {
         mClipToBounds = clipToBounds;
         mClipBounds = clipBounds;
-        final CharSequence primaryText = options.getPrimaryText();
-        if (primaryText != null)
-        {
-            mPaintPrimaryText = new TextPaint();
-            @ColorInt final int primaryTextColour = options.getPrimaryTextColour();
-            mPaintPrimaryText.setColor(primaryTextColour);
-            mPaintPrimaryText.setAlpha(Color.alpha(primaryTextColour));
-            mPaintPrimaryText.setAntiAlias(true);
-            mPaintPrimaryText.setTextSize(options.getPrimaryTextSize());
-            PromptUtils.setTypeface(mPaintPrimaryText, options.getPrimaryTextTypeface(), options.getPrimaryTextTypefaceStyle());
-            mPrimaryTextAlignment = PromptUtils.getTextAlignment(options.getResourceFinder().getResources(),
-                    options.getPrimaryTextGravity(), primaryText);
-        }
-
-        final CharSequence secondaryText = options.getSecondaryText();
-        if (secondaryText != null)
-        {
-            mPaintSecondaryText = new TextPaint();
-            @ColorInt final int secondaryTextColour = options.getSecondaryTextColour();
-            mPaintSecondaryText.setColor(secondaryTextColour);
-            mPaintSecondaryText.setAlpha(Color.alpha(secondaryTextColour));
-            mPaintSecondaryText.setAntiAlias(true);
-            mPaintSecondaryText.setTextSize(options.getSecondaryTextSize());
-            PromptUtils.setTypeface(mPaintSecondaryText, options.getSecondaryTextTypeface(),
-                    options.getSecondaryTextTypefaceStyle());
-            mSecondaryTextAlignment = PromptUtils.getTextAlignment(options.getResourceFinder().getResources(),
-                    options.getSecondaryTextGravity(), secondaryText);
-        }
-        final RectF focalBounds = options.getPromptFocal().getBounds();
+        mParentLeft = parentLeft;
+        mParentRight = parentRight;
+        mParentWidth = parentWidth;
+        for (int i = 0, count = mBlocks.size(); i < count; i++)
+        {
+            mSpareBlocks.add(mBlocks.get(i));
+        }
+        mBlocks.clear();
+        boolean restyled = false;
+        final int sourceCount = BLOCK_EXTRA + options.getTextBlocks().size();
+        for (int source = 0; source < sourceCount; source++)
+        {
+            final CharSequence text = getBlockText(options, source);
+            if (text != null)
+            {
+                final Block block = obtainBlock(source);
+                if (block.mPaint == null)
+                {
+                    block.mPaint = new TextPaint();
+                    block.mPaint.setAntiAlias(true);
+                    setupBlock(options, block, text);
+                    restyled = true;
+                }
+                else if (restyleBlock(options, block, text))
+                {
+                    restyled = true;
+                }
+                mBlocks.add(block);
+            }
+        }
+        for (int i = 0, count = mSpareBlocks.size(); i < count; i++)
+        {
+            // Blocks that aren't displayed are laid out again if their text is set again
+            final Block block = mSpareBlocks.get(i);
+            block.mLayout = null;
+            block.mPlainText = null;
+            block.mLayoutText = null;
+            block.mDynamicLayout = null;
+            block.mTextBuffer = null;
+        }
+        final float maxWidth = PromptUtils.calculateMaxWidth(options.getMaxTextWidth(),
+                clipToBounds ? clipBounds : null, parentWidth,
+                options.getTextPadding());
+        if (restyled || !isLayoutCurrent(options, maxWidth))
+        {
+            createTextLayout(options, maxWidth, 1);
+        }
+        positionText(options, clipToBounds, clipBounds, parentLeft, parentRight, maxWidth);
+    }
+
+    /**
+     * Get the block for a source, reusing a spare block with the same source if there is one.
+     *
+     * @param source The block source.
+     * @return The spare block for the source or a new block without a paint.
+     */
+    @NonNull
+    private Block obtainBlock(final int source)
+    {
+        for (int i = 0, count = mSpareBlocks.size(); i < count; i++)
+        {
+            if (mSpareBlocks.get(i).mSource == source)
+            {
+                return mSpareBlocks.remove(i);
+            }
+        }
+        return new Block(source);
+    }
+
+    /**
+     * Applies the block style from the options to a reused block, dropping the block layout if
+     * the style that it was laid out with has changed.
+     *
+     * @param options The options the prompt was created from.
+     * @param block The reused block to style.
+     * @param text The block text.
+     * @return True if the block needs laying out again.
+     */
+    private static boolean restyleBlock(@NonNull final PromptOptions options,
+                                        @NonNull final Block block,
+                                        @NonNull final CharSequence text)
+    {
+        final TextPaint paint = block.mPaint;
+        final float textSize = paint.getTextSize();
+        final Typeface typeface = paint.getTypeface();
+        final boolean fakeBold = paint.isFakeBoldText();
+        final float textSkewX = paint.getTextSkewX();
+        final Layout.Alignment alignment = block.mAlignment;
+        setupBlock(options, block, text);
+        if (textSize != paint.getTextSize() || typeface != paint.getTypeface()
+                || fakeBold != paint.isFakeBoldText() || textSkewX != paint.getTextSkewX()
+                || alignment != block.mAlignment)
+        {
+            block.mLayout = null;
+            block.mPlainText = null;
+            block.mLayoutText = null;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Applies the block style from the options to the block paint and calculates the block
+     * alignment.
+     *
+     * @param options The options the prompt was created from.
+     * @param block The block to style.
+     * @param text The block text.
+     */
+    private static void setupBlock(@NonNull final PromptOptions options,
+                                   @NonNull final Block block, @NonNull final CharSequence text)
+    {
+        final Resources resources = options.getResourceFinder().getResources();
+        final float textSize;
+        final Typeface typeface;
+        final int typefaceStyle;
+        final int gravity;
+        switch (block.mSource)
+        {
+            case BLOCK_PRIMARY:
+                textSize = options.getPrimaryTextSize();
+                typeface = options.getPrimaryTextTypeface();
+                typefaceStyle = options.getPrimaryTextTypefaceStyle();
+                gravity = options.getPrimaryTextGravity();
+                break;
+            case BLOCK_SECONDARY:
+                textSize = options.getSecondaryTextSize();
+                typeface = options.getSecondaryTextTypeface();
+                typefaceStyle = options.getSecondaryTextTypefaceStyle();
+                gravity = options.getSecondaryTextGravity();
+                break;
+            default:
+                final PromptTextBlock textBlock =
+                        options.getTextBlocks().get(block.mSource - BLOCK_EXTRA);
+                textSize = textBlock.getTextSize(options);
+                typeface = textBlock.getTypeface(options);
+                typefaceStyle = textBlock.getTypefaceStyle(options);
+                gravity = textBlock.getGravity(options);
+                block.mStyleVersion = textBlock.mVersion;
+                break;
+        }
+        @ColorInt final int textColour = getBlockColour(options, block.mSource);
+        block.mPaint.setColor(textColour);
+        block.mPaint.setAlpha(Color.alpha(textColour));
+        block.mPaint.setTextSize(textSize);
+        PromptUtils.setTypeface(block.mPaint, typeface, typefaceStyle);
+        block.mPaint.getFontMetricsInt(block.mFontMetrics);
+        // Plain text has no right to left characters so the bidi analysis can be skipped
+        block.mAlignment = PromptUtils.getTextAlignment(resources, gravity,
+                PromptUtils.isPlainText(text) ? null : text);
+    }
+
+    /**
+     * Get the text for a block source.
+     *
+     * @param options The options the prompt was created from.
+     * @param source The block source.
+     * @return The block text or null if the block isn't displayed.
+     */
+    @Nullable
+    static CharSequence getBlockText(@NonNull final PromptOptions options, final int source)
+    {
+        switch (source)
+        {
+            case BLOCK_PRIMARY:
+                return options.getPrimaryText();
+            case BLOCK_SECONDARY:
+                return options.getSecondaryText();
+            default:
+                final List<PromptTextBlock> textBlocks = options.getTextBlocks();
+                final int index = source - BLOCK_EXTRA;
+                return index < textBlocks.size() ? textBlocks.get(index).getText() : null;
+        }
+    }
+
+    /**
+     * Get the text colour for a block source.
+     *
+     * @param options The options the prompt was created from.
+     * @param source The block source.
+     * @return The block text colour.
+     */
+    @ColorInt
+    static int getBlockColour(@NonNull final PromptOptions options, final int source)
+    {
+        switch (source)
+        {
+            case BLOCK_PRIMARY:
+                return options.getPrimaryTextColour();
+            case BLOCK_SECONDARY:
+                return options.getSecondaryTextColour();
+            default:
+                return options.getTextBlocks().get(source - BLOCK_EXTRA).getTextColour(options);
+        }
+    }
+
+    /**
+     * Calculates the text block positions from the current text layouts.
+     *
+     * @param options The options the prompt was created from.
+     * @param clipToBounds Should the text be clipped to the clip bounds.
+     * @param clipBounds The bounds that the prompt is clipped to.
+     * @param parentLeft The prompt parent view left position.
+     * @param parentRight The prompt parent view right position.
+     * @param maxWidth The maximum width that the text can be.
+     */
+    private void positionText(@NonNull PromptOptions options, boolean clipToBounds,
+                              @NonNull Rect clipBounds, final int parentLeft,
+                              final int parentRight, final float maxWidth)
+    {
+        final RectF focalBounds = options.getPromptFocal().getTargetBounds();
         final float focalCentreX = focalBounds.centerX();
         final float focalCentreY = focalBounds.centerY();
 
         final boolean verticalTextPositionAbove = focalCentreY > clipBounds.centerY();
         final boolean horizontalTextPositionLeft = focalCentreX > clipBounds.centerX();
 
-        final float maxWidth = PromptUtils.calculateMaxWidth(options.getMaxTextWidth(),
-                clipToBounds ? clipBounds : null,
-                options.getResourceFinder().getPromptParentView().getWidth(),
-                options.getTextPadding());
-        createTextLayout(options, maxWidth, 1);
-        final float primaryTextWidth = PromptUtils.calculateMaxTextWidth(mPrimaryTextLayout);
-        final float secondaryTextWidth = PromptUtils.calculateMaxTextWidth(mSecondaryTextLayout);
-        final float textWidth = Math.max(primaryTextWidth, secondaryTextWidth);
+        // Measure all the blocks in one pass, stacking them with the text separation between
+        float textWidth = 0;
+        float textHeight = 0;
+        final int blockCount = mBlocks.size();
+        for (int i = 0; i < blockCount; i++)
+        {
+            final Block block = mBlocks.get(i);
+            textWidth = Math.max(textWidth, block.getTextWidth());
+            if (i > 0)
+            {
+                textHeight += options.getTextSeparation();
+            }
+            block.mOffsetTop = textHeight;
+            textHeight += block.getHeight();
+        }
         final float focalPadding = options.getFocalPadding();
         final float textPadding = options.getTextPadding();
 
@@ -136,124 +433,300 @@ public class PromptText implements PromptUIElement
                 (int) (88 * options.getResourceFinder().getResources().getDisplayMetrics().density),
                 (int) focalCentreX, (int) focalCentreY))
         {
-            mPrimaryTextLeft = clipBounds.left;
             final float width = Math.min(textWidth, maxWidth);
             if (horizontalTextPositionLeft)
             {
-                mPrimaryTextLeft = focalCentreX - width + focalPadding;
+                mTextLeft = focalCentreX - width + focalPadding;
             }
             else
             {
-                mPrimaryTextLeft = focalCentreX - width - focalPadding;
+                mTextLeft = focalCentreX - width - focalPadding;
             }
-            if (mPrimaryTextLeft < clipBounds.left + textPadding)
+            if (mTextLeft < clipBounds.left + textPadding)
             {
-                mPrimaryTextLeft = clipBounds.left + textPadding;
+                mTextLeft = clipBounds.left + textPadding;
             }
-            if (mPrimaryTextLeft + width > clipBounds.right - textPadding)
+            if (mTextLeft + width > clipBounds.right - textPadding)
             {
-                mPrimaryTextLeft = clipBounds.right - textPadding - width;
+                mTextLeft = clipBounds.right - textPadding - width;
             }
         }
         else
         {
             if (horizontalTextPositionLeft)
             {
-                mPrimaryTextLeft = (clipToBounds ? clipBounds.right :
-                        options.getResourceFinder().getPromptParentView().getRight()) - textPadding - textWidth;
+                mTextLeft = (clipToBounds ? clipBounds.right : parentRight) - textPadding - textWidth;
             }
             else
             {
-                mPrimaryTextLeft = (clipToBounds ? clipBounds.left :
-                        options.getResourceFinder().getPromptParentView().getLeft()) + textPadding;
+                mTextLeft = (clipToBounds ? clipBounds.left : parentLeft) + textPadding;
             }
         }
 
         if (verticalTextPositionAbove)
         {
-            mPrimaryTextTop = focalBounds.top - focalPadding;
-            if (mPrimaryTextLayout != null)
-            {
-                mPrimaryTextTop -= mPrimaryTextLayout.getHeight();
-            }
+            mTextTop = focalBounds.top - focalPadding - textHeight;
         }
         else
         {
-            mPrimaryTextTop = focalBounds.bottom + focalPadding;
+            mTextTop = focalBounds.bottom + focalPadding;
         }
 
-        float primaryTextHeight = 0;
-        if (mPrimaryTextLayout != null)
+        final float change = maxWidth - textWidth;
+        final Resources resources = options.getResourceFinder().getResources();
+        for (int i = 0; i < blockCount; i++)
         {
-            primaryTextHeight = mPrimaryTextLayout.getHeight();
+            final Block block = mBlocks.get(i);
+            block.mLeftChange = block.isRtlText(resources) ? change : 0;
         }
-        float textHeight;
-        if (mSecondaryTextLayout != null)
+        mTextBounds.left = mTextLeft;// - change;
+        mTextBounds.top = mTextTop;
+        mTextBounds.right = mTextBounds.left + textWidth;
+        mTextBounds.bottom = mTextBounds.top + textHeight;
+    }
+
+    /**
+     * Get the block displaying the text from a source.
+     *
+     * @param source The block source.
+     * @return The block or null if the source text isn't displayed.
+     */
+    @Nullable
+    Block getBlock(final int source)
+    {
+        for (int i = 0, count = mBlocks.size(); i < count; i++)
         {
-            textHeight = mSecondaryTextLayout.getHeight();
-            if (verticalTextPositionAbove)
+            final Block block = mBlocks.get(i);
+            if (block.mSource == source)
             {
-                mPrimaryTextTop -= textHeight;
-                if (mPrimaryTextLayout != null)
-                {
-                    mPrimaryTextTop -= options.getTextSeparation();
-                }
+                return block;
             }
+        }
+        return null;
+    }
 
-            if (mPrimaryTextLayout != null)
+    /**
+     * Are the blocks being displayed the blocks for the text in the options, with the same
+     * text block styles.
+     *
+     * @param options The options the prompt was created from.
+     * @return True if the blocks only need laying out again for the text to change.
+     */
+    private boolean hasSameBlocks(@NonNull PromptOptions options)
+    {
+        final int sourceCount = BLOCK_EXTRA + options.getTextBlocks().size();
+        int blockIndex = 0;
+        for (int source = 0; source < sourceCount; source++)
+        {
+            if (getBlockText(options, source) == null)
             {
-                mSecondaryTextOffsetTop = primaryTextHeight + options.getTextSeparation();
+                continue;
+            }
+            if (blockIndex == mBlocks.size())
+            {
+                return false;
+            }
+            final Block block = mBlocks.get(blockIndex++);
+            if (block.mSource != source || (source >= BLOCK_EXTRA && block.mStyleVersion
+                    != options.getTextBlocks().get(source - BLOCK_EXTRA).mVersion))
+            {
+                return false;
             }
-            textHeight += mSecondaryTextOffsetTop;
         }
-        else
+        return blockIndex == mBlocks.size();
+    }
+
+    /**
+     * Updates the text layouts after the text has been changed on a prompt that is showing.
+     * Only the text that has changed is laid out again, using a layout that supports editing,
+     * and the text is only positioned again, the focal and background are not changed.
+     *
+     * @param options The options the prompt was created from.
+     * @return True if the text bounds have changed so the background needs preparing again.
+     */
+    public boolean updateText(@NonNull PromptOptions options)
+    {
+        if (mClipBounds == null)
         {
-            textHeight = primaryTextHeight;
+            // The text hasn't been prepared yet
+            return false;
         }
-
-        mSecondaryTextLeft = mPrimaryTextLeft;
-        mPrimaryTextLeftChange = 0;
-        mSecondaryTextLeftChange = 0;
-        final float change = maxWidth - textWidth;
-        if (PromptUtils.isRtlText(mPrimaryTextLayout, options.getResourceFinder().getResources()))
+        final float previousLeft = mTextBounds.left;
+        final float previousTop = mTextBounds.top;
+        final float previousRight = mTextBounds.right;
+        final float previousBottom = mTextBounds.bottom;
+        if (options.getMaxTextLines() > 0 || !hasSameBlocks(options))
         {
-            mPrimaryTextLeftChange = change;
+            // Text has been added or removed so the paints need creating, dynamic layouts can't
+            // limit the number of lines so limited text is also prepared again
+            prepare(options, mClipToBounds, mClipBounds, mParentLeft, mParentRight, mParentWidth);
         }
-        if (PromptUtils.isRtlText(mSecondaryTextLayout, options.getResourceFinder().getResources()))
+        else
         {
-            mSecondaryTextLeftChange = change;
+            final float maxWidth = PromptUtils.calculateMaxWidth(options.getMaxTextWidth(),
+                    mClipToBounds ? mClipBounds : null, mParentWidth, options.getTextPadding());
+            for (int i = 0, count = mBlocks.size(); i < count; i++)
+            {
+                final Block block = mBlocks.get(i);
+                final CharSequence text = getBlockText(options, block.mSource);
+                setupBlock(options, block, text);
+                block.mLayoutText = text;
+                block.mPlainText = null;
+                if (canDrawPlainText(text) && block.setPlainText(text, (int) maxWidth, 1))
+                {
+                    block.mLayout = null;
+                    continue;
+                }
+                final DynamicLayout dynamicLayout = block.mDynamicLayout;
+                if (block.mLayout != dynamicLayout || block.mTextBuffer == null
+                        || dynamicLayout.getWidth() != (int) maxWidth
+                        || dynamicLayout.getAlignment() != block.mAlignment)
+                {
+                    block.mTextBuffer = new SpannableStringBuilder(text);
+                    block.mDynamicLayout = new DynamicLayout(block.mTextBuffer, block.mPaint,
+                            (int) maxWidth, block.mAlignment, 1f, 0f, false);
+                }
+                else
+                {
+                    replaceChangedText(block.mTextBuffer, text);
+                }
+                block.mLayout = block.mDynamicLayout;
+            }
+            mLayoutMaxWidth = (int) maxWidth;
+            mLayoutAlphaModifier = 1;
+            mTextTruncated = false;
+            positionText(options, mClipToBounds, mClipBounds, mParentLeft, mParentRight, maxWidth);
         }
-        mTextBounds.left = mPrimaryTextLeft;// - change;
-        mTextBounds.top = mPrimaryTextTop;
-        mTextBounds.right = mTextBounds.left + textWidth;
-        mTextBounds.bottom = mTextBounds.top + textHeight;
+        return previousLeft != mTextBounds.left || previousTop != mTextBounds.top
+                || previousRight != mTextBounds.right || previousBottom != mTextBounds.bottom;
     }
 
     /**
-     * Creates the text layouts for the primary and secondary text.
+     * Replaces the part of the buffer that differs from the new text so that a dynamic layout
+     * created from the buffer only lays out the changed paragraphs again.
      *
-     * @param maxWidth The maximum width that the text can be.
+     * @param buffer The text currently being displayed.
+     * @param text The new text.
      */
-    void createTextLayout(@NonNull final PromptOptions options, final float maxWidth,
-                          final float alphaModifier)
+    static void replaceChangedText(@NonNull final SpannableStringBuilder buffer,
+                                   @NonNull final CharSequence text)
     {
-        if (options.getPrimaryText() != null)
+        final int bufferLength = buffer.length();
+        final int textLength = text.length();
+        if (text instanceof Spanned)
         {
-            mPrimaryTextLayout = PromptUtils.createStaticTextLayout(options.getPrimaryText(),
-                    mPaintPrimaryText, (int) maxWidth, mPrimaryTextAlignment, alphaModifier);
+            // The spans might have changed even if the characters haven't
+            buffer.replace(0, bufferLength, text);
+            return;
         }
-        else
+        int start = 0;
+        while (start < bufferLength && start < textLength
+                && buffer.charAt(start) == text.charAt(start))
         {
-            mPrimaryTextLayout = null;
+            start++;
         }
-        if (options.getSecondaryText() != null)
+        int bufferEnd = bufferLength;
+        int textEnd = textLength;
+        while (bufferEnd > start && textEnd > start
+                && buffer.charAt(bufferEnd - 1) == text.charAt(textEnd - 1))
         {
-            mSecondaryTextLayout = PromptUtils.createStaticTextLayout(options.getSecondaryText(),
-                    mPaintSecondaryText, (int) maxWidth, mSecondaryTextAlignment, alphaModifier);
+            bufferEnd--;
+            textEnd--;
         }
-        else
+        if (start != bufferEnd || start != textEnd)
+        {
+            buffer.replace(start, bufferEnd, text, start, textEnd);
+        }
+    }
+
+    /**
+     * Drops the text blocks along with their text and layouts, called when the prompt options
+     * are released.
+     *
+     * @see PromptOptions#release()
+     */
+    public void release()
+    {
+        mBlocks.clear();
+        mSpareBlocks.clear();
+        mLayoutMaxWidth = 0;
+        mLayoutAlphaModifier = -1;
+        mLayoutMaxLines = 0;
+        mLayoutEllipsize = null;
+    }
+
+    /**
+     * Applies the text colours from the options to the text paints. The text layouts draw with
+     * the paints so they don't need creating again.
+     *
+     * @param options The options the prompt was created from.
+     */
+    public void updateColours(@NonNull PromptOptions options)
+    {
+        for (int i = 0, count = mBlocks.size(); i < count; i++)
+        {
+            final Block block = mBlocks.get(i);
+            @ColorInt final int textColour = getBlockColour(options, block.mSource);
+            block.mPaint.setColor(textColour);
+            block.mPaint.setAlpha(Color.alpha(textColour));
+        }
+    }
+
+    /**
+     * Can the text be drawn without a text layout when it fits on a single line.
+     *
+     * @param text The text to draw.
+     * @return True if the text is plain text.
+     */
+    boolean canDrawPlainText(@NonNull final CharSequence text)
+    {
+        return PromptUtils.isPlainText(text);
+    }
+
+    /**
+     * Creates the text layouts for the text blocks.
+     * Plain text that fits on a single line is drawn without a layout.
+     *
+     * @param maxWidth The maximum width that the text can be.
+     */
+    void createTextLayout(@NonNull final PromptOptions options, final float maxWidth,
+                          final float alphaModifier)
+    {
+        final boolean sameWidth = (int) maxWidth == mLayoutMaxWidth;
+        mLayoutMaxWidth = (int) maxWidth;
+        mLayoutAlphaModifier = alphaModifier;
+        mTextTruncated = false;
+        final int maxLines = options.getMaxTextLines();
+        mLayoutMaxLines = maxLines;
+        mLayoutEllipsize = options.getTextEllipsize();
+        for (int i = 0, count = mBlocks.size(); i < count; i++)
         {
-            mSecondaryTextLayout = null;
+            final Block block = mBlocks.get(i);
+            final CharSequence text = getBlockText(options, block.mSource);
+            block.mLayoutText = text;
+            if (sameWidth && text != null && text == block.mPlainText)
+            {
+                // Only the alpha has changed so the plain text doesn't need measuring again
+                block.mPlainTextAlphaModifier = alphaModifier;
+                continue;
+            }
+            block.mPlainText = null;
+            if (text == null || (canDrawPlainText(text)
+                    && block.setPlainText(text, (int) maxWidth, alphaModifier)))
+            {
+                // Plain text that fits on a single line is drawn without a layout
+                block.mLayout = null;
+            }
+            else
+            {
+                block.mLayout = PromptUtils.createStaticTextLayout(text, block.mPaint,
+                        (int) maxWidth, block.mAlignment, alphaModifier, maxLines,
+                        options.getTextEllipsize());
+                if (maxLines > 0 && PromptUtils.isTextTruncated(block.mLayout, text))
+                {
+                    mTextTruncated = true;
+                }
+            }
         }
     }
 
@@ -265,23 +738,90 @@ public class PromptText implements PromptUIElement
                 mClipToBounds ? mClipBounds : null,
                 options.getResourceFinder().getPromptParentView().getWidth(),
                 options.getTextPadding());
+        if (alphaModifier == mLayoutAlphaModifier && (int) maxWidth == mLayoutMaxWidth
+                && isLayoutTextCurrent(options))
+        {
+            // Layout passes update with the values the layouts were created with
+            return;
+        }
         createTextLayout(options, maxWidth, alphaModifier);
     }
 
-    @Override
-    public void draw(@NonNull Canvas canvas)
+    /**
+     * Can the block layouts be kept when the text is prepared again, they must be static
+     * layouts created from the current text with the same width, alpha and line limits.
+     *
+     * @param options The options the prompt was created from.
+     * @param maxWidth The maximum width that the text can be.
+     * @return True if the layouts don't need creating again.
+     */
+    private boolean isLayoutCurrent(@NonNull final PromptOptions options, final float maxWidth)
     {
-        canvas.translate(mPrimaryTextLeft - mPrimaryTextLeftChange, mPrimaryTextTop);
-        if (mPrimaryTextLayout != null)
+        if (mLayoutAlphaModifier != 1 || (int) maxWidth != mLayoutMaxWidth
+                || options.getMaxTextLines() != mLayoutMaxLines
+                || options.getTextEllipsize() != mLayoutEllipsize)
         {
-            mPrimaryTextLayout.draw(canvas);
+            return false;
         }
-        if (mSecondaryTextLayout != null)
+        for (int i = 0, count = mBlocks.size(); i < count; i++)
         {
-            canvas.translate(-(mPrimaryTextLeft - mPrimaryTextLeftChange)
-                    + mSecondaryTextLeft - mSecondaryTextLeftChange, mSecondaryTextOffsetTop);
-            mSecondaryTextLayout.draw(canvas);
+            final Block block = mBlocks.get(i);
+            if (block.mLayout != null && block.mLayout == block.mDynamicLayout)
+            {
+                // Dynamic layouts are replaced by static layouts when the text is prepared
+                return false;
+            }
         }
+        return isLayoutTextCurrent(options);
+    }
+
+    /**
+     * Were the block layouts created from the text currently set in the options.
+     *
+     * @param options The options the prompt was created from.
+     * @return True if every block layout was created from the current text.
+     */
+    private boolean isLayoutTextCurrent(@NonNull final PromptOptions options)
+    {
+        for (int i = 0, count = mBlocks.size(); i < count; i++)
+        {
+            final Block block = mBlocks.get(i);
+            if (getBlockText(options, block.mSource) != block.mLayoutText)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas)
+    {
+        // Translate from block to block and then back to where the canvas started
+        float left = 0;
+        float top = 0;
+        for (int i = 0, count = mBlocks.size(); i < count; i++)
+        {
+            final Block block = mBlocks.get(i);
+            if (block.mLayout == null && block.mPlainText == null)
+            {
+                continue;
+            }
+            final float blockLeft = mTextLeft - block.mLeftChange;
+            final float blockTop = mTextTop + block.mOffsetTop;
+            canvas.translate(blockLeft - left, blockTop - top);
+            if (block.mLayout != null)
+            {
+                block.mLayout.draw(canvas);
+            }
+            else
+            {
+                block.drawPlainText(canvas);
+            }
+            left = blockLeft;
+            top = blockTop;
+        }
+        canvas.translate(-left, -top);
     }
 
     @Override
@@ -289,4 +829,222 @@ public class PromptText implements PromptUIElement
     {
         return mTextBounds.contains(x, y);
     }
+
+    /**
+     * The paint, layout and position of a block of text.
+     */
+    static class Block
+    {
+        /**
+         * Where the block text comes from, {@link PromptText#BLOCK_PRIMARY},
+         * {@link PromptText#BLOCK_SECONDARY} or {@link PromptText#BLOCK_EXTRA} plus the text
+         * block index.
+         */
+        final int mSource;
+
+        /**
+         * The paint used to draw the text.
+         */
+        TextPaint mPaint;
+
+        /**
+         * The text layout alignment.
+         * Left, centre or right.
+         */
+        Layout.Alignment mAlignment;
+
+        /**
+         * The layout used to draw the text, null when the text is null or drawn as plain text.
+         */
+        @Nullable Layout mLayout;
+
+        /**
+         * The text drawn directly without a layout when it is plain text that fits on a single
+         * line, null when the text is drawn with {@link #mLayout}.
+         */
+        @Nullable CharSequence mPlainText;
+
+        /**
+         * The measured width of the plain text.
+         */
+        float mPlainTextWidth;
+
+        /**
+         * The distance from the left of the block to draw the plain text at, matching where a
+         * single line layout with the same alignment would draw it.
+         */
+        int mPlainTextLeft;
+
+        /**
+         * The amount to modify the plain text alpha by when it is drawn.
+         */
+        float mPlainTextAlphaModifier = 1;
+
+        /**
+         * The paint font metrics used for the plain text height and baseline, updated whenever
+         * the paint is styled.
+         */
+        final Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt();
+
+        /**
+         * The distance to move the block left by for right to left text.
+         */
+        float mLeftChange;
+
+        /**
+         * The distance from the top of the text bounds to the top of the block.
+         */
+        float mOffsetTop;
+
+        /**
+         * The editable text that the dynamic layout is created from, edits to it are only
+         * re-laid out from the changed paragraph onwards.
+         */
+        @Nullable SpannableStringBuilder mTextBuffer;
+
+        /**
+         * The layout created by {@link PromptText#updateText(PromptOptions)}, the layout is
+         * replaced by a static layout when the prompt is next prepared or animated.
+         */
+        @Nullable DynamicLayout mDynamicLayout;
+
+        /**
+         * The text that the current layout was created with.
+         */
+        @Nullable CharSequence mLayoutText;
+
+        /**
+         * The {@link PromptTextBlock} style version that the paint was set up with.
+         */
+        int mStyleVersion;
+
+        Block(final int source)
+        {
+            mSource = source;
+        }
+
+        /**
+         * Sets the plain text to draw if it fits in the width.
+         *
+         * @param text The plain text.
+         * @param width The layout width that the text must fit in.
+         * @param alphaModifier The amount to modify the text alpha by.
+         * @return True if the text fits and will be drawn as plain text.
+         */
+        boolean setPlainText(@NonNull final CharSequence text, final int width,
+                             final float alphaModifier)
+        {
+            final float textWidth = mPaint.measureText(text, 0, text.length());
+            if (textWidth > width)
+            {
+                mPlainText = null;
+                return false;
+            }
+            mPlainText = text;
+            mPlainTextWidth = textWidth;
+            mPlainTextAlphaModifier = alphaModifier;
+            final int lineWidth = (int) textWidth;
+            switch (mAlignment)
+            {
+                case ALIGN_OPPOSITE:
+                    mPlainTextLeft = width - lineWidth;
+                    break;
+                case ALIGN_CENTER:
+                    mPlainTextLeft = (width - (lineWidth & ~1)) >> 1;
+                    break;
+                default:
+                    mPlainTextLeft = 0;
+                    break;
+            }
+            return true;
+        }
+
+        /**
+         * Get the width of the widest line of text.
+         *
+         * @return The text width.
+         */
+        float getTextWidth()
+        {
+            if (mLayout != null)
+            {
+                return PromptUtils.calculateMaxTextWidth(mLayout);
+            }
+            return mPlainText != null ? mPlainTextWidth : 0;
+        }
+
+        /**
+         * Get the height of the text.
+         *
+         * @return The text height.
+         */
+        float getHeight()
+        {
+            if (mLayout != null)
+            {
+                return mLayout.getHeight();
+            }
+            if (mPlainText == null)
+            {
+                return 0;
+            }
+            return includeFontPadding() ? mFontMetrics.bottom - mFontMetrics.top
+                    : mFontMetrics.descent - mFontMetrics.ascent;
+        }
+
+        /**
+         * Get the distance from the top of the block to the plain text baseline.
+         *
+         * @return The plain text baseline.
+         */
+        int getPlainTextBaseline()
+        {
+            return includeFontPadding() ? -mFontMetrics.top : -mFontMetrics.ascent;
+        }
+
+        /**
+         * Does a single line layout created by
+         * {@link PromptUtils#createStaticTextLayout(CharSequence, TextPaint, int, Layout.Alignment, float)}
+         * include the font padding, the plain text must be measured the same way to be drawn
+         * identically.
+         *
+         * @return True if the font top and bottom are used instead of the ascent and descent.
+         */
+        private boolean includeFontPadding()
+        {
+            // StaticLayout.Builder defaults to including the font padding, the pre API 23
+            // constructor is called without it
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+        }
+
+        /**
+         * Is the text displayed right to left.
+         *
+         * @param resources The resources to get the layout direction from.
+         * @return True if the text is displayed right to left.
+         */
+        boolean isRtlText(@NonNull final Resources resources)
+        {
+            if (mLayout != null)
+            {
+                return PromptUtils.isRtlText(mLayout, resources);
+            }
+            // Plain text doesn't contain any right to left characters
+            return mPlainText != null && PromptUtils.isRtlText(mAlignment, false, resources);
+        }
+
+        /**
+         * Draws the plain text on its baseline with the alpha modifier applied.
+         *
+         * @param canvas The canvas to draw to.
+         */
+        void drawPlainText(@NonNull final Canvas canvas)
+        {
+            final int alpha = mPaint.getAlpha();
+            mPaint.setAlpha((int) (alpha * mPlainTextAlphaModifier));
+            canvas.drawText(mPlainText, 0, mPlainText.length(), mPlainTextLeft,
+                    getPlainTextBaseline(), mPaint);
+            mPaint.setAlpha(alpha);
+        }
+    }
 }
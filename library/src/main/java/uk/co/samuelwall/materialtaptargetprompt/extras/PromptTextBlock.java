@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Typeface;
+import android.view.Gravity;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.Dimension;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A styled block of text displayed below the primary and secondary text, for example a short
+ * action hint. Blocks are added with {@link PromptOptions#addTextBlock(PromptTextBlock)} and are
+ * laid out, positioned and drawn together with the primary and secondary text.
+ * <p>
+ * Styles that are not set use the secondary text style.
+ */
+public class PromptTextBlock
+{
+    @Nullable private CharSequence mText;
+    private float mTextSize;
+    @ColorInt private int mTextColour;
+    private boolean mHasTextColour;
+    @Nullable private Typeface mTypeface;
+    private int mTypefaceStyle;
+    private int mGravity = Gravity.START;
+    private boolean mHasGravity;
+
+    /**
+     * Incremented whenever the block style is changed so that a prepared prompt can tell that
+     * the block needs styling again, text changes are found by comparing the text.
+     */
+    int mVersion;
+
+    /**
+     * Constructor.
+     *
+     * @param text The text to display.
+     */
+    public PromptTextBlock(@Nullable final CharSequence text)
+    {
+        mText = text;
+    }
+
+    /**
+     * Set the text to display.
+     * Call {@link uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt#updateText()}
+     * to display the change on a showing prompt.
+     *
+     * @param text The text to display, null to not display the block.
+     * @return This text block.
+     */
+    @NonNull
+    public PromptTextBlock setText(@Nullable final CharSequence text)
+    {
+        mText = text;
+        return this;
+    }
+
+    /**
+     * Get the text to display.
+     *
+     * @return The text or null if the block isn't displayed.
+     */
+    @Nullable
+    public CharSequence getText()
+    {
+        return mText;
+    }
+
+    /**
+     * Set the font size.
+     *
+     * @param size The font size or 0 to use the secondary text size.
+     * @return This text block.
+     */
+    @NonNull
+    public PromptTextBlock setTextSize(@Dimension final float size)
+    {
+        mTextSize = size;
+        mVersion++;
+        return this;
+    }
+
+    /**
+     * Get the font size.
+     *
+     * @param options The options to get the secondary text size from if the size isn't set.
+     * @return The font size.
+     */
+    @Dimension
+    public float getTextSize(@NonNull final PromptOptions options)
+    {
+        return mTextSize > 0 ? mTextSize : options.getSecondaryTextSize();
+    }
+
+    /**
+     * Set the text colour.
+     *
+     * @param colour The text colour.
+     * @return This text block.
+     */
+    @NonNull
+    public PromptTextBlock setTextColour(@ColorInt final int colour)
+    {
+        mTextColour = colour;
+        mHasTextColour = true;
+        mVersion++;
+        return this;
+    }
+
+    /**
+     * Get the text colour.
+     *
+     * @param options The options to get the secondary text colour from if the colour isn't set.
+     * @return The text colour.
+     */
+    @ColorInt
+    public int getTextColour(@NonNull final PromptOptions options)
+    {
+        return mHasTextColour ? mTextColour : options.getSecondaryTextColour();
+    }
+
+    /**
+     * Set the typeface and style used to display the text.
+     *
+     * @param typeface The typeface or null to use the secondary text typeface.
+     * @param style The typeface style.
+     * @return This text block.
+     */
+    @NonNull
+    public PromptTextBlock setTypeface(@Nullable final Typeface typeface, final int style)
+    {
+        mTypeface = typeface;
+        mTypefaceStyle = style;
+        mVersion++;
+        return this;
+    }
+
+    /**
+     * Get the typeface.
+     *
+     * @param options The options to get the secondary text typeface from if the typeface isn't
+     *                set.
+     * @return The typeface.
+     */
+    @Nullable
+    public Typeface getTypeface(@NonNull final PromptOptions options)
+    {
+        return mTypeface != null ? mTypeface : options.getSecondaryTextTypeface();
+    }
+
+    /**
+     * Get the typeface style.
+     *
+     * @param options The options to get the secondary text typeface style from if the typeface
+     *                isn't set.
+     * @return The typeface style.
+     */
+    public int getTypefaceStyle(@NonNull final PromptOptions options)
+    {
+        return mTypeface != null ? mTypefaceStyle : options.getSecondaryTextTypefaceStyle();
+    }
+
+    /**
+     * Set the horizontal layout gravity.
+     *
+     * @param gravity The horizontal gravity.
+     * @return This text block.
+     */
+    @NonNull
+    public PromptTextBlock setGravity(final int gravity)
+    {
+        mGravity = gravity;
+        mHasGravity = true;
+        mVersion++;
+        return this;
+    }
+
+    /**
+     * Get the horizontal layout gravity.
+     *
+     * @param options The options to get the secondary text gravity from if the gravity isn't set.
+     * @return The horizontal gravity.
+     */
+    public int getGravity(@NonNull final PromptOptions options)
+    {
+        return mHasGravity ? mGravity : options.getSecondaryTextGravity();
+    }
+}
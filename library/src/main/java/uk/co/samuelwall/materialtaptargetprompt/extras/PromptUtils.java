@@ -16,14 +16,19 @@
 
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
+import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
+import android.app.ActivityManager;
+import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Point;
 import android.graphics.PointF;
 import android.graphics.PorterDuff;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.os.Build;
+import android.provider.Settings;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.text.Layout;
@@ -31,8 +36,10 @@ import android.text.SpannableStringBuilder;
 import android.text.Spanned;
 import android.text.StaticLayout;
 import android.text.TextPaint;
+import android.text.TextUtils;
 import android.view.Gravity;
 import android.view.View;
+import android.view.WindowManager;
 
 import java.text.Bidi;
 
@@ -42,6 +49,12 @@ import java.text.Bidi;
 public class PromptUtils
 {
 
+    /**
+     * The narrowest glyph width as a fraction of the text size, used to calculate the most
+     * characters that a line of text can fit.
+     */
+    private static final float MIN_GLYPH_WIDTH = 0.2f;
+
     private PromptUtils() {}
 
     /**
@@ -57,7 +70,26 @@ public class PromptUtils
                                           @NonNull final PointF circleCentre,
                                           final float radius)
     {
-        return Math.pow(x - circleCentre.x, 2) + Math.pow(y - circleCentre.y, 2) < Math.pow(radius, 2);
+        return isPointInCircleSquared(x, y, circleCentre, radius * radius);
+    }
+
+    /**
+     * Determines if a point is in a circle using the squared circle radius, avoiding the need to
+     * calculate it for every point tested.
+     *
+     * @param x             The x position in the view.
+     * @param y             The y position in the view.
+     * @param circleCentre  The circle centre position
+     * @param radiusSquared The radius of the circle multiplied by itself.
+     * @return True if the point (x, y) is in the circle.
+     */
+    public static boolean isPointInCircleSquared(final float x, final float y,
+                                                 @NonNull final PointF circleCentre,
+                                                 final float radiusSquared)
+    {
+        final float dx = x - circleCentre.x;
+        final float dy = y - circleCentre.y;
+        return dx * dx + dy * dy < radiusSquared;
     }
 
     /**
@@ -231,6 +263,94 @@ public class PromptUtils
                                                       final int maxTextWidth,
                                                       @NonNull final Layout.Alignment textAlignment,
                                                       final float alphaModifier)
+    {
+        return createStaticTextLayout(text, paint, maxTextWidth, textAlignment, alphaModifier,
+                0, null);
+    }
+
+    /**
+     * Creates a static text layout with a maximum number of lines. Uses the
+     * {@link android.text.StaticLayout.Builder} if available.
+     * Text that can't fit in the maximum lines is cut off before it is measured so that long
+     * text doesn't increase the time taken to create the layout, use
+     * {@link #isTextTruncated(Layout, CharSequence)} to find out if the text was cut off.
+     *
+     * @param text          The text to be laid out, optionally with spans
+     * @param paint         The base paint used for layout
+     * @param maxTextWidth  The width in pixels
+     * @param textAlignment Alignment for the resulting {@link StaticLayout}
+     * @param alphaModifier The modification to apply to the alpha value between 0 and 1.
+     * @param maxLines      The maximum number of lines or 0 for no maximum.
+     * @param ellipsize     Where to ellipsize the last line when the text is cut off or null to
+     *                      cut the text off without an ellipsis.
+     * @return the newly constructed {@link StaticLayout} object
+     */
+    @NonNull
+    public static StaticLayout createStaticTextLayout(@NonNull final CharSequence text,
+                                                      @NonNull final TextPaint paint,
+                                                      final int maxTextWidth,
+                                                      @NonNull final Layout.Alignment textAlignment,
+                                                      final float alphaModifier,
+                                                      final int maxLines,
+                                                      @Nullable final TextUtils.TruncateAt ellipsize)
+    {
+        if (maxLines <= 0)
+        {
+            return buildStaticTextLayout(text, paint, maxTextWidth, textAlignment, alphaModifier,
+                    0, null);
+        }
+        final CharSequence layoutText = limitTextLength(text, paint, maxTextWidth, maxLines);
+        final StaticLayout layout = buildStaticTextLayout(layoutText, paint, maxTextWidth,
+                textAlignment, alphaModifier, maxLines, ellipsize);
+        if (layout.getLineCount() <= maxLines)
+        {
+            return layout;
+        }
+        // The layout builder isn't available to limit the lines so cut the text at the end of
+        // the last line and lay it out again
+        final int lastLineStart = layout.getLineStart(maxLines - 1);
+        final SpannableStringBuilder truncatedText =
+                new SpannableStringBuilder(layoutText, 0, lastLineStart);
+        if (ellipsize != null)
+        {
+            int paragraphEnd = TextUtils.indexOf(layoutText, '\n', lastLineStart);
+            if (paragraphEnd == -1)
+            {
+                paragraphEnd = layoutText.length();
+            }
+            truncatedText.append(TextUtils.ellipsize(
+                    layoutText.subSequence(lastLineStart, paragraphEnd), paint, maxTextWidth,
+                    ellipsize));
+        }
+        else
+        {
+            truncatedText.append(layoutText, lastLineStart, layout.getLineEnd(maxLines - 1));
+        }
+        return buildStaticTextLayout(truncatedText, paint, maxTextWidth, textAlignment,
+                alphaModifier, maxLines, ellipsize);
+    }
+
+    /**
+     * Creates a static text layout without limiting the text length.
+     *
+     * @param text          The text to be laid out, optionally with spans
+     * @param paint         The base paint used for layout
+     * @param maxTextWidth  The width in pixels
+     * @param textAlignment Alignment for the resulting {@link StaticLayout}
+     * @param alphaModifier The modification to apply to the alpha value between 0 and 1.
+     * @param maxLines      The maximum number of lines or 0 for no maximum, only used by the
+     *                      layout builder.
+     * @param ellipsize     Where to ellipsize the last line, only used by the layout builder.
+     * @return the newly constructed {@link StaticLayout} object
+     */
+    @NonNull
+    private static StaticLayout buildStaticTextLayout(@NonNull final CharSequence text,
+                                                      @NonNull final TextPaint paint,
+                                                      final int maxTextWidth,
+                                                      @NonNull final Layout.Alignment textAlignment,
+                                                      final float alphaModifier,
+                                                      final int maxLines,
+                                                      @Nullable final TextUtils.TruncateAt ellipsize)
     {
         final SpannableStringBuilder wrappedText = new SpannableStringBuilder(text);
         wrappedText.setSpan(new AlphaSpan(alphaModifier), 0, wrappedText.length(), Spanned.SPAN_INCLUSIVE_INCLUSIVE);
@@ -239,6 +359,11 @@ public class PromptUtils
         {
             final StaticLayout.Builder builder = StaticLayout.Builder.obtain(wrappedText, 0, text.length(), paint, maxTextWidth);
             builder.setAlignment(textAlignment);
+            if (maxLines > 0)
+            {
+                builder.setMaxLines(maxLines);
+                builder.setEllipsize(ellipsize);
+            }
             layout = builder.build();
         }
         else
@@ -248,6 +373,54 @@ public class PromptUtils
         return layout;
     }
 
+    /**
+     * Cuts off the text after the most characters that could fit in the maximum number of
+     * lines, so that the layout doesn't measure text that won't be displayed.
+     * A line can't fit more characters than the width divided by the narrowest glyph width,
+     * the limit is doubled to allow for whitespace at the end of the lines.
+     *
+     * @param text         The text to limit.
+     * @param paint        The base paint used for layout.
+     * @param maxTextWidth The width in pixels.
+     * @param maxLines     The maximum number of lines.
+     * @return The text or the start of the text if it is too long to fit.
+     */
+    @NonNull
+    static CharSequence limitTextLength(@NonNull final CharSequence text,
+                                        @NonNull final TextPaint paint,
+                                        final int maxTextWidth, final int maxLines)
+    {
+        final float minGlyphWidth = Math.max(1f, paint.getTextSize() * MIN_GLYPH_WIDTH);
+        final long maxLength = 2L * maxLines * (long) Math.ceil(maxTextWidth / minGlyphWidth);
+        if (text.length() <= maxLength)
+        {
+            return text;
+        }
+        int end = (int) maxLength;
+        if (Character.isHighSurrogate(text.charAt(end - 1)))
+        {
+            // Don't split a surrogate pair
+            end--;
+        }
+        return text.subSequence(0, end);
+    }
+
+    /**
+     * Determines if the text was cut off when it was laid out with a maximum number of lines.
+     *
+     * @param layout The text layout.
+     * @param text   The text that the layout was created from.
+     * @return True if the layout doesn't display all the text.
+     */
+    public static boolean isTextTruncated(@NonNull final Layout layout,
+                                          @NonNull final CharSequence text)
+    {
+        final int lineCount = layout.getLineCount();
+        return layout.getText().length() != text.length()
+                || (lineCount > 0 && (layout.getEllipsisCount(lineCount - 1) > 0
+                        || layout.getLineEnd(lineCount - 1) < text.length()));
+    }
+
     /**
      * Scales a rectangle.
      *
@@ -296,28 +469,62 @@ public class PromptUtils
      */
     public static boolean isRtlText(@Nullable final Layout layout, @NonNull final Resources resources)
     {
-        boolean result = false;
-        if (layout != null)
+        return layout != null
+                && isRtlText(layout.getAlignment(), layout.isRtlCharAt(0), resources);
+    }
+
+    /**
+     * Determines if text with the supplied alignment is displayed right to left.
+     *
+     * @param alignment The text alignment.
+     * @param textIsRtl Is the first character a right to left character.
+     * @return True if the text is displayed right to left. False otherwise.
+     */
+    public static boolean isRtlText(@NonNull final Layout.Alignment alignment,
+                                    final boolean textIsRtl, @NonNull final Resources resources)
+    {
+        // Treat align opposite as right to left by default
+        boolean result = alignment == Layout.Alignment.ALIGN_OPPOSITE;
+        // If the text and result are right to left then false otherwise use the textIsRtl value
+        result = (!(result && textIsRtl) && !(!result && !textIsRtl)) || textIsRtl;
+        if (!result && alignment == Layout.Alignment.ALIGN_NORMAL
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
         {
-            // Treat align opposite as right to left by default
-            result = layout.getAlignment() == Layout.Alignment.ALIGN_OPPOSITE;
-            // If the first character is a right to left character
-            final boolean textIsRtl = layout.isRtlCharAt(0);
-            // If the text and result are right to left then false otherwise use the textIsRtl value
-            result = (!(result && textIsRtl) && !(!result && !textIsRtl)) || textIsRtl;
-            if (!result && layout.getAlignment() == Layout.Alignment.ALIGN_NORMAL
-                    && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
-            {
-                // If the layout and text are right to left and the alignment is normal then rtl
-                result = resources.getConfiguration()
-                            .getLayoutDirection() == View.LAYOUT_DIRECTION_RTL;
-            }
-            else if (layout.getAlignment() == Layout.Alignment.ALIGN_OPPOSITE && textIsRtl)
+            // If the layout and text are right to left and the alignment is normal then rtl
+            result = resources.getConfiguration()
+                        .getLayoutDirection() == View.LAYOUT_DIRECTION_RTL;
+        }
+        else if (alignment == Layout.Alignment.ALIGN_OPPOSITE && textIsRtl)
+        {
+            result = false;
+        }
+        return result;
+    }
+
+    /**
+     * Determines if the text is a single line of plain left to right text, without spans, line
+     * breaks, tabs or any characters from right to left scripts, so that it can be drawn
+     * without a text layout when it fits the width.
+     *
+     * @param text The text to check.
+     * @return True if the text can be drawn without a text layout.
+     */
+    public static boolean isPlainText(@NonNull final CharSequence text)
+    {
+        if (text instanceof Spanned)
+        {
+            return false;
+        }
+        for (int i = 0, length = text.length(); i < length; i++)
+        {
+            final char c = text.charAt(i);
+            // Control characters and characters from Hebrew onwards need a layout
+            if (c < ' ' || c == '\u007f' || c >= '\u0590')
             {
-                result = false;
+                return false;
             }
         }
-        return result;
+        return true;
     }
 
 
@@ -367,4 +574,101 @@ public class PromptUtils
                 && y > bounds.top + inset
                 && y < bounds.bottom - inset;
     }
+
+    /**
+     * Calculates the bounds that the prompt is clipped to.
+     *
+     * @param options The options the prompt was created from.
+     * @param statusBarHeight The height of the status bar to exclude from the clip view bounds.
+     * @param outClipBounds The rect to store the clip bounds in.
+     * @return True if the prompt should be clipped to the bounds.
+     */
+    public static boolean calculateClipBounds(@NonNull final PromptOptions options,
+                                              final float statusBarHeight,
+                                              @NonNull final Rect outClipBounds)
+    {
+        return calculateClipBounds(options, statusBarHeight, outClipBounds, new Point());
+    }
+
+    /**
+     * Calculates the bounds that the prompt is clipped to without allocating.
+     *
+     * @param options The options the prompt was created from.
+     * @param statusBarHeight The height of the status bar to exclude from the clip view bounds.
+     * @param outClipBounds The rect to store the clip bounds in.
+     * @param outOffset The point to store the global offset of the clip view in.
+     * @return True if the prompt should be clipped to the bounds.
+     */
+    public static boolean calculateClipBounds(@NonNull final PromptOptions options,
+                                              final float statusBarHeight,
+                                              @NonNull final Rect outClipBounds,
+                                              @NonNull final Point outOffset)
+    {
+        final View clipToView = options.getClipToView();
+        if (clipToView != null)
+        {
+            //Reset the top to 0
+            outClipBounds.set(0, 0, 0, 0);
+
+            //Find the location of the clip view on the screen
+            outOffset.set(0, 0);
+            clipToView.getGlobalVisibleRect(outClipBounds, outOffset);
+
+            if (outOffset.y == 0)
+            {
+                outClipBounds.top += statusBarHeight;
+            }
+            return true;
+        }
+        options.getResourceFinder().getPromptParentView().getGlobalVisibleRect(outClipBounds, outOffset);
+        return false;
+    }
+
+    /**
+     * Have animations been disabled by the system, either by the user setting the animator
+     * duration scale to 0 to remove animations or by battery saver.
+     *
+     * @param context The context to read the system settings with.
+     * @return True if animators won't run.
+     */
+    public static boolean areAnimationsDisabled(@NonNull final Context context)
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O)
+        {
+            return !ValueAnimator.areAnimatorsEnabled();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
+        {
+            return Settings.Global.getFloat(context.getContentResolver(),
+                    Settings.Global.ANIMATOR_DURATION_SCALE, 1f) == 0f;
+        }
+        return false;
+    }
+
+    /**
+     * Is the device a low RAM device or does the default display refresh below 55Hz.
+     *
+     * @param context The context to get the system services with.
+     * @return True if the prompt should be drawn with the low end rendering profile.
+     */
+    public static boolean isLowEndDevice(@NonNull final Context context)
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT)
+        {
+            final ActivityManager activityManager =
+                    (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            if (activityManager != null && activityManager.isLowRamDevice())
+            {
+                return true;
+            }
+        }
+        final WindowManager windowManager =
+                (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        if (windowManager != null)
+        {
+            final float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+            return refreshRate > 0 && refreshRate < 55;
+        }
+        return false;
+    }
 }
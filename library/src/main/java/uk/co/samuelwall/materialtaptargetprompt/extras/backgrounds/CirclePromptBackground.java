@@ -18,6 +18,7 @@ package uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds;
 
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PointF;
@@ -47,6 +48,11 @@ public class CirclePromptBackground extends PromptBackground
      */
     float mRadius;
 
+    /**
+     * The current radius multiplied by itself, used for hit testing.
+     */
+    float mRadiusSquared;
+
     /**
      * The position for circle centre at 1.0 scale.
      */
@@ -73,10 +79,21 @@ public class CirclePromptBackground extends PromptBackground
     Paint pointPaint = new Paint();*/
 
     /**
-     * The current path of the background (useful for clipping)
+     * The path of the background at 1.0 scale (useful for clipping)
      */
     Path mPath;
 
+    /**
+     * The transform from the path at 1.0 scale to the current scale.
+     */
+    Matrix mPathMatrix;
+
+    /**
+     * Reused for the point on the focal edge furthest from the text so preparing does not
+     * allocate.
+     */
+    final PointF mFurthestPoint = new PointF();
+
     /**
      * Constructor.
      */
@@ -87,6 +104,7 @@ public class CirclePromptBackground extends PromptBackground
         mPosition = new PointF();
         mBasePosition = new PointF();
         mPath = new Path();
+        mPathMatrix = new Matrix();
         /*pointPaint.setColor(Color.RED);
         pointPaint.setAlpha(100);*/
     }
@@ -99,6 +117,12 @@ public class CirclePromptBackground extends PromptBackground
         mPaint.setAlpha(mBaseColourAlpha);
     }
 
+    @Override
+    public boolean supportsGeometryInput()
+    {
+        return true;
+    }
+
     @Override
     public void prepare(@NonNull final PromptOptions options, final boolean clipToBounds,
                         @NonNull final Rect clipBounds)
@@ -111,16 +135,14 @@ public class CirclePromptBackground extends PromptBackground
         final float focalPadding = options.getFocalPadding();
         final RectF textBounds = promptText.getBounds();
         final float textPadding = options.getTextPadding();
-        final RectF clipBoundsInset88dp = new RectF(clipBounds);
         // Default material design offset prompt when more than 88dp inset
         final float inset88dp = 88f * options.getResourceFinder().getResources().getDisplayMetrics().density;
-        clipBoundsInset88dp.inset(inset88dp, inset88dp);
 
         // Is the focal centre more than 88dp from the clip bounds edge
-        if ((focalCentreX > clipBoundsInset88dp.left
-                && focalCentreX < clipBoundsInset88dp.right)
-                || (focalCentreY > clipBoundsInset88dp.top
-                && focalCentreY < clipBoundsInset88dp.bottom))
+        if ((focalCentreX > clipBounds.left + inset88dp
+                && focalCentreX < clipBounds.right - inset88dp)
+                || (focalCentreY > clipBounds.top + inset88dp
+                && focalCentreY < clipBounds.bottom - inset88dp))
         {
             // The circle position and radius is calculated based on three points placed around the
             // prompt: XY1, XY2 and XY3.
@@ -147,10 +169,9 @@ public class CirclePromptBackground extends PromptBackground
             {
                 angle = 180 + angle;
             }
-            final PointF furthestPoint = options.getPromptFocal().calculateAngleEdgePoint(angle,
-                focalPadding);
-            final float x1 = furthestPoint.x;
-            final float y1 = furthestPoint.y;
+            options.getPromptFocal().calculateAngleEdgePoint(angle, focalPadding, mFurthestPoint);
+            final float x1 = mFurthestPoint.x;
+            final float y1 = mFurthestPoint.y;
 
             // XY2
             final float x2 = textBounds.left - textPadding;
@@ -206,6 +227,8 @@ public class CirclePromptBackground extends PromptBackground
                             focalCentreY + (prompt.mVerticalTextPositionAbove ? - height : height));*/
         }
         mPosition.set(mBasePosition);
+        mPath.reset();
+        mPath.addCircle(mBasePosition.x, mBasePosition.y, mBaseRadius, Path.Direction.CW);
     }
 
     @Override
@@ -215,12 +238,12 @@ public class CirclePromptBackground extends PromptBackground
         final float focalCentreX = focalBounds.centerX();
         final float focalCentreY = focalBounds.centerY();
         mRadius = mBaseRadius * revealModifier;
+        mRadiusSquared = mRadius * mRadius;
         mPaint.setAlpha((int) (mBaseColourAlpha * alphaModifier));
         // Change the current centre position to be a position scaled from the focal to the base.
         mPosition.set(focalCentreX + ((mBasePosition.x - focalCentreX) * revealModifier),
                 focalCentreY + ((mBasePosition.y - focalCentreY) * revealModifier));
-        mPath.reset();
-        mPath.addCircle(mPosition.x, mPosition.y, mRadius, Path.Direction.CW);
+        mPathMatrix.setScale(revealModifier, revealModifier, focalCentreX, focalCentreY);
     }
 
     @Override
@@ -242,12 +265,18 @@ public class CirclePromptBackground extends PromptBackground
     @Override
     public boolean contains(float x, float y)
     {
-        return PromptUtils.isPointInCircle(x, y, mPosition, mRadius);
+        return PromptUtils.isPointInCircleSquared(x, y, mPosition, mRadiusSquared);
     }
 
     @Override
-    public Path getPath()
+    public Path getBasePath()
     {
         return mPath;
     }
+
+    @Override
+    public Matrix getPathMatrix()
+    {
+        return mPathMatrix;
+    }
 }
@@ -19,6 +19,7 @@ package uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds;
 import android.content.res.Resources;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PointF;
@@ -43,6 +44,7 @@ public class FullscreenPromptBackground extends PromptBackground
     float mRx, mRy;
     PointF mFocalCentre;
     Path mPath;
+    Matrix mPathMatrix;
 
     /**
      * Constructor.
@@ -55,6 +57,7 @@ public class FullscreenPromptBackground extends PromptBackground
         mBaseBounds = new RectF();
         mFocalCentre = new PointF();
         mPath = new Path();
+        mPathMatrix = new Matrix();
         mRx = mRy = 0;
     }
 
@@ -81,6 +84,12 @@ public class FullscreenPromptBackground extends PromptBackground
         mPaint.setAlpha(mBaseColourAlpha);
     }
 
+    @Override
+    public boolean supportsGeometryInput()
+    {
+        return true;
+    }
+
     @Override
     public void prepare(@NonNull final PromptOptions options, final boolean clipToBounds, @NonNull Rect clipBounds)
     {
@@ -90,6 +99,8 @@ public class FullscreenPromptBackground extends PromptBackground
 
         mFocalCentre.x = focalBounds.centerX();
         mFocalCentre.y = focalBounds.centerY();
+        mPath.reset();
+        mPath.addRect(mBaseBounds, Path.Direction.CW);
     }
 
     @NonNull
@@ -103,8 +114,7 @@ public class FullscreenPromptBackground extends PromptBackground
     {
         mPaint.setAlpha((int) (mBaseColourAlpha * alphaModifier));
         PromptUtils.scale(mFocalCentre, mBaseBounds, mBounds, revealModifier, false);
-        mPath.reset();
-        mPath.addRect(mBounds, Path.Direction.CW);
+        mPathMatrix.setRectToRect(mBaseBounds, mBounds, Matrix.ScaleToFit.FILL);
     }
 
     @Override
@@ -120,8 +130,14 @@ public class FullscreenPromptBackground extends PromptBackground
     }
 
     @Override
-    public Path getPath()
+    public Path getBasePath()
     {
         return mPath;
     }
+
+    @Override
+    public Matrix getPathMatrix()
+    {
+        return mPathMatrix;
+    }
 }
@@ -80,6 +80,12 @@ public class RectanglePromptBackground extends PromptBackground
         mPaint.setAlpha(mBaseColourAlpha);
     }
 
+    @Override
+    public boolean supportsGeometryInput()
+    {
+        return true;
+    }
+
     @Override
     public void prepare(@NonNull final PromptOptions options, final boolean clipToBounds, @NonNull Rect clipBounds)
     {
@@ -104,6 +110,9 @@ public class RectanglePromptBackground extends PromptBackground
         mBaseBounds.set(x1, y1, x2, y2);
         mFocalCentre.x = focalBounds.centerX();
         mFocalCentre.y = focalBounds.centerY();
+        // The full size path is used for the background bounds before the first update
+        mPath.reset();
+        mPath.addRoundRect(mBaseBounds, mRx, mRy, Path.Direction.CW);
     }
 
     @Override
@@ -112,6 +121,8 @@ public class RectanglePromptBackground extends PromptBackground
     {
         mPaint.setAlpha((int) (mBaseColourAlpha * alphaModifier));
         PromptUtils.scale(mFocalCentre, mBaseBounds, mBounds, revealModifier, false);
+        // The path is rebuilt at the current size instead of being scaled with a matrix so that
+        // the corner radii match the drawn background
         mPath.reset();
         mPath.addRoundRect(mBounds, mRx, mRy, Path.Direction.CW);
     }
@@ -18,6 +18,7 @@ package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
 
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PointF;
@@ -38,12 +39,15 @@ public class CirclePromptFocal extends PromptFocal
     Paint mPaint;
     int mRippleAlpha;
     float mRadius;
+    float mRadiusSquared;
     float mBaseRadius;
     float mRippleRadius;
     int mBaseAlpha;
     PointF mPosition;
     RectF mBounds;
     Path mPath;
+    Matrix mPathMatrix;
+    final int[] mTargetPosition = new int[2];
 
     /**
      * Constructor.
@@ -55,6 +59,7 @@ public class CirclePromptFocal extends PromptFocal
         mPosition = new PointF();
         mBounds = new RectF();
         mPath = new Path();
+        mPathMatrix = new Matrix();
     }
 
     /**
@@ -79,20 +84,35 @@ public class CirclePromptFocal extends PromptFocal
 
     @NonNull
     @Override
-    public Path getPath()
+    public Path getBasePath()
     {
         return mPath;
     }
 
+    @NonNull
+    @Override
+    public Matrix getPathMatrix()
+    {
+        return mPathMatrix;
+    }
+
     @NonNull
     @Override
     public PointF calculateAngleEdgePoint(final float angle, final float padding)
+    {
+        final PointF point = new PointF();
+        calculateAngleEdgePoint(angle, padding, point);
+        return point;
+    }
+
+    @Override
+    public void calculateAngleEdgePoint(final float angle, final float padding,
+                                        @NonNull final PointF outPoint)
     {
         // Calculate the x and y on the focal from the angle calculated
         final float focalRadius = mBounds.width() + padding;
-        final float x = calculateX(angle, focalRadius, mBounds.centerX());
-        final float y = calculateY(angle, focalRadius, mBounds.centerY());
-        return new PointF(x, y);
+        outPoint.set(calculateX(angle, focalRadius, mBounds.centerX()),
+                calculateY(angle, focalRadius, mBounds.centerY()));
     }
     
     /**
@@ -132,11 +152,17 @@ public class CirclePromptFocal extends PromptFocal
     @Override
     public void prepare(@NonNull PromptOptions options, @NonNull View target, final int[] promptViewPosition)
     {
-        final int[] targetPosition = new int[2];
-        target.getLocationInWindow(targetPosition);
+        target.getLocationInWindow(mTargetPosition);
 
-        prepare(options, targetPosition[0] - promptViewPosition[0] + (target.getWidth() / 2),
-                targetPosition[1] - promptViewPosition[1] + (target.getHeight() / 2));
+        prepare(options, mTargetPosition[0] - promptViewPosition[0] + (target.getWidth() / 2),
+                mTargetPosition[1] - promptViewPosition[1] + (target.getHeight() / 2));
+    }
+
+    @Override
+    public boolean supportsGeometryInput()
+    {
+        // Subclasses might override how the focal is prepared from the target view
+        return getClass() == CirclePromptFocal.class;
     }
 
     @Override
@@ -148,6 +174,8 @@ public class CirclePromptFocal extends PromptFocal
         mBounds.top = targetY - mBaseRadius;
         mBounds.right = targetX + mBaseRadius;
         mBounds.bottom = targetY + mBaseRadius;
+        mPath.reset();
+        mPath.addCircle(targetX, targetY, mBaseRadius, Path.Direction.CW);
     }
 
     @Override
@@ -156,9 +184,8 @@ public class CirclePromptFocal extends PromptFocal
     {
         mPaint.setAlpha((int) (mBaseAlpha * alphaModifier));
         mRadius = mBaseRadius * revealModifier;
-
-        mPath = new Path();
-        mPath.addCircle(mPosition.x, mPosition.y, mRadius, Path.Direction.CW);
+        mRadiusSquared = mRadius * mRadius;
+        mPathMatrix.setScale(revealModifier, revealModifier, mPosition.x, mPosition.y);
     }
 
     @Override
@@ -188,12 +215,12 @@ public class CirclePromptFocal extends PromptFocal
 
         // canvas.drawRect(mBounds, mPaint);
 
-        canvas.drawPath(getPath(), mPaint);
+        canvas.drawCircle(mPosition.x, mPosition.y, mRadius, mPaint);
     }
 
     @Override
     public boolean contains(float x, float y)
     {
-        return PromptUtils.isPointInCircle(x, y, mPosition, mRadius);
+        return PromptUtils.isPointInCircleSquared(x, y, mPosition, mRadiusSquared);
     }
 }
@@ -0,0 +1,515 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.PointF;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.text.Layout;
+import android.text.TextPaint;
+import android.view.View;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptUtils;
+
+/**
+ * Prompt focal implementation that renders several focals within a single prompt.
+ * <p>
+ * The primary focal is placed around the prompt target, each additional focal is placed around
+ * its own target and can have a short label drawn next to it. All the focals share the prompt
+ * background and animations, use {@link #findFocalIndex(float, float)} or
+ * {@link uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt#getPressedFocalIndex()}
+ * to find out which focal was pressed.
+ */
+public class MultiPromptFocal extends PromptFocal
+{
+    /**
+     * The focal placed around the prompt target.
+     */
+    @NonNull final PromptFocal mPrimaryFocal;
+
+    /**
+     * The additional focals.
+     */
+    @NonNull final List<Item> mItems = new ArrayList<>();
+
+    /**
+     * The bounds containing all focals and labels at scale 1.
+     */
+    @NonNull final RectF mBounds = new RectF();
+
+    /**
+     * The combined path of all the focals.
+     */
+    @NonNull final Path mPath = new Path();
+
+    /**
+     * The paint used to draw the additional focal labels.
+     */
+    @NonNull final TextPaint mLabelPaint = new TextPaint();
+
+    /**
+     * The label alpha value at 1.0 scale.
+     */
+    int mBaseLabelAlpha;
+
+    /**
+     * The alpha modifier from the last update, applied again when the label colour changes.
+     */
+    float mLabelAlphaModifier = 1;
+
+    /**
+     * Incremented when the label paint text size or typeface changes, the label layouts are
+     * only created again when the style version or width they were created with changes.
+     */
+    int mLabelStyleVersion;
+
+    /**
+     * The prompt view position used when a point is targeted, captured from the geometry input.
+     */
+    @NonNull final int[] mPromptViewPosition = new int[2];
+
+    /**
+     * Constructor.
+     *
+     * @param primaryFocal The focal to place around the prompt target.
+     */
+    public MultiPromptFocal(@NonNull final PromptFocal primaryFocal)
+    {
+        mPrimaryFocal = primaryFocal;
+        mLabelPaint.setAntiAlias(true);
+    }
+
+    /**
+     * Add a focal to place around a view.
+     *
+     * @param focal The focal to render.
+     * @param target The view to place the focal around.
+     * @param label The text to display next to the focal or null for no text.
+     * @return This prompt focal.
+     */
+    @NonNull
+    public MultiPromptFocal addFocal(@NonNull final PromptFocal focal, @NonNull final View target,
+                                     @Nullable final CharSequence label)
+    {
+        mItems.add(new Item(focal, target, 0, 0, label));
+        return this;
+    }
+
+    /**
+     * Add a focal to place around a position in the prompt.
+     *
+     * @param focal The focal to render.
+     * @param targetX The focal centre x position.
+     * @param targetY The focal centre y position.
+     * @param label The text to display next to the focal or null for no text.
+     * @return This prompt focal.
+     */
+    @NonNull
+    public MultiPromptFocal addFocal(@NonNull final PromptFocal focal, final float targetX,
+                                     final float targetY, @Nullable final CharSequence label)
+    {
+        mItems.add(new Item(focal, null, targetX, targetY, label));
+        return this;
+    }
+
+    /**
+     * Get the number of focals rendered including the primary focal.
+     *
+     * @return The focal count.
+     */
+    public int getFocalCount()
+    {
+        return mItems.size() + 1;
+    }
+
+    /**
+     * Get a focal.
+     *
+     * @param index 0 for the primary focal or 1 onwards for the additional focals in the order
+     *              that they were added.
+     * @return The focal at the index.
+     */
+    @NonNull
+    public PromptFocal getFocal(final int index)
+    {
+        return index == 0 ? mPrimaryFocal : mItems.get(index - 1).mFocal;
+    }
+
+    @Override
+    public void setDrawRipple(final boolean drawRipple)
+    {
+        super.setDrawRipple(drawRipple);
+        mPrimaryFocal.setDrawRipple(drawRipple);
+        for (final Item item : mItems)
+        {
+            item.mFocal.setDrawRipple(drawRipple);
+        }
+    }
+
+    @Override
+    public void setRippleAlpha(@IntRange(from = 0, to = 255) final int rippleAlpha)
+    {
+        super.setRippleAlpha(rippleAlpha);
+        mPrimaryFocal.setRippleAlpha(rippleAlpha);
+        for (final Item item : mItems)
+        {
+            item.mFocal.setRippleAlpha(rippleAlpha);
+        }
+    }
+
+    @Override
+    public void setColour(@ColorInt final int colour)
+    {
+        mPrimaryFocal.setColour(colour);
+        for (final Item item : mItems)
+        {
+            item.mFocal.setColour(colour);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The labels are recoloured with the secondary text colour, the label layouts draw with the
+     * label paint so they don't need creating again.
+     */
+    @Override
+    public void updateColours(@NonNull final PromptOptions options)
+    {
+        mPrimaryFocal.updateColours(options);
+        for (final Item item : mItems)
+        {
+            item.mFocal.updateColours(options);
+        }
+        setLabelColour(options.getSecondaryTextColour());
+    }
+
+    /**
+     * Sets the label paint colour, keeping the alpha modifier from the last update.
+     *
+     * @param colour The label colour.
+     */
+    private void setLabelColour(@ColorInt final int colour)
+    {
+        mLabelPaint.setColor(colour);
+        mBaseLabelAlpha = Color.alpha(colour);
+        mLabelPaint.setAlpha((int) (mBaseLabelAlpha * Math.min(1, mLabelAlphaModifier)));
+    }
+
+    @NonNull
+    @Override
+    public RectF getBounds()
+    {
+        return mBounds;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The icon and text are positioned around the primary focal, not all the focals.
+     */
+    @NonNull
+    @Override
+    public RectF getTargetBounds()
+    {
+        return mPrimaryFocal.getBounds();
+    }
+
+    @NonNull
+    @Override
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    @Override
+    public void calculateAngleEdgePoint(final float angle, final float padding,
+                                        @NonNull final PointF outPoint)
+    {
+        calculateBoundsEdgePoint(angle, padding, outPoint);
+    }
+
+    @Override
+    public void prepare(@NonNull final PromptOptions options, @NonNull final View target,
+                        final int[] promptViewPosition)
+    {
+        setDefaultRadius(options, mPrimaryFocal);
+        mPrimaryFocal.prepare(options, target, promptViewPosition);
+        prepareItems(options, promptViewPosition);
+    }
+
+    @Override
+    public void prepare(@NonNull final PromptOptions options, final float targetX,
+                        final float targetY)
+    {
+        setDefaultRadius(options, mPrimaryFocal);
+        mPrimaryFocal.prepare(options, targetX, targetY);
+        prepareItems(options, mPromptViewPosition);
+    }
+
+    @Override
+    public void prepare(@NonNull final PromptOptions options,
+                        @NonNull final PromptGeometry.Input input)
+    {
+        // Additional view targets are positioned relative to the prompt view
+        final int[] promptViewPosition = input.getPromptViewPosition();
+        mPromptViewPosition[0] = promptViewPosition[0];
+        mPromptViewPosition[1] = promptViewPosition[1];
+        super.prepare(options, input);
+    }
+
+    /**
+     * Prepares the additional focals and labels and calculates the combined bounds.
+     *
+     * @param options The options that the prompt was built from.
+     * @param promptViewPosition The prompt views window position.
+     */
+    void prepareItems(@NonNull final PromptOptions options, final int[] promptViewPosition)
+    {
+        mBounds.set(mPrimaryFocal.getBounds());
+        setLabelColour(options.getSecondaryTextColour());
+        final float textSize = mLabelPaint.getTextSize();
+        final Typeface typeface = mLabelPaint.getTypeface();
+        final boolean fakeBold = mLabelPaint.isFakeBoldText();
+        final float textSkewX = mLabelPaint.getTextSkewX();
+        mLabelPaint.setTextSize(options.getSecondaryTextSize());
+        PromptUtils.setTypeface(mLabelPaint, options.getSecondaryTextTypeface(),
+                options.getSecondaryTextTypefaceStyle());
+        if (textSize != mLabelPaint.getTextSize() || typeface != mLabelPaint.getTypeface()
+                || fakeBold != mLabelPaint.isFakeBoldText()
+                || textSkewX != mLabelPaint.getTextSkewX())
+        {
+            mLabelStyleVersion++;
+        }
+        final View parent = options.getResourceFinder().getPromptParentView();
+        final float labelWidth = PromptUtils.calculateMaxWidth(options.getMaxTextWidth(), null,
+                parent.getWidth(), options.getTextPadding());
+        final float labelPadding = options.getFocalPadding() / 2;
+        for (final Item item : mItems)
+        {
+            setDefaultRadius(options, item.mFocal);
+            if (item.mTarget != null)
+            {
+                item.mFocal.prepare(options, item.mTarget, promptViewPosition);
+                item.mTarget.getLocationInWindow(item.mTargetPosition);
+                item.mTargetLeft = item.mTargetPosition[0] - promptViewPosition[0]
+                        - item.mTarget.getScrollX();
+                item.mTargetTop = item.mTargetPosition[1] - promptViewPosition[1]
+                        - item.mTarget.getScrollY();
+            }
+            else
+            {
+                item.mFocal.prepare(options, item.mTargetX, item.mTargetY);
+            }
+            final RectF focalBounds = item.mFocal.getBounds();
+            mBounds.union(focalBounds);
+            if (item.mLabel != null)
+            {
+                // The label text can't change so the layout only depends on the width and style
+                if (item.mLabelLayout == null || item.mLabelLayoutWidth != (int) labelWidth
+                        || item.mLabelLayoutStyleVersion != mLabelStyleVersion)
+                {
+                    item.mLabelLayout = PromptUtils.createStaticTextLayout(item.mLabel,
+                            mLabelPaint, (int) labelWidth, Layout.Alignment.ALIGN_CENTER, 1);
+                    item.mLabelLayoutWidth = (int) labelWidth;
+                    item.mLabelLayoutStyleVersion = mLabelStyleVersion;
+                }
+                item.mLabelLeft = focalBounds.centerX() - (labelWidth / 2);
+                final float labelTextWidth = PromptUtils.calculateMaxTextWidth(item.mLabelLayout);
+                final float labelHeight = item.mLabelLayout.getHeight();
+                if (focalBounds.centerY() > parent.getHeight() / 2f)
+                {
+                    item.mLabelTop = focalBounds.top - labelPadding - labelHeight;
+                }
+                else
+                {
+                    item.mLabelTop = focalBounds.bottom + labelPadding;
+                }
+                mBounds.union(focalBounds.centerX() - (labelTextWidth / 2), item.mLabelTop,
+                        focalBounds.centerX() + (labelTextWidth / 2), item.mLabelTop + labelHeight);
+            }
+            else
+            {
+                item.mLabelLayout = null;
+            }
+        }
+    }
+
+    /**
+     * Sets the radius for circle focals that have not had a radius set.
+     *
+     * @param options The options that the prompt was built from.
+     * @param focal The focal to set the radius on.
+     */
+    private void setDefaultRadius(@NonNull final PromptOptions options,
+                                  @NonNull final PromptFocal focal)
+    {
+        if (focal instanceof CirclePromptFocal && ((CirclePromptFocal) focal).mBaseRadius == 0)
+        {
+            ((CirclePromptFocal) focal).setRadius(options.getFocalRadius());
+        }
+    }
+
+    @Override
+    public void update(@NonNull final PromptOptions options, final float revealModifier,
+                       final float alphaModifier)
+    {
+        mPath.reset();
+        mPrimaryFocal.update(options, revealModifier, alphaModifier);
+        addPath(mPrimaryFocal);
+        for (final Item item : mItems)
+        {
+            item.mFocal.update(options, revealModifier, alphaModifier);
+            addPath(item.mFocal);
+        }
+        mLabelAlphaModifier = alphaModifier;
+        mLabelPaint.setAlpha((int) (mBaseLabelAlpha * Math.min(1, alphaModifier)));
+    }
+
+    /**
+     * Adds a focals path to the combined path.
+     *
+     * @param focal The focal to add the path from.
+     */
+    private void addPath(@NonNull final PromptFocal focal)
+    {
+        final Path basePath = focal.getBasePath();
+        final Path path = basePath != null ? basePath : focal.getPath();
+        if (path != null)
+        {
+            final Matrix matrix = basePath != null ? focal.getPathMatrix() : null;
+            if (matrix != null)
+            {
+                mPath.addPath(path, matrix);
+            }
+            else
+            {
+                mPath.addPath(path);
+            }
+        }
+    }
+
+    @Override
+    public void updateRipple(final float revealModifier, final float alphaModifier)
+    {
+        mPrimaryFocal.updateRipple(revealModifier, alphaModifier);
+        for (final Item item : mItems)
+        {
+            item.mFocal.updateRipple(revealModifier, alphaModifier);
+        }
+    }
+
+    @Override
+    public void release()
+    {
+        mPrimaryFocal.release();
+        for (final Item item : mItems)
+        {
+            item.mFocal.release();
+            item.mTarget = null;
+            item.mLabelLayout = null;
+        }
+    }
+
+    @Override
+    public void draw(@NonNull final Canvas canvas)
+    {
+        mPrimaryFocal.draw(canvas);
+        for (final Item item : mItems)
+        {
+            item.mFocal.draw(canvas);
+            if (item.mTarget != null)
+            {
+                canvas.translate(item.mTargetLeft, item.mTargetTop);
+                item.mTarget.draw(canvas);
+                canvas.translate(-item.mTargetLeft, -item.mTargetTop);
+            }
+            if (item.mLabelLayout != null)
+            {
+                canvas.translate(item.mLabelLeft, item.mLabelTop);
+                item.mLabelLayout.draw(canvas);
+                canvas.translate(-item.mLabelLeft, -item.mLabelTop);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(final float x, final float y)
+    {
+        return findFocalIndex(x, y) != -1;
+    }
+
+    @Override
+    public int findFocalIndex(final float x, final float y)
+    {
+        if (mPrimaryFocal.contains(x, y))
+        {
+            return 0;
+        }
+        for (int i = 0, count = mItems.size(); i < count; i++)
+        {
+            if (mItems.get(i).mFocal.contains(x, y))
+            {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * An additional focal rendered by the {@link MultiPromptFocal}.
+     */
+    static class Item
+    {
+        @NonNull final PromptFocal mFocal;
+        @Nullable View mTarget;
+        final float mTargetX;
+        final float mTargetY;
+        @Nullable final CharSequence mLabel;
+        @NonNull final int[] mTargetPosition = new int[2];
+        float mTargetLeft;
+        float mTargetTop;
+        @Nullable Layout mLabelLayout;
+        int mLabelLayoutWidth;
+        int mLabelLayoutStyleVersion;
+        float mLabelLeft;
+        float mLabelTop;
+
+        Item(@NonNull final PromptFocal focal, @Nullable final View target,
+             final float targetX, final float targetY, @Nullable final CharSequence label)
+        {
+            mFocal = focal;
+            mTarget = target;
+            mTargetX = targetX;
+            mTargetY = targetY;
+            mLabel = label;
+        }
+    }
+}
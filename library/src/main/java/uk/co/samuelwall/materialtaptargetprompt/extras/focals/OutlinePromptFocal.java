@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
+
+import android.graphics.Outline;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+import androidx.annotation.Dimension;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+/**
+ * Prompt focal implementation to draw the focal in the shape of the target view's
+ * {@link Outline}, so rounded cards and pill buttons don't need the focal shape configuring.
+ * <p>
+ * The outline is read in {@code prepare} and the shape is cached until the target view or its
+ * size changes. Rectangle and rounded rectangle outlines are read from API 24, other outlines and
+ * older API levels use the target bounds.
+ * <p>
+ * When the prompt targets a point the last target outline shape is centred on the point, if no
+ * target outline has been read a rounded square the size of the focal radius diameter is used.
+ */
+public class OutlinePromptFocal extends PathPromptFocal
+{
+    final Path mOutlinePath = new Path();
+    final RectF mOutlineBounds = new RectF();
+    final Rect mOutlineRect = new Rect();
+    @Nullable Outline mOutline;
+    /**
+     * The target that the shape was created from, weakly referenced so the focal doesn't keep
+     * the target view alive. Null when the shape was created for a point target.
+     */
+    @Nullable WeakReference<View> mOutlineTarget;
+
+    /**
+     * The size that the shape was created with, -1 when the shape needs creating again.
+     */
+    int mOutlineWidth = -1;
+    int mOutlineHeight = -1;
+    float mOutlinePadding;
+
+    /**
+     * Constructor.
+     */
+    public OutlinePromptFocal()
+    {
+        super(new Path());
+    }
+
+    /**
+     * Set the padding between the target outline and the focal edge.
+     *
+     * @param padding The distance from the outline edge to the focal edge.
+     * @return This prompt focal.
+     */
+    @NonNull
+    @Override
+    public OutlinePromptFocal setTargetPadding(@Dimension final float padding)
+    {
+        mOutlinePadding = padding;
+        // Create the shape again the next time the focal is prepared
+        mOutlineWidth = -1;
+        return this;
+    }
+
+    @Override
+    public void prepare(@NonNull final PromptOptions options, @NonNull final View target,
+                        final int[] promptViewPosition)
+    {
+        updateOutline(target);
+        super.prepare(options, target, promptViewPosition);
+    }
+
+    @Override
+    public void prepare(@NonNull final PromptOptions options, final float targetX,
+                        final float targetY)
+    {
+        final View outlineTarget = mOutlineTarget != null ? mOutlineTarget.get() : null;
+        if (outlineTarget != null)
+        {
+            updateOutline(outlineTarget);
+        }
+        else
+        {
+            updatePointShape(options.getFocalRadius());
+        }
+        super.prepare(options, targetX, targetY);
+    }
+
+    @Override
+    public boolean supportsGeometryInput()
+    {
+        // The outline provider can only be called on the main thread
+        return false;
+    }
+
+    @Override
+    public boolean isPreparedOnlyFromSnapshot()
+    {
+        // The outline is only created again when the target size changes, which the snapshot
+        // target bounds already cover
+        return true;
+    }
+
+    @Override
+    public void release()
+    {
+        super.release();
+        mOutlineTarget = null;
+        mOutlineWidth = -1;
+        mOutlineHeight = -1;
+    }
+
+    /**
+     * Creates the focal shape from the target outline if the target or its size has changed.
+     *
+     * @param target The prompt target view.
+     */
+    void updateOutline(@NonNull final View target)
+    {
+        final int width = target.getWidth();
+        final int height = target.getHeight();
+        if (mOutlineTarget != null && target == mOutlineTarget.get()
+                && width == mOutlineWidth && height == mOutlineHeight)
+        {
+            return;
+        }
+        if (mOutlineTarget == null || target != mOutlineTarget.get())
+        {
+            mOutlineTarget = new WeakReference<>(target);
+        }
+        mOutlineWidth = width;
+        mOutlineHeight = height;
+        mOutlineBounds.set(0, 0, width, height);
+        float radius = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N)
+        {
+            final ViewOutlineProvider outlineProvider = target.getOutlineProvider();
+            if (outlineProvider != null)
+            {
+                if (mOutline == null)
+                {
+                    mOutline = new Outline();
+                }
+                mOutline.setEmpty();
+                outlineProvider.getOutline(target, mOutline);
+                if (mOutline.getRect(mOutlineRect))
+                {
+                    mOutlineBounds.set(mOutlineRect);
+                    radius = Math.max(0, mOutline.getRadius());
+                }
+            }
+        }
+        setShape(radius);
+    }
+
+    /**
+     * Creates a rounded square focal shape for a point target if the focal radius has changed.
+     *
+     * @param focalRadius The focal radius from the prompt options.
+     */
+    void updatePointShape(final float focalRadius)
+    {
+        final int size = Math.round(focalRadius * 2);
+        if (mOutlineTarget == null && size == mOutlineWidth && size == mOutlineHeight)
+        {
+            return;
+        }
+        mOutlineTarget = null;
+        mOutlineWidth = size;
+        mOutlineHeight = size;
+        mOutlineBounds.set(0, 0, size, size);
+        setShape(size / 4f);
+    }
+
+    /**
+     * Sets the focal path to a rounded rectangle from the outline bounds with the padding added.
+     *
+     * @param radius The outline corner radius.
+     */
+    private void setShape(final float radius)
+    {
+        mOutlineBounds.inset(-mOutlinePadding, -mOutlinePadding);
+        final float paddedRadius = radius + mOutlinePadding;
+        mOutlinePath.reset();
+        mOutlinePath.addRoundRect(mOutlineBounds, paddedRadius, paddedRadius, Path.Direction.CW);
+        setPath(mOutlinePath);
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.View;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.Dimension;
+import androidx.annotation.NonNull;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PathHitTester;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptUtils;
+
+/**
+ * Prompt focal implementation to draw the focal as any shape.
+ * <p>
+ * The shape path is positioned once in {@code prepare} and then scaled with
+ * {@link #getPathMatrix()} for the reveal and idle animations. The bounds, a region for hit
+ * testing and points around the outline for {@link #calculateAngleEdgePoint(float, float, PointF)}
+ * are only calculated again when the path or target position changes.
+ */
+public class PathPromptFocal extends PromptFocal
+{
+    /**
+     * The number of points sampled around each contour for calculating the edge points.
+     */
+    static final int OUTLINE_SAMPLES = 32;
+
+    final Paint mPaint;
+    int mBaseAlpha;
+    int mRippleAlpha;
+    @NonNull final Path mSourcePath = new Path();
+    final RectF mSourceBounds = new RectF();
+    final Path mPath = new Path();
+    final Matrix mPathMatrix = new Matrix();
+    final Matrix mRippleMatrix = new Matrix();
+    final Matrix mInverseMatrix = new Matrix();
+    final Matrix mPrepareMatrix = new Matrix();
+    final RectF mBaseBounds = new RectF();
+    final PointF mBaseBoundsCentre = new PointF();
+    final RectF mBounds = new RectF();
+    final RectF mRippleBounds = new RectF();
+    final PathHitTester mHitTester = new PathHitTester();
+    final float[] mPoint = new float[2];
+    final float[] mPosTan = new float[2];
+    final int[] mTargetPosition = new int[2];
+    final PathMeasure mPathMeasure = new PathMeasure();
+    float[] mOutline = new float[OUTLINE_SAMPLES * 2];
+    int mOutlineLength;
+    boolean mInvertible;
+    float mPadding;
+    float mPreparedLeft = Float.NaN;
+    float mPreparedTop = Float.NaN;
+
+    /**
+     * Constructor.
+     *
+     * @param path The focal shape, positioned relative to the target view's top left corner.
+     */
+    public PathPromptFocal(@NonNull final Path path)
+    {
+        mPaint = new Paint();
+        mPaint.setAntiAlias(true);
+        setPath(path);
+    }
+
+    /**
+     * Set the focal shape.
+     * When targeting a view the path coordinates are relative to the target's top left corner,
+     * when targeting a point the path bounds are centred on the point.
+     * The path is copied so changing it afterwards does not change the focal.
+     *
+     * @param path The focal shape.
+     * @return This prompt focal.
+     */
+    @NonNull
+    public PathPromptFocal setPath(@NonNull final Path path)
+    {
+        mSourcePath.set(path);
+        mSourcePath.computeBounds(mSourceBounds, true);
+        mPreparedLeft = Float.NaN;
+        return this;
+    }
+
+    /**
+     * Set the padding between the path edge and the focal edge.
+     * The path is scaled around its centre so that its bounds grow by the padding on each side.
+     *
+     * @param padding The distance from the path edge to the focal edge.
+     * @return This prompt focal.
+     */
+    @NonNull
+    public PathPromptFocal setTargetPadding(@Dimension final float padding)
+    {
+        mPadding = padding;
+        mPreparedLeft = Float.NaN;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public RectF getBounds()
+    {
+        return mBaseBounds;
+    }
+
+    @NonNull
+    @Override
+    public Path getBasePath()
+    {
+        return mPath;
+    }
+
+    @NonNull
+    @Override
+    public Matrix getPathMatrix()
+    {
+        return mPathMatrix;
+    }
+
+    @NonNull
+    @Override
+    public PointF calculateAngleEdgePoint(final float angle, final float padding)
+    {
+        final PointF point = new PointF();
+        calculateAngleEdgePoint(angle, padding, point);
+        return point;
+    }
+
+    @Override
+    public void calculateAngleEdgePoint(final float angle, final float padding,
+                                        @NonNull final PointF outPoint)
+    {
+        if (mOutlineLength == 0)
+        {
+            calculateBoundsEdgePoint(angle, padding, outPoint);
+            return;
+        }
+        // The furthest outline point in the angle direction
+        final double angleRadians = Math.toRadians(angle);
+        final float cos = (float) Math.cos(angleRadians);
+        final float sin = (float) Math.sin(angleRadians);
+        int furthest = 0;
+        float furthestDistance = -Float.MAX_VALUE;
+        for (int i = 0; i < mOutlineLength; i += 2)
+        {
+            final float distance = (mOutline[i] - mBaseBoundsCentre.x) * cos
+                    + (mOutline[i + 1] - mBaseBoundsCentre.y) * sin;
+            if (distance > furthestDistance)
+            {
+                furthestDistance = distance;
+                furthest = i;
+            }
+        }
+        outPoint.set(mOutline[furthest] + (cos * padding / 2),
+                mOutline[furthest + 1] + (sin * padding / 2));
+    }
+
+    @Override
+    public void setColour(@ColorInt final int colour)
+    {
+        mPaint.setColor(colour);
+        mBaseAlpha = Color.alpha(colour);
+        mPaint.setAlpha(mBaseAlpha);
+    }
+
+    @Override
+    public void prepare(@NonNull final PromptOptions options, @NonNull final View target,
+                        final int[] promptViewPosition)
+    {
+        target.getLocationInWindow(mTargetPosition);
+        preparePath(mTargetPosition[0] - promptViewPosition[0],
+                mTargetPosition[1] - promptViewPosition[1]);
+    }
+
+    @Override
+    public void prepare(@NonNull final PromptOptions options, final float targetX,
+                        final float targetY)
+    {
+        preparePath(targetX - mSourceBounds.centerX(), targetY - mSourceBounds.centerY());
+    }
+
+    @Override
+    public void prepare(@NonNull final PromptOptions options,
+                        @NonNull final PromptGeometry.Input input)
+    {
+        final Rect targetBounds = input.getTargetBounds();
+        if (targetBounds != null)
+        {
+            preparePath(targetBounds.left, targetBounds.top);
+        }
+        else
+        {
+            super.prepare(options, input);
+        }
+    }
+
+    @Override
+    public boolean supportsGeometryInput()
+    {
+        // Subclasses might override how the focal is prepared from the target view
+        return getClass() == PathPromptFocal.class;
+    }
+
+    /**
+     * Positions the path at 1.0 scale and caches the bounds, hit test region and outline,
+     * unless the path is already at the position.
+     *
+     * @param left The offset to move the path along the x axis.
+     * @param top The offset to move the path along the y axis.
+     */
+    void preparePath(final float left, final float top)
+    {
+        if (left == mPreparedLeft && top == mPreparedTop)
+        {
+            return;
+        }
+        mPreparedLeft = left;
+        mPreparedTop = top;
+        mPrepareMatrix.reset();
+        if (mPadding != 0 && mSourceBounds.width() > 0 && mSourceBounds.height() > 0)
+        {
+            mPrepareMatrix.setScale((mSourceBounds.width() + mPadding * 2) / mSourceBounds.width(),
+                    (mSourceBounds.height() + mPadding * 2) / mSourceBounds.height(),
+                    mSourceBounds.centerX(), mSourceBounds.centerY());
+        }
+        mPrepareMatrix.postTranslate(left, top);
+        mSourcePath.transform(mPrepareMatrix, mPath);
+        mPath.computeBounds(mBaseBounds, true);
+        mBaseBoundsCentre.set(mBaseBounds.centerX(), mBaseBounds.centerY());
+        mHitTester.setPath(mPath);
+        updateOutline();
+    }
+
+    /**
+     * Samples points evenly around each contour of the path.
+     */
+    private void updateOutline()
+    {
+        mOutlineLength = 0;
+        mPathMeasure.setPath(mPath, true);
+        do
+        {
+            final float length = mPathMeasure.getLength();
+            if (length <= 0)
+            {
+                continue;
+            }
+            if (mOutline.length < mOutlineLength + OUTLINE_SAMPLES * 2)
+            {
+                final float[] outline = new float[mOutline.length * 2];
+                System.arraycopy(mOutline, 0, outline, 0, mOutlineLength);
+                mOutline = outline;
+            }
+            for (int i = 0; i < OUTLINE_SAMPLES; i++)
+            {
+                if (mPathMeasure.getPosTan(length * i / OUTLINE_SAMPLES, mPoint, mPosTan))
+                {
+                    mOutline[mOutlineLength++] = mPoint[0];
+                    mOutline[mOutlineLength++] = mPoint[1];
+                }
+            }
+        }
+        while (mPathMeasure.nextContour());
+    }
+
+    @Override
+    public void update(@NonNull final PromptOptions options, final float revealModifier,
+                       final float alphaModifier)
+    {
+        PromptUtils.scale(mBaseBoundsCentre, mBaseBounds, mBounds, revealModifier, true);
+        mPathMatrix.setRectToRect(mBaseBounds, mBounds, Matrix.ScaleToFit.FILL);
+        mInvertible = mPathMatrix.invert(mInverseMatrix);
+        mPaint.setAlpha((int) (mBaseAlpha * alphaModifier));
+    }
+
+    @Override
+    public void updateRipple(final float revealModifier, final float alphaModifier)
+    {
+        PromptUtils.scale(mBaseBoundsCentre, mBaseBounds, mRippleBounds, revealModifier, true);
+        mRippleMatrix.setRectToRect(mBaseBounds, mRippleBounds, Matrix.ScaleToFit.FILL);
+        mRippleAlpha = (int) (mBaseRippleAlpha * alphaModifier);
+    }
+
+    @Override
+    public void draw(@NonNull final Canvas canvas)
+    {
+        //Draw the ripple
+        if (mDrawRipple)
+        {
+            final int oldAlpha = mPaint.getAlpha();
+            final int oldColor = mPaint.getColor();
+            if (oldColor == Color.TRANSPARENT)
+            {
+                mPaint.setColor(Color.WHITE);
+            }
+            mPaint.setAlpha(mRippleAlpha);
+            canvas.save();
+            canvas.concat(mRippleMatrix);
+            canvas.drawPath(mPath, mPaint);
+            canvas.restore();
+            mPaint.setColor(oldColor);
+            mPaint.setAlpha(oldAlpha);
+        }
+
+        canvas.save();
+        canvas.concat(mPathMatrix);
+        canvas.drawPath(mPath, mPaint);
+        canvas.restore();
+    }
+
+    @Override
+    public boolean contains(final float x, final float y)
+    {
+        if (!mInvertible || !mBounds.contains(x, y))
+        {
+            return false;
+        }
+        // Test the point against the region for the path at 1.0 scale
+        mPoint[0] = x;
+        mPoint[1] = y;
+        mInverseMatrix.mapPoints(mPoint);
+        return mHitTester.contains(mPoint[0], mPoint[1]);
+    }
+}
@@ -22,6 +22,7 @@ import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PointF;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import androidx.annotation.ColorInt;
 import androidx.annotation.Dimension;
@@ -30,6 +31,7 @@ import androidx.annotation.Nullable;
 import android.view.View;
 
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometry;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptUtils;
 
@@ -50,6 +52,7 @@ public class RectanglePromptFocal extends PromptFocal
     Path mPath;
     private float mRx, mRy;
     @Nullable private PointF mSize;
+    final int[] mTargetPosition = new int[2];
 
     /**
      * Constructor.
@@ -65,6 +68,7 @@ public class RectanglePromptFocal extends PromptFocal
         mBaseBounds = new RectF();
         mBaseBoundsCentre = new PointF();
         mRippleBounds = new RectF();
+        mPath = new Path();
         final float density = Resources.getSystem().getDisplayMetrics().density;
         mRx = mRy = 2 * density;
         mPadding = 8 * density;
@@ -134,6 +138,13 @@ public class RectanglePromptFocal extends PromptFocal
         return mPath;
     }
 
+    @Override
+    public void calculateAngleEdgePoint(final float angle, final float padding,
+                                        @NonNull final PointF outPoint)
+    {
+        calculateBoundsEdgePoint(angle, padding, outPoint);
+    }
+
     @Override
     public void setColour(@ColorInt int colour)
     {
@@ -145,12 +156,44 @@ public class RectanglePromptFocal extends PromptFocal
     @Override
     public void prepare(@NonNull PromptOptions options, @NonNull View target, final int[] promptViewPosition)
     {
-        final int[] targetPosition = new int[2];
-        target.getLocationInWindow(targetPosition);
-        final float left = targetPosition[0] - promptViewPosition[0];
-        final float top = targetPosition[1] - promptViewPosition[1];
-        final int width = target.getWidth();
-        final int height = target.getHeight();
+        target.getLocationInWindow(mTargetPosition);
+        prepare(options, mTargetPosition[0] - promptViewPosition[0], mTargetPosition[1] - promptViewPosition[1],
+                target.getWidth(), target.getHeight());
+    }
+
+    @Override
+    public void prepare(@NonNull PromptOptions options, @NonNull PromptGeometry.Input input)
+    {
+        final Rect targetBounds = input.getTargetBounds();
+        if (targetBounds != null)
+        {
+            prepare(options, targetBounds.left, targetBounds.top, targetBounds.width(), targetBounds.height());
+        }
+        else
+        {
+            super.prepare(options, input);
+        }
+    }
+
+    @Override
+    public boolean supportsGeometryInput()
+    {
+        // Subclasses might override how the focal is prepared from the target view
+        return getClass() == RectanglePromptFocal.class;
+    }
+
+    /**
+     * Setup the focal around the target bounds.
+     *
+     * @param options The option that the prompt was built from.
+     * @param left The target left position relative to the prompt view.
+     * @param top The target top position relative to the prompt view.
+     * @param width The target width.
+     * @param height The target height.
+     */
+    private void prepare(@NonNull PromptOptions options, final float left, final float top,
+                         final int width, final int height)
+    {
         if (mSize == null)
         {
             mBaseBounds.left = left - mPadding;
@@ -191,8 +234,9 @@ public class RectanglePromptFocal extends PromptFocal
                        float alphaModifier)
     {
         PromptUtils.scale(mBaseBoundsCentre, mBaseBounds, mBounds, revealModifier, true);
-
-        mPath = new Path();
+        // The path is rebuilt at the current size instead of being scaled with a matrix so that
+        // the corner radii match the drawn focal
+        mPath.reset();
         mPath.addRoundRect(mBounds, mRx, mRy, Path.Direction.CW);
     }
 
@@ -221,7 +265,7 @@ public class RectanglePromptFocal extends PromptFocal
             mPaint.setAlpha(oldAlpha);
         }
 
-        canvas.drawPath(getPath(), mPaint);
+        canvas.drawRoundRect(mBounds, mRx, mRy, mPaint);
 
         // canvas.drawRoundRect(mBaseBounds, mRx, mRy, mBoundsPaint);
     }
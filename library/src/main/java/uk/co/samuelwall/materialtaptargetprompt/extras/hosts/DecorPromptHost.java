@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.hosts;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptHost;
+
+/**
+ * Prompt host implementation that adds the prompt view as a child of the parent view.
+ * <p>
+ * This is the default host, adding and removing the prompt view causes the parent view
+ * hierarchy to be laid out again.
+ */
+public class DecorPromptHost extends PromptHost
+{
+    @Override
+    public void addPromptView(@NonNull final ViewGroup parent, @NonNull final View promptView)
+    {
+        parent.addView(promptView);
+    }
+
+    @Override
+    public void removePromptView(@NonNull final ViewGroup parent, @NonNull final View promptView)
+    {
+        final ViewGroup promptParent = (ViewGroup) promptView.getParent();
+        if (promptParent != null)
+        {
+            promptParent.removeView(promptView);
+        }
+    }
+}
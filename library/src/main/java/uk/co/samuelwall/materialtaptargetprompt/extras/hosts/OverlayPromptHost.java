@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.hosts;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptHost;
+
+/**
+ * Prompt host implementation that draws the prompt view in the parent view's
+ * {@link android.view.ViewGroupOverlay}.
+ * <p>
+ * Adding and removing the prompt does not cause the parent view hierarchy to be laid out again.
+ * Views in an overlay do not receive touch or key events, so touches pass through to the views
+ * below, the focal and back button presses are not detected and the prompt must be removed with
+ * {@link uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt#finish()},
+ * {@link uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt#dismiss()} or
+ * {@link uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt#showFor(long)}.
+ * Requires API 18 or above, use {@link #isSupported()} to check before setting it.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+public class OverlayPromptHost extends PromptHost
+{
+    /**
+     * Is the overlay host supported on the current device.
+     *
+     * @return True if the API version is 18 or above.
+     */
+    public static boolean isSupported()
+    {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    @Override
+    public void addPromptView(@NonNull final ViewGroup parent, @NonNull final View promptView)
+    {
+        parent.getOverlay().add(promptView);
+        updatePromptViewBounds(parent, promptView);
+    }
+
+    @Override
+    public void removePromptView(@NonNull final ViewGroup parent, @NonNull final View promptView)
+    {
+        // Remove from the overlay the view was added to in case the parent has since changed
+        final ViewGroup overlay = (ViewGroup) promptView.getParent();
+        if (overlay != null)
+        {
+            overlay.removeView(promptView);
+        }
+    }
+
+    @Override
+    public void updatePromptViewBounds(@NonNull final ViewGroup parent,
+                                       @NonNull final View promptView)
+    {
+        // Views in an overlay are not measured or laid out by the parent
+        final int width = parent.getWidth();
+        final int height = parent.getHeight();
+        if (promptView.getWidth() != width || promptView.getHeight() != height)
+        {
+            promptView.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+            promptView.layout(0, 0, width, height);
+        }
+    }
+}
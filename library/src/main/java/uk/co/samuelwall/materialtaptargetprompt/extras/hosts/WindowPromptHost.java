@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.hosts;
+
+import android.content.Context;
+import android.graphics.PixelFormat;
+import android.os.IBinder;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptHost;
+
+/**
+ * Prompt host implementation that displays the prompt view in a panel window attached to the
+ * parent view's window.
+ * <p>
+ * Adding and removing the prompt does not cause the parent view hierarchy to be laid out again.
+ * The panel is positioned over the parent view and touch events that the prompt does not capture
+ * are passed on to the parent view. The parent view must be attached to its window when the
+ * prompt is shown, use
+ * {@link uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt#showWhenReady(long)}
+ * to wait for it.
+ */
+public class WindowPromptHost extends PromptHost
+{
+    /**
+     * The parent view position on the screen.
+     */
+    @NonNull final int[] mParentPosition = new int[2];
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException If the parent view is not attached to a window.
+     */
+    @Override
+    public void addPromptView(@NonNull final ViewGroup parent, @NonNull final View promptView)
+    {
+        final IBinder windowToken = parent.getWindowToken();
+        if (windowToken == null)
+        {
+            // The window manager would throw a BadTokenException without a token
+            throw new IllegalStateException(
+                    "The prompt parent view must be attached to a window to use WindowPromptHost");
+        }
+        final WindowManager.LayoutParams params = new WindowManager.LayoutParams(
+                WindowManager.LayoutParams.TYPE_APPLICATION_PANEL,
+                WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN
+                        | WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS,
+                PixelFormat.TRANSLUCENT);
+        params.token = windowToken;
+        params.gravity = Gravity.START | Gravity.TOP;
+        updateLayoutParams(parent, params);
+        getWindowManager(parent).addView(promptView, params);
+    }
+
+    @Override
+    public void removePromptView(@NonNull final ViewGroup parent, @NonNull final View promptView)
+    {
+        if (promptView.getParent() != null)
+        {
+            // Remove immediately so the view is detached before the state change is emitted
+            getWindowManager(promptView).removeViewImmediate(promptView);
+        }
+    }
+
+    @Override
+    public void updatePromptViewBounds(@NonNull final ViewGroup parent,
+                                       @NonNull final View promptView)
+    {
+        if (promptView.getParent() == null)
+        {
+            return;
+        }
+        final WindowManager.LayoutParams params =
+                (WindowManager.LayoutParams) promptView.getLayoutParams();
+        if (updateLayoutParams(parent, params))
+        {
+            getWindowManager(parent).updateViewLayout(promptView, params);
+        }
+    }
+
+    @Override
+    public boolean dispatchUnhandledTouchEvent(@NonNull final ViewGroup parent,
+                                               @NonNull final MotionEvent event)
+    {
+        // The panel is placed over the parent so the coordinates are the same
+        return parent.dispatchTouchEvent(event);
+    }
+
+    @Override
+    public void getLocationInWindow(@NonNull final ViewGroup parent, @NonNull final View promptView,
+                                    @NonNull final int[] outLocation)
+    {
+        // The prompt view is the root of its own window which is placed over the parent
+        parent.getLocationInWindow(outLocation);
+    }
+
+    /**
+     * Update the window position and size to match the parent view.
+     *
+     * @param parent The view that the prompt is displayed over.
+     * @param params The window layout params to update.
+     * @return True if the params were changed.
+     */
+    boolean updateLayoutParams(@NonNull final ViewGroup parent,
+                               @NonNull final WindowManager.LayoutParams params)
+    {
+        parent.getLocationOnScreen(mParentPosition);
+        final int width = parent.getWidth();
+        final int height = parent.getHeight();
+        if (params.x == mParentPosition[0] && params.y == mParentPosition[1]
+                && params.width == width && params.height == height)
+        {
+            return false;
+        }
+        params.x = mParentPosition[0];
+        params.y = mParentPosition[1];
+        params.width = width;
+        params.height = height;
+        return true;
+    }
+
+    /**
+     * Get the window manager for the view's context.
+     *
+     * @param view The view to get the window manager for.
+     * @return The window manager.
+     */
+    @NonNull
+    WindowManager getWindowManager(@NonNull final View view)
+    {
+        return (WindowManager) view.getContext().getSystemService(Context.WINDOW_SERVICE);
+    }
+}
@@ -141,6 +141,25 @@ public class SequenceItem implements MaterialTapTargetPrompt.PromptStateChangeLi
         }
     }
 
+    /**
+     * Show this sequence item in the revealed state without the reveal animation, used when
+     * restoring a sequence after a configuration change.
+     *
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     */
+    public void restore(final long timeoutMillis)
+    {
+        final MaterialTapTargetPrompt prompt = this.sequenceState.getPrompt();
+        if (prompt != null)
+        {
+            this.restore(prompt, timeoutMillis);
+        }
+        else
+        {
+            this.onItemComplete();
+        }
+    }
+
     /**
      * Calls {@link MaterialTapTargetPrompt#finish()} on this items states prompt.
      */
@@ -175,6 +194,17 @@ public class SequenceItem implements MaterialTapTargetPrompt.PromptStateChangeLi
         prompt.show();
     }
 
+    /**
+     * Show the created prompt for this sequence item without the reveal animation.
+     *
+     * @param prompt The prompt to show, this will never be null here.
+     * @param timeoutMillis The maximum number of milliseconds to wait for the target layout.
+     */
+    protected void restore(@NonNull final MaterialTapTargetPrompt prompt, final long timeoutMillis)
+    {
+        prompt.showRevealedWhenReady(timeoutMillis);
+    }
+
     @Override
     public void onPromptStateChanged(@NonNull final MaterialTapTargetPrompt prompt, final int state)
     {
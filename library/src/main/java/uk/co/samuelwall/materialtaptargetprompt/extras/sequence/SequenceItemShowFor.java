@@ -47,4 +47,15 @@ public class SequenceItemShowFor extends SequenceItem
     {
         prompt.showFor(milliseconds);
     }
+
+    /**
+     * {@inheritDoc}
+     * The remaining time is not saved so the prompt is shown for the full time again.
+     */
+    @Override
+    protected void restore(@NonNull final MaterialTapTargetPrompt prompt, final long timeoutMillis)
+    {
+        prompt.startShowForTimer(milliseconds);
+        super.restore(prompt, timeoutMillis);
+    }
 }
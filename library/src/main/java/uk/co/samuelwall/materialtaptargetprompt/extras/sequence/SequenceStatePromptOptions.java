@@ -45,6 +45,17 @@ public class SequenceStatePromptOptions extends SequenceState
         this.promptOptions = promptOptions;
     }
 
+    /**
+     * Get the builder that the prompt is created from.
+     *
+     * @return The prompt options.
+     */
+    @NonNull
+    public PromptOptions getPromptOptions()
+    {
+        return this.promptOptions;
+    }
+
     @Nullable
     @Override
     public MaterialTapTargetPrompt getPrompt()
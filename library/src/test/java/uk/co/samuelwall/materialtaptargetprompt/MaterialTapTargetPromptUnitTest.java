@@ -23,6 +23,7 @@ import android.app.Activity;
 import android.graphics.Canvas;
 import android.graphics.RectF;
 import android.os.Build;
+import android.os.Bundle;
 import android.os.IBinder;
 import android.os.Looper;
 import android.view.KeyEvent;
@@ -32,6 +33,7 @@ import android.view.ViewParent;
 import android.widget.Button;
 import android.widget.FrameLayout;
 
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -42,16 +44,31 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import org.robolectric.util.ReflectionHelpers;
 
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometry;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptText;
+import uk.co.samuelwall.materialtaptargetprompt.extras.focals.OutlinePromptFocal;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -324,6 +341,7 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
         shadowOf(Looper.getMainLooper()).idle();
         assertNotNull(prompt);
         assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 10, 10, 0)));
+        assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_UP, 10, 10, 0)));
     }
 
     @Test
@@ -336,6 +354,7 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
                 .show();
         assertNotNull(prompt);
         assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 10, 10, 0)));
+        assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_UP, 10, 10, 0)));
     }
 
     @Test
@@ -388,6 +407,7 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
         shadowOf(Looper.getMainLooper()).idle();
         assertNotNull(prompt);
         assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 60, 60, 0)));
+        assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_UP, 60, 60, 0)));
     }
 
     @Test
@@ -436,6 +456,7 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
                         else if (actualStateProgress == 3)
                         {
                             assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 60, 60, 0)));
+                            assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_UP, 60, 60, 0)));
                         }
                     }
                 })
@@ -483,6 +504,7 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
         shadowOf(Looper.getMainLooper()).idle();
         assertNotNull(prompt);
         assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 60, 60, 0)));
+        assertTrue(prompt.mView.onTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_UP, 60, 60, 0)));
     }
 
     @Test
@@ -916,6 +938,524 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
         assertEquals("Texts should be equal", text, prompt.mView.getPromptOptions().getPrimaryText());
     }
 
+    @Test
+    public void testShow_ReusesMeasuredGeometry()
+    {
+        final CountingPromptText promptText = new CountingPromptText();
+        final MaterialTapTargetPrompt.Builder builder = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptText(promptText);
+        assertNotNull(builder.measure());
+        assertEquals(1, promptText.mPrepareCount);
+        final MaterialTapTargetPrompt prompt = builder.show();
+        assertNotNull(prompt);
+        assertEquals(1, promptText.mPrepareCount);
+        assertNull(builder.getMeasuredGeometry());
+    }
+
+    @Test
+    public void testShow_MeasuredGeometryOptionsChanged()
+    {
+        final CountingPromptText promptText = new CountingPromptText();
+        final MaterialTapTargetPrompt.Builder builder = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptText(promptText);
+        assertNotNull(builder.measure());
+        builder.setPrimaryText("Changed primary text");
+        final MaterialTapTargetPrompt prompt = builder.show();
+        assertNotNull(prompt);
+        assertEquals(2, promptText.mPrepareCount);
+    }
+
+    @Test
+    public void testPrepare_SteadyStateDoesNotAllocate()
+    {
+        assertSteadyStatePrepareDoesNotAllocate(null);
+    }
+
+    @Test
+    public void testPrepare_SteadyStateDoesNotAllocate_OutlineFocal()
+    {
+        assertSteadyStatePrepareDoesNotAllocate(new OutlinePromptFocal());
+    }
+
+    private void assertSteadyStatePrepareDoesNotAllocate(@Nullable final PromptFocal promptFocal)
+    {
+        final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        // Mocks and spies allocate when called so use real views attached to a window
+        final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        final FrameLayout layout = new FrameLayout(activity);
+        final Button target = new Button(activity);
+        layout.addView(target, new FrameLayout.LayoutParams(100, 100));
+        activity.setContentView(layout);
+        shadowOf(Looper.getMainLooper()).idle();
+        final CountingPromptText promptText = new CountingPromptText();
+        final MaterialTapTargetPrompt.Builder builder = new MaterialTapTargetPrompt.Builder(
+                new ActivityResourceFinder(activity), 0)
+                .setTarget(target)
+                .setPrimaryText("Primary text")
+                .setSecondaryText("Secondary text")
+                .setPromptText(promptText);
+        if (promptFocal != null)
+        {
+            builder.setPromptFocal(promptFocal);
+        }
+        final MaterialTapTargetPrompt prompt = builder.show();
+        assertNotNull(prompt);
+        UnitTestUtils.endCurrentAnimation(prompt);
+        prompt.prepare();
+        final int prepareCount = promptText.mPrepareCount;
+
+        final long threadId = Thread.currentThread().getId();
+        final int passes = 1000;
+        // Warm up so that class loading and lazy initialisation are not counted
+        for (int i = 0; i < passes; i++)
+        {
+            prompt.prepare();
+        }
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        final long overhead = threadBean.getThreadAllocatedBytes(threadId) - start;
+        start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < passes; i++)
+        {
+            prompt.prepare();
+        }
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+
+        assertEquals(prepareCount, promptText.mPrepareCount);
+        // Less than one byte per pass, anything allocated every pass is at least an object header
+        assertTrue("Steady state prepare allocated " + allocated + " bytes over " + passes
+                + " passes", allocated < passes);
+    }
+
+    @Test
+    public void testPrepare_NotPreparedOnlyFromSnapshot()
+    {
+        final CountingPromptText promptText = new CountingPromptText();
+        promptText.mPreparedOnlyFromSnapshot = false;
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptText(promptText)
+                .show();
+        assertNotNull(prompt);
+        UnitTestUtils.endCurrentAnimation(prompt);
+        prompt.prepare();
+        final PromptGeometry.Input input = prompt.mGeometryInput;
+        final int prepareCount = promptText.mPrepareCount;
+        prompt.prepare();
+
+        // The text is prepared again from the same snapshot without capturing a new one
+        assertEquals(prepareCount + 1, promptText.mPrepareCount);
+        assertSame(input, prompt.mGeometryInput);
+    }
+
+    @Test
+    public void testShowRevealed()
+    {
+        final List<Integer> states = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptStateChangeListener((p, state) -> states.add(state))
+                .create();
+        assertNotNull(prompt);
+        prompt.showRevealed();
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt.getState());
+        assertEquals(Collections.singletonList(MaterialTapTargetPrompt.STATE_REVEALED), states);
+        assertNull(prompt.mAnimationCurrent);
+        assertNotNull(prompt.mAnimationFocalBreathing);
+        assertNotNull(prompt.mView.getParent());
+        prompt.showRevealed();
+        assertEquals(1, states.size());
+    }
+
+    @Test
+    public void testSaveRestoreState()
+    {
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .create();
+        assertNotNull(prompt);
+        final Bundle notShownState = new Bundle();
+        prompt.saveState(notShownState);
+        assertFalse(MaterialTapTargetPrompt.wasShowing(notShownState));
+        prompt.show();
+        final Bundle savedState = new Bundle();
+        prompt.saveState(savedState);
+        assertTrue(MaterialTapTargetPrompt.wasShowing(savedState));
+        prompt.release();
+
+        final List<Integer> states = new ArrayList<>();
+        final MaterialTapTargetPrompt.Builder builder = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptStateChangeListener((p, state) -> states.add(state));
+        assertNull(builder.restoreState(notShownState, 1000));
+        assertNull(builder.restoreState(null, 1000));
+        final MaterialTapTargetPrompt restoredPrompt = builder.restoreState(savedState, 1000);
+        assertNotNull(restoredPrompt);
+        // Waits for the parent to be laid out before preparing the prompt
+        shadowOf(Looper.getMainLooper()).idleFor(1000, TimeUnit.MILLISECONDS);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, restoredPrompt.getState());
+        assertEquals(Collections.singletonList(MaterialTapTargetPrompt.STATE_REVEALED), states);
+        assertNull(restoredPrompt.mAnimationCurrent);
+    }
+
+    @Test
+    public void testRenderingProfile_LowEnd()
+    {
+        final List<Integer> profiles = new ArrayList<>();
+        final List<Boolean> automatic = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setRenderingProfile(PromptOptions.RENDERING_PROFILE_LOW_END)
+                .setRenderingProfileListener((p, profile, auto) -> {
+                    profiles.add(profile);
+                    automatic.add(auto);
+                })
+                .show();
+        assertNotNull(prompt);
+        assertEquals(Collections.singletonList(PromptOptions.RENDERING_PROFILE_LOW_END), profiles);
+        assertEquals(Collections.singletonList(false), automatic);
+        assertTrue(prompt.mView.mLowEndRendering);
+        assertNull(prompt.mView.mTargetRenderView);
+        UnitTestUtils.endCurrentAnimation(prompt);
+        assertNotNull(prompt.mAnimationFocalBreathing);
+        assertNull(prompt.mAnimationFocalRipple);
+        assertEquals(0, prompt.mAnimationFocalBreathing.getRepeatCount());
+        prompt.mAnimationFocalBreathing.end();
+        assertFalse(prompt.mAnimationFocalBreathing.isStarted());
+        shadowOf(Looper.getMainLooper()).idleFor(
+                MaterialTapTargetPrompt.LOW_END_IDLE_ANIMATION_DELAY, TimeUnit.MILLISECONDS);
+        assertTrue(prompt.mAnimationFocalBreathing.isStarted());
+        prompt.finish();
+        UnitTestUtils.endCurrentAnimation(prompt);
+        assertNull(prompt.mAnimationFocalBreathing);
+    }
+
+    @Test
+    public void testRenderingProfile_Full()
+    {
+        final List<Boolean> automatic = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setRenderingProfileListener((p, profile, auto) -> {
+                    assertEquals(PromptOptions.RENDERING_PROFILE_FULL, profile);
+                    automatic.add(auto);
+                })
+                .show();
+        assertNotNull(prompt);
+        assertEquals(Collections.singletonList(true), automatic);
+        assertFalse(prompt.mView.mLowEndRendering);
+        UnitTestUtils.endCurrentAnimation(prompt);
+        assertNotNull(prompt.mAnimationFocalBreathing);
+        assertNotNull(prompt.mAnimationFocalRipple);
+    }
+
+    @Test
+    public void testInstantMode_Finish()
+    {
+        final List<Integer> states = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setInstantMode(true)
+                .setPromptStateChangeListener((p, state) -> states.add(state))
+                .show();
+        assertNotNull(prompt);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt.getState());
+        assertNull(prompt.mAnimationCurrent);
+        assertNull(prompt.mAnimationFocalBreathing);
+        assertNull(prompt.mAnimationFocalRipple);
+        prompt.finish();
+        assertNull(prompt.mAnimationCurrent);
+        assertNull(prompt.mView.getParent());
+        assertEquals(Arrays.asList(MaterialTapTargetPrompt.STATE_REVEALED,
+                MaterialTapTargetPrompt.STATE_FINISHING, MaterialTapTargetPrompt.STATE_FINISHED),
+                states);
+    }
+
+    @Test
+    public void testInstantMode_Dismiss()
+    {
+        final List<Integer> states = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setInstantMode(true)
+                .setPromptStateChangeListener((p, state) -> states.add(state))
+                .show();
+        assertNotNull(prompt);
+        prompt.dismiss();
+        assertNull(prompt.mAnimationCurrent);
+        assertNull(prompt.mView.getParent());
+        assertEquals(Arrays.asList(MaterialTapTargetPrompt.STATE_REVEALED,
+                MaterialTapTargetPrompt.STATE_DISMISSING, MaterialTapTargetPrompt.STATE_DISMISSED),
+                states);
+    }
+
+    private View createUnattachedTarget()
+    {
+        final View target = mock(View.class);
+        when(target.isAttachedToWindow()).thenReturn(false);
+        return target;
+    }
+
+    @Test
+    public void testShowWhenReady_Waits()
+    {
+        final View target = createUnattachedTarget();
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(target)
+                .setPrimaryText("Primary text")
+                .showWhenReady(1000);
+        assertNotNull(prompt);
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+        assertNotNull(prompt.mShowWhenReadyListener);
+
+        prompt.mShowWhenReadyListener.onGlobalLayout();
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+
+        when(target.isAttachedToWindow()).thenReturn(true);
+        when(target.getWidth()).thenReturn(100);
+        when(target.getHeight()).thenReturn(50);
+        prompt.mShowWhenReadyListener.onGlobalLayout();
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, prompt.getState());
+        assertNull(prompt.mShowWhenReadyListener);
+    }
+
+    @Test
+    public void testShowWhenReady_Timeout()
+    {
+        final MaterialTapTargetPrompt prompt = createBuilder(
+                Robolectric.buildActivity(Activity.class).setup().get(), SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(createUnattachedTarget())
+                .setPrimaryText("Primary text")
+                .showWhenReady(1000);
+        assertNotNull(prompt);
+        shadowOf(Looper.getMainLooper()).idleFor(500, TimeUnit.MILLISECONDS);
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+        shadowOf(Looper.getMainLooper()).idleFor(500, TimeUnit.MILLISECONDS);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, prompt.getState());
+        assertNull(prompt.mShowWhenReadyListener);
+    }
+
+    @Test
+    public void testShowWhenReady_TimeoutParentNotAttached()
+    {
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(createUnattachedTarget())
+                .setPrimaryText("Primary text")
+                .showWhenReady(1000);
+        assertNotNull(prompt);
+        assertFalse(MaterialTapTargetPrompt.isAttachedToWindow(
+                prompt.mPromptOptions.getResourceFinder().getPromptParentView()));
+        shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.SECONDS);
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+        assertNull(prompt.mShowWhenReadyListener);
+        assertNull(prompt.mShowWhenReadyAttachListener);
+    }
+
+    @Test
+    public void testShowWhenReady_ParentDetached()
+    {
+        final MaterialTapTargetPrompt prompt = createBuilder(
+                Robolectric.buildActivity(Activity.class).setup().get(), SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(createUnattachedTarget())
+                .setPrimaryText("Primary text")
+                .showWhenReady(1000);
+        assertNotNull(prompt);
+        assertNotNull(prompt.mShowWhenReadyAttachListener);
+        prompt.mShowWhenReadyAttachListener.onViewDetachedFromWindow(
+                prompt.mPromptOptions.getResourceFinder().getPromptParentView());
+        assertNull(prompt.mShowWhenReadyListener);
+        assertNull(prompt.mShowWhenReadyAttachListener);
+        shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.SECONDS);
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+    }
+
+    @Test
+    public void testShowWhenReady_Dismiss()
+    {
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(createUnattachedTarget())
+                .setPrimaryText("Primary text")
+                .showWhenReady(1000);
+        assertNotNull(prompt);
+        prompt.dismiss();
+        assertNull(prompt.mShowWhenReadyListener);
+        shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.SECONDS);
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+    }
+
+    @Test
+    public void testSetText()
+    {
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setSecondaryText("Step 1")
+                .create();
+        assertNotNull(prompt);
+        // Not showing so the text is laid out when shown
+        prompt.setSecondaryText("Step 2");
+        assertEquals("Step 2", prompt.mPromptOptions.getSecondaryText());
+
+        prompt.show();
+        UnitTestUtils.endCurrentAnimation(prompt);
+        prompt.setSecondaryText("Step 3");
+        prompt.setPrimaryText("Changed primary text");
+        assertEquals("Step 3", prompt.mPromptOptions.getSecondaryText());
+        assertEquals("Changed primary text", prompt.mPromptOptions.getPrimaryText());
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt.getState());
+    }
+
+    @Test
+    public void testSetText_LayoutPassDoesNotPrepareAgain()
+    {
+        final CountingPromptText promptText = new CountingPromptText();
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptText(promptText)
+                .show();
+        assertNotNull(prompt);
+        UnitTestUtils.endCurrentAnimation(prompt);
+        final int prepareCount = promptText.mPrepareCount;
+        prompt.setPrimaryText("Changed primary text");
+        // Only the text was laid out again so the next layout pass matches the snapshot
+        prompt.prepare();
+        assertEquals(prepareCount, promptText.mPrepareCount);
+        prompt.mPromptOptions.setFocalRadius(100f);
+        prompt.prepare();
+        assertEquals(prepareCount + 1, promptText.mPrepareCount);
+    }
+
+    private static class TestLifecycleOwner implements LifecycleOwner
+    {
+        final LifecycleRegistry mRegistry = new LifecycleRegistry(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle()
+        {
+            return mRegistry;
+        }
+    }
+
+    @Test
+    public void testLifecycle_PauseIdleAnimations()
+    {
+        final TestLifecycleOwner owner = new TestLifecycleOwner();
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_RESUME);
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setLifecycleOwner(owner)
+                .show();
+        assertNotNull(prompt);
+        assertEquals(1, owner.mRegistry.getObserverCount());
+        UnitTestUtils.endCurrentAnimation(prompt);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt.getState());
+        assertNotNull(prompt.mAnimationFocalBreathing);
+
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_STOP);
+        assertNull(prompt.mAnimationFocalBreathing);
+        assertNull(prompt.mAnimationFocalRipple);
+
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_START);
+        assertNotNull(prompt.mAnimationFocalBreathing);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt.getState());
+    }
+
+    @Test
+    public void testLifecycle_PauseRevealAnimation()
+    {
+        final TestLifecycleOwner owner = new TestLifecycleOwner();
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_RESUME);
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .create();
+        assertNotNull(prompt);
+        prompt.bindToLifecycle(owner);
+        prompt.show();
+        assertNotNull(prompt.mAnimationCurrent);
+
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_STOP);
+        assertTrue(prompt.mAnimationCurrent.isPaused());
+
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_START);
+        assertFalse(prompt.mAnimationCurrent.isPaused());
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, prompt.getState());
+
+        prompt.unbindFromLifecycle();
+        assertEquals(0, owner.mRegistry.getObserverCount());
+    }
+
+    @Test
+    public void testLifecycle_Destroy()
+    {
+        final TestLifecycleOwner owner = new TestLifecycleOwner();
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_RESUME);
+        final MaterialTapTargetPrompt.Builder builder = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT);
+        final Button button = new Button(builder.getResourceFinder().getContext());
+        builder.getResourceFinder().getPromptParentView().addView(button);
+        final MaterialTapTargetPrompt prompt = builder
+                .setTarget(button)
+                .setPrimaryText("Primary text")
+                .setLifecycleOwner(owner)
+                .setPromptStateChangeListener((p, state) -> {
+                    if (state != MaterialTapTargetPrompt.STATE_REVEALING)
+                    {
+                        fail();
+                    }
+                })
+                .show();
+        assertNotNull(prompt);
+        assertNotNull(prompt.mView.getParent());
+
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY);
+        assertEquals(0, owner.mRegistry.getObserverCount());
+        assertNull(prompt.mView.getParent());
+        assertNull(prompt.mAnimationCurrent);
+        assertEquals(MaterialTapTargetPrompt.STATE_DISMISSED, prompt.getState());
+        assertNull(builder.getTargetView());
+        assertNull(builder.getLifecycleOwner());
+        assertNull(builder.getResourceFinder());
+        assertNull(builder.getPrimaryText());
+        assertNull(builder.create());
+        prompt.dismiss();
+        prompt.show();
+        prompt.release();
+        assertEquals(MaterialTapTargetPrompt.STATE_DISMISSED, prompt.getState());
+    }
+
+    @Test
+    public void testLifecycle_AlreadyDestroyed()
+    {
+        final TestLifecycleOwner owner = new TestLifecycleOwner();
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_CREATE);
+        owner.mRegistry.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY);
+        final MaterialTapTargetPrompt.Builder builder = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text");
+        final MaterialTapTargetPrompt prompt = builder.create();
+        assertNotNull(prompt);
+        prompt.bindToLifecycle(owner);
+        assertEquals(0, owner.mRegistry.getObserverCount());
+        assertNull(builder.create());
+    }
+
     @Test
     @Deprecated
     public void testAnimatorListener()
@@ -1013,7 +1553,15 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
     public static MaterialTapTargetPrompt.Builder createBuilder(final int screenWidth,
                                                           final int screenHeight)
     {
-        final Activity activity = spy(Robolectric.buildActivity(Activity.class).create().get());
+        return createBuilder(Robolectric.buildActivity(Activity.class).create().get(),
+                screenWidth, screenHeight);
+    }
+
+    private static MaterialTapTargetPrompt.Builder createBuilder(final Activity baseActivity,
+                                                                 final int screenWidth,
+                                                                 final int screenHeight)
+    {
+        final Activity activity = spy(baseActivity);
         final FrameLayout layout = spy(new FrameLayout(activity));
         final ResourceFinder resourceFinder = spy(new ActivityResourceFinder(activity));
         activity.setContentView(layout);
@@ -1037,4 +1585,29 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
             setViewBounds(((View) parent), width, height);
         }
     }
+
+    private static class CountingPromptText extends PromptText
+    {
+        int mPrepareCount;
+        boolean mPreparedOnlyFromSnapshot = true;
+
+        @Override
+        public void prepare(@NonNull final PromptOptions options, @NonNull final PromptGeometry.Input input)
+        {
+            mPrepareCount++;
+            super.prepare(options, input);
+        }
+
+        @Override
+        public boolean supportsGeometryInput()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean isPreparedOnlyFromSnapshot()
+        {
+            return mPreparedOnlyFromSnapshot;
+        }
+    }
 }
@@ -17,20 +17,28 @@
 package uk.co.samuelwall.materialtaptargetprompt;
 
 import android.os.Build;
+import android.os.Bundle;
+import android.os.Looper;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceItem;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceItemShowFor;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceState;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceStatePromptOptions;
 
 import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
@@ -698,4 +706,109 @@ public class MaterialTapTargetSequenceTest extends BaseTestStateProgress
         final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence();
         sequence.showFromIndex(-1);
     }
+
+    @Test
+    public void planTest()
+    {
+        final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence();
+        assertNull(sequence.getPlannedGeometry(0));
+        final MaterialTapTargetPrompt prompt = UnitTestUtils.createPromptOptions()
+                .setTarget(10, 10)
+                .setPrimaryText("Test")
+                .create();
+        assertNotNull(prompt);
+        sequence.addPrompt(prompt);
+        sequence.addPrompt(UnitTestUtils.createPromptOptions()
+                .setTarget(20, 20)
+                .setPrimaryText("Test"));
+        sequence.addPrompt(new SequenceItem(new SequenceState(null)));
+        sequence.plan();
+        final PromptGeometry first = sequence.getPlannedGeometry(0);
+        assertNotNull(first);
+        assertEquals(10, first.getFocalBounds().centerX(), 0);
+        final PromptGeometry second = sequence.getPlannedGeometry(1);
+        assertNotNull(second);
+        assertEquals(20, second.getFocalBounds().centerX(), 0);
+        assertNull(sequence.getPlannedGeometry(2));
+
+        // Unbinding stops listening for layout changes
+        sequence.unbindFromLifecycle();
+        assertNull(sequence.getPlannedGeometry(0));
+    }
+
+    @Test
+    public void lifecycleDestroyTest()
+    {
+        final LifecycleRegistry[] registry = new LifecycleRegistry[1];
+        final LifecycleOwner owner = () -> registry[0];
+        registry[0] = new LifecycleRegistry(owner);
+        registry[0].handleLifecycleEvent(Lifecycle.Event.ON_RESUME);
+        final PromptOptions options = UnitTestUtils.createPromptOptions()
+                .setTarget(20, 20)
+                .setPrimaryText("Test");
+        final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence()
+                .addPrompt(UnitTestUtils.createPromptOptions()
+                        .setTarget(10, 10)
+                        .setPrimaryText("Test"))
+                .addPrompt(options)
+                .setSequenceCompleteListener(() -> fail())
+                .bindToLifecycle(owner)
+                .show();
+        final MaterialTapTargetPrompt prompt = sequence.get(0).getState().getPrompt();
+        assertNotNull(prompt);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, prompt.getState());
+
+        registry[0].handleLifecycleEvent(Lifecycle.Event.ON_STOP);
+        assertNotNull(prompt.mAnimationCurrent);
+        assertTrue(prompt.mAnimationCurrent.isPaused());
+        registry[0].handleLifecycleEvent(Lifecycle.Event.ON_START);
+        assertFalse(prompt.mAnimationCurrent.isPaused());
+
+        registry[0].handleLifecycleEvent(Lifecycle.Event.ON_DESTROY);
+        assertEquals(0, registry[0].getObserverCount());
+        assertEquals(0, sequence.size());
+        assertNull(prompt.mView.getParent());
+        assertEquals(MaterialTapTargetPrompt.STATE_DISMISSED, prompt.getState());
+        assertNull(options.create());
+    }
+
+    @Test
+    public void saveRestoreStateTest()
+    {
+        final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence()
+                .addPrompt(UnitTestUtils.createPromptOptions()
+                        .setTarget(10, 10)
+                        .setPrimaryText("Test"))
+                .addPrompt(UnitTestUtils.createPromptOptions()
+                        .setTarget(20, 20)
+                        .setPrimaryText("Test"));
+        final Bundle notShownState = new Bundle();
+        sequence.saveState(notShownState);
+        sequence.show();
+        final MaterialTapTargetPrompt firstPrompt = sequence.get(0).getState().getPrompt();
+        assertNotNull(firstPrompt);
+        UnitTestUtils.endCurrentAnimation(firstPrompt);
+        firstPrompt.finish();
+        UnitTestUtils.endCurrentAnimation(firstPrompt);
+        final Bundle savedState = new Bundle();
+        sequence.saveState(savedState);
+
+        final MaterialTapTargetSequence restoredSequence = new MaterialTapTargetSequence()
+                .addPrompt(UnitTestUtils.createPromptOptions()
+                        .setTarget(10, 10)
+                        .setPrimaryText("Test"))
+                .addPrompt(UnitTestUtils.createPromptOptions()
+                        .setTarget(20, 20)
+                        .setPrimaryText("Test"));
+        assertFalse(restoredSequence.restoreState(notShownState, 0));
+        assertFalse(restoredSequence.restoreState(null, 0));
+        assertTrue(restoredSequence.restoreState(savedState, 0));
+        shadowOf(Looper.getMainLooper()).idle();
+        final MaterialTapTargetPrompt prompt = restoredSequence.get(1).getState().getPrompt();
+        assertNotNull(prompt);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt.getState());
+        assertNull(prompt.mAnimationCurrent);
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN,
+                restoredSequence.get(0).getState().getPrompt().getState());
+    }
 }
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.annotation.SuppressLint;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+/**
+ * Canvas that counts the pixels painted by the shape draw calls in a frame so that the overdraw
+ * of the prompt can be measured without rasterising it.
+ * <p>
+ * A pixel is painted by a shape when its centre is inside the shape, the canvas and every clip.
+ * Paths can't be inspected so clipping to a path uses the shape registered for it with
+ * {@link #registerPath(Path, Shape)}, the registered shape is expected to reflect the path
+ * matrix so {@link #concat(Matrix)} is ignored. Text and bitmaps are not counted.
+ */
+public class PixelCountingCanvas extends Canvas
+{
+    private final int mWidth;
+    private final int mHeight;
+    private final Map<Path, Shape> mPaths = new IdentityHashMap<>();
+    private final ArrayList<Clip> mClips = new ArrayList<>();
+    private final ArrayList<float[]> mSaveStack = new ArrayList<>();
+    private float mTranslateX;
+    private float mTranslateY;
+    private long mPixelsPainted;
+
+    /**
+     * Create a new canvas.
+     *
+     * @param width The canvas width in pixels.
+     * @param height The canvas height in pixels.
+     */
+    public PixelCountingCanvas(final int width, final int height)
+    {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    /**
+     * Count the pixels painted by drawing a prompt view once.
+     *
+     * @param view The prompt view to draw.
+     * @return The number of pixels painted including pixels painted more than once.
+     */
+    @SuppressLint("WrongCall")
+    public static long countPixelsPainted(@NonNull final MaterialTapTargetPrompt.PromptView view)
+    {
+        final PromptOptions options = view.mPromptOptions;
+        final PixelCountingCanvas canvas = new PixelCountingCanvas(view.getWidth(), view.getHeight());
+        // The prompt clips to the base path when there is one
+        final Path focalPath = options.getPromptFocal().getBasePath();
+        canvas.registerPath(focalPath != null ? focalPath : options.getPromptFocal().getPath(),
+                options.getPromptFocal()::contains);
+        final Path backgroundPath = options.getPromptBackground().getBasePath();
+        canvas.registerPath(backgroundPath != null
+                        ? backgroundPath : options.getPromptBackground().getPath(),
+                options.getPromptBackground()::contains);
+        view.onDraw(canvas);
+        return canvas.getPixelsPainted();
+    }
+
+    /**
+     * Set the shape used when the canvas is clipped to a path.
+     *
+     * @param path The path that will be clipped to, ignored if null.
+     * @param shape The area inside the path.
+     */
+    public void registerPath(final Path path, @NonNull final Shape shape)
+    {
+        if (path != null)
+        {
+            mPaths.put(path, shape);
+        }
+    }
+
+    /**
+     * Get the number of pixels painted since the canvas was created.
+     *
+     * @return The number of pixels painted including pixels painted more than once.
+     */
+    public long getPixelsPainted()
+    {
+        return mPixelsPainted;
+    }
+
+    @Override
+    public int save()
+    {
+        mSaveStack.add(new float[] { mClips.size(), mTranslateX, mTranslateY });
+        return mSaveStack.size();
+    }
+
+    @Override
+    public void restore()
+    {
+        restoreToCount(mSaveStack.size());
+    }
+
+    @Override
+    public void restoreToCount(final int saveCount)
+    {
+        while (mSaveStack.size() >= saveCount && !mSaveStack.isEmpty())
+        {
+            final float[] state = mSaveStack.remove(mSaveStack.size() - 1);
+            while (mClips.size() > state[0])
+            {
+                mClips.remove(mClips.size() - 1);
+            }
+            mTranslateX = state[1];
+            mTranslateY = state[2];
+        }
+    }
+
+    @Override
+    public int getSaveCount()
+    {
+        return mSaveStack.size() + 1;
+    }
+
+    @Override
+    public void translate(final float dx, final float dy)
+    {
+        mTranslateX += dx;
+        mTranslateY += dy;
+    }
+
+    @Override
+    public void concat(final Matrix matrix)
+    {
+        // Only used to transform path clips which the registered elements already reflect
+    }
+
+    @Override
+    public boolean clipRect(@NonNull final Rect rect, @NonNull final Region.Op op)
+    {
+        return clipRect(rect.left, rect.top, rect.right, rect.bottom, op);
+    }
+
+    @Override
+    public boolean clipRect(@NonNull final Rect rect)
+    {
+        return clipRect(rect.left, rect.top, rect.right, rect.bottom, Region.Op.INTERSECT);
+    }
+
+    @Override
+    public boolean clipRect(@NonNull final RectF rect, @NonNull final Region.Op op)
+    {
+        return clipRect(rect.left, rect.top, rect.right, rect.bottom, op);
+    }
+
+    @Override
+    public boolean clipRect(@NonNull final RectF rect)
+    {
+        return clipRect(rect.left, rect.top, rect.right, rect.bottom, Region.Op.INTERSECT);
+    }
+
+    @Override
+    public boolean clipRect(final float left, final float top, final float right,
+                            final float bottom)
+    {
+        return clipRect(left, top, right, bottom, Region.Op.INTERSECT);
+    }
+
+    @Override
+    public boolean clipRect(final float left, final float top, final float right,
+                            final float bottom, @NonNull final Region.Op op)
+    {
+        final RectF bounds = new RectF(left + mTranslateX, top + mTranslateY,
+                right + mTranslateX, bottom + mTranslateY);
+        mClips.add(new Clip(bounds::contains, op));
+        return true;
+    }
+
+    @Override
+    public boolean clipPath(@NonNull final Path path, @NonNull final Region.Op op)
+    {
+        final Shape shape = mPaths.get(path);
+        if (shape == null)
+        {
+            throw new IllegalStateException("Clipped to a path that has not been registered");
+        }
+        mClips.add(new Clip(shape, op));
+        return true;
+    }
+
+    @Override
+    public boolean clipPath(@NonNull final Path path)
+    {
+        return clipPath(path, Region.Op.INTERSECT);
+    }
+
+    @Override
+    public void drawCircle(final float cx, final float cy, final float radius,
+                           @NonNull final Paint paint)
+    {
+        final float x = cx + mTranslateX;
+        final float y = cy + mTranslateY;
+        final float radiusSquared = radius * radius;
+        count(x - radius, y - radius, x + radius, y + radius, (px, py) ->
+                (px - x) * (px - x) + (py - y) * (py - y) <= radiusSquared);
+    }
+
+    @Override
+    public void drawRect(@NonNull final Rect rect, @NonNull final Paint paint)
+    {
+        drawRect(rect.left, rect.top, rect.right, rect.bottom, paint);
+    }
+
+    @Override
+    public void drawRect(@NonNull final RectF rect, @NonNull final Paint paint)
+    {
+        drawRect(rect.left, rect.top, rect.right, rect.bottom, paint);
+    }
+
+    @Override
+    public void drawRect(final float left, final float top, final float right,
+                         final float bottom, @NonNull final Paint paint)
+    {
+        count(left + mTranslateX, top + mTranslateY, right + mTranslateX,
+                bottom + mTranslateY, (px, py) -> true);
+    }
+
+    @Override
+    public void drawRoundRect(@NonNull final RectF rect, final float rx, final float ry,
+                              @NonNull final Paint paint)
+    {
+        drawRoundRect(rect.left, rect.top, rect.right, rect.bottom, rx, ry, paint);
+    }
+
+    @Override
+    public void drawRoundRect(final float left, final float top, final float right,
+                              final float bottom, final float rx, final float ry,
+                              @NonNull final Paint paint)
+    {
+        final float l = left + mTranslateX;
+        final float t = top + mTranslateY;
+        final float r = right + mTranslateX;
+        final float b = bottom + mTranslateY;
+        count(l, t, r, b, (px, py) -> {
+            // Outside the corner ellipse when beyond both the horizontal and vertical radius
+            final float dx = px < l + rx ? l + rx - px : px > r - rx ? px - (r - rx) : 0;
+            final float dy = py < t + ry ? t + ry - py : py > b - ry ? py - (b - ry) : 0;
+            return rx <= 0 || ry <= 0 || (dx * dx) / (rx * rx) + (dy * dy) / (ry * ry) <= 1;
+        });
+    }
+
+    /**
+     * Count the pixels inside the shape, the canvas and the current clip.
+     */
+    private void count(final float left, final float top, final float right, final float bottom,
+                       @NonNull final Shape shape)
+    {
+        final int startX = Math.max(0, (int) Math.floor(left));
+        final int startY = Math.max(0, (int) Math.floor(top));
+        final int endX = Math.min(mWidth, (int) Math.ceil(right));
+        final int endY = Math.min(mHeight, (int) Math.ceil(bottom));
+        for (int y = startY; y < endY; y++)
+        {
+            final float centreY = y + 0.5f;
+            if (centreY < top || centreY >= bottom)
+            {
+                continue;
+            }
+            for (int x = startX; x < endX; x++)
+            {
+                final float centreX = x + 0.5f;
+                if (centreX >= left && centreX < right && shape.contains(centreX, centreY)
+                        && isInsideClip(centreX, centreY))
+                {
+                    mPixelsPainted++;
+                }
+            }
+        }
+    }
+
+    private boolean isInsideClip(final float x, final float y)
+    {
+        for (final Clip clip : mClips)
+        {
+            if (clip.mShape.contains(x, y) != (clip.mOp != Region.Op.DIFFERENCE))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Area that can be tested for containing a point.
+     */
+    public interface Shape
+    {
+        /**
+         * Is the point inside the area.
+         *
+         * @param x x coordinate.
+         * @param y y coordinate.
+         * @return True if the area contains the point.
+         */
+        boolean contains(float x, float y);
+    }
+
+    /**
+     * A shape that the canvas has been clipped to.
+     */
+    private static class Clip
+    {
+        final Shape mShape;
+        final Region.Op mOp;
+
+        Clip(@NonNull final Shape shape, @NonNull final Region.Op op)
+        {
+            mShape = shape;
+            mOp = op;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.app.Activity;
+import android.os.Build;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptCoordinatorUnitTest
+{
+    private final ResourceFinder mResourceFinder = new ActivityResourceFinder(
+            Robolectric.buildActivity(Activity.class).create().get());
+
+    private PromptOptions createOptions(final String text)
+    {
+        return new PromptOptions(mResourceFinder)
+                .setTarget(10, 10)
+                .setPrimaryText(text);
+    }
+
+    private void dismissCurrent(final PromptCoordinator coordinator)
+    {
+        final MaterialTapTargetPrompt prompt = coordinator.getCurrentPrompt();
+        assertNotNull(prompt);
+        prompt.dismiss();
+        UnitTestUtils.endCurrentAnimation(prompt);
+        assertEquals(MaterialTapTargetPrompt.STATE_DISMISSED, prompt.getState());
+    }
+
+    @Test
+    public void testGet()
+    {
+        final PromptCoordinator coordinator = PromptCoordinator.get(mResourceFinder);
+        assertSame(coordinator, PromptCoordinator.get(mResourceFinder));
+    }
+
+    @Test
+    public void testPriorityOrder()
+    {
+        final PromptCoordinator coordinator = PromptCoordinator.get(mResourceFinder);
+        assertTrue(coordinator.enqueue(createOptions("First")));
+        assertTrue(coordinator.enqueue(createOptions("Low"), -1, null));
+        assertTrue(coordinator.enqueue(createOptions("Default")));
+        assertTrue(coordinator.enqueue(createOptions("High"), 5, null));
+        assertEquals(3, coordinator.getQueuedCount());
+
+        final MaterialTapTargetPrompt first = coordinator.getCurrentPrompt();
+        assertNotNull(first);
+        assertEquals("First", first.mPromptOptions.getPrimaryText());
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, first.getState());
+
+        dismissCurrent(coordinator);
+        assertEquals("High", coordinator.getCurrentPrompt().mPromptOptions.getPrimaryText());
+        dismissCurrent(coordinator);
+        assertEquals("Default", coordinator.getCurrentPrompt().mPromptOptions.getPrimaryText());
+        dismissCurrent(coordinator);
+        assertEquals("Low", coordinator.getCurrentPrompt().mPromptOptions.getPrimaryText());
+        dismissCurrent(coordinator);
+        assertNull(coordinator.getCurrentPrompt());
+        assertEquals(0, coordinator.getQueuedCount());
+    }
+
+    @Test
+    public void testDuplicates()
+    {
+        final PromptCoordinator coordinator = PromptCoordinator.get(mResourceFinder);
+        final PromptOptions showing = createOptions("Showing");
+        assertTrue(coordinator.enqueue(showing));
+        assertFalse(coordinator.enqueue(showing));
+
+        assertTrue(coordinator.enqueue(createOptions("Queued"), 0, "key"));
+        assertTrue(coordinator.enqueue(createOptions("Other")));
+        assertFalse(coordinator.enqueue(createOptions("Queued again"), 1, "key"));
+        assertEquals(2, coordinator.getQueuedCount());
+
+        // The duplicate raised the priority of the queued request
+        dismissCurrent(coordinator);
+        assertEquals("Queued", coordinator.getCurrentPrompt().mPromptOptions.getPrimaryText());
+        assertEquals(1, coordinator.getQueuedCount());
+    }
+
+    @Test
+    public void testCancelAndSkip()
+    {
+        final PromptCoordinator coordinator = PromptCoordinator.get(mResourceFinder);
+        assertTrue(coordinator.enqueue(createOptions("Showing")));
+        assertTrue(coordinator.enqueue(createOptions("Cancelled"), 0, "key"));
+        assertTrue(coordinator.enqueue(new PromptOptions(mResourceFinder)));
+        assertTrue(coordinator.enqueue(createOptions("Last")));
+        assertTrue(coordinator.cancel("key"));
+        assertFalse(coordinator.cancel("key"));
+
+        // Options without a target don't create a prompt and are skipped
+        dismissCurrent(coordinator);
+        assertEquals("Last", coordinator.getCurrentPrompt().mPromptOptions.getPrimaryText());
+
+        coordinator.enqueue(createOptions("Cleared"));
+        coordinator.clear();
+        assertEquals(0, coordinator.getQueuedCount());
+    }
+
+    @Test
+    public void testReleaseDoesNotShowNext()
+    {
+        final PromptCoordinator coordinator = PromptCoordinator.get(mResourceFinder);
+        assertTrue(coordinator.enqueue(createOptions("Showing")));
+        assertTrue(coordinator.enqueue(createOptions("Next")));
+        final MaterialTapTargetPrompt prompt = coordinator.getCurrentPrompt();
+        assertNotNull(prompt);
+        prompt.release();
+        assertNull(coordinator.getCurrentPrompt());
+        assertEquals(1, coordinator.getQueuedCount());
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.app.Activity;
+import android.os.Build;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptViewPoolUnitTest
+{
+    private ResourceFinder createResourceFinder()
+    {
+        return new ActivityResourceFinder(Robolectric.buildActivity(Activity.class).create().get());
+    }
+
+    @Test
+    public void testObtainRelease()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt.PromptView view = PromptViewPool.obtain(resourceFinder);
+        assertNotNull(view);
+        assertNotSame(view, PromptViewPool.obtain(resourceFinder));
+        PromptViewPool.release(resourceFinder, view);
+        assertSame(view, PromptViewPool.obtain(resourceFinder));
+        assertNotSame(view, PromptViewPool.obtain(resourceFinder));
+    }
+
+    @Test
+    public void testMaxPoolSize()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        for (int i = 0; i < PromptViewPool.MAX_POOL_SIZE + 2; i++)
+        {
+            PromptViewPool.release(resourceFinder,
+                    new MaterialTapTargetPrompt.PromptView(resourceFinder.getContext()));
+        }
+        final PromptViewPool pool = PromptViewPool.getPool(resourceFinder, false);
+        assertNotNull(pool);
+        assertSame(PromptViewPool.MAX_POOL_SIZE, pool.mViews.size());
+    }
+
+    @Test
+    public void testOtherWindow()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt.PromptView view = PromptViewPool.obtain(resourceFinder);
+        PromptViewPool.release(resourceFinder, view);
+        assertNotSame(view, PromptViewPool.obtain(createResourceFinder()));
+    }
+
+    @Test
+    public void testRemove()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt.PromptView view = PromptViewPool.obtain(resourceFinder);
+        PromptViewPool.release(resourceFinder, view);
+        PromptViewPool.remove(resourceFinder, view);
+        assertNotSame(view, PromptViewPool.obtain(resourceFinder));
+    }
+
+    @Test
+    public void testWindowDetached()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt.PromptView view = PromptViewPool.obtain(resourceFinder);
+        PromptViewPool.release(resourceFinder, view);
+        final PromptViewPool pool = PromptViewPool.getPool(resourceFinder, false);
+        assertNotNull(pool);
+        pool.onViewDetachedFromWindow(resourceFinder.getPromptParentView().getRootView());
+        assertNull(PromptViewPool.getPool(resourceFinder, false));
+        assertNotSame(view, PromptViewPool.obtain(resourceFinder));
+    }
+
+    @Test
+    public void testShownViews()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt.PromptView view = PromptViewPool.obtain(resourceFinder);
+        assertFalse(PromptViewPool.isViewShown(resourceFinder));
+        resourceFinder.getPromptParentView().addView(view);
+        PromptViewPool.onViewShown(resourceFinder, view);
+        assertTrue(PromptViewPool.isViewShown(resourceFinder));
+        // Other prompts in the same window find the shown view
+        final FrameLayout child = new FrameLayout(resourceFinder.getContext());
+        resourceFinder.getPromptParentView().addView(child);
+        final ResourceFinder childResourceFinder = mock(ResourceFinder.class);
+        when(childResourceFinder.getPromptParentView()).thenReturn(child);
+        assertTrue(PromptViewPool.isViewShown(childResourceFinder));
+        assertFalse(PromptViewPool.isViewShown(createResourceFinder()));
+        PromptViewPool.onViewRemoved(resourceFinder, view);
+        assertFalse(PromptViewPool.isViewShown(resourceFinder));
+    }
+
+    @Test
+    public void testShownViewRemovedFromParent()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt.PromptView view = PromptViewPool.obtain(resourceFinder);
+        resourceFinder.getPromptParentView().addView(view);
+        PromptViewPool.onViewShown(resourceFinder, view);
+        resourceFinder.getPromptParentView().removeView(view);
+        assertFalse(PromptViewPool.isViewShown(resourceFinder));
+        final PromptViewPool pool = PromptViewPool.getPool(resourceFinder, false);
+        assertNotNull(pool);
+        assertTrue(pool.mShownViews.isEmpty());
+    }
+
+    @Test
+    public void testPromptTracksShownView()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt prompt = new MaterialTapTargetPrompt.Builder(resourceFinder, 0)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .show();
+        assertNotNull(prompt);
+        assertTrue(PromptViewPool.isViewShown(resourceFinder));
+        prompt.mState = MaterialTapTargetPrompt.STATE_DISMISSING;
+        prompt.cleanUpPrompt(MaterialTapTargetPrompt.STATE_DISMISSED);
+        assertFalse(PromptViewPool.isViewShown(resourceFinder));
+    }
+
+    @Test
+    public void testPromptReusesView()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt.Builder builder = new MaterialTapTargetPrompt.Builder(resourceFinder, 0)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text");
+        final MaterialTapTargetPrompt prompt = builder.create();
+        assertNotNull(prompt);
+        final MaterialTapTargetPrompt.PromptView view = prompt.mView;
+        prompt.show();
+        prompt.mState = MaterialTapTargetPrompt.STATE_DISMISSING;
+        prompt.cleanUpPrompt(MaterialTapTargetPrompt.STATE_DISMISSED);
+        assertNull(view.getParent());
+        // The pooled view doesn't keep the finished prompt alive
+        assertNull(view.mPrompt);
+        assertNull(view.mPromptOptions);
+        assertNull(view.mPromptTouchedListener);
+
+        final MaterialTapTargetPrompt nextPrompt = builder.create();
+        assertNotNull(nextPrompt);
+        assertSame(view, nextPrompt.mView);
+        assertSame(nextPrompt, view.mPrompt);
+        assertSame(nextPrompt.mPromptOptions, view.mPromptOptions);
+
+        // Showing the first prompt again must not take the view from the next prompt
+        prompt.show();
+        assertNotSame(view, prompt.mView);
+        assertSame(prompt, prompt.mView.mPrompt);
+        assertSame(nextPrompt, view.mPrompt);
+    }
+
+    @Test
+    public void testPressedFocalIndexAfterViewReused()
+    {
+        final ResourceFinder resourceFinder = createResourceFinder();
+        final MaterialTapTargetPrompt.Builder builder = new MaterialTapTargetPrompt.Builder(resourceFinder, 0)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text");
+        final MaterialTapTargetPrompt prompt = builder.create();
+        assertNotNull(prompt);
+        final MaterialTapTargetPrompt.PromptView view = prompt.mView;
+        prompt.show();
+        view.mPressedFocalIndex = 0;
+        view.mPromptTouchedListener.onFocalPressed();
+        prompt.cleanUpPrompt(MaterialTapTargetPrompt.STATE_FINISHED);
+        assertEquals(0, prompt.getPressedFocalIndex());
+
+        // Another prompt claiming the view doesn't change the pressed focal index
+        final MaterialTapTargetPrompt nextPrompt = builder.create();
+        assertNotNull(nextPrompt);
+        assertSame(view, nextPrompt.mView);
+        assertEquals(-1, view.mPressedFocalIndex);
+        assertEquals(0, prompt.getPressedFocalIndex());
+        assertEquals(-1, nextPrompt.getPressedFocalIndex());
+    }
+}
@@ -20,7 +20,9 @@ package uk.co.samuelwall.materialtaptargetprompt;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.SystemClock;
@@ -34,12 +36,19 @@ import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.CirclePromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.FullscreenPromptBackground;
 import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.RectanglePromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.focals.CirclePromptFocal;
 import uk.co.samuelwall.materialtaptargetprompt.extras.focals.RectanglePromptFocal;
 
 import static junit.framework.Assert.assertTrue;
 import static junit.framework.TestCase.assertFalse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -128,6 +137,81 @@ public class PromptViewUnitTest
         assertTrue(promptView.onTouchEvent(event));
     }
 
+    private MotionEvent createMotionEvent(final int action, final float x, final float y)
+    {
+        return MotionEvent.obtain(1, SystemClock.uptimeMillis(), action, x, y, 0);
+    }
+
+    @Test
+    public void testPromptView_TouchEvent_OncePerGesture()
+    {
+        final MaterialTapTargetPrompt.PromptView promptView = createPromptView();
+        promptView.mClipToBounds = false;
+        promptView.mPromptOptions.setCaptureTouchEventOnFocal(true);
+        promptView.mPromptOptions.setPromptBackground(spy(new RectanglePromptBackground()));
+        promptView.mPromptOptions.setPromptFocal(spy(new RectanglePromptFocal()));
+        when(promptView.mPromptOptions.getPromptBackground().contains(10, 10)).thenReturn(true);
+        when(promptView.mPromptOptions.getPromptFocal().contains(10, 10)).thenReturn(true);
+        final CountingPromptTouchListener listener = new CountingPromptTouchListener();
+        promptView.mPromptTouchedListener = listener;
+        final float slop = promptView.mTouchSlop;
+        // A captured press is notified once when released within the touch slop
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 10 + slop / 2, 10)));
+        assertEquals(0, listener.focalPressed);
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 10, 10 + slop / 2)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_UP, 10, 10)));
+        assertEquals(1, listener.focalPressed);
+        assertEquals(0, listener.nonFocalPressed);
+
+        // Dragging further than the touch slop is not a press
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 10 + slop * 2, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_UP, 10, 10)));
+        assertEquals(1, listener.focalPressed);
+
+        // A cancelled gesture is not a press
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_CANCEL, 10, 10)));
+        assertEquals(1, listener.focalPressed);
+
+        // A gesture that isn't captured is notified when it starts
+        assertFalse(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 500, 500)));
+        assertEquals(1, listener.nonFocalPressed);
+        assertFalse(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 10, 10)));
+        assertFalse(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_CANCEL, 10, 10)));
+        assertEquals(1, listener.focalPressed);
+        assertEquals(1, listener.nonFocalPressed);
+        promptView.mPromptOptions.setCaptureTouchEventOnFocal(false);
+        assertFalse(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        assertEquals(2, listener.focalPressed);
+    }
+
+    private static class CountingPromptTouchListener implements MaterialTapTargetPrompt.PromptView.PromptTouchedListener
+    {
+        int focalPressed;
+        int nonFocalPressed;
+
+        @Override
+        public void onFocalPressed()
+        {
+            focalPressed++;
+        }
+
+        @Override
+        public void onNonFocalPressed()
+        {
+            nonFocalPressed++;
+        }
+
+        @Override
+        public void onBackButtonPressed()
+        {
+            fail();
+        }
+    }
+
     @Test
     public void testPromptView_BackButton_NoAutoDismiss_Handled()
     {
@@ -373,4 +457,87 @@ public class PromptViewUnitTest
         promptView.mTargetRenderView = mock(View.class);
         promptView.onDraw(mock(Canvas.class));
     }
+
+    @Test
+    public void testPromptView_Draw_OverdrawReduction()
+    {
+        final int iconSize = 40;
+        final PromptFocal[] focals = { new CirclePromptFocal(), new RectanglePromptFocal() };
+        final PromptBackground[] backgrounds = { new CirclePromptBackground(),
+                new RectanglePromptBackground(), new FullscreenPromptBackground() };
+        for (final PromptFocal focal : focals)
+        {
+            for (final PromptBackground background : backgrounds)
+            {
+                final MaterialTapTargetPrompt prompt = MaterialTapTargetPromptUnitTest
+                        .createBuilder(1080, 1920)
+                        .setTarget(540, 400)
+                        .setPrimaryText("Primary text")
+                        .setSecondaryText("Secondary text")
+                        .setIdleAnimationEnabled(false)
+                        .setIconDrawable(new ColorDrawable(Color.RED)
+                        {
+                            @Override
+                            public int getIntrinsicWidth()
+                            {
+                                return iconSize;
+                            }
+
+                            @Override
+                            public int getIntrinsicHeight()
+                            {
+                                return iconSize;
+                            }
+                        })
+                        .setIconDrawableTintList(null)
+                        .setPromptFocal(focal)
+                        .setPromptBackground(background)
+                        .show();
+                assertNotNull(prompt);
+                UnitTestUtils.endCurrentAnimation(prompt);
+                final long pixels = PixelCountingCanvas.countPixelsPainted(prompt.mView);
+                prompt.mView.mPromptOptions.setOverdrawReductionEnabled(true);
+                final long reducedPixels = PixelCountingCanvas.countPixelsPainted(prompt.mView);
+                final String combination = focal.getClass().getSimpleName() + " + "
+                        + background.getClass().getSimpleName() + ": " + pixels
+                        + " pixels painted, " + reducedPixels + " with overdraw reduction";
+                assertTrue(combination, reducedPixels < pixels);
+                assertTrue(combination, pixels - reducedPixels <= iconSize * iconSize);
+                prompt.finish();
+                UnitTestUtils.endCurrentAnimation(prompt);
+            }
+        }
+    }
+
+    @Test
+    public void testPromptView_Draw_OverdrawReduction_TranslucentIcon()
+    {
+        final MaterialTapTargetPrompt prompt = MaterialTapTargetPromptUnitTest
+                .createBuilder(1080, 1920)
+                .setTarget(540, 400)
+                .setPrimaryText("Primary text")
+                .setIdleAnimationEnabled(false)
+                .setIconDrawable(new ColorDrawable(0x80FF0000)
+                {
+                    @Override
+                    public int getIntrinsicWidth()
+                    {
+                        return 40;
+                    }
+
+                    @Override
+                    public int getIntrinsicHeight()
+                    {
+                        return 40;
+                    }
+                })
+                .setIconDrawableTintList(null)
+                .show();
+        assertNotNull(prompt);
+        UnitTestUtils.endCurrentAnimation(prompt);
+        final long pixels = PixelCountingCanvas.countPixelsPainted(prompt.mView);
+        prompt.mView.mPromptOptions.setOverdrawReductionEnabled(true);
+        assertFalse(prompt.mView.calculateOpaqueTargetBounds());
+        assertEquals(pixels, PixelCountingCanvas.countPixelsPainted(prompt.mView));
+    }
 }
@@ -67,4 +67,13 @@ public class TestResourceFinder extends ActivityResourceFinder
     {
         return mParentView.findViewById(id);
     }
+
+    @Override
+    public void findViewsById(@NonNull @IdRes int[] ids, @NonNull View[] outViews)
+    {
+        for (int i = 0; i < ids.length; i++)
+        {
+            outViews[i] = findViewById(ids[i]);
+        }
+    }
 }
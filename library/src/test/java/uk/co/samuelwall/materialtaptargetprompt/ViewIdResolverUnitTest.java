@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.app.Activity;
+import android.os.Build;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class ViewIdResolverUnitTest
+{
+    private static final int ID_FIRST = 1001;
+    private static final int ID_SECOND = 1002;
+    private static final int ID_MISSING = 1003;
+
+    private final Activity mActivity = Robolectric.buildActivity(Activity.class).create().get();
+
+    private View createView(final int id)
+    {
+        final View view = new View(mActivity);
+        view.setId(id);
+        return view;
+    }
+
+    @Test
+    public void testFindViewsById()
+    {
+        final FrameLayout root = new FrameLayout(mActivity);
+        final FrameLayout group = new FrameLayout(mActivity);
+        final View nested = createView(ID_FIRST);
+        group.addView(nested);
+        root.addView(group);
+        root.addView(createView(ID_FIRST));
+        final View second = createView(ID_SECOND);
+        root.addView(second);
+
+        final ViewIdResolver resolver = new ViewIdResolver();
+        final View[] views = new View[3];
+        resolver.findViewsById(root, new int[] {ID_MISSING, ID_SECOND, ID_FIRST}, views);
+        assertNull(views[0]);
+        assertSame(second, views[1]);
+        assertSame(nested, views[2]);
+        assertSame(root.findViewById(ID_FIRST), resolver.findViewById(root, ID_FIRST));
+    }
+
+    @Test
+    public void testCachedViewRemoved()
+    {
+        final FrameLayout root = new FrameLayout(mActivity);
+        final View first = createView(ID_FIRST);
+        root.addView(first);
+        final View replacement = createView(ID_FIRST);
+        root.addView(replacement);
+
+        final ViewIdResolver resolver = new ViewIdResolver();
+        assertSame(first, resolver.findViewById(root, ID_FIRST));
+        root.removeView(first);
+        assertSame(replacement, resolver.findViewById(root, ID_FIRST));
+        replacement.setId(ID_SECOND);
+        assertNull(resolver.findViewById(root, ID_FIRST));
+        assertSame(replacement, resolver.findViewById(root, ID_SECOND));
+    }
+
+    @Test
+    public void testGlobalLayoutClearsCache()
+    {
+        final FrameLayout root = new FrameLayout(mActivity);
+        root.addView(createView(ID_FIRST));
+
+        final ViewIdResolver resolver = new ViewIdResolver();
+        assertNotNull(resolver.findViewById(root, ID_FIRST));
+        final View added = createView(ID_FIRST);
+        root.addView(added, 0);
+        resolver.onGlobalLayout();
+        assertSame(added, resolver.findViewById(root, ID_FIRST));
+    }
+
+    @Test
+    public void testRootChanged()
+    {
+        final FrameLayout root = new FrameLayout(mActivity);
+        root.addView(createView(ID_FIRST));
+        final FrameLayout otherRoot = new FrameLayout(mActivity);
+        final View other = createView(ID_FIRST);
+        otherRoot.addView(other);
+
+        final ViewIdResolver resolver = new ViewIdResolver();
+        assertNotNull(resolver.findViewById(root, ID_FIRST));
+        assertSame(other, resolver.findViewById(otherRoot, ID_FIRST));
+    }
+
+    @Test
+    public void testActivityResourceFinder()
+    {
+        final ActivityResourceFinder resourceFinder = new ActivityResourceFinder(mActivity);
+        final View[] views = new View[2];
+        resourceFinder.findViewsById(new int[] {android.R.id.content, ID_MISSING}, views);
+        assertSame(mActivity.findViewById(android.R.id.content), views[0]);
+        assertNull(views[1]);
+        assertSame(views[0], resourceFinder.findViewById(android.R.id.content));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Path;
+import android.os.Build;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PathHitTesterUnitTest
+{
+    @Test
+    public void testNoPath()
+    {
+        final PathHitTester hitTester = new PathHitTester();
+        assertFalse(hitTester.contains(0, 0));
+        hitTester.setPath(null);
+        assertFalse(hitTester.contains(0, 0));
+    }
+
+    @Test
+    public void testOutsideBounds()
+    {
+        final PathHitTester hitTester = new PathHitTester();
+        final Path path = new Path();
+        path.addRect(10, 10, 20, 20, Path.Direction.CW);
+        hitTester.setPath(path);
+        assertTrue(hitTester.mDirty);
+        assertFalse(hitTester.contains(5, 5));
+        assertFalse(hitTester.mDirty);
+        assertFalse(hitTester.contains(25, 15));
+    }
+
+    @Test
+    public void testPathChanged()
+    {
+        final PathHitTester hitTester = new PathHitTester();
+        final Path path = new Path();
+        path.addRect(10, 10, 20, 20, Path.Direction.CW);
+        hitTester.setPath(path);
+        assertFalse(hitTester.contains(5, 5));
+        path.reset();
+        hitTester.setPath(path);
+        assertTrue(hitTester.mDirty);
+        assertFalse(hitTester.contains(15, 15));
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.app.Activity;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import uk.co.samuelwall.materialtaptargetprompt.ActivityResourceFinder;
+import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptGeometryPlannerUnitTest
+{
+    private PromptOptions createOptions(final float x, final float y)
+    {
+        return UnitTestUtils.createPromptOptions()
+                .setTarget(x, y)
+                .setPrimaryText("Primary text");
+    }
+
+    @Test
+    public void testPlan()
+    {
+        final PromptOptions first = createOptions(100, 100);
+        final PromptOptions second = createOptions(200, 300);
+        final PromptGeometryPlanner planner = new PromptGeometryPlanner(
+                Arrays.asList(first, null, second));
+        assertFalse(planner.isPlanned());
+        planner.plan();
+        assertTrue(planner.isPlanned());
+        final PromptGeometry firstGeometry = planner.getGeometry(0);
+        assertNotNull(firstGeometry);
+        assertSame(firstGeometry, first.getMeasuredGeometry());
+        assertEquals(100, firstGeometry.getFocalBounds().centerX(), 0);
+        assertNull(planner.getGeometry(1));
+        final PromptGeometry secondGeometry = planner.getGeometry(2);
+        assertNotNull(secondGeometry);
+        assertSame(secondGeometry, second.getMeasuredGeometry());
+        assertEquals(300, secondGeometry.getFocalBounds().centerY(), 0);
+    }
+
+    @Test
+    public void testPlan_NoTarget()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions()
+                .setPrimaryText("Primary text");
+        final PromptGeometryPlanner planner = new PromptGeometryPlanner(Arrays.asList(options));
+        assertNull(planner.getGeometry(0));
+        assertTrue(planner.isPlanned());
+    }
+
+    @Test
+    public void testPlan_SharedElement()
+    {
+        final PromptText promptText = new PromptText();
+        final PromptOptions first = createOptions(100, 100).setPromptText(promptText);
+        final PromptOptions second = createOptions(200, 300).setPromptText(promptText);
+        final PromptGeometryPlanner planner = new PromptGeometryPlanner(Arrays.asList(first, second));
+        planner.plan();
+        assertNotNull(planner.getGeometry(0));
+        assertNull(first.getMeasuredGeometry());
+        assertNotNull(second.getMeasuredGeometry());
+    }
+
+    @Test
+    public void testPlan_ResolvesTargetsById()
+    {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final FrameLayout layout = new FrameLayout(activity);
+        final View firstTarget = new View(activity);
+        firstTarget.setId(1);
+        layout.addView(firstTarget);
+        final View secondTarget = new View(activity);
+        secondTarget.setId(2);
+        layout.addView(secondTarget);
+        activity.setContentView(layout);
+        final PromptOptions first = new PromptOptions(new ActivityResourceFinder(activity))
+                .setTarget(1)
+                .setPrimaryText("Primary text");
+        final PromptOptions second = new PromptOptions(new ActivityResourceFinder(activity))
+                .setTarget(2)
+                .setPrimaryText("Primary text");
+        final PromptOptions third = new PromptOptions(new ActivityResourceFinder(activity))
+                .setTarget(3)
+                .setPrimaryText("Primary text");
+        assertSame(firstTarget, first.getTargetView());
+        assertNull(third.getTargetView());
+        assertFalse(third.isTargetSet());
+
+        // The targets are found again when planned
+        layout.removeView(firstTarget);
+        final View replacedTarget = new View(activity);
+        replacedTarget.setId(1);
+        layout.addView(replacedTarget);
+        final View addedTarget = new View(activity);
+        addedTarget.setId(3);
+        layout.addView(addedTarget);
+        final PromptGeometryPlanner planner = new PromptGeometryPlanner(
+                Arrays.asList(first, second, third, createOptions(100, 100)));
+        planner.plan();
+        assertSame(replacedTarget, first.getTargetView());
+        assertSame(secondTarget, second.getTargetView());
+        assertSame(addedTarget, third.getTargetView());
+        assertTrue(third.isTargetSet());
+        assertNotNull(planner.getGeometry(2));
+        assertEquals(1, first.getTargetViewId());
+        first.setTarget(100, 100);
+        assertEquals(0, first.getTargetViewId());
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        final PromptOptions options = createOptions(100, 100);
+        final PromptGeometryPlanner planner = new PromptGeometryPlanner(Arrays.asList(options));
+        planner.plan();
+        final PromptGeometry geometry = planner.getGeometry(0);
+        planner.invalidate();
+        assertFalse(planner.isPlanned());
+        assertNotNull(planner.getGeometry(0));
+        assertTrue(planner.isPlanned());
+        assertFalse(geometry == planner.getGeometry(0));
+    }
+
+    @Test
+    public void testGlobalLayout()
+    {
+        final PromptOptions options = createOptions(100, 100);
+        final PromptGeometryPlanner planner = new PromptGeometryPlanner(Arrays.asList(options));
+        planner.plan();
+        planner.onGlobalLayout();
+        assertTrue(planner.isPlanned());
+        final ViewGroup parent = options.getResourceFinder().getPromptParentView();
+        parent.setRight(parent.getRight() + 100);
+        planner.onGlobalLayout();
+        assertFalse(planner.isPlanned());
+    }
+
+    @Test
+    public void testDetachedFromWindow()
+    {
+        final PromptOptions options = createOptions(100, 100);
+        final PromptGeometryPlanner planner = new PromptGeometryPlanner(Arrays.asList(options));
+        planner.plan();
+        final ViewGroup parent = options.getResourceFinder().getPromptParentView();
+        planner.onViewDetachedFromWindow(parent);
+        assertFalse(planner.isPlanned());
+        assertNotNull(planner.getGeometry(0));
+        planner.onViewAttachedToWindow(parent);
+        assertTrue(planner.isPlanned());
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Color;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
+import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.RectanglePromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.focals.CirclePromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.focals.MultiPromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.focals.OutlinePromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.focals.RectanglePromptFocal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptGeometryUnitTest
+{
+    private static final Rect CLIP_BOUNDS = new Rect(0, 0, 1080, 1920);
+
+    private PromptOptions createOptions()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parent = options.getResourceFinder().getPromptParentView();
+        when(parent.getRight()).thenReturn(1080);
+        when(parent.getBottom()).thenReturn(1920);
+        when(parent.getWidth()).thenReturn(1080);
+        when(parent.getHeight()).thenReturn(1920);
+        options.load(-1);
+        options.setTarget(200, 300);
+        options.setPrimaryText("Primary text");
+        options.setSecondaryText("Secondary text");
+        options.create();
+        return options;
+    }
+
+    private PromptGeometry.Input createInput(final PromptOptions options)
+    {
+        return PromptGeometry.Input.capture(options, new int[2], true, CLIP_BOUNDS);
+    }
+
+    @Test
+    public void testSolve_MatchesPrepare()
+    {
+        final PromptOptions options = createOptions();
+        options.getPromptFocal().prepare(options, 200, 300);
+        options.getPromptText().prepare(options, true, new Rect(CLIP_BOUNDS));
+        options.getPromptBackground().prepare(options, true, new Rect(CLIP_BOUNDS));
+        final Rect textBounds = new Rect();
+        options.getPromptText().getBounds().round(textBounds);
+        final Rect focalBounds = new Rect();
+        options.getPromptFocal().getBounds().round(focalBounds);
+
+        final PromptOptions solvedOptions = createOptions();
+        final PromptGeometry geometry = PromptGeometry.solve(solvedOptions, createInput(solvedOptions));
+        final Rect solvedTextBounds = new Rect();
+        geometry.getTextBounds().round(solvedTextBounds);
+        final Rect solvedFocalBounds = new Rect();
+        geometry.getFocalBounds().round(solvedFocalBounds);
+        assertEquals(textBounds, solvedTextBounds);
+        assertEquals(focalBounds, solvedFocalBounds);
+        assertFalse(geometry.getBackgroundBounds().isEmpty());
+        assertTrue(geometry.getBackgroundBounds().contains(geometry.getFocalBounds()));
+    }
+
+    @Test
+    public void testSolve_Immutable()
+    {
+        final PromptOptions options = createOptions();
+        final PromptGeometry geometry = PromptGeometry.solve(options, createInput(options));
+        final float left = geometry.getTextBounds().left;
+        geometry.getTextBounds().offset(100, 0);
+        options.getPromptText().getBounds().offset(100, 0);
+        assertEquals(left, geometry.getTextBounds().left, 0);
+    }
+
+    @Test
+    public void testCanSolveOffMainThread()
+    {
+        final PromptOptions options = createOptions();
+        assertTrue(PromptGeometry.canSolveOffMainThread(options));
+        options.setPromptText(new TestPromptText(100));
+        assertFalse(PromptGeometry.canSolveOffMainThread(options));
+        options.setPromptText(new PromptText());
+        options.setPromptFocal(new MultiPromptFocal(new CirclePromptFocal()));
+        assertFalse(PromptGeometry.canSolveOffMainThread(options));
+    }
+
+    @Test
+    public void testIsPreparedOnlyFromSnapshot()
+    {
+        final PromptOptions options = createOptions();
+        assertTrue(PromptGeometry.isPreparedOnlyFromSnapshot(options));
+        options.setPromptFocal(new OutlinePromptFocal());
+        assertFalse(PromptGeometry.canSolveOffMainThread(options));
+        assertTrue(PromptGeometry.isPreparedOnlyFromSnapshot(options));
+        options.setPromptFocal(new MultiPromptFocal(new CirclePromptFocal()));
+        assertFalse(PromptGeometry.isPreparedOnlyFromSnapshot(options));
+    }
+
+    @Test
+    public void testPrepare_FocalSubclassPreparedFromView()
+    {
+        final PromptOptions options = createOptions();
+        final int[] viewPrepareCount = new int[1];
+        final CirclePromptFocal promptFocal = new CirclePromptFocal()
+        {
+            @Override
+            public void prepare(@NonNull PromptOptions options, @NonNull View target,
+                                int[] promptViewPosition)
+            {
+                viewPrepareCount[0]++;
+                super.prepare(options, target, promptViewPosition);
+            }
+        };
+        options.setPromptFocal(promptFocal);
+        options.setTarget(new View(options.getResourceFinder().getContext()));
+        assertFalse(promptFocal.supportsGeometryInput());
+        assertFalse(PromptGeometry.canSolveOffMainThread(options));
+        PromptGeometry.prepare(options, createInput(options));
+        assertEquals(1, viewPrepareCount[0]);
+        assertTrue(new CirclePromptFocal().supportsGeometryInput());
+        assertTrue(new RectanglePromptFocal().supportsGeometryInput());
+    }
+
+    @Test
+    public void testInput_Equals()
+    {
+        final PromptOptions options = createOptions();
+        final PromptGeometry.Input input = createInput(options);
+        assertEquals(input, createInput(options));
+        assertEquals(input.hashCode(), createInput(options).hashCode());
+        assertEquals(new PointF(200, 300), input.getTargetPosition());
+        assertNotEquals(input, PromptGeometry.Input.capture(options, new int[2], false, CLIP_BOUNDS));
+        options.setTarget(201, 300);
+        assertNotEquals(input, createInput(options));
+    }
+
+    @Test
+    public void testInput_Matches()
+    {
+        final PromptOptions options = createOptions();
+        final PromptGeometry.Input input = createInput(options);
+        final int[] targetPosition = new int[2];
+        assertTrue(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        assertFalse(input.matches(options, new int[] {0, 10}, true, CLIP_BOUNDS, targetPosition));
+        assertFalse(input.matches(options, new int[2], false, CLIP_BOUNDS, targetPosition));
+        assertFalse(input.matches(options, new int[2], true, new Rect(0, 0, 1080, 1000),
+                targetPosition));
+        options.setTarget(201, 300);
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        options.setTarget(200, 300);
+        assertTrue(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        options.setPrimaryTextSize(100f);
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        assertFalse(new PromptGeometry.Input(new int[2], null, new PointF(200, 300), true,
+                CLIP_BOUNDS, new Rect(0, 0, 1080, 1920))
+                .matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+    }
+
+    @Test
+    public void testInput_Matches_TextBlocks()
+    {
+        final PromptOptions options = createOptions();
+        final PromptTextBlock textBlock = new PromptTextBlock("Tap to continue");
+        options.addTextBlock(textBlock);
+        final PromptGeometry.Input input = createInput(options);
+        final int[] targetPosition = new int[2];
+        assertTrue(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        assertEquals(input, createInput(options));
+        textBlock.setText("Swipe to continue");
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        textBlock.setText("Tap to continue");
+        assertTrue(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        textBlock.setTextColour(Color.RED);
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        final PromptGeometry.Input styledInput = createInput(options);
+        options.addTextBlock(new PromptTextBlock("Hint"));
+        assertFalse(styledInput.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        options.clearTextBlocks();
+        assertFalse(styledInput.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+    }
+
+    @Test
+    public void testInput_Matches_MaxTextLines()
+    {
+        final PromptOptions options = createOptions();
+        final PromptGeometry.Input input = createInput(options);
+        final int[] targetPosition = new int[2];
+        options.setMaxTextLines(3);
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        final PromptGeometry.Input limitedInput = createInput(options);
+        assertTrue(limitedInput.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        options.setTextEllipsize(null);
+        assertFalse(limitedInput.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+    }
+
+    @Test
+    public void testInput_Matches_OptionValues()
+    {
+        final PromptOptions options = createOptions();
+        final int[] targetPosition = new int[2];
+        PromptGeometry.Input input = createInput(options);
+        options.setFocalRadius(100f);
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        assertNotEquals(input, createInput(options));
+        input = createInput(options);
+        options.setSecondaryTextGravity(Gravity.END);
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        input = createInput(options);
+        options.setTextSeparation(40f);
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        input = createInput(options);
+        options.setPromptBackground(new RectanglePromptBackground());
+        assertFalse(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        input = createInput(options);
+        assertTrue(input.matches(options, new int[2], true, CLIP_BOUNDS, targetPosition));
+        assertEquals(input, input.withOptionValues(options));
+    }
+}
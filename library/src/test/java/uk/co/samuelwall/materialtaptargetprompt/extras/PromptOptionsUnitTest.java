@@ -17,14 +17,19 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
 import android.app.Activity;
+import android.app.ActivityManager;
+import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.provider.Settings;
 import androidx.annotation.DimenRes;
 import androidx.annotation.DrawableRes;
 import androidx.annotation.IdRes;
@@ -55,8 +60,13 @@ import static junit.framework.TestCase.assertNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricTestRunner.class)
@@ -153,6 +163,46 @@ public class PromptOptionsUnitTest
         options.load(styleId);
     }
 
+    @Test
+    public void testPromptOptions_LoadColours()
+    {
+        final @StyleRes int styleId = 436547;
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        options.setPrimaryText("Primary text");
+        final TypedArray typedArray = options.getResourceFinder().obtainStyledAttributes(styleId, new int[0]);
+        when(typedArray.getColor(eq(R.styleable.PromptView_mttp_backgroundColour), anyInt())).thenReturn(Color.BLUE);
+        when(typedArray.getColor(eq(R.styleable.PromptView_mttp_focalColour), anyInt())).thenReturn(Color.RED);
+        when(typedArray.getColor(eq(R.styleable.PromptView_mttp_primaryTextColour), anyInt())).thenReturn(Color.GREEN);
+        options.loadColours(styleId);
+        assertEquals(Color.BLUE, options.getBackgroundColour());
+        assertEquals(Color.RED, options.getFocalColour());
+        assertEquals(Color.GREEN, options.getPrimaryTextColour());
+        assertEquals("Primary text", options.getPrimaryText());
+        verify(typedArray).recycle();
+    }
+
+    @Test
+    public void testPromptOptions_ApplyColours()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        final Drawable drawable = mock(Drawable.class);
+        final PromptBackground promptBackground = mock(PromptBackground.class);
+        final PromptFocal promptFocal = mock(PromptFocal.class);
+        final PromptText promptText = mock(PromptText.class);
+        options.setIconDrawable(drawable)
+                .setIconDrawableColourFilter(Color.BLUE)
+                .setBackgroundColour(Color.RED)
+                .setFocalColour(Color.GREEN)
+                .setPromptBackground(promptBackground)
+                .setPromptFocal(promptFocal)
+                .setPromptText(promptText);
+        options.applyColours();
+        verify(promptBackground).setColour(Color.RED);
+        verify(promptFocal).setColour(Color.GREEN);
+        verify(promptText).updateColours(options);
+        verify(drawable).setColorFilter(Color.BLUE, PorterDuff.Mode.MULTIPLY);
+    }
+
     @Test
     public void testPromptOptions_TargetPosition()
     {
@@ -942,4 +992,84 @@ public class PromptOptionsUnitTest
         assertEquals(options, options.setContentDescription(resourceId));
         assertEquals(contentDescription, options.getContentDescription());
     }
+
+    @Test
+    public void testPromptOptions_Measure_NoTarget()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions()
+                .setPrimaryText("primary");
+        assertNull(options.measure());
+        assertNull(options.getMeasuredGeometry());
+    }
+
+    @Test
+    public void testPromptOptions_Measure()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions()
+                .setTarget(100, 100)
+                .setPrimaryText("primary")
+                .setSecondaryText("secondary");
+        final PromptGeometry geometry = options.measure();
+        assertNotNull(geometry);
+        assertSame(geometry, options.getMeasuredGeometry());
+        assertEquals(100, geometry.getFocalBounds().centerX(), 0);
+        assertEquals(100, geometry.getFocalBounds().centerY(), 0);
+        assertEquals(options.getPromptText().getBounds(), geometry.getTextBounds());
+        options.clearMeasuredGeometry();
+        assertNull(options.getMeasuredGeometry());
+    }
+
+    @Test
+    public void testPromptOptions_InstantMode()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        assertFalse(options.isInstantMode());
+        Settings.Global.putFloat(options.getResourceFinder().getContext().getContentResolver(),
+                Settings.Global.ANIMATOR_DURATION_SCALE, 0f);
+        assertTrue(options.isInstantMode());
+        assertEquals(options, options.setInstantMode(false));
+        assertFalse(options.isInstantMode());
+        assertEquals(options, options.setInstantMode(true));
+        assertTrue(options.isInstantMode());
+    }
+
+    @Test
+    public void testPromptOptions_RenderingProfile()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        assertEquals(PromptOptions.RENDERING_PROFILE_AUTO, options.getRenderingProfile());
+        assertEquals(PromptOptions.RENDERING_PROFILE_FULL, options.resolveRenderingProfile());
+        shadowOf((ActivityManager) options.getResourceFinder().getContext()
+                .getSystemService(Context.ACTIVITY_SERVICE)).setIsLowRamDevice(true);
+        assertEquals(PromptOptions.RENDERING_PROFILE_LOW_END, options.resolveRenderingProfile());
+        assertEquals(options, options.setRenderingProfile(PromptOptions.RENDERING_PROFILE_FULL));
+        assertEquals(PromptOptions.RENDERING_PROFILE_FULL, options.getRenderingProfile());
+        assertEquals(PromptOptions.RENDERING_PROFILE_FULL, options.resolveRenderingProfile());
+    }
+
+    @Test
+    public void testPromptOptions_Release()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setTarget(mock(View.class));
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text");
+        options.addTextBlock(new PromptTextBlock("Block"));
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        options.getPromptText().prepare(options, false, new Rect(0, 0, 1080, 1920));
+        assertEquals(3, options.getPromptText().mBlocks.size());
+        assertFalse(options.isReleased());
+
+        options.release();
+        assertTrue(options.isReleased());
+        assertNull(options.getResourceFinder());
+        assertNull(options.getTargetView());
+        assertNull(options.getPrimaryText());
+        assertNull(options.getSecondaryText());
+        assertTrue(options.getTextBlocks().isEmpty());
+        assertTrue(options.getPromptText().mBlocks.isEmpty());
+        verify(options.getPromptFocal()).release();
+        assertNull(options.create());
+    }
 }
@@ -17,9 +17,14 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.os.Build;
+import android.text.DynamicLayout;
+import android.text.Layout;
+import android.text.SpannableStringBuilder;
+import android.text.TextPaint;
 import android.view.Gravity;
 import android.view.ViewGroup;
 
@@ -32,7 +37,13 @@ import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
 
 import static junit.framework.TestCase.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricTestRunner.class)
@@ -139,8 +150,8 @@ public class PromptTextUnitTest
         assertEquals(1436, bounds.top, 0);
         assertEquals(1060, bounds.right, 0);
         assertEquals(1856, bounds.bottom, 0);
-        assertEquals(100, promptText.mPrimaryTextLeftChange, 0);
-        assertEquals(100, promptText.mSecondaryTextLeftChange, 0);
+        assertEquals(100, promptText.mBlocks.get(0).mLeftChange, 0);
+        assertEquals(100, promptText.mBlocks.get(1).mLeftChange, 0);
         assertFalse(promptText.contains(525, 525));
         promptText.update(options, 0.5f, 0.5f);
         bounds = promptText.getBounds();
@@ -148,8 +159,8 @@ public class PromptTextUnitTest
         assertEquals(1436, bounds.top, 0);
         assertEquals(1060, bounds.right, 0);
         assertEquals(1856, bounds.bottom, 0);
-        assertEquals(100, promptText.mPrimaryTextLeftChange, 0);
-        assertEquals(100, promptText.mSecondaryTextLeftChange, 0);
+        assertEquals(100, promptText.mBlocks.get(0).mLeftChange, 0);
+        assertEquals(100, promptText.mBlocks.get(1).mLeftChange, 0);
         assertFalse(promptText.contains(525, 525));
         promptText.update(options, 1f, 1f);
         bounds = promptText.getBounds();
@@ -157,8 +168,8 @@ public class PromptTextUnitTest
         assertEquals(1436, bounds.top, 0);
         assertEquals(1060, bounds.right, 0);
         assertEquals(1856, bounds.bottom, 0);
-        assertEquals(100, promptText.mPrimaryTextLeftChange, 0);
-        assertEquals(100, promptText.mSecondaryTextLeftChange, 0);
+        assertEquals(100, promptText.mBlocks.get(0).mLeftChange, 0);
+        assertEquals(100, promptText.mBlocks.get(1).mLeftChange, 0);
         assertFalse(promptText.contains(525, 525));
         promptText.draw(mock(Canvas.class));
     }
@@ -747,4 +758,372 @@ public class PromptTextUnitTest
         assertFalse(promptText.contains(10, 10));
         promptText.draw(mock(Canvas.class));
     }
+
+    @Test
+    public void testReplaceChangedText()
+    {
+        final SpannableStringBuilder buffer = new SpannableStringBuilder("Step 9 of 10");
+        PromptText.replaceChangedText(buffer, "Step 10 of 10");
+        assertEquals("Step 10 of 10", buffer.toString());
+        PromptText.replaceChangedText(buffer, "Step 10 of 10");
+        assertEquals("Step 10 of 10", buffer.toString());
+        PromptText.replaceChangedText(buffer, "Done");
+        assertEquals("Done", buffer.toString());
+        PromptText.replaceChangedText(buffer, "");
+        assertEquals("", buffer.toString());
+        PromptText.replaceChangedText(buffer, new SpannableStringBuilder("Spanned"));
+        assertEquals("Spanned", buffer.toString());
+    }
+
+    @Test
+    public void testUpdateText_NotPrepared()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setPrimaryText("Primary Text");
+        assertFalse(new PromptText().updateText(options));
+    }
+
+    @Test
+    public void testUpdateText()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(88, 88, 132, 132);
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parentView = options.getResourceFinder().getPromptParentView();
+        when(parentView.getWidth()).thenReturn(1080);
+        when(parentView.getRight()).thenReturn(1080);
+        when(parentView.getLeft()).thenReturn(0);
+        options.load(-1);
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Step 1 of 10\nKeep going");
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(focalBounds);
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, clipBounds);
+
+        options.setSecondaryText("Step 2 of 10\nKeep going");
+        promptText.updateText(options);
+        assertTrue(promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout instanceof DynamicLayout);
+        final DynamicLayout layout = (DynamicLayout) promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout;
+        assertEquals("Step 2 of 10\nKeep going", layout.getText().toString());
+
+        // Unchanged text keeps the same bounds
+        assertFalse(promptText.updateText(options));
+
+        // The multi-line text dynamic layout is edited instead of being created again
+        options.setSecondaryText("Step 3 of 10\nKeep going");
+        promptText.updateText(options);
+        assertSame(layout, promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout);
+        assertEquals("Step 3 of 10\nKeep going", layout.getText().toString());
+
+        // Removing the text lays the text out from scratch
+        options.setSecondaryText(null);
+        promptText.updateText(options);
+        assertNull(promptText.getBlock(PromptText.BLOCK_SECONDARY));
+        assertEquals(1, promptText.mBlocks.size());
+        promptText.draw(mock(Canvas.class));
+    }
+
+    @Test
+    public void testPrepare_ReusesBlocks()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text\nSecond line");
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        final PromptText promptText = new PromptText();
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        promptText.prepare(options, false, clipBounds);
+        final PromptText.Block primaryBlock = promptText.getBlock(PromptText.BLOCK_PRIMARY);
+        final TextPaint primaryPaint = primaryBlock.mPaint;
+        final Layout secondaryLayout = promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout;
+        assertNotNull(secondaryLayout);
+
+        // Preparing again with the same text and style keeps the blocks, paints and layouts
+        promptText.prepare(options, false, clipBounds);
+        assertSame(primaryBlock, promptText.getBlock(PromptText.BLOCK_PRIMARY));
+        assertSame(primaryPaint, primaryBlock.mPaint);
+        assertSame(secondaryLayout, promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout);
+
+        // Changing the text size lays the text out again with the same paint
+        options.setSecondaryTextSize(30f);
+        promptText.prepare(options, false, clipBounds);
+        final PromptText.Block secondaryBlock = promptText.getBlock(PromptText.BLOCK_SECONDARY);
+        assertNotSame(secondaryLayout, secondaryBlock.mLayout);
+        assertSame(secondaryBlock.mPaint, secondaryBlock.mLayout.getPaint());
+        assertEquals(30f, secondaryBlock.mPaint.getTextSize(), 0);
+
+        // A block that is removed and added again is reused and laid out again
+        options.setSecondaryText(null);
+        promptText.prepare(options, false, clipBounds);
+        assertNull(promptText.getBlock(PromptText.BLOCK_SECONDARY));
+        assertNull(secondaryBlock.mLayout);
+        options.setSecondaryText("Secondary Text\nSecond line");
+        promptText.prepare(options, false, clipBounds);
+        assertSame(secondaryBlock, promptText.getBlock(PromptText.BLOCK_SECONDARY));
+        assertNotNull(secondaryBlock.mLayout);
+        assertEquals("Secondary Text\nSecond line", secondaryBlock.mLayout.getText().toString());
+
+        // Limiting the lines lays the text out again
+        final Layout unlimitedLayout = secondaryBlock.mLayout;
+        options.setMaxTextLines(1);
+        promptText.prepare(options, false, clipBounds);
+        assertNotSame(unlimitedLayout, secondaryBlock.mLayout);
+        assertEquals(1, secondaryBlock.mLayout.getLineCount());
+    }
+
+    @Test
+    public void testUpdateColours()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text\nSecond line");
+        options.setPrimaryTextColour(Color.WHITE);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, new Rect(0, 0, 1080, 1920));
+        final PromptText.Block primaryBlock = promptText.getBlock(PromptText.BLOCK_PRIMARY);
+        final Layout secondaryLayout = promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout;
+
+        options.setPrimaryTextColour(Color.RED);
+        options.setSecondaryTextColour(Color.BLUE);
+        promptText.updateColours(options);
+        assertSame(primaryBlock, promptText.getBlock(PromptText.BLOCK_PRIMARY));
+        assertSame(secondaryLayout, promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout);
+        assertEquals(Color.RED, primaryBlock.mPaint.getColor());
+        assertEquals(Color.BLUE, secondaryLayout.getPaint().getColor());
+    }
+
+    @Test
+    public void testPromptText_TextBlocks()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(88, 88, 132, 132);
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parentView = options.getResourceFinder().getPromptParentView();
+        when(parentView.getWidth()).thenReturn(1080);
+        when(parentView.getRight()).thenReturn(1080);
+        when(parentView.getLeft()).thenReturn(0);
+        options.load(-1);
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text");
+        options.addTextBlock(new PromptTextBlock(null));
+        options.addTextBlock(new PromptTextBlock("Tap to continue"));
+        options.setMaxTextWidth(400f);
+        options.setTextSeparation(20f);
+        options.setFocalPadding(20f);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(focalBounds);
+        final PromptText promptText = new TestPromptText(300);
+        promptText.prepare(options, false, clipBounds);
+
+        // The block without text isn't displayed
+        assertEquals(3, promptText.mBlocks.size());
+        assertNull(promptText.getBlock(PromptText.BLOCK_EXTRA));
+        assertEquals(0, promptText.mBlocks.get(0).mOffsetTop, 0);
+        assertEquals(220, promptText.mBlocks.get(1).mOffsetTop, 0);
+        assertEquals(440, promptText.getBlock(PromptText.BLOCK_EXTRA + 1).mOffsetTop, 0);
+        final RectF bounds = promptText.getBounds();
+        assertEquals(152, bounds.top, 0);
+        assertEquals(792, bounds.bottom, 0);
+        assertEquals(300, bounds.width(), 0);
+        assertTrue(promptText.contains(bounds.left + 10, 780));
+        promptText.draw(mock(Canvas.class));
+    }
+
+    @Test
+    public void testPromptText_TextBlockStyle()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text");
+        options.setSecondaryTextSize(20f);
+        options.setSecondaryTextColour(Color.BLUE);
+        options.addTextBlock(new PromptTextBlock("Hint"));
+        options.addTextBlock(new PromptTextBlock("Styled hint")
+                .setTextSize(30f)
+                .setTextColour(Color.RED));
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, new Rect(0, 0, 1080, 1920));
+
+        // Styles that aren't set use the secondary text style
+        final PromptText.Block hint = promptText.getBlock(PromptText.BLOCK_EXTRA);
+        assertEquals(20f, hint.mPaint.getTextSize(), 0);
+        assertEquals(Color.BLUE, hint.mPaint.getColor());
+        final PromptText.Block styledHint = promptText.getBlock(PromptText.BLOCK_EXTRA + 1);
+        assertEquals(30f, styledHint.mPaint.getTextSize(), 0);
+        assertEquals(Color.RED, styledHint.mPaint.getColor());
+
+        options.setSecondaryTextColour(Color.GREEN);
+        promptText.updateColours(options);
+        assertEquals(Color.GREEN, hint.mPaint.getColor());
+        assertEquals(Color.RED, styledHint.mPaint.getColor());
+        assertEquals("Primary Text. Secondary Text. Hint. Styled hint",
+                options.getContentDescription());
+    }
+
+    @Test
+    public void testUpdateText_TextBlock()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        final PromptTextBlock textBlock = new PromptTextBlock("Step 1 of 10\nKeep going");
+        options.setPrimaryText("Primary Text");
+        options.addTextBlock(textBlock);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, new Rect(0, 0, 1080, 1920));
+
+        // Changing the block text edits a dynamic layout
+        textBlock.setText("Step 2 of 10\nKeep going");
+        promptText.updateText(options);
+        final PromptText.Block block = promptText.getBlock(PromptText.BLOCK_EXTRA);
+        assertTrue(block.mLayout instanceof DynamicLayout);
+        assertEquals("Step 2 of 10\nKeep going", block.mLayout.getText().toString());
+
+        // Changing the block style prepares the blocks again
+        textBlock.setTextSize(40f);
+        promptText.updateText(options);
+        final PromptText.Block styledBlock = promptText.getBlock(PromptText.BLOCK_EXTRA);
+        assertFalse(styledBlock == block);
+        assertEquals(40f, styledBlock.mPaint.getTextSize(), 0);
+        assertFalse(styledBlock.mLayout instanceof DynamicLayout);
+
+        // Removing the block text removes the block
+        textBlock.setText(null);
+        promptText.updateText(options);
+        assertEquals(1, promptText.mBlocks.size());
+        promptText.draw(mock(Canvas.class));
+    }
+
+    @Test
+    public void testPromptText_MaxTextLines()
+    {
+        final StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 2000; i++)
+        {
+            longText.append("Text ");
+        }
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text");
+        options.setMaxTextLines(1);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, new Rect(0, 0, 1080, 1920));
+        assertFalse(promptText.isTextTruncated());
+
+        // The long text is cut off before it is laid out
+        options.setSecondaryText(longText);
+        promptText.updateText(options);
+        assertTrue(promptText.isTextTruncated());
+        final Layout layout = promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout;
+        assertFalse(layout instanceof DynamicLayout);
+        assertTrue(layout.getText().length() < longText.length());
+
+        options.setSecondaryText("Secondary Text");
+        promptText.updateText(options);
+        assertFalse(promptText.isTextTruncated());
+    }
+
+    @Test
+    public void testPromptText_PlainText()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText(new SpannableStringBuilder("Secondary Text"));
+        options.addTextBlock(new PromptTextBlock("Tap to continue\nor swipe"));
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, new Rect(0, 0, 1080, 1920));
+
+        // Single line plain text is drawn without a layout
+        final PromptText.Block block = promptText.getBlock(PromptText.BLOCK_PRIMARY);
+        assertNull(block.mLayout);
+        assertEquals("Primary Text", block.mPlainText);
+        assertEquals(block.mPaint.measureText("Primary Text"), block.getTextWidth(), 0);
+        assertEquals(0, block.mPlainTextLeft);
+        // Spanned and multi-line text use a layout
+        assertNotNull(promptText.getBlock(PromptText.BLOCK_SECONDARY).mLayout);
+        assertNull(promptText.getBlock(PromptText.BLOCK_SECONDARY).mPlainText);
+        assertNotNull(promptText.getBlock(PromptText.BLOCK_EXTRA).mLayout);
+
+        // Changing the alpha doesn't measure the text again
+        final int alpha = block.mPaint.getAlpha();
+        promptText.update(options, 1, 0.5f);
+        assertEquals(0.5f, block.mPlainTextAlphaModifier, 0);
+        final Canvas canvas = mock(Canvas.class);
+        promptText.draw(canvas);
+        verify(canvas).drawText((CharSequence) "Primary Text", 0, 12, 0,
+                block.getPlainTextBaseline(), block.mPaint);
+        assertEquals(alpha, block.mPaint.getAlpha());
+
+        // Plain text that doesn't fit on one line uses a layout
+        options.setMaxTextWidth(80);
+        options.setPrimaryText("Primary text that is far too wide to fit on a single line when"
+                + " the maximum text width is only eighty pixels");
+        promptText.prepare(options, false, new Rect(0, 0, 1080, 1920));
+        assertNotNull(promptText.getBlock(PromptText.BLOCK_PRIMARY).mLayout);
+        assertNull(promptText.getBlock(PromptText.BLOCK_PRIMARY).mPlainText);
+    }
+
+    @Test
+    public void testPromptText_PlainText_Alignment()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setPrimaryText("Primary Text");
+        options.setPrimaryTextGravity(Gravity.END);
+        options.setSecondaryText("Secondary Text");
+        options.setSecondaryTextGravity(Gravity.CENTER_HORIZONTAL);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, new Rect(0, 0, 1080, 1920));
+
+        // Drawn where a layout with the same width and alignment would draw the line
+        final int width = promptText.mLayoutMaxWidth;
+        final PromptText.Block primary = promptText.getBlock(PromptText.BLOCK_PRIMARY);
+        assertEquals(width - (int) primary.mPlainTextWidth, primary.mPlainTextLeft);
+        final PromptText.Block secondary = promptText.getBlock(PromptText.BLOCK_SECONDARY);
+        assertEquals((width - ((int) secondary.mPlainTextWidth & ~1)) >> 1,
+                secondary.mPlainTextLeft);
+    }
+
+    @Test
+    public void testPromptText_PlainText_MatchesLayout()
+    {
+        assertPlainTextMatchesLayout();
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.M)
+    public void testPromptText_PlainText_MatchesLayout_FontPadding()
+    {
+        assertPlainTextMatchesLayout();
+    }
+
+    private void assertPlainTextMatchesLayout()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        options.setPrimaryText("Primary Text");
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(new RectF(88, 88, 132, 132));
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, new Rect(0, 0, 1080, 1920));
+
+        // The plain text is the same size and drawn in the same place as the layout would be
+        final PromptText.Block block = promptText.getBlock(PromptText.BLOCK_PRIMARY);
+        assertNotNull(block.mPlainText);
+        final Layout layout = PromptUtils.createStaticTextLayout("Primary Text", block.mPaint,
+                promptText.mLayoutMaxWidth, block.mAlignment, 1);
+        assertEquals(layout.getHeight(), block.getHeight(), 0);
+        assertEquals(layout.getLineBaseline(0), block.getPlainTextBaseline());
+        assertEquals((int) layout.getLineLeft(0), block.mPlainTextLeft);
+    }
 }
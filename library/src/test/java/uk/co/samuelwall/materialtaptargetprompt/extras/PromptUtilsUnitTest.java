@@ -28,8 +28,10 @@ import android.graphics.Typeface;
 import android.os.Build;
 import androidx.annotation.RequiresApi;
 import android.text.Layout;
+import android.text.SpannableStringBuilder;
 import android.text.StaticLayout;
 import android.text.TextPaint;
+import android.text.TextUtils;
 import android.view.Gravity;
 import android.view.View;
 
@@ -42,6 +44,7 @@ import org.robolectric.util.ReflectionHelpers;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -558,6 +561,27 @@ public class PromptUtilsUnitTest
         assertTrue(PromptUtils.isRtlText(layout, null));
     }
 
+    @Test
+    public void testIsRtlAlignment()
+    {
+        assertTrue(PromptUtils.isRtlText(Layout.Alignment.ALIGN_OPPOSITE, false, null));
+        assertFalse(PromptUtils.isRtlText(Layout.Alignment.ALIGN_OPPOSITE, true, null));
+        assertFalse(PromptUtils.isRtlText(Layout.Alignment.ALIGN_CENTER, false, null));
+        assertTrue(PromptUtils.isRtlText(Layout.Alignment.ALIGN_NORMAL, true, null));
+    }
+
+    @Test
+    public void testIsPlainText()
+    {
+        assertTrue(PromptUtils.isPlainText("Send your first email"));
+        assertTrue(PromptUtils.isPlainText("\u041f\u0440\u0438\u0432\u0435\u0442, \u00fcn\u00efc\u00f6d\u00e9 123!"));
+        assertFalse(PromptUtils.isPlainText(new SpannableStringBuilder("Spanned")));
+        assertFalse(PromptUtils.isPlainText("Two\nlines"));
+        assertFalse(PromptUtils.isPlainText("Tab\tstop"));
+        assertFalse(PromptUtils.isPlainText("\u05e9\u05dc\u05d5\u05dd"));
+        assertFalse(PromptUtils.isPlainText("Emoji \uD83D\uDE00"));
+    }
+
     @Test
     public void testIsRtlFirstCharacterNotRtlPreJellyBeanMR1()
     {
@@ -605,6 +629,14 @@ public class PromptUtilsUnitTest
         assertFalse(PromptUtils.isPointInCircle(1, 1, new PointF(10, 10), 10));
     }
 
+    @Test
+    public void testIsPointInCircleSquared()
+    {
+        assertTrue(PromptUtils.isPointInCircleSquared(5, 5, new PointF(10, 10), 100));
+        assertFalse(PromptUtils.isPointInCircleSquared(1, 1, new PointF(10, 10), 100));
+        assertFalse(PromptUtils.isPointInCircleSquared(20, 10, new PointF(10, 10), 100));
+    }
+
     @Test
     public void testCalculateMaxTextWidth()
     {
@@ -653,6 +685,51 @@ public class PromptUtilsUnitTest
         assertEquals(300, layout.getWidth());
     }
 
+    @Test
+    public void testCreateStaticTextLayout_MaxLines()
+    {
+        final TextPaint paint = new TextPaint();
+        final StaticLayout layout = PromptUtils.createStaticTextLayout("test", paint, 300,
+                Layout.Alignment.ALIGN_NORMAL, 1, 2, TextUtils.TruncateAt.END);
+        assertEquals("test", layout.getText().toString());
+        assertFalse(PromptUtils.isTextTruncated(layout, "test"));
+    }
+
+    @Test
+    public void testLimitTextLength()
+    {
+        final TextPaint paint = new TextPaint();
+        paint.setTextSize(10);
+        final String text = "Short text";
+        assertSame(text, PromptUtils.limitTextLength(text, paint, 100, 2));
+        // 2 lines of 100px can't fit more than 100 characters of at least 2px each, doubled
+        final StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 500; i++)
+        {
+            longText.append('a');
+        }
+        assertEquals(200, PromptUtils.limitTextLength(longText, paint, 100, 2).length());
+        longText.setCharAt(199, '\uD83D');
+        longText.setCharAt(200, '\uDE00');
+        assertEquals(199, PromptUtils.limitTextLength(longText, paint, 100, 2).length());
+    }
+
+    @Test
+    public void testIsTextTruncated()
+    {
+        final Layout layout = mock(Layout.class);
+        when(layout.getText()).thenReturn("Text");
+        when(layout.getLineCount()).thenReturn(1);
+        when(layout.getLineEnd(0)).thenReturn(4);
+        assertFalse(PromptUtils.isTextTruncated(layout, "Text"));
+        assertTrue(PromptUtils.isTextTruncated(layout, "Text that was cut off"));
+        when(layout.getEllipsisCount(0)).thenReturn(2);
+        assertTrue(PromptUtils.isTextTruncated(layout, "Text"));
+        when(layout.getEllipsisCount(0)).thenReturn(0);
+        when(layout.getLineEnd(0)).thenReturn(2);
+        assertTrue(PromptUtils.isTextTruncated(layout, "Text"));
+    }
+
     /*
     // StaticLayout.Builder.obtain is not mocked so this test will fail
     @Test
@@ -38,28 +38,28 @@ public class TestPromptText extends PromptText
         mRtl = rtl;
     }
 
+    @Override
+    boolean canDrawPlainText(@NonNull final CharSequence text)
+    {
+        // The layouts are mocked to set the text size
+        return false;
+    }
+
     @Override
     void createTextLayout(@NonNull final PromptOptions options, final float maxWidth, final float alphaModifier)
     {
         super.createTextLayout(options, maxWidth, alphaModifier);
-        if (mPrimaryTextLayout != null)
-        {
-            mPrimaryTextLayout = spy(mPrimaryTextLayout);
-            when(mPrimaryTextLayout.getLineWidth(0)).thenReturn(mMaxTextWidth);
-            when(mPrimaryTextLayout.getHeight()).thenReturn(200);
-            if (mRtl)
-            {
-                when(mPrimaryTextLayout.getAlignment()).thenReturn(Layout.Alignment.ALIGN_OPPOSITE);
-            }
-        }
-        if (mSecondaryTextLayout != null)
+        for (final Block block : mBlocks)
         {
-            mSecondaryTextLayout = spy(mSecondaryTextLayout);
-            when(mSecondaryTextLayout.getLineWidth(0)).thenReturn(mMaxTextWidth);
-            when(mSecondaryTextLayout.getHeight()).thenReturn(200);
-            if (mRtl)
+            if (block.mLayout != null)
             {
-                when(mSecondaryTextLayout.getAlignment()).thenReturn(Layout.Alignment.ALIGN_OPPOSITE);
+                block.mLayout = spy(block.mLayout);
+                when(block.mLayout.getLineWidth(0)).thenReturn(mMaxTextWidth);
+                when(block.mLayout.getHeight()).thenReturn(200);
+                if (mRtl)
+                {
+                    when(block.mLayout.getAlignment()).thenReturn(Layout.Alignment.ALIGN_OPPOSITE);
+                }
             }
         }
     }
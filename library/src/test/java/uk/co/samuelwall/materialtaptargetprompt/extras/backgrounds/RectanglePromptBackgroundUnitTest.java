@@ -36,6 +36,7 @@ import uk.co.samuelwall.materialtaptargetprompt.extras.TestPromptText;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -528,4 +529,25 @@ public class RectanglePromptBackgroundUnitTest
         assertTrue(promptBackground.contains(180, 336));
         assertFalse(promptBackground.contains(600, 22));
     }
+
+    @Test
+    public void testRectanglePromptBackground_Path()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, focalBounds);
+        final RectanglePromptBackground promptBackground = (RectanglePromptBackground) options.getPromptBackground();
+        promptBackground.prepare(options, false, clipBounds);
+        final RectF bounds = new RectF();
+        promptBackground.getPath().computeBounds(bounds, true);
+        assertEquals(promptBackground.mBaseBounds, bounds);
+        promptBackground.update(options, 0.5f, 0.5f);
+        // The path is rebuilt at the current size so the corner radii aren't scaled
+        assertNull(promptBackground.getPathMatrix());
+        promptBackground.getPath().computeBounds(bounds, true);
+        assertEquals(promptBackground.mBounds.left, bounds.left, 1);
+        assertEquals(promptBackground.mBounds.top, bounds.top, 1);
+        assertEquals(promptBackground.mBounds.right, bounds.right, 1);
+        assertEquals(promptBackground.mBounds.bottom, bounds.bottom, 1);
+    }
 }
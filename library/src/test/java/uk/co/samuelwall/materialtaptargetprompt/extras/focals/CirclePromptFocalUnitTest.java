@@ -17,6 +17,7 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
 
 import android.graphics.Canvas;
+import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.os.Build;
@@ -127,4 +128,46 @@ public class CirclePromptFocalUnitTest
         promptFocal.setDrawRipple(false);
         promptFocal.draw(canvas);
     }
+
+    @Test
+    public void testCirclePromptFocal_CalculateAngleEdgePoint()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF targetBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, targetBounds);
+        final CirclePromptFocal promptFocal = (CirclePromptFocal) options.getPromptFocal();
+        promptFocal.prepare(options, options.getTargetView(), new int[]{0,0});
+        final PointF point = new PointF();
+        promptFocal.calculateAngleEdgePoint(0, 10, point);
+        assertEquals(1188, point.x, 0.001f);
+        assertEquals(1898, point.y, 0.001f);
+        assertEquals(point, promptFocal.calculateAngleEdgePoint(0, 10));
+        promptFocal.calculateAngleEdgePoint(90, 10, point);
+        assertEquals(1058, point.x, 0.001f);
+        assertEquals(2028, point.y, 0.001f);
+    }
+
+    @Test
+    public void testCirclePromptFocal_PathMatrix()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF targetBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, targetBounds);
+        final CirclePromptFocal promptFocal = (CirclePromptFocal) options.getPromptFocal();
+        promptFocal.prepare(options, options.getTargetView(), new int[]{0,0});
+        final RectF pathBounds = new RectF();
+        promptFocal.getBasePath().computeBounds(pathBounds, true);
+        assertEquals(promptFocal.getBounds(), pathBounds);
+        promptFocal.update(options, 0.5f, 0.5f);
+        final float[] point = new float[]{1118, 1898};
+        promptFocal.getPathMatrix().mapPoints(point);
+        assertEquals(1088, point[0], 0);
+        assertEquals(1898, point[1], 0);
+        // getPath returns the path at the current size
+        promptFocal.getPath().computeBounds(pathBounds, true);
+        assertEquals(1028, pathBounds.left, 1);
+        assertEquals(1868, pathBounds.top, 1);
+        assertEquals(1088, pathBounds.right, 1);
+        assertEquals(1928, pathBounds.bottom, 1);
+    }
 }
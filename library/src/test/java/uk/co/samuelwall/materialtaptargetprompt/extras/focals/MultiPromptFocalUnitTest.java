@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.os.Build;
+import android.text.Layout;
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class MultiPromptFocalUnitTest
+{
+    private PromptOptions createOptions(final MultiPromptFocal promptFocal)
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        options.load(-1);
+        options.setTarget(100, 100);
+        options.setPrimaryText("Primary Text");
+        options.setFocalRadius(10f);
+        options.setFocalPadding(20f);
+        options.setPromptFocal(promptFocal);
+        options.create();
+        return options;
+    }
+
+    @Test
+    public void testMultiPromptFocal()
+    {
+        final CirclePromptFocal primary = new CirclePromptFocal();
+        final CirclePromptFocal second = new CirclePromptFocal();
+        final RectanglePromptFocal third = new RectanglePromptFocal()
+                .setSize(new PointF(20, 20))
+                .setTargetPadding(0);
+        final MultiPromptFocal promptFocal = new MultiPromptFocal(primary)
+                .addFocal(second, 200, 200, null)
+                .addFocal(third, 400, 100, null);
+        final PromptOptions options = createOptions(promptFocal);
+        promptFocal.prepare(options, 100, 100);
+        promptFocal.update(options, 1, 1);
+        promptFocal.updateRipple(1, 1);
+        promptFocal.draw(mock(Canvas.class));
+
+        assertEquals(3, promptFocal.getFocalCount());
+        assertSame(primary, promptFocal.getFocal(0));
+        assertSame(second, promptFocal.getFocal(1));
+        assertSame(third, promptFocal.getFocal(2));
+        assertEquals(10f, second.mBaseRadius, 0);
+        assertEquals(90, promptFocal.getBounds().left, 0);
+        assertEquals(90, promptFocal.getBounds().top, 0);
+        assertEquals(410, promptFocal.getBounds().right, 0);
+        assertEquals(210, promptFocal.getBounds().bottom, 0);
+        assertFalse(promptFocal.getPath().isEmpty());
+
+        assertEquals(0, promptFocal.findFocalIndex(100, 100));
+        assertEquals(1, promptFocal.findFocalIndex(200, 200));
+        assertEquals(2, promptFocal.findFocalIndex(400, 100));
+        assertEquals(-1, promptFocal.findFocalIndex(300, 150));
+        assertTrue(promptFocal.contains(200, 200));
+        assertFalse(promptFocal.contains(300, 150));
+    }
+
+    @Test
+    public void testMultiPromptFocalLabel()
+    {
+        final MultiPromptFocal promptFocal = new MultiPromptFocal(new CirclePromptFocal())
+                .addFocal(new CirclePromptFocal(), 200, 200, "Label")
+                .addFocal(new CirclePromptFocal(), 300, 200, null);
+        final PromptOptions options = createOptions(promptFocal);
+        promptFocal.prepare(options, 100, 100);
+        promptFocal.update(options, 0.5f, 0.5f);
+        promptFocal.draw(mock(Canvas.class));
+        assertNotNull(promptFocal.mItems.get(0).mLabelLayout);
+        assertNull(promptFocal.mItems.get(1).mLabelLayout);
+        assertEquals(310, promptFocal.getBounds().right, 0);
+    }
+
+    @Test
+    public void testMultiPromptFocalLabelLayoutCached()
+    {
+        final MultiPromptFocal promptFocal = new MultiPromptFocal(new CirclePromptFocal())
+                .addFocal(new CirclePromptFocal(), 200, 200, "Label");
+        final PromptOptions options = createOptions(promptFocal);
+        options.getResourceFinder().getPromptParentView().layout(0, 0, 1080, 1920);
+        promptFocal.prepare(options, 100, 100);
+        final Layout labelLayout = promptFocal.mItems.get(0).mLabelLayout;
+        assertNotNull(labelLayout);
+
+        // Preparing again with the same width and style keeps the layout
+        promptFocal.prepare(options, 150, 100);
+        assertSame(labelLayout, promptFocal.mItems.get(0).mLabelLayout);
+
+        options.setSecondaryTextSize(40f);
+        promptFocal.prepare(options, 150, 100);
+        final Layout resizedLayout = promptFocal.mItems.get(0).mLabelLayout;
+        assertNotSame(labelLayout, resizedLayout);
+
+        options.setMaxTextWidth(100f);
+        promptFocal.prepare(options, 150, 100);
+        assertNotSame(resizedLayout, promptFocal.mItems.get(0).mLabelLayout);
+        assertEquals(100, promptFocal.mItems.get(0).mLabelLayout.getWidth());
+    }
+
+    @Test
+    public void testMultiPromptFocalUpdateColours()
+    {
+        final MultiPromptFocal promptFocal = new MultiPromptFocal(new CirclePromptFocal())
+                .addFocal(new CirclePromptFocal(), 200, 200, "Label");
+        final PromptOptions options = createOptions(promptFocal);
+        options.setSecondaryTextColour(Color.WHITE);
+        promptFocal.prepare(options, 100, 100);
+        promptFocal.update(options, 1, 0.5f);
+        final Layout labelLayout = promptFocal.mItems.get(0).mLabelLayout;
+        assertNotNull(labelLayout);
+
+        options.setSecondaryTextColour(Color.argb(200, 255, 0, 0));
+        options.applyColours();
+        // The labels are recoloured with the update alpha without being laid out again
+        assertSame(labelLayout, promptFocal.mItems.get(0).mLabelLayout);
+        assertSame(promptFocal.mLabelPaint, labelLayout.getPaint());
+        assertEquals(200, promptFocal.mBaseLabelAlpha);
+        assertEquals(Color.argb(100, 255, 0, 0), promptFocal.mLabelPaint.getColor());
+    }
+
+    @Test
+    public void testMultiPromptFocalRelease()
+    {
+        final OutlinePromptFocal primary = new OutlinePromptFocal();
+        final MultiPromptFocal promptFocal = new MultiPromptFocal(primary)
+                .addFocal(new CirclePromptFocal(), mock(View.class), "Label");
+        final PromptOptions options = createOptions(promptFocal);
+        promptFocal.prepare(options, 100, 100);
+        primary.mOutlineTarget = new WeakReference<>(mock(View.class));
+        assertNotNull(promptFocal.mItems.get(0).mTarget);
+        assertNotNull(promptFocal.mItems.get(0).mLabelLayout);
+
+        promptFocal.release();
+        assertNull(promptFocal.mItems.get(0).mTarget);
+        assertNull(promptFocal.mItems.get(0).mLabelLayout);
+        assertNull(primary.mOutlineTarget);
+    }
+
+    @Test
+    public void testMultiPromptFocalPointTargetPromptViewPosition()
+    {
+        final View target = mock(View.class);
+        doAnswer(invocation -> {
+            final int[] position = invocation.getArgument(0);
+            position[0] = 200;
+            position[1] = 300;
+            return null;
+        }).when(target).getLocationInWindow(any(int[].class));
+        final CirclePromptFocal primary = new CirclePromptFocal();
+        final MultiPromptFocal promptFocal = new MultiPromptFocal(primary)
+                .addFocal(new CirclePromptFocal(), target, null);
+        final PromptOptions options = createOptions(promptFocal);
+        promptFocal.prepare(options, new PromptGeometry.Input(new int[] { 50, 60 }, null,
+                new PointF(100, 100), false, new Rect(0, 0, 1080, 1920),
+                new Rect(0, 0, 1080, 1920)));
+
+        // The view target is positioned relative to the prompt view
+        assertEquals(150, promptFocal.mItems.get(0).mTargetLeft, 0);
+        assertEquals(240, promptFocal.mItems.get(0).mTargetTop, 0);
+
+        // The icon and text are positioned around the primary focal
+        assertSame(primary.getBounds(), promptFocal.getTargetBounds());
+        assertEquals(100, promptFocal.getTargetBounds().centerX(), 0);
+        assertEquals(100, promptFocal.getTargetBounds().centerY(), 0);
+        assertTrue(promptFocal.getBounds().contains(promptFocal.getTargetBounds()));
+    }
+}
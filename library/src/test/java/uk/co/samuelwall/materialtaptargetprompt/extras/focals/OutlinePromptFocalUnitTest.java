@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
+
+import android.os.Build;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class OutlinePromptFocalUnitTest
+{
+    private static PromptOptions createOptions(final OutlinePromptFocal promptFocal)
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        options.load(-1);
+        options.setTarget(500, 500);
+        options.setPrimaryText("Primary Text");
+        options.setPromptFocal(promptFocal);
+        options.create();
+        return options;
+    }
+
+    private static View createTarget(final int width, final int height)
+    {
+        final View target = mock(View.class);
+        doAnswer(invocation -> {
+            final int[] position = invocation.getArgument(0);
+            position[0] = 200;
+            position[1] = 300;
+            return null;
+        }).when(target).getLocationInWindow(any(int[].class));
+        when(target.getWidth()).thenReturn(width);
+        when(target.getHeight()).thenReturn(height);
+        return target;
+    }
+
+    @Test
+    public void testOutlinePromptFocal()
+    {
+        final OutlinePromptFocal promptFocal = new OutlinePromptFocal();
+        assertSame(promptFocal, promptFocal.setTargetPadding(10));
+        final PromptOptions options = createOptions(promptFocal);
+        final View target = createTarget(100, 40);
+        promptFocal.prepare(options, target, new int[] { 0, 0 });
+        assertSame(target, promptFocal.mOutlineTarget.get());
+        assertEquals(190, promptFocal.getBounds().left, 1);
+        assertEquals(290, promptFocal.getBounds().top, 1);
+        assertEquals(310, promptFocal.getBounds().right, 1);
+        assertEquals(350, promptFocal.getBounds().bottom, 1);
+        assertFalse(promptFocal.supportsGeometryInput());
+        assertTrue(promptFocal.isPreparedOnlyFromSnapshot());
+
+        // Centre the last shape on a point target
+        promptFocal.prepare(options, 500, 500);
+        assertEquals(440, promptFocal.getBounds().left, 1);
+        assertEquals(560, promptFocal.getBounds().right, 1);
+    }
+
+    @Test
+    public void testOutlinePromptFocal_CachedUntilResized()
+    {
+        final OutlinePromptFocal promptFocal = new OutlinePromptFocal();
+        final PromptOptions options = createOptions(promptFocal);
+        final View target = createTarget(100, 40);
+        promptFocal.prepare(options, target, new int[] { 0, 0 });
+        assertEquals(100, promptFocal.mSourceBounds.width(), 1);
+
+        promptFocal.mSourceBounds.setEmpty();
+        promptFocal.prepare(options, target, new int[] { 0, 0 });
+        assertEquals(0, promptFocal.mSourceBounds.width(), 0);
+
+        when(target.getWidth()).thenReturn(120);
+        promptFocal.prepare(options, target, new int[] { 0, 0 });
+        assertEquals(120, promptFocal.mSourceBounds.width(), 1);
+        assertEquals(320, promptFocal.getBounds().right, 1);
+    }
+
+    @Test
+    public void testOutlinePromptFocal_PointTarget()
+    {
+        final OutlinePromptFocal promptFocal = new OutlinePromptFocal();
+        promptFocal.setTargetPadding(10);
+        final PromptOptions options = createOptions(promptFocal);
+        options.setFocalRadius(40f);
+
+        // A rounded square the size of the focal radius diameter is used without a target view
+        promptFocal.prepare(options, 500, 500);
+        assertNull(promptFocal.mOutlineTarget);
+        assertEquals(450, promptFocal.getBounds().left, 1);
+        assertEquals(450, promptFocal.getBounds().top, 1);
+        assertEquals(550, promptFocal.getBounds().right, 1);
+        assertEquals(550, promptFocal.getBounds().bottom, 1);
+
+        options.setFocalRadius(50f);
+        promptFocal.prepare(options, 500, 500);
+        assertEquals(440, promptFocal.getBounds().left, 1);
+        assertEquals(560, promptFocal.getBounds().right, 1);
+    }
+
+    @Test
+    public void testOutlinePromptFocal_Release()
+    {
+        final OutlinePromptFocal promptFocal = new OutlinePromptFocal();
+        final PromptOptions options = createOptions(promptFocal);
+        promptFocal.prepare(options, createTarget(100, 40), new int[] { 0, 0 });
+        assertNotNull(promptFocal.mOutlineTarget);
+
+        promptFocal.release();
+        assertNull(promptFocal.mOutlineTarget);
+    }
+}
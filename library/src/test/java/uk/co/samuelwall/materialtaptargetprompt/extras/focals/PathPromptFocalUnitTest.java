@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Path;
+import android.graphics.PointF;
+import android.os.Build;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PathPromptFocalUnitTest
+{
+    private static Path createPath()
+    {
+        final Path path = new Path();
+        path.addRect(0, 0, 100, 50, Path.Direction.CW);
+        return path;
+    }
+
+    private static PromptOptions createOptions(final PathPromptFocal promptFocal)
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        options.load(-1);
+        options.setTarget(500, 500);
+        options.setPrimaryText("Primary Text");
+        options.setPromptFocal(promptFocal);
+        options.create();
+        return options;
+    }
+
+    @Test
+    public void testPathPromptFocal_Point()
+    {
+        final PathPromptFocal promptFocal = new PathPromptFocal(createPath());
+        final PromptOptions options = createOptions(promptFocal);
+        promptFocal.setColour(Color.GREEN);
+        promptFocal.prepare(options, 500, 500);
+        assertEquals(450, promptFocal.getBounds().left, 1);
+        assertEquals(475, promptFocal.getBounds().top, 1);
+        assertEquals(550, promptFocal.getBounds().right, 1);
+        assertEquals(525, promptFocal.getBounds().bottom, 1);
+        assertSame(promptFocal.mPath, promptFocal.getBasePath());
+
+        promptFocal.update(options, 0, 0);
+        assertFalse(promptFocal.contains(500, 500));
+        promptFocal.update(options, 1, 1);
+        promptFocal.updateRipple(1.5f, 1);
+        promptFocal.draw(mock(Canvas.class));
+        assertEquals(promptFocal.getBounds(), promptFocal.mBounds);
+        assertTrue(promptFocal.getPathMatrix().isIdentity());
+        assertFalse(promptFocal.contains(600, 500));
+    }
+
+    @Test
+    public void testPathPromptFocal_View()
+    {
+        final PathPromptFocal promptFocal = new PathPromptFocal(createPath())
+                .setTargetPadding(10);
+        final PromptOptions options = createOptions(promptFocal);
+        final View target = mock(View.class);
+        doAnswer(invocation -> {
+            final int[] position = invocation.getArgument(0);
+            position[0] = 200;
+            position[1] = 300;
+            return null;
+        }).when(target).getLocationInWindow(any(int[].class));
+        when(target.getWidth()).thenReturn(100);
+        when(target.getHeight()).thenReturn(50);
+        promptFocal.prepare(options, target, new int[] { 0, 100 });
+        assertEquals(190, promptFocal.getBounds().left, 1);
+        assertEquals(190, promptFocal.getBounds().top, 1);
+        assertEquals(310, promptFocal.getBounds().right, 1);
+        assertEquals(260, promptFocal.getBounds().bottom, 1);
+    }
+
+    @Test
+    public void testPathPromptFocal_CalculateAngleEdgePoint()
+    {
+        final PathPromptFocal promptFocal = new PathPromptFocal(createPath());
+        final PromptOptions options = createOptions(promptFocal);
+        promptFocal.prepare(options, 500, 500);
+        assertEquals(PathPromptFocal.OUTLINE_SAMPLES * 2, promptFocal.mOutlineLength);
+        final PointF point = new PointF();
+        promptFocal.calculateAngleEdgePoint(0, 20, point);
+        assertEquals(560, point.x, 1);
+        promptFocal.calculateAngleEdgePoint(90, 20, point);
+        assertEquals(535, point.y, 1);
+        promptFocal.calculateAngleEdgePoint(180, 0, point);
+        assertEquals(450, point.x, 1);
+        assertEquals(point, promptFocal.calculateAngleEdgePoint(180, 0));
+    }
+
+    @Test
+    public void testPathPromptFocal_PreparedOnce()
+    {
+        final PathPromptFocal promptFocal = new PathPromptFocal(createPath());
+        final PromptOptions options = createOptions(promptFocal);
+        promptFocal.prepare(options, 500, 500);
+        final float[] outline = promptFocal.mOutline;
+        promptFocal.mOutlineLength = 0;
+        promptFocal.prepare(options, 500, 500);
+        assertEquals(0, promptFocal.mOutlineLength);
+        promptFocal.prepare(options, 600, 500);
+        assertEquals(PathPromptFocal.OUTLINE_SAMPLES * 2, promptFocal.mOutlineLength);
+        assertSame(outline, promptFocal.mOutline);
+
+        final Path path = createPath();
+        path.addRect(200, 0, 300, 50, Path.Direction.CW);
+        promptFocal.setPath(path);
+        promptFocal.prepare(options, 600, 500);
+        assertEquals(PathPromptFocal.OUTLINE_SAMPLES * 4, promptFocal.mOutlineLength);
+        assertNotSame(outline, promptFocal.mOutline);
+        assertEquals(450, promptFocal.getBounds().left, 1);
+        assertEquals(750, promptFocal.getBounds().right, 1);
+    }
+}
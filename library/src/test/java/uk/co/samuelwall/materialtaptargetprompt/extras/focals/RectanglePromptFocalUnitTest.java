@@ -186,6 +186,22 @@ public class RectanglePromptFocalUnitTest
         }
     }
 
+    @Test
+    public void testRectanglePromptFocal_CalculateAngleEdgePoint()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF targetBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, targetBounds);
+        final RectanglePromptFocal promptFocal = (RectanglePromptFocal) options.getPromptFocal();
+        promptFocal.prepare(options, options.getTargetView(), new int[]{0,0});
+        final RectF bounds = promptFocal.getBounds();
+        final PointF point = new PointF();
+        promptFocal.calculateAngleEdgePoint(45, 10, point);
+        assertEquals(bounds.centerX() + ((bounds.width() + 10) / 2), point.x, 0.001f);
+        assertEquals(bounds.centerY() + ((bounds.height() + 10) / 2), point.y, 0.001f);
+        assertEquals(point, promptFocal.calculateAngleEdgePoint(45, 10));
+    }
+
     @Test
     public void testRectanglePromptFocal_Size()
     {
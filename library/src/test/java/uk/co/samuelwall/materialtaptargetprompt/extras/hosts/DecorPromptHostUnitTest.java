@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.hosts;
+
+import android.app.Activity;
+import android.os.Build;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
+import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class DecorPromptHostUnitTest
+{
+    @Test
+    public void testDefaultHost()
+    {
+        assertTrue(UnitTestUtils.createPromptOptions().getPromptHost() instanceof DecorPromptHost);
+    }
+
+    @Test
+    public void testAddRemove()
+    {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final FrameLayout parent = new FrameLayout(activity);
+        final View promptView = new MaterialTapTargetPrompt.PromptView(activity);
+        final DecorPromptHost host = new DecorPromptHost();
+        assertFalse(host.containsPromptView(parent, promptView));
+        host.addPromptView(parent, promptView);
+        assertSame(parent, promptView.getParent());
+        assertTrue(host.containsPromptView(parent, promptView));
+        host.removePromptView(parent, promptView);
+        assertNull(promptView.getParent());
+        assertFalse(host.containsPromptView(parent, promptView));
+        host.removePromptView(parent, promptView);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.hosts;
+
+import android.app.Activity;
+import android.os.Build;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class OverlayPromptHostUnitTest
+{
+    @Test
+    public void testAddRemove()
+    {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final FrameLayout parent = new FrameLayout(activity);
+        parent.layout(0, 0, 400, 800);
+        final View promptView = new MaterialTapTargetPrompt.PromptView(activity);
+        final OverlayPromptHost host = new OverlayPromptHost();
+        assertTrue(OverlayPromptHost.isSupported());
+        assertFalse(host.containsPromptView(parent, promptView));
+        host.addPromptView(parent, promptView);
+        assertNotNull(promptView.getParent());
+        assertTrue(host.containsPromptView(parent, promptView));
+        assertEquals(0, parent.getChildCount());
+        assertEquals(400, promptView.getWidth());
+        assertEquals(800, promptView.getHeight());
+        host.removePromptView(parent, promptView);
+        assertNull(promptView.getParent());
+        assertFalse(host.containsPromptView(parent, promptView));
+    }
+
+    @Test
+    public void testUpdateBounds()
+    {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final FrameLayout parent = new FrameLayout(activity);
+        parent.layout(0, 0, 400, 800);
+        final View promptView = new MaterialTapTargetPrompt.PromptView(activity);
+        final OverlayPromptHost host = new OverlayPromptHost();
+        host.addPromptView(parent, promptView);
+        parent.layout(0, 0, 800, 400);
+        host.updatePromptViewBounds(parent, promptView);
+        assertEquals(800, promptView.getWidth());
+        assertEquals(400, promptView.getHeight());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.hosts;
+
+import android.app.Activity;
+import android.os.Build;
+import android.view.MotionEvent;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class WindowPromptHostUnitTest
+{
+    private ViewGroup createParent(final int left, final int top, final int width,
+                                   final int height)
+    {
+        final ViewGroup parent = mock(ViewGroup.class);
+        doAnswer(invocation -> {
+            final int[] position = invocation.getArgument(0);
+            position[0] = left;
+            position[1] = top;
+            return null;
+        }).when(parent).getLocationOnScreen(any(int[].class));
+        doAnswer(invocation -> {
+            final int[] position = invocation.getArgument(0);
+            position[0] = left;
+            position[1] = top;
+            return null;
+        }).when(parent).getLocationInWindow(any(int[].class));
+        when(parent.getWidth()).thenReturn(width);
+        when(parent.getHeight()).thenReturn(height);
+        return parent;
+    }
+
+    @Test
+    public void testUpdateLayoutParams()
+    {
+        final WindowPromptHost host = new WindowPromptHost();
+        final WindowManager.LayoutParams params = new WindowManager.LayoutParams();
+        assertTrue(host.updateLayoutParams(createParent(10, 20, 300, 400), params));
+        assertEquals(10, params.x);
+        assertEquals(20, params.y);
+        assertEquals(300, params.width);
+        assertEquals(400, params.height);
+        assertFalse(host.updateLayoutParams(createParent(10, 20, 300, 400), params));
+        assertTrue(host.updateLayoutParams(createParent(10, 20, 400, 300), params));
+    }
+
+    @Test
+    public void testLocationInWindow()
+    {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final WindowPromptHost host = new WindowPromptHost();
+        final int[] location = new int[2];
+        host.getLocationInWindow(createParent(30, 40, 300, 400),
+                new MaterialTapTargetPrompt.PromptView(activity), location);
+        assertEquals(30, location[0]);
+        assertEquals(40, location[1]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddPromptViewNotAttached()
+    {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final ViewGroup parent = createParent(0, 0, 300, 400);
+        when(parent.getWindowToken()).thenReturn(null);
+        new WindowPromptHost().addPromptView(parent,
+                new MaterialTapTargetPrompt.PromptView(activity));
+    }
+
+    @Test
+    public void testContainsPromptView()
+    {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final FrameLayout parent = new FrameLayout(activity);
+        final WindowPromptHost host = new WindowPromptHost();
+        final MaterialTapTargetPrompt.PromptView promptView =
+                new MaterialTapTargetPrompt.PromptView(activity);
+        assertFalse(host.containsPromptView(parent, promptView));
+        // Prompts added by other hosts are tracked by the prompt instead of the host
+        parent.addView(new MaterialTapTargetPrompt.PromptView(activity));
+        assertFalse(host.containsPromptView(parent, promptView));
+        parent.addView(promptView);
+        assertTrue(host.containsPromptView(parent, promptView));
+    }
+
+    @Test
+    public void testDispatchUnhandledTouchEvent()
+    {
+        final ViewGroup parent = createParent(0, 0, 300, 400);
+        final MotionEvent event = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 10, 10, 0);
+        when(parent.dispatchTouchEvent(event)).thenReturn(true);
+        assertTrue(new WindowPromptHost().dispatchUnhandledTouchEvent(parent, event));
+        verify(parent).dispatchTouchEvent(event);
+        assertFalse(new DecorPromptHost().dispatchUnhandledTouchEvent(parent, event));
+    }
+}